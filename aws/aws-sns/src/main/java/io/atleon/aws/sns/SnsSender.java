@@ -46,7 +46,9 @@ public final class SnsSender implements Closeable {
     private SnsSender(SnsSenderOptions options) {
         this.futureClient = Mono.fromSupplier(options::createClient)
             .cacheInvalidateWhen(client -> closeSink.asFlux().next().then(), SnsAsyncClient::close);
-        this.batcher = Batcher.create(options.batchSize(), options.batchDuration(), options.batchPrefetch());
+        this.batcher = options.adaptiveBatching()
+            ? Batcher.adaptive(options.batchSize(), options.batchDuration(), options.batchPrefetch())
+            : Batcher.create(options.batchSize(), options.batchDuration(), options.batchPrefetch());
         this.maxRequestsInFlight = options.maxRequestsInFlight();
     }
 
@@ -18,6 +18,8 @@ public final class SnsSenderOptions {
 
     public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 1;
 
+    public static final boolean DEFAULT_ADAPTIVE_BATCHING = false;
+
     private final Supplier<SnsAsyncClient> clientSupplier;
 
     private final int batchSize;
@@ -28,18 +30,22 @@ public final class SnsSenderOptions {
 
     private final int maxRequestsInFlight;
 
+    private final boolean adaptiveBatching;
+
     private SnsSenderOptions(
         Supplier<SnsAsyncClient> clientSupplier,
         int batchSize,
         Duration batchDuration,
         int batchPrefetch,
-        int maxRequestsInFlight
+        int maxRequestsInFlight,
+        boolean adaptiveBatching
     ) {
         this.clientSupplier = clientSupplier;
         this.batchSize = batchSize;
         this.batchDuration = batchDuration;
         this.batchPrefetch = batchPrefetch;
         this.maxRequestsInFlight = maxRequestsInFlight;
+        this.adaptiveBatching = adaptiveBatching;
     }
 
     /**
@@ -106,6 +112,18 @@ public final class SnsSenderOptions {
         return maxRequestsInFlight;
     }
 
+    /**
+     * Whether batching adapts to observed load and request latency. When enabled,
+     * {@link #batchSize()}, {@link #batchDuration()}, and {@link #maxRequestsInFlight()} are
+     * treated as upper bounds: Batch size grows while batches are being filled and request
+     * latency stays flat, batch duration shrinks when traffic is too sparse to fill batches, and
+     * the number of requests in flight grows while batches are waiting on in-flight requests and
+     * latency stays flat.
+     */
+    public boolean adaptiveBatching() {
+        return adaptiveBatching;
+    }
+
     /**
      * A mutable builder used to construct new instances of {@link SnsSenderOptions}.
      */
@@ -121,6 +139,8 @@ public final class SnsSenderOptions {
 
         private int maxRequestsInFlight = DEFAULT_MAX_REQUESTS_IN_FLIGHT;
 
+        private boolean adaptiveBatching = DEFAULT_ADAPTIVE_BATCHING;
+
         private Builder(Supplier<SnsAsyncClient> clientSupplier) {
             this.clientSupplier = clientSupplier;
         }
@@ -129,7 +149,14 @@ public final class SnsSenderOptions {
          * Build a new instance of {@link SnsSenderOptions} from the currently set properties.
          */
         public SnsSenderOptions build() {
-            return new SnsSenderOptions(clientSupplier, batchSize, batchDuration, batchPrefetch, maxRequestsInFlight);
+            return new SnsSenderOptions(
+                clientSupplier,
+                batchSize,
+                batchDuration,
+                batchPrefetch,
+                maxRequestsInFlight,
+                adaptiveBatching
+            );
         }
 
         /**
@@ -172,5 +199,18 @@ public final class SnsSenderOptions {
             this.maxRequestsInFlight = maxRequestsInFlight;
             return this;
         }
+
+        /**
+         * Whether batching adapts to observed load and request latency. When enabled,
+         * {@link #batchSize(int)}, {@link #batchDuration(Duration)}, and
+         * {@link #maxRequestsInFlight(int)} are treated as upper bounds: Batch size grows while
+         * batches are being filled and request latency stays flat, batch duration shrinks when
+         * traffic is too sparse to fill batches, and the number of requests in flight grows while
+         * batches are waiting on in-flight requests and latency stays flat.
+         */
+        public Builder adaptiveBatching(boolean adaptiveBatching) {
+            this.adaptiveBatching = adaptiveBatching;
+            return this;
+        }
     }
 }
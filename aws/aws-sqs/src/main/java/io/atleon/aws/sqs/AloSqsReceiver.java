@@ -1,9 +1,11 @@
 package io.atleon.aws.sqs;
 
 import io.atleon.core.Alo;
+import io.atleon.core.AloComponentExtractor;
 import io.atleon.core.AloFactory;
 import io.atleon.core.AloFactoryConfig;
 import io.atleon.core.AloFlux;
+import io.atleon.core.AloQueueingTransformer;
 import io.atleon.core.AloSignalListenerFactory;
 import io.atleon.core.AloSignalListenerFactoryConfig;
 import io.atleon.core.ErrorEmitter;
@@ -107,6 +109,34 @@ public class AloSqsReceiver<T> {
      */
     public static final String MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG = CONFIG_PREFIX + "max.in.flight.per.subscription";
 
+    /**
+     * For each subscription to SQS Messages, this optionally bounds the total size (in UTF-8
+     * bytes of Message bodies) of non-acknowledged (and non-nacknowledged) Messages. This is
+     * helpful in keeping memory usage predictable when Message sizes vary widely, while still
+     * allowing deep pipelining of small Messages. Unbounded by default.
+     */
+    public static final String MAX_IN_FLIGHT_BYTES_CONFIG = CONFIG_PREFIX + "max.in.flight.bytes";
+
+    /**
+     * For each subscription to SQS Messages, this optionally enables adaptive limiting of the
+     * number of non-acknowledged (and non-nacknowledged) Messages when configured below
+     * {@link #MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG}. The limit starts at this value and adapts
+     * between it and the max based on the latency with which Messages are acknowledged,
+     * increasing while that latency is stable and decreasing when it grows. Disabled by default.
+     */
+    public static final String MIN_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG = CONFIG_PREFIX + "min.in.flight.per.subscription";
+
+    /**
+     * Optionally configures a deadline within which each emitted Message must be acknowledged or
+     * nacknowledged. Messages that are still in flight when their deadline elapses are
+     * nacknowledged with an {@link io.atleon.core.AcknowledgementDeadlineExceededException},
+     * which is handled by the configured {@link #NACKNOWLEDGER_TYPE_CONFIG}. This keeps a lost or
+     * mishandled Message from indefinitely holding in-flight capacity, and should typically be
+     * shorter than {@link #VISIBILITY_TIMEOUT_SECONDS_CONFIG}. Specified as ISO-8601 Duration,
+     * e.g. PT5M. Disabled by default.
+     */
+    public static final String ACKNOWLEDGEMENT_DEADLINE_CONFIG = CONFIG_PREFIX + "ack.deadline";
+
     /**
      * The max number of Messages to delete in each SQS batch delete request. Batching is
      * effectively disabled when this value {@literal <=} 1.  When batching is enabled (batch size
@@ -191,7 +221,7 @@ public class AloSqsReceiver<T> {
             AloFactory<ReceivedSqsMessage<T>> aloFactory = loadAloFactory(queueUrl);
             ErrorEmitter<Alo<ReceivedSqsMessage<T>>> errorEmitter = newErrorEmitter();
             return newReceiver().receiveManual(queueUrl)
-                .map(message -> deserialize(message, aloFactory, errorEmitter::safelyEmit))
+                .transform(messages -> toAloMessages(messages, aloFactory, errorEmitter::safelyEmit))
                 .transform(errorEmitter::applyTo)
                 .transform(aloMessages -> applySignalListenerFactories(aloMessages, queueUrl));
         }
@@ -216,6 +246,8 @@ public class AloSqsReceiver<T> {
                 .waitTimeSecondsPerReception(config.loadInt(WAIT_TIME_SECONDS_PER_RECEPTION_CONFIG).orElse(SqsReceiverOptions.DEFAULT_WAIT_TIME_SECONDS_PER_RECEPTION))
                 .visibilityTimeoutSeconds(config.loadInt(VISIBILITY_TIMEOUT_SECONDS_CONFIG).orElse(SqsReceiverOptions.DEFAULT_VISIBILITY_TIMEOUT_SECONDS))
                 .maxInFlightPerSubscription(config.loadInt(MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG).orElse(SqsReceiverOptions.DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIPTION))
+                .maxInFlightBytesPerSubscription(config.loadLong(MAX_IN_FLIGHT_BYTES_CONFIG).orElse(SqsReceiverOptions.DEFAULT_MAX_IN_FLIGHT_BYTES_PER_SUBSCRIPTION))
+                .minInFlightPerSubscription(config.loadInt(MIN_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG).orElse(Integer.MAX_VALUE))
                 .deleteBatchSize(config.loadInt(DELETE_BATCH_SIZE_CONFIG).orElse(SqsReceiverOptions.DEFAULT_DELETE_BATCH_SIZE))
                 .deleteInterval(config.loadDuration(DELETE_BATCH_INTERVAL_CONFIG).orElse(SqsReceiverOptions.DEFAULT_DELETE_INTERVAL))
                 .closeTimeout(config.loadDuration(CLOSE_TIMEOUT_CONFIG).orElse(SqsReceiverOptions.DEFAULT_CLOSE_TIMEOUT))
@@ -236,6 +268,35 @@ public class AloSqsReceiver<T> {
             return aloMessages;
         }
 
+        private Flux<Alo<ReceivedSqsMessage<T>>> toAloMessages(
+            Flux<SqsReceiverMessage> messages,
+            AloFactory<ReceivedSqsMessage<T>> aloFactory,
+            Consumer<Throwable> errorEmitter
+        ) {
+            Optional<Duration> acknowledgementDeadline = config.loadDuration(ACKNOWLEDGEMENT_DEADLINE_CONFIG);
+            if (acknowledgementDeadline.isPresent()) {
+                return messages.map(message -> new DeserializedMessage<>(message, DeserializedSqsMessage.deserialize(message, bodyDeserializer)))
+                    .transform(newAloQueueingTransformer(aloFactory, errorEmitter)
+                        .withAcknowledgementDeadline(acknowledgementDeadline.get()));
+            } else {
+                return messages.map(message -> deserialize(message, aloFactory, errorEmitter));
+            }
+        }
+
+        private AloQueueingTransformer<DeserializedMessage<T>, ReceivedSqsMessage<T>> newAloQueueingTransformer(
+            AloFactory<ReceivedSqsMessage<T>> aloFactory,
+            Consumer<Throwable> errorEmitter
+        ) {
+            AloComponentExtractor<DeserializedMessage<T>, ReceivedSqsMessage<T>> componentExtractor = AloComponentExtractor.composed(
+                it -> it.receiverMessage.deleter(),
+                it -> nacknowledgerFactory.create(it.message, it.receiverMessage.deleter(), it.receiverMessage.visibilityChanger(), errorEmitter),
+                it -> it.message
+            );
+            return AloQueueingTransformer.create(componentExtractor)
+                .withAcknowledgementOrdering(AloQueueingTransformer.AcknowledgementOrdering.UNORDERED)
+                .withFactory(aloFactory);
+        }
+
         private Alo<ReceivedSqsMessage<T>> deserialize(
             SqsReceiverMessage message,
             AloFactory<ReceivedSqsMessage<T>> aloFactory,
@@ -270,4 +331,16 @@ public class AloSqsReceiver<T> {
             }
         }
     }
+
+    private static final class DeserializedMessage<T> {
+
+        private final SqsReceiverMessage receiverMessage;
+
+        private final ReceivedSqsMessage<T> message;
+
+        public DeserializedMessage(SqsReceiverMessage receiverMessage, ReceivedSqsMessage<T> message) {
+            this.receiverMessage = receiverMessage;
+            this.message = message;
+        }
+    }
 }
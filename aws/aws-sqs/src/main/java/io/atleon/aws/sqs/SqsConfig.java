@@ -68,4 +68,8 @@ public class SqsConfig {
     public Optional<Integer> loadInt(String key) {
         return ConfigLoading.loadInt(properties, key);
     }
+
+    public Optional<Long> loadLong(String key) {
+        return ConfigLoading.loadLong(properties, key);
+    }
 }
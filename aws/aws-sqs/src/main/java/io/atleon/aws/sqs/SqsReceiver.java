@@ -1,5 +1,6 @@
 package io.atleon.aws.sqs;
 
+import io.atleon.core.AdaptiveInFlightLimit;
 import io.atleon.core.ReactivePhaser;
 import io.atleon.core.SerialQueue;
 import org.reactivestreams.Subscriber;
@@ -26,6 +27,7 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -102,8 +104,13 @@ public final class SqsReceiver {
         // Receipt handles that have been emitted, but not finished processing
         private final Set<String> inProcessReceiptHandles = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
-        // Receipt handles that have been emitted, but not deleted nor had their visibility reset
-        private final Set<String> inFlightReceiptHandles = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        // Receipt handles (mapped to body sizes) that have been emitted, but not deleted nor had their visibility reset
+        private final Map<String, Integer> inFlightReceiptHandles = new ConcurrentHashMap<>();
+
+        private final AtomicLong inFlightBytes = new AtomicLong(0);
+
+        // Null unless the max number of in-flight Messages is adaptive
+        private final AdaptiveInFlightLimit adaptiveInFlightLimit = newAdaptiveInFlightLimit();
 
         private final Sinks.Many<String> receiptHandlesToDelete = Sinks.unsafe().many().unicast().onBackpressureError();
 
@@ -166,7 +173,14 @@ public final class SqsReceiver {
         }
 
         private int calculateMaxNumberOfMessagesToRequest() {
-            int remainingInFlightCapacity = options.maxInFlightPerSubscription() - inFlightReceiptHandles.size();
+            if (inFlightBytes.get() >= options.maxInFlightBytesPerSubscription()) {
+                return 0;
+            }
+            long maxInFlight = adaptiveInFlightLimit == null ? options.maxInFlightPerSubscription() : adaptiveInFlightLimit.get();
+            long remainingInFlightCapacity = maxInFlight - inFlightReceiptHandles.size();
+            if (adaptiveInFlightLimit != null && remainingInFlightCapacity <= 0 && requestOutstanding.get() > 0) {
+                adaptiveInFlightLimit.markSaturated();
+            }
             int maxNumberOfMessagesToEmit = (int) Math.min(requestOutstanding.get(), remainingInFlightCapacity);
             return Math.min(options.maxMessagesPerReception(), maxNumberOfMessagesToEmit);
         }
@@ -184,9 +198,11 @@ public final class SqsReceiver {
 
         private void emit(Message message) {
             String receiptHandle = message.receiptHandle();
+            long receivedNanos = adaptiveInFlightLimit == null ? 0L : System.nanoTime();
             Runnable deleter = () -> {
                 if (executionPhaser.register() == 0 && !done.get() && inProcessReceiptHandles.remove(receiptHandle)) {
                     receiptHandlesToDeleteQueue.addAndDrain(receiptHandle);
+                    maybeAdaptInFlightLimit(receivedNanos);
                 }
                 executionPhaser.arriveAndDeregister();
             };
@@ -202,7 +218,9 @@ public final class SqsReceiver {
                 executionPhaser.arriveAndDeregister();
             };
 
-            inFlightReceiptHandles.add(receiptHandle);
+            int size = calculateUtf8Size(message.body());
+            inFlightReceiptHandles.put(receiptHandle, size);
+            inFlightBytes.addAndGet(size);
             inProcessReceiptHandles.add(receiptHandle);
             doNext(SqsReceiverMessage.create(message, deleter, visibilityChanger));
         }
@@ -223,7 +241,7 @@ public final class SqsReceiver {
         private void handleMessagesDeleted(DeleteMessageBatchResponse response, Collection<String> receiptHandles) {
             if (response.hasFailed()) {
                 doError(new BatchRequestFailedException("DeleteMessage", response.failed()));
-            } else if (inFlightReceiptHandles.removeAll(receiptHandles)) {
+            } else if (markNotInFlight(receiptHandles)) {
                 maybeScheduleMessageReception();
             }
         }
@@ -273,11 +291,35 @@ public final class SqsReceiver {
         ) {
             if (response.hasFailed()) {
                 doError(new BatchRequestFailedException("ChangeMessageVisibility", response.failed()));
-            } else if (inFlightReceiptHandles.removeAll(receiptHandlesNoLongerInFlight)) {
+            } else if (markNotInFlight(receiptHandlesNoLongerInFlight)) {
                 maybeScheduleMessageReception();
             }
         }
 
+        private void maybeAdaptInFlightLimit(long receivedNanos) {
+            if (adaptiveInFlightLimit != null && adaptiveInFlightLimit.sample(System.nanoTime() - receivedNanos) > 0L) {
+                maybeScheduleMessageReception();
+            }
+        }
+
+        private AdaptiveInFlightLimit newAdaptiveInFlightLimit() {
+            return options.minInFlightPerSubscription() < options.maxInFlightPerSubscription()
+                ? AdaptiveInFlightLimit.create(options.minInFlightPerSubscription(), options.maxInFlightPerSubscription())
+                : null;
+        }
+
+        private boolean markNotInFlight(Collection<String> receiptHandles) {
+            boolean anyRemoved = false;
+            for (String receiptHandle : receiptHandles) {
+                Integer size = inFlightReceiptHandles.remove(receiptHandle);
+                if (size != null) {
+                    inFlightBytes.addAndGet(-size);
+                    anyRemoved = true;
+                }
+            }
+            return anyRemoved;
+        }
+
         private <T, V> Mono<V> maybeExecute(
             BiFunction<SqsAsyncClient, T, CompletableFuture<V>> method,
             T request,
@@ -317,5 +359,23 @@ public final class SqsReceiver {
         private String newReceiptHandleId() {
             return UUID.randomUUID().toString();
         }
+
+        private int calculateUtf8Size(String body) {
+            int size = 0;
+            for (int i = 0; i < body.length(); i++) {
+                char c = body.charAt(i);
+                if (c < 0x80) {
+                    size += 1;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    size += 4;
+                    i++;
+                } else {
+                    size += 3;
+                }
+            }
+            return size;
+        }
     }
 }
@@ -20,6 +20,8 @@ public final class SqsReceiverOptions {
 
     public static final int DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIPTION = 4096;
 
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES_PER_SUBSCRIPTION = Long.MAX_VALUE;
+
     public static final int DEFAULT_DELETE_BATCH_SIZE = 10;
 
     public static final Duration DEFAULT_DELETE_INTERVAL = Duration.ofSeconds(1);
@@ -40,6 +42,10 @@ public final class SqsReceiverOptions {
 
     private final int maxInFlightPerSubscription;
 
+    private final long maxInFlightBytesPerSubscription;
+
+    private final int minInFlightPerSubscription;
+
     private final int deleteBatchSize;
 
     private final Duration deleteInterval;
@@ -54,6 +60,8 @@ public final class SqsReceiverOptions {
         int waitTimeSecondsPerReception,
         int visibilityTimeoutSeconds,
         int maxInFlightPerSubscription,
+        long maxInFlightBytesPerSubscription,
+        int minInFlightPerSubscription,
         int deleteBatchSize,
         Duration deleteInterval,
         Duration closeTimeout
@@ -65,6 +73,8 @@ public final class SqsReceiverOptions {
         this.waitTimeSecondsPerReception = waitTimeSecondsPerReception;
         this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
         this.maxInFlightPerSubscription = maxInFlightPerSubscription;
+        this.maxInFlightBytesPerSubscription = maxInFlightBytesPerSubscription;
+        this.minInFlightPerSubscription = minInFlightPerSubscription;
         this.deleteBatchSize = deleteBatchSize;
         this.deleteInterval = deleteInterval;
         this.closeTimeout = closeTimeout;
@@ -150,6 +160,26 @@ public final class SqsReceiverOptions {
         return maxInFlightPerSubscription;
     }
 
+    /**
+     * The maximum total size (in UTF-8 bytes of Message bodies) of Messages that haven't been
+     * deleted or marked as no longer in flight per subscription. Since the size of Messages is not
+     * known until they are received, this may be exceeded by the size of at most one Receive
+     * Message Request's worth of Messages.
+     */
+    public long maxInFlightBytesPerSubscription() {
+        return maxInFlightBytesPerSubscription;
+    }
+
+    /**
+     * When less than {@link #maxInFlightPerSubscription()}, the maximum number of Messages in
+     * flight per subscription is adaptive, starting at this value and adapting between it and
+     * {@link #maxInFlightPerSubscription()} based on the latency with which Messages are
+     * acknowledged.
+     */
+    public int minInFlightPerSubscription() {
+        return minInFlightPerSubscription;
+    }
+
     /**
      * When deleting messages from SQS, this configures the batching size. A batch size
      * {@literal <=} 1 effectively disables batching such that each Message is deleted in its own
@@ -197,6 +227,10 @@ public final class SqsReceiverOptions {
 
         private int maxInFlightPerSubscription = DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIPTION;
 
+        private long maxInFlightBytesPerSubscription = DEFAULT_MAX_IN_FLIGHT_BYTES_PER_SUBSCRIPTION;
+
+        private int minInFlightPerSubscription = Integer.MAX_VALUE;
+
         private int deleteBatchSize = DEFAULT_DELETE_BATCH_SIZE;
 
         private Duration deleteInterval = DEFAULT_DELETE_INTERVAL;
@@ -219,6 +253,8 @@ public final class SqsReceiverOptions {
                 waitTimeSecondsPerReception,
                 visibilityTimeoutSeconds,
                 maxInFlightPerSubscription,
+                maxInFlightBytesPerSubscription,
+                minInFlightPerSubscription,
                 deleteBatchSize,
                 deleteInterval,
                 closeTimeout
@@ -285,6 +321,28 @@ public final class SqsReceiverOptions {
             return this;
         }
 
+        /**
+         * The maximum total size (in UTF-8 bytes of Message bodies) of Messages that haven't been
+         * deleted or marked as no longer in flight per subscription. Since the size of Messages
+         * is not known until they are received, this may be exceeded by the size of at most one
+         * Receive Message Request's worth of Messages.
+         */
+        public Builder maxInFlightBytesPerSubscription(long maxInFlightBytesPerSubscription) {
+            this.maxInFlightBytesPerSubscription = maxInFlightBytesPerSubscription;
+            return this;
+        }
+
+        /**
+         * When less than the maximum number of in-flight Messages per subscription, enables
+         * adaptive limiting of in-flight Messages, starting at this value and adapting between it
+         * and the maximum based on the latency with which Messages are acknowledged. Disabled by
+         * default.
+         */
+        public Builder minInFlightPerSubscription(int minInFlightPerSubscription) {
+            this.minInFlightPerSubscription = minInFlightPerSubscription;
+            return this;
+        }
+
         /**
          * When deleting messages from SQS, this configures the batching size. A batch size
          * {@literal <=} 1 effectively disables batching such that each Message is deleted in its
@@ -45,7 +45,9 @@ public final class SqsSender implements Closeable {
     private SqsSender(SqsSenderOptions options) {
         this.futureClient = Mono.fromSupplier(options::createClient)
             .cacheInvalidateWhen(client -> closeSink.asFlux().next().then(), SqsAsyncClient::close);
-        this.batcher = Batcher.create(options.batchSize(), options.batchDuration(), options.batchPrefetch());
+        this.batcher = options.adaptiveBatching()
+            ? Batcher.adaptive(options.batchSize(), options.batchDuration(), options.batchPrefetch())
+            : Batcher.create(options.batchSize(), options.batchDuration(), options.batchPrefetch());
         this.maxRequestsInFlight = options.maxRequestsInFlight();
     }
 
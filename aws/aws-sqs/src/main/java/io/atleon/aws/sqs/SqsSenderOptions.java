@@ -18,6 +18,8 @@ public final class SqsSenderOptions {
 
     public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 1;
 
+    public static final boolean DEFAULT_ADAPTIVE_BATCHING = false;
+
     private final Supplier<SqsAsyncClient> clientSupplier;
 
     private final int batchSize;
@@ -28,18 +30,22 @@ public final class SqsSenderOptions {
 
     private final int maxRequestsInFlight;
 
+    private final boolean adaptiveBatching;
+
     private SqsSenderOptions(
         Supplier<SqsAsyncClient> clientSupplier,
         int batchSize,
         Duration batchDuration,
         int batchPrefetch,
-        int maxRequestsInFlight
+        int maxRequestsInFlight,
+        boolean adaptiveBatching
     ) {
         this.clientSupplier = clientSupplier;
         this.batchSize = batchSize;
         this.batchDuration = batchDuration;
         this.batchPrefetch = batchPrefetch;
         this.maxRequestsInFlight = maxRequestsInFlight;
+        this.adaptiveBatching = adaptiveBatching;
     }
 
     /**
@@ -107,6 +113,18 @@ public final class SqsSenderOptions {
         return maxRequestsInFlight;
     }
 
+    /**
+     * Whether batching adapts to observed load and request latency. When enabled,
+     * {@link #batchSize()}, {@link #batchDuration()}, and {@link #maxRequestsInFlight()} are
+     * treated as upper bounds: Batch size grows while batches are being filled and request
+     * latency stays flat, batch duration shrinks when traffic is too sparse to fill batches, and
+     * the number of requests in flight grows while batches are waiting on in-flight requests and
+     * latency stays flat.
+     */
+    public boolean adaptiveBatching() {
+        return adaptiveBatching;
+    }
+
     /**
      * A mutable builder used to construct new instances of {@link SqsSenderOptions}.
      */
@@ -122,6 +140,8 @@ public final class SqsSenderOptions {
 
         private int maxRequestsInFlight = DEFAULT_MAX_REQUESTS_IN_FLIGHT;
 
+        private boolean adaptiveBatching = DEFAULT_ADAPTIVE_BATCHING;
+
         private Builder(Supplier<SqsAsyncClient> clientSupplier) {
             this.clientSupplier = clientSupplier;
         }
@@ -130,7 +150,14 @@ public final class SqsSenderOptions {
          * Build a new instance of {@link SqsSenderOptions} from the currently set properties.
          */
         public SqsSenderOptions build() {
-            return new SqsSenderOptions(clientSupplier, batchSize, batchDuration, batchPrefetch, maxRequestsInFlight);
+            return new SqsSenderOptions(
+                clientSupplier,
+                batchSize,
+                batchDuration,
+                batchPrefetch,
+                maxRequestsInFlight,
+                adaptiveBatching
+            );
         }
 
         /**
@@ -175,5 +202,18 @@ public final class SqsSenderOptions {
             this.maxRequestsInFlight = maxRequestsInFlight;
             return this;
         }
+
+        /**
+         * Whether batching adapts to observed load and request latency. When enabled,
+         * {@link #batchSize(int)}, {@link #batchDuration(Duration)}, and
+         * {@link #maxRequestsInFlight(int)} are treated as upper bounds: Batch size grows while
+         * batches are being filled and request latency stays flat, batch duration shrinks when
+         * traffic is too sparse to fill batches, and the number of requests in flight grows while
+         * batches are waiting on in-flight requests and latency stays flat.
+         */
+        public Builder adaptiveBatching(boolean adaptiveBatching) {
+            this.adaptiveBatching = adaptiveBatching;
+            return this;
+        }
     }
 }
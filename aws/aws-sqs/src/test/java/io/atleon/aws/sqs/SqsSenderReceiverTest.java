@@ -54,6 +54,35 @@ class SqsSenderReceiverTest extends LocalStackDependentTest {
         assertEquals(messageBodies, receivedBodies);
     }
 
+    @Test
+    public void manyMessagesCanBeSentWithAdaptiveBatchingAndReceived() {
+        SqsSenderOptions senderOptions = SqsSenderOptions.newBuilder(SqsSenderReceiverTest::createSqsClient)
+            .batchSize(10)
+            .batchDuration(Duration.ofMillis(100))
+            .maxRequestsInFlight(4)
+            .adaptiveBatching(true)
+            .build();
+        Set<String> messageBodies = IntStream.range(0, 50)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .collect(Collectors.toSet());
+
+        SqsSender adaptiveSender = SqsSender.create(senderOptions);
+        Flux.fromIterable(messageBodies)
+            .map(SqsSenderReceiverTest::toSenderMessage)
+            .transform(messages -> adaptiveSender.send(messages, queueUrl))
+            .then().block();
+        adaptiveSender.close();
+
+        Set<String> receivedBodies = SqsReceiver.create(newReceiverOptions()).receiveManual(queueUrl)
+            .doOnNext(SqsReceiverMessage::delete)
+            .map(SqsReceiverMessage::body)
+            .take(messageBodies.size())
+            .collect(Collectors.toSet())
+            .block();
+
+        assertEquals(messageBodies, receivedBodies);
+    }
+
     @Test
     public void nonDeletedMessagesAreReceivedAgain() {
         String messageBody = UUID.randomUUID().toString();
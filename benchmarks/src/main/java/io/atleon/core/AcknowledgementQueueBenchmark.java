@@ -0,0 +1,102 @@
+package io.atleon.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Measures enqueueing and completion of In-Flight Acknowledgements directly on
+ * {@link AcknowledgementQueue} implementations, isolated from any reactive machinery.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AcknowledgementQueueBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final Runnable NO_OP_ACKNOWLEDGER = () -> {};
+
+    private static final Consumer<Throwable> NO_OP_NACKNOWLEDGER = error -> {};
+
+    @Param({"ORDER_MANAGING", "RING", "UNORDERED"})
+    public QueueType queueType;
+
+    @Param({"IN_ORDER", "OUT_OF_ORDER"})
+    public CompletionOrder completionOrder;
+
+    @Param({"1", "4"})
+    public int acknowledgingThreads;
+
+    private final AcknowledgementQueue.InFlight[] inFlights = new AcknowledgementQueue.InFlight[BATCH_SIZE];
+
+    private final AtomicLong drained = new AtomicLong();
+
+    private AcknowledgementQueue queue;
+
+    private int[] completionIndices;
+
+    private ParallelCompletion parallelCompletion;
+
+    @Setup
+    public void setup() {
+        queue = queueType.create(BATCH_SIZE);
+        completionIndices = completionOrder.newIndices(BATCH_SIZE);
+        parallelCompletion = ParallelCompletion.create(acknowledgingThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelCompletion.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long addAndComplete() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            inFlights[i] = queue.add(NO_OP_ACKNOWLEDGER, NO_OP_NACKNOWLEDGER);
+        }
+        parallelCompletion.complete(completionIndices, index -> drained.addAndGet(queue.complete(inFlights[index])));
+        return drained.getAndSet(0L);
+    }
+
+    public enum QueueType {
+        ORDER_MANAGING {
+            @Override
+            AcknowledgementQueue create(int capacity) {
+                return OrderManagingAcknowledgementQueue.create();
+            }
+        },
+        RING {
+            @Override
+            AcknowledgementQueue create(int capacity) {
+                return RingAcknowledgementQueue.create(capacity);
+            }
+        },
+        UNORDERED {
+            @Override
+            AcknowledgementQueue create(int capacity) {
+                return UnorderedAcknowledgementQueue.create();
+            }
+        };
+
+        abstract AcknowledgementQueue create(int capacity);
+    }
+}
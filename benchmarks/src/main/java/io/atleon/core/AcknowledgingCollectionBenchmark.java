@@ -0,0 +1,82 @@
+package io.atleon.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures fan-out of an {@link Alo} Collection through {@link AcknowledgingCollection} and the
+ * subsequent acknowledgement of every fanned-out element. Each operation is one complete fan-out
+ * (of {@code size} elements) resulting in acknowledgement of the originating Alo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AcknowledgingCollectionBenchmark {
+
+    @Param({"16", "1024"})
+    public int size;
+
+    @Param({"IN_ORDER", "OUT_OF_ORDER"})
+    public CompletionOrder completionOrder;
+
+    @Param({"1", "4"})
+    public int acknowledgingThreads;
+
+    private final AtomicInteger acknowledgements = new AtomicInteger();
+
+    private Collection<Integer> values;
+
+    private List<Alo<Integer>> fannedOut;
+
+    private int[] completionIndices;
+
+    private ParallelCompletion parallelCompletion;
+
+    @Setup
+    public void setup() {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        this.values = values;
+        this.fannedOut = new ArrayList<>(size);
+        this.completionIndices = completionOrder.newIndices(size);
+        this.parallelCompletion = ParallelCompletion.create(acknowledgingThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelCompletion.close();
+    }
+
+    @Benchmark
+    public int fanOutAndAcknowledge() {
+        Alo<Collection<Integer>> aloCollection =
+            new ComposedAlo<>(values, acknowledgements::incrementAndGet, error -> {});
+
+        fannedOut.clear();
+        fannedOut.addAll(AcknowledgingCollection.fromNonEmptyAloCollection(aloCollection));
+        parallelCompletion.complete(completionIndices, index -> Alo.acknowledge(fannedOut.get(index)));
+
+        return acknowledgements.getAndSet(0);
+    }
+}
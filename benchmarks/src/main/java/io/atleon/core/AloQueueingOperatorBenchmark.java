@@ -0,0 +1,98 @@
+package io.atleon.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Measures the full acknowledgement hot path of {@link AloQueueingOperator}: extraction of Alo
+ * components, grouping, enqueueing, emission, and (possibly concurrent, possibly out-of-order)
+ * acknowledgement that drains queues and replenishes upstream demand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AloQueueingOperatorBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final Runnable NO_OP_ACKNOWLEDGER = () -> {};
+
+    private static final Consumer<Throwable> NO_OP_NACKNOWLEDGER = error -> {};
+
+    @Param({"1", "64"})
+    public int groups;
+
+    @Param({"LINKED", "RING"})
+    public AloQueueingTransformer.QueueStorage queueStorage;
+
+    @Param({"IN_ORDER", "OUT_OF_ORDER"})
+    public CompletionOrder completionOrder;
+
+    @Param({"1", "4"})
+    public int acknowledgingThreads;
+
+    private final Integer[] values = new Integer[BATCH_SIZE];
+
+    private final ManualPublisher<Integer> source = new ManualPublisher<>();
+
+    private final CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(BATCH_SIZE);
+
+    private int[] completionIndices;
+
+    private ParallelCompletion parallelCompletion;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            values[i] = i;
+        }
+
+        AloComponentExtractor<Integer, Integer> componentExtractor = AloComponentExtractor.composed(
+            __ -> NO_OP_ACKNOWLEDGER,
+            __ -> NO_OP_NACKNOWLEDGER,
+            Function.identity()
+        );
+        AloQueueingTransformer<Integer, Integer> transformer = AloQueueingTransformer.create(componentExtractor)
+            .withGroupExtractor(value -> value % groups)
+            .withQueueStorage(queueStorage)
+            .withMaxInFlight(BATCH_SIZE);
+        Flux.from(source).transform(transformer).subscribe(subscriber);
+
+        completionIndices = completionOrder.newIndices(BATCH_SIZE);
+        parallelCompletion = ParallelCompletion.create(acknowledgingThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelCompletion.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void emitAndAcknowledge() {
+        subscriber.reset();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            source.emit(values[i]);
+        }
+        parallelCompletion.complete(completionIndices, index -> Alo.acknowledge(subscriber.get(index)));
+    }
+}
@@ -0,0 +1,50 @@
+package io.atleon.core;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscriber with unbounded demand that collects emitted {@link Alo} elements in to a
+ * pre-allocated array, such that collection itself does not allocate.
+ *
+ * @param <T> The type of data items contained in received Alo elements
+ */
+final class CollectingSubscriber<T> implements Subscriber<Alo<T>> {
+
+    private final Alo<T>[] collected;
+
+    private int count = 0;
+
+    @SuppressWarnings("unchecked")
+    CollectingSubscriber(int capacity) {
+        this.collected = new Alo[capacity];
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        s.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(Alo<T> alo) {
+        collected[count++] = alo;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        throw new IllegalStateException("Benchmark source errored", t);
+    }
+
+    @Override
+    public void onComplete() {
+
+    }
+
+    public Alo<T> get(int index) {
+        return collected[index];
+    }
+
+    public void reset() {
+        count = 0;
+    }
+}
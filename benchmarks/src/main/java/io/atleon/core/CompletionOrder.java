@@ -0,0 +1,37 @@
+package io.atleon.core;
+
+import java.util.Random;
+
+/**
+ * The order in which emitted items are completed (acknowledged) relative to the order in which
+ * they were emitted.
+ */
+public enum CompletionOrder {
+    IN_ORDER {
+        @Override
+        int[] newIndices(int count) {
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = i;
+            }
+            return indices;
+        }
+    },
+    OUT_OF_ORDER {
+        @Override
+        int[] newIndices(int count) {
+            // Fixed seed such that every trial completes in the same (shuffled) order
+            int[] indices = IN_ORDER.newIndices(count);
+            Random random = new Random(count);
+            for (int i = count - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swapped = indices[i];
+                indices[i] = indices[j];
+                indices[j] = swapped;
+            }
+            return indices;
+        }
+    };
+
+    abstract int[] newIndices(int count);
+}
@@ -0,0 +1,37 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A minimal single-subscriber Publisher that emits items synchronously on the calling Thread. It
+ * is the responsibility of the caller to not emit more items than have been requested. This
+ * avoids measuring the overhead of any intermediate buffering or emission serialization.
+ *
+ * @param <T> The type of items emitted by this Publisher
+ */
+final class ManualPublisher<T> implements Publisher<T>, Subscription {
+
+    private Subscriber<? super T> subscriber;
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+        // Demand is managed by the caller
+    }
+
+    @Override
+    public void cancel() {
+        subscriber = null;
+    }
+
+    public void emit(T t) {
+        subscriber.onNext(t);
+    }
+}
@@ -0,0 +1,71 @@
+package io.atleon.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * Executes completion of indexed items across a fixed number of Threads, where the calling Thread
+ * is one of those Threads. Indices are interleaved across Threads such that completions on any
+ * given Thread are not contiguous, which more closely resembles acknowledgement from concurrent
+ * downstream processing.
+ */
+final class ParallelCompletion implements AutoCloseable {
+
+    private final int parallelism;
+
+    private final ExecutorService executorService;
+
+    private ParallelCompletion(int parallelism, ExecutorService executorService) {
+        this.parallelism = parallelism;
+        this.executorService = executorService;
+    }
+
+    public static ParallelCompletion create(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        return new ParallelCompletion(parallelism, parallelism == 1 ? null : Executors.newFixedThreadPool(parallelism - 1));
+    }
+
+    public void complete(int[] indices, IntConsumer completer) {
+        if (parallelism == 1) {
+            completeSlice(indices, 0, completer);
+            return;
+        }
+
+        CountDownLatch latch = new CountDownLatch(parallelism - 1);
+        for (int slice = 1; slice < parallelism; slice++) {
+            int sliceToComplete = slice;
+            executorService.execute(() -> {
+                try {
+                    completeSlice(indices, sliceToComplete, completer);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        completeSlice(indices, 0, completer);
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting parallel completion", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void completeSlice(int[] indices, int slice, IntConsumer completer) {
+        for (int i = slice; i < indices.length; i += parallelism) {
+            completer.accept(indices[i]);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.atleon.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fan-in of items through a {@link SerialQueue}, both uncontended and with multiple
+ * Threads concurrently adding (and possibly draining) items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialQueueBenchmark {
+
+    private static final Object ITEM = new Object();
+
+    private SerialQueue<Object> queue;
+
+    @Setup
+    public void setup() {
+        Sinks.Many<Object> sink = Sinks.many().unicast().onBackpressureBuffer();
+        sink.asFlux().subscribe();
+        queue = SerialQueue.onEmitNext(sink);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void addAndDrainUncontended() {
+        queue.addAndDrain(ITEM);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addAndDrainContended() {
+        queue.addAndDrain(ITEM);
+    }
+}
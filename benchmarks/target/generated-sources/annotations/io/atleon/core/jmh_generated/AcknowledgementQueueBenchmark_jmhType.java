@@ -0,0 +1,4 @@
+package io.atleon.core.jmh_generated;
+public class AcknowledgementQueueBenchmark_jmhType extends AcknowledgementQueueBenchmark_jmhType_B3 {
+}
+
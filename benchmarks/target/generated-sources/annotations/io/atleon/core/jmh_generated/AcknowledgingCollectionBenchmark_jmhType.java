@@ -0,0 +1,4 @@
+package io.atleon.core.jmh_generated;
+public class AcknowledgingCollectionBenchmark_jmhType extends AcknowledgingCollectionBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package io.atleon.core.jmh_generated;
+public class AloQueueingOperatorBenchmark_jmhType extends AloQueueingOperatorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package io.atleon.core.jmh_generated;
+public class SerialQueueBenchmark_jmhType extends SerialQueueBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,30 @@
+package io.atleon.core;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Error with which an emitted {@link Alo} is negatively acknowledged when it has been neither
+ * acknowledged nor nacknowledged within its configured deadline. Receivers' nacknowledgement
+ * strategies may distinguish such timeouts from processing errors by checking for this type.
+ */
+public final class AcknowledgementDeadlineExceededException extends TimeoutException {
+
+    private final Object group;
+
+    private final Duration deadline;
+
+    public AcknowledgementDeadlineExceededException(Object group, Duration deadline) {
+        super(String.format("Acknowledgement in group=%s was not completed within deadline=%s", group, deadline));
+        this.group = group;
+        this.deadline = deadline;
+    }
+
+    public Object getGroup() {
+        return group;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+}
@@ -1,8 +1,8 @@
 package io.atleon.core;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -13,32 +13,74 @@ import java.util.function.Function;
  */
 abstract class AcknowledgementQueue {
 
+    /**
+     * Time of addition for In-Flight Acknowledgements whose addition time is not needed. The age
+     * of such In-Flight Acknowledgements is measured from when they are first probed.
+     */
+    public static final long UNSTAMPED = Long.MIN_VALUE;
+
     private static final AtomicIntegerFieldUpdater<AcknowledgementQueue> DRAINS_IN_PROGRESS =
         AtomicIntegerFieldUpdater.newUpdater(AcknowledgementQueue.class, "drainsInProgress");
 
-    protected final Queue<InFlight> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicLongFieldUpdater<AcknowledgementQueue> DRAINED_WEIGHT =
+        AtomicLongFieldUpdater.newUpdater(AcknowledgementQueue.class, "drainedWeight");
+
+    private final boolean coalesceAcknowledgements;
 
     private volatile int drainsInProgress;
 
+    private volatile long drainedWeight;
+
+    /**
+     * @param coalesceAcknowledgements Whether positive Acknowledgement is cumulative, such that
+     *                                 when a contiguous run of positively completed In-Flight
+     *                                 Acknowledgements is drained, only the last Acknowledgement
+     *                                 in that run needs to be executed
+     */
+    protected AcknowledgementQueue(boolean coalesceAcknowledgements) {
+        this.coalesceAcknowledgements = coalesceAcknowledgements;
+    }
+
     /**
      * Append an In-Flight Acknowledgement to the Queue backed by the following Acknowledger and
      * Nacknowledger
      *
      * @return The In-Flight Acknowledgement to be completed on this Queue in the Future
      */
-    public InFlight add(Runnable acknowledger, Consumer<? super Throwable> nacknowledger) {
-        InFlight inFlight = new InFlight(acknowledger, nacknowledger);
-        queue.add(inFlight);
-        return inFlight;
+    public final InFlight add(Runnable acknowledger, Consumer<? super Throwable> nacknowledger) {
+        return add(acknowledger, nacknowledger, 0L);
+    }
+
+    /**
+     * Append a weighted In-Flight Acknowledgement to the Queue backed by the following
+     * Acknowledger and Nacknowledger. The weight is made available through
+     * {@link #takeDrainedWeight()} once the In-Flight Acknowledgement has been drained.
+     *
+     * @return The In-Flight Acknowledgement to be completed on this Queue in the Future
+     */
+    public final InFlight add(Runnable acknowledger, Consumer<? super Throwable> nacknowledger, long weight) {
+        return add(new Callbacks(acknowledger, nacknowledger), Callbacks.ACKNOWLEDGER, weight, System.nanoTime());
     }
 
+    /**
+     * Append a weighted In-Flight Acknowledgement of the provided item to the Queue, which is
+     * executed by the provided (typically shared) {@link ItemAcknowledger}. Unlike appending
+     * Acknowledger and Nacknowledger callbacks, this does not require allocating callbacks for
+     * every item. The item is retained until the In-Flight Acknowledgement has been drained.
+     *
+     * @param addedNanos The {@link System#nanoTime()} at which the item was added, or
+     *                   {@link #UNSTAMPED} if it is not needed, which avoids reading the clock
+     * @return The In-Flight Acknowledgement to be completed on this Queue in the Future
+     */
+    public abstract <T> InFlight add(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos);
+
     /**
      * Complete an In-Flight Acknowledgement in this Queue
      *
      * @return The number of elements drained from this Queue due to completion of Acknowledgement
      */
     public long complete(InFlight toComplete) {
-        return complete(toComplete, InFlight::complete) ? drain() : 0L;
+        return complete(toComplete, InFlight::complete);
     }
 
     /**
@@ -47,12 +89,91 @@ abstract class AcknowledgementQueue {
      * @return The number of elements drained from this Queue due to completion of Acknowledgement
      */
     public long completeExceptionally(InFlight toComplete, Throwable error) {
-        return complete(toComplete, inFlight -> inFlight.completeExceptionally(error)) ? drain() : 0L;
+        return complete(toComplete, inFlight -> inFlight.completeExceptionally(error));
     }
 
-    protected abstract boolean complete(InFlight inFlight, Function<InFlight, Boolean> completer);
+    /**
+     * Takes the total weight of In-Flight Acknowledgements that have been drained from this Queue
+     * since the last time drained weight was taken. Should be invoked after completions that
+     * result in draining, and may be invoked concurrently, in which case the drained weight is
+     * taken by exactly one of the concurrent invocations.
+     */
+    public long takeDrainedWeight() {
+        return drainedWeight == 0L ? 0L : DRAINED_WEIGHT.getAndSet(this, 0L);
+    }
 
-    private long drain() {
+    /**
+     * @return Nanoseconds between when the oldest still-in-process In-Flight Acknowledgement in
+     * this Queue was added and the provided time, or zero if no In-Flight Acknowledgements are in
+     * process. If that In-Flight Acknowledgement was added {@link #UNSTAMPED}, it is stamped with
+     * the provided time, such that its age is measured from when it is first probed.
+     */
+    public long calculateOldestInProcessAgeNanos(long nowNanos) {
+        Iterator<InFlight> iterator = retained();
+        while (iterator.hasNext()) {
+            InFlight inFlight = iterator.next();
+            if (inFlight.isInProcess()) {
+                return Math.max(0L, nowNanos - inFlight.stampIfUnstamped(nowNanos));
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * @return The number of completed In-Flight Acknowledgements in this Queue that are blocked
+     * from execution behind the oldest still-in-process In-Flight Acknowledgement
+     */
+    public long countBlockedCompletions() {
+        Iterator<InFlight> iterator = retained();
+        boolean blocked = false;
+        long count = 0L;
+        while (iterator.hasNext()) {
+            boolean inProcess = iterator.next().isInProcess();
+            if (blocked && !inProcess) {
+                count++;
+            }
+            blocked |= inProcess;
+        }
+        return count;
+    }
+
+    /**
+     * Apply completion to an In-Flight Acknowledgement in this Queue, and execute any
+     * Acknowledgements that are consequently releasable
+     *
+     * @return The number of elements released from this Queue due to completion of Acknowledgement
+     */
+    protected abstract long complete(InFlight inFlight, Function<InFlight, Boolean> completer);
+
+    /**
+     * @return The oldest In-Flight Acknowledgement in this Queue, or null if this Queue is empty
+     */
+    protected abstract InFlight peek();
+
+    /**
+     * Removes the oldest In-Flight Acknowledgement from this Queue. Only ever invoked while
+     * draining, after the oldest In-Flight Acknowledgement has been executed.
+     *
+     * @return Whether an In-Flight Acknowledgement was removed
+     */
+    protected abstract boolean remove();
+
+    /**
+     * Iterates over the In-Flight Acknowledgements retained by this Queue, from oldest to newest.
+     * Iteration is weakly consistent with concurrent modification, and is only meant to be used
+     * for diagnostics.
+     */
+    protected abstract Iterator<InFlight> retained();
+
+    /**
+     * Executes and removes completed In-Flight Acknowledgements from the head of this Queue until
+     * the head is either empty or still in process. When coalescing Acknowledgements, only the
+     * last positive Acknowledgement in any contiguous run of positive Acknowledgements is
+     * executed, and always before any subsequent negative Acknowledgement.
+     *
+     * @return The number of elements drained from this Queue
+     */
+    protected final long drain() {
         if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
             return 0L;
         }
@@ -60,10 +181,27 @@ abstract class AcknowledgementQueue {
         long drained = 0L;
         int missed = 1;
         do {
-            while (!queue.isEmpty() && !queue.peek().isInProcess()) {
-                queue.remove().execute();
+            ItemAcknowledger<Object> coalescedAcknowledger = null;
+            Object coalescedItem = null;
+            long weight = 0L;
+            InFlight inFlight;
+            while ((inFlight = peek()) != null && !inFlight.isInProcess()) {
+                if (coalesceAcknowledgements && inFlight.isPositivelyCompleted()) {
+                    inFlight.skipExecution();
+                    coalescedAcknowledger = inFlight.acknowledger;
+                    coalescedItem = inFlight.item;
+                } else {
+                    acknowledgeIfNonNull(coalescedAcknowledger, coalescedItem);
+                    coalescedAcknowledger = null;
+                    coalescedItem = null;
+                    inFlight.execute();
+                }
+                weight += inFlight.weight();
+                remove();
                 drained++;
             }
+            acknowledgeIfNonNull(coalescedAcknowledger, coalescedItem);
+            addDrainedWeight(weight);
 
             missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
         } while (missed != 0);
@@ -71,53 +209,196 @@ abstract class AcknowledgementQueue {
         return drained;
     }
 
+    /**
+     * Makes the provided weight of drained In-Flight Acknowledgements available to be taken
+     */
+    protected final void addDrainedWeight(long weight) {
+        if (weight != 0L) {
+            DRAINED_WEIGHT.addAndGet(this, weight);
+        }
+    }
+
+    private static void acknowledgeIfNonNull(ItemAcknowledger<Object> acknowledger, Object item) {
+        if (acknowledger != null) {
+            acknowledger.acknowledge(item);
+        }
+    }
+
+    /**
+     * Executes the Acknowledgement of items appended to a Queue
+     *
+     * @param <T> The type of items acknowledged
+     */
+    interface ItemAcknowledger<T> {
+
+        void acknowledge(T item);
+
+        void nacknowledge(T item, Throwable error);
+    }
+
+    private static final class Callbacks {
+
+        private static final ItemAcknowledger<Callbacks> ACKNOWLEDGER = new ItemAcknowledger<Callbacks>() {
+            @Override
+            public void acknowledge(Callbacks item) {
+                item.acknowledger.run();
+            }
+
+            @Override
+            public void nacknowledge(Callbacks item, Throwable error) {
+                item.nacknowledger.accept(error);
+            }
+        };
+
+        private final Runnable acknowledger;
+
+        private final Consumer<? super Throwable> nacknowledger;
+
+        private Callbacks(Runnable acknowledger, Consumer<? super Throwable> nacknowledger) {
+            this.acknowledger = acknowledger;
+            this.nacknowledger = nacknowledger;
+        }
+    }
+
     static final class InFlight {
 
-        private enum State {IN_PROCESS, COMPLETED, EXECUTED}
+        private static final int IN_PROCESS = 0;
+
+        private static final int COMPLETED = 1;
 
-        private static final AtomicReferenceFieldUpdater<InFlight, State> STATE =
-            AtomicReferenceFieldUpdater.newUpdater(InFlight.class, State.class, "state");
+        private static final int EXECUTED = 2;
+
+        private static final AtomicIntegerFieldUpdater<InFlight> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(InFlight.class, "state");
 
         private static final AtomicReferenceFieldUpdater<InFlight, Throwable> ERROR =
             AtomicReferenceFieldUpdater.newUpdater(InFlight.class, Throwable.class, "error");
 
-        private final Runnable acknowledger;
+        private Object item;
 
-        private final Consumer<? super Throwable> nacknowledger;
+        private ItemAcknowledger<Object> acknowledger;
+
+        private long weight;
+
+        private long addedNanos;
+
+        // Retained across reuse, such that completion state may be reused along with this slot
+        private Object attachment;
+
+        // Links this In-Flight in to a Queue's stack of recycled In-Flights while awaiting reuse
+        InFlight recycledNext;
 
-        private volatile State state = State.IN_PROCESS;
+        private volatile int state;
 
         private volatile Throwable error;
 
-        private InFlight(Runnable acknowledger, Consumer<? super Throwable> nacknowledger) {
-            this.acknowledger = acknowledger;
-            this.nacknowledger = nacknowledger;
+        InFlight() {
+            this.state = EXECUTED;
+        }
+
+        <T> InFlight(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos) {
+            this.item = item;
+            this.acknowledger = castAcknowledger(acknowledger);
+            this.weight = weight;
+            this.addedNanos = addedNanos;
+            this.state = IN_PROCESS;
         }
 
         boolean isInProcess() {
-            return state == State.IN_PROCESS;
+            return state == IN_PROCESS;
         }
 
-        private boolean completeExceptionally(Throwable error) {
-            return ERROR.compareAndSet(this, null, error) && complete();
+        boolean isPositivelyCompleted() {
+            return state == COMPLETED && error == null;
         }
 
-        private boolean complete() {
-            return STATE.compareAndSet(this, State.IN_PROCESS, State.COMPLETED);
+        long weight() {
+            return weight;
         }
 
-        private void execute() {
-            if (STATE.getAndSet(this, State.EXECUTED) != State.EXECUTED) {
+        /**
+         * @return The time at which this In-Flight Acknowledgement was added, after stamping it
+         * with the provided time if it was added unstamped. Stamping is racy with respect to reuse,
+         * which only affects the approximate result of probing.
+         */
+        long stampIfUnstamped(long nowNanos) {
+            long addedNanos = this.addedNanos;
+            if (addedNanos == UNSTAMPED) {
+                this.addedNanos = addedNanos = nowNanos;
+            }
+            return addedNanos;
+        }
+
+        /**
+         * Re-initializes this In-Flight Acknowledgement such that it may be reused. Must only be
+         * invoked after this In-Flight has been executed and is no longer referenced by any Queue.
+         */
+        <T> void reset(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos) {
+            this.item = item;
+            this.acknowledger = castAcknowledger(acknowledger);
+            this.weight = weight;
+            this.addedNanos = addedNanos;
+            this.error = null;
+            this.state = IN_PROCESS;
+        }
+
+        /**
+         * Releases references held by this In-Flight Acknowledgement after it has been executed,
+         * such that it does not retain acknowledgement resources while awaiting reuse.
+         */
+        void release() {
+            this.item = null;
+            this.acknowledger = null;
+            this.weight = 0L;
+            this.error = null;
+        }
+
+        /**
+         * @return The object attached to this In-Flight Acknowledgement, which is retained when
+         * this In-Flight is released and reused
+         */
+        Object attachment() {
+            return attachment;
+        }
+
+        void attach(Object attachment) {
+            this.attachment = attachment;
+        }
+
+        /**
+         * Marks this In-Flight Acknowledgement as executed without executing it, such that
+         * execution may be coalesced with subsequent Acknowledgements. Only invoked while
+         * draining, after this In-Flight has been positively completed.
+         */
+        void skipExecution() {
+            state = EXECUTED;
+        }
+
+        void execute() {
+            if (STATE.getAndSet(this, EXECUTED) != EXECUTED) {
                 executeAcknowledgement();
             }
         }
 
+        private boolean completeExceptionally(Throwable error) {
+            return ERROR.compareAndSet(this, null, error) && complete();
+        }
+
+        private boolean complete() {
+            return STATE.compareAndSet(this, IN_PROCESS, COMPLETED);
+        }
+
         private void executeAcknowledgement() {
             if (error == null) {
-                acknowledger.run();
+                acknowledger.acknowledge(item);
             } else {
-                nacknowledger.accept(error);
+                acknowledger.nacknowledge(item, error);
             }
         }
+
+        @SuppressWarnings("unchecked")
+        private static ItemAcknowledger<Object> castAcknowledger(ItemAcknowledger<?> acknowledger) {
+            return (ItemAcknowledger<Object>) acknowledger;
+        }
     }
 }
@@ -2,30 +2,37 @@ package io.atleon.core;
 
 import java.util.AbstractCollection;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A Collection of {@link Alo} produced from a one-to-many mapping of another Alo. Takes care of
  * acknowledgement propagated from the original source by only executing acknowledgement iff all
  * resultant items are acknowledged OR one of the emitted items is nacknowledged.
+ * <p>
+ * Acknowledgement is tracked lock-free with a countdown of unacknowledged items, such that no
+ * per-element membership needs to be maintained. The first nacknowledgement atomically swaps the
+ * countdown to a negative value, such that the countdown can never subsequently reach zero. Each
+ * resultant item may only contribute to acknowledgement once, regardless of how many times it is
+ * acknowledged or nacknowledged.
  *
  * @param <T> The type of data item contained in Alo items in this Collection
  */
 final class AcknowledgingCollection<T> extends AbstractCollection<Alo<T>> {
 
+    private static final AtomicIntegerFieldUpdater<AcknowledgingCollection> UNACKNOWLEDGED =
+        AtomicIntegerFieldUpdater.newUpdater(AcknowledgingCollection.class, "unacknowledged");
+
     private final Alo<Collection<T>> aloCollection;
 
     private final AloFactory<T> aloFactory;
 
-    private final Set<T> unacknowledged;
+    private volatile int unacknowledged;
 
     private AcknowledgingCollection(Alo<Collection<T>> aloCollection) {
         this.aloCollection = aloCollection;
         this.aloFactory = aloCollection.propagator();
-        this.unacknowledged = copyToIdentityHashSet(aloCollection.get());
+        this.unacknowledged = aloCollection.get().size();
     }
 
     public static <T> Collection<Alo<T>> fromNonEmptyAloCollection(Alo<Collection<T>> aloCollection) {
@@ -60,25 +67,30 @@ final class AcknowledgingCollection<T> extends AbstractCollection<Alo<T>> {
     }
 
     private Alo<T> wrap(T value) {
+        Completion completion = new Completion();
         return aloFactory.create(value, () -> {
-            synchronized (unacknowledged) {
-                if (unacknowledged.remove(value) && unacknowledged.isEmpty()) {
-                    Alo.acknowledge(aloCollection);
-                }
+            if (completion.tryComplete() && UNACKNOWLEDGED.decrementAndGet(this) == 0) {
+                Alo.acknowledge(aloCollection);
             }
         }, error -> {
-            synchronized (unacknowledged) {
-                if (unacknowledged.contains(value)) {
-                    unacknowledged.clear();
-                    Alo.nacknowledge(aloCollection, error);
-                }
+            if (completion.tryComplete() && UNACKNOWLEDGED.getAndSet(this, -1) > 0) {
+                Alo.nacknowledge(aloCollection, error);
             }
         });
     }
 
-    private static <T> Set<T> copyToIdentityHashSet(Collection<T> collection) {
-        Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>(collection.size()));
-        set.addAll(collection);
-        return set;
+    /**
+     * Guards a single resultant item's contribution to acknowledgement of the collection
+     */
+    private static final class Completion {
+
+        private static final AtomicIntegerFieldUpdater<Completion> COMPLETED =
+            AtomicIntegerFieldUpdater.newUpdater(Completion.class, "completed");
+
+        private volatile int completed;
+
+        boolean tryComplete() {
+            return completed == 0 && COMPLETED.compareAndSet(this, 0, 1);
+        }
     }
 }
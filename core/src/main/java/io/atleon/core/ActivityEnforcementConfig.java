@@ -7,7 +7,9 @@ import java.time.Duration;
  * {@link reactor.core.publisher.Flux#timeout(Duration) Flux::timeout}, activity enforcement causes
  * an error to be emitted when a stream is inactive for longer than a specified duration. In
  * contrast to timeout, Activity Enforcement allows specifying a grace period (delay) and also
- * detects timeouts on subscription.
+ * detects timeouts on subscription. Optionally, stalls may also be detected, where a stream has
+ * outstanding demand but is not emitting anything. Activity of all enforced streams is checked by
+ * a single process-wide watchdog.
  */
 public final class ActivityEnforcementConfig {
 
@@ -23,6 +25,8 @@ public final class ActivityEnforcementConfig {
 
     private final Duration interval;
 
+    private final Duration maxStall;
+
     /**
      * @param name A name that can be used to identify on what activity is being enforced
      * @param maxInactivity Max Duration from last signal before considering a stream inactive
@@ -47,10 +51,33 @@ public final class ActivityEnforcementConfig {
      * @param interval Interval at which to check for an inactive stream
      */
     public ActivityEnforcementConfig(String name, Duration maxInactivity, Duration delay, Duration interval) {
+        this(name, maxInactivity, delay, interval, Duration.ZERO);
+    }
+
+    private ActivityEnforcementConfig(
+        String name,
+        Duration maxInactivity,
+        Duration delay,
+        Duration interval,
+        Duration maxStall
+    ) {
         this.name = name;
         this.maxInactivity = maxInactivity;
         this.delay = delay;
         this.interval = interval;
+        this.maxStall = maxStall;
+    }
+
+    /**
+     * Enable stall detection, where an error is emitted if a stream has had outstanding demand
+     * for longer than the provided Duration without emitting anything. This detects upstream
+     * stalls even when the downstream subscriber is still actively requesting.
+     *
+     * @param maxStall Max Duration with outstanding demand and no emissions
+     * @return A new ActivityEnforcementConfig with stall detection enabled
+     */
+    public ActivityEnforcementConfig withMaxStall(Duration maxStall) {
+        return new ActivityEnforcementConfig(name, maxInactivity, delay, interval, maxStall);
     }
 
     public boolean isEnabled() {
@@ -72,4 +99,12 @@ public final class ActivityEnforcementConfig {
     public Duration getInterval() {
         return interval;
     }
+
+    public boolean isStallDetectionEnabled() {
+        return !maxStall.isZero() && !maxStall.isNegative();
+    }
+
+    public Duration getMaxStall() {
+        return maxStall;
+    }
 }
@@ -0,0 +1,220 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Operator that emits an error if the source becomes inactive, and optionally if the source
+ * stalls with outstanding demand. Each subscription is checked by the {@link ActivityWatchdog}
+ * shared for the provided {@link Scheduler}, whose clock is used to time activity. Violations
+ * detected by the watchdog are not emitted from its sweep. Instead, they are emitted by whichever
+ * of the source's emission or a task scheduled on the watchdog's Scheduler first gets exclusive
+ * access to downstream, such that downstream is never signalled concurrently, and items emitted
+ * concurrently with a violation are dropped.
+ *
+ * @param <T> The type of items emitted by the source
+ */
+final class ActivityEnforcingOperator<T> implements Publisher<T> {
+
+    private final Publisher<T> source;
+
+    private final ActivityEnforcementConfig config;
+
+    private final Scheduler scheduler;
+
+    ActivityEnforcingOperator(Publisher<T> source, ActivityEnforcementConfig config, Scheduler scheduler) {
+        this.source = source;
+        this.config = config;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> actual) {
+        source.subscribe(new ActivityEnforcingSubscriber<>(actual, config, ActivityWatchdog.shared(scheduler)));
+    }
+
+    private static final class ActivityEnforcingSubscriber<T>
+        implements CoreSubscriber<T>, Subscription, ActivityWatchdog.Watched {
+
+        private static final AtomicLongFieldUpdater<ActivityEnforcingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(ActivityEnforcingSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<ActivityEnforcingSubscriber> EMISSIONS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(ActivityEnforcingSubscriber.class, "emissionsInProgress");
+
+        private final Subscriber<? super T> actual;
+
+        private final ActivityEnforcementConfig config;
+
+        private final ActivityWatchdog watchdog;
+
+        private Subscription parent;
+
+        private volatile Disposable watch = Disposables.disposed();
+
+        private volatile long lastActiveNanos;
+
+        private volatile long demandStartedNanos;
+
+        private volatile long requested;
+
+        // Only written by onNext
+        private volatile long emitted;
+
+        private volatile Throwable violation;
+
+        // Once a terminal signal has been emitted, this never returns to zero
+        private volatile int emissionsInProgress;
+
+        ActivityEnforcingSubscriber(
+            Subscriber<? super T> actual,
+            ActivityEnforcementConfig config,
+            ActivityWatchdog watchdog
+        ) {
+            this.actual = actual;
+            this.config = config;
+            this.watchdog = watchdog;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                long nowNanos = watchdog.now();
+                lastActiveNanos = nowNanos;
+                demandStartedNanos = nowNanos;
+                watch = watchdog.watch(this, nowNanos + config.getDelay().toNanos());
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            lastActiveNanos = watchdog.now();
+            if (config.isStallDetectionEnabled()) {
+                emitted = emitted + 1;
+            }
+
+            if (emissionsInProgress == 0 && EMISSIONS_IN_PROGRESS.compareAndSet(this, 0, 1)) {
+                actual.onNext(t);
+                if (EMISSIONS_IN_PROGRESS.decrementAndGet(this) != 0) {
+                    emitViolation();
+                }
+            } else {
+                Operators.onNextDropped(t, currentContext());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (EMISSIONS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                watch.dispose();
+                actual.onError(t);
+            } else {
+                Operators.onErrorDropped(t, currentContext());
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (EMISSIONS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                watch.dispose();
+                actual.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                if (config.isStallDetectionEnabled() && Operators.addCap(REQUESTED, this, n) == emitted) {
+                    demandStartedNanos = watchdog.now();
+                }
+                parent.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            watch.dispose();
+            parent.cancel();
+        }
+
+        @Override
+        public long check(long nowNanos) {
+            if (violation == null) {
+                long lastActiveNanos = this.lastActiveNanos;
+                if (nowNanos - lastActiveNanos > config.getMaxInactivity().toNanos()) {
+                    Instant lastActive = Instant.ofEpochMilli(TimeUnit.NANOSECONDS.toMillis(lastActiveNanos));
+                    onViolation(new InactiveStreamException(config.getName(), config.getMaxInactivity(), lastActive));
+                } else if (config.isStallDetectionEnabled() && isStalled(nowNanos)) {
+                    onViolation(new StalledStreamException(config.getName(), config.getMaxStall()));
+                }
+            }
+            return nowNanos + config.getInterval().toNanos();
+        }
+
+        private boolean isStalled(long nowNanos) {
+            long lastActiveNanos = this.lastActiveNanos;
+            long demandStartedNanos = this.demandStartedNanos;
+            long lastProgressNanos = demandStartedNanos - lastActiveNanos > 0L ? demandStartedNanos : lastActiveNanos;
+            return requested - emitted > 0 && nowNanos - lastProgressNanos > config.getMaxStall().toNanos();
+        }
+
+        private void onViolation(Throwable error) {
+            violation = error;
+            try {
+                watchdog.scheduler().schedule(this::drainViolation);
+            } catch (RejectedExecutionException e) {
+                drainViolation();
+            }
+        }
+
+        private void drainViolation() {
+            if (EMISSIONS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                emitViolation();
+            }
+        }
+
+        private void emitViolation() {
+            watch.dispose();
+            parent.cancel();
+            actual.onError(violation);
+        }
+    }
+
+    private static final class InactiveStreamException extends TimeoutException {
+
+        public InactiveStreamException(String name, Duration maxInactivity, Instant lastActive) {
+            super(String.format("Stream=%s has been inactive for longer than duration=%s with lastActive=%s",
+                name, maxInactivity, lastActive));
+        }
+    }
+
+    private static final class StalledStreamException extends TimeoutException {
+
+        public StalledStreamException(String name, Duration maxStall) {
+            super(String.format("Stream=%s has had outstanding demand without emitting for longer than duration=%s",
+                name, maxStall));
+        }
+    }
+}
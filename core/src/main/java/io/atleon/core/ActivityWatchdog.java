@@ -0,0 +1,140 @@
+package io.atleon.core;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A watchdog that periodically checks arbitrary numbers of watched resources (i.e. streams)
+ * using a single timer on a provided {@link Scheduler}, whose clock is used for all timing. Each
+ * watched resource reports when it is next due to be checked, and the watchdog schedules its next
+ * sweep for the earliest due time among all watched resources. As such, there is no timer or
+ * thread per watched resource, and nothing is scheduled while nothing is being watched. Sweeps
+ * are serialized, such that resources are never checked concurrently.
+ * <p>
+ * Watchdogs may be shared per Scheduler, in which case a shared watchdog is only retained while
+ * it is watching at least one resource.
+ */
+final class ActivityWatchdog {
+
+    private static final Map<Scheduler, ActivityWatchdog> SHARED = new ConcurrentHashMap<>();
+
+    private static final AtomicIntegerFieldUpdater<ActivityWatchdog> SWEEPS_IN_PROGRESS =
+        AtomicIntegerFieldUpdater.newUpdater(ActivityWatchdog.class, "sweepsInProgress");
+
+    private final Map<Watched, Long> dueNanosByWatched = new ConcurrentHashMap<>();
+
+    private final Scheduler scheduler;
+
+    private volatile int sweepsInProgress;
+
+    // Guarded by 'this'
+    private long scheduledSweepNanos = Long.MAX_VALUE;
+
+    // Guarded by 'this'
+    private Disposable scheduledSweep = Disposables.disposed();
+
+    ActivityWatchdog(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public static ActivityWatchdog shared(Scheduler scheduler) {
+        return SHARED.computeIfAbsent(scheduler, ActivityWatchdog::new);
+    }
+
+    /**
+     * Starts watching the provided resource, which will first be checked at the provided time.
+     *
+     * @return A Disposable that stops watching the resource
+     */
+    public Disposable watch(Watched watched, long firstDueNanos) {
+        dueNanosByWatched.put(watched, firstDueNanos);
+        scheduleSweepBy(firstDueNanos);
+        return () -> unwatch(watched);
+    }
+
+    /**
+     * @return The current time according to this watchdog's Scheduler, in nanoseconds
+     */
+    public long now() {
+        return scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    Scheduler scheduler() {
+        return scheduler;
+    }
+
+    int size() {
+        return dueNanosByWatched.size();
+    }
+
+    private void unwatch(Watched watched) {
+        // If a resource is concurrently being watched, it is still swept by this watchdog
+        if (dueNanosByWatched.remove(watched) != null && dueNanosByWatched.isEmpty()) {
+            SHARED.remove(scheduler, this);
+        }
+    }
+
+    private void sweep() {
+        if (SWEEPS_IN_PROGRESS.getAndIncrement(this) != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            synchronized (this) {
+                scheduledSweepNanos = Long.MAX_VALUE;
+                scheduledSweep = Disposables.disposed();
+            }
+
+            long nowNanos = now();
+            long nextDueNanos = Long.MAX_VALUE;
+            for (Map.Entry<Watched, Long> entry : dueNanosByWatched.entrySet()) {
+                long dueNanos = entry.getValue();
+                if (nowNanos - dueNanos >= 0L) {
+                    dueNanos = entry.getKey().check(nowNanos);
+                    dueNanosByWatched.replace(entry.getKey(), dueNanos);
+                }
+                nextDueNanos = nextDueNanos == Long.MAX_VALUE || dueNanos - nextDueNanos < 0L ? dueNanos : nextDueNanos;
+            }
+
+            if (!dueNanosByWatched.isEmpty()) {
+                scheduleSweepBy(nextDueNanos);
+            }
+
+            missed = SWEEPS_IN_PROGRESS.addAndGet(this, -missed);
+        } while (missed != 0);
+    }
+
+    private synchronized void scheduleSweepBy(long dueNanos) {
+        if (scheduledSweepNanos != Long.MAX_VALUE && scheduledSweepNanos - dueNanos <= 0L) {
+            return;
+        }
+
+        scheduledSweep.dispose();
+        scheduledSweepNanos = dueNanos;
+        long delayNanos = Math.max(0L, dueNanos - now());
+        scheduledSweep = scheduler.schedule(this::sweep, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A resource that is periodically checked by an {@link ActivityWatchdog}
+     */
+    interface Watched {
+
+        /**
+         * Check this resource, and return when it should next be checked. Implementations should
+         * not emit signals from this method, since it is invoked on the watchdog's sweep.
+         *
+         * @param nowNanos The current time according to {@link ActivityWatchdog#now()}
+         * @return The time, in terms of {@link ActivityWatchdog#now()}, at which this resource
+         * should next be checked
+         */
+        long check(long nowNanos);
+    }
+}
@@ -0,0 +1,361 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Operator that buffers items in to batches whose size, linger, and dispatch concurrency adapt
+ * to observed load and latency. Each emitted batch is expected to be processed by a single
+ * request, whose completion (and latency) must be reported back to the operator's
+ * {@link Controller}.
+ * <p>
+ * A batch is dispatched when there is downstream demand, the number of in-flight batches is
+ * below the current concurrency limit, and either the buffer holds at least the current target
+ * batch size or the current linger has elapsed since the buffer became non-empty. Target batch
+ * size and concurrency are each governed by an {@link AdaptiveInFlightLimit}: Batch size grows
+ * while batches are being filled and request latency stays flat, concurrency grows while batches
+ * are waiting on in-flight requests and latency stays flat, and both shrink when latency
+ * increases. Linger is derived from the observed item arrival rate: It is the expected time to
+ * fill a batch of the current target size, capped by the configured max duration, and is zero
+ * when traffic is too sparse to fill batches of more than one item within that duration.
+ *
+ * @param <T> The type of items being batched
+ */
+final class AdaptiveBatchingOperator<T> implements Publisher<List<T>> {
+
+    private final Publisher<T> source;
+
+    private final Controller controller;
+
+    private final Scheduler scheduler;
+
+    private final int bufferCapacity;
+
+    AdaptiveBatchingOperator(Publisher<T> source, Controller controller, Scheduler scheduler, int bufferCapacity) {
+        this.source = source;
+        this.controller = controller;
+        this.scheduler = scheduler;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super List<T>> actual) {
+        source.subscribe(new AdaptiveBatchingSubscriber<>(actual, controller, scheduler, bufferCapacity));
+    }
+
+    /**
+     * Tracks load and latency of batched requests, and decides on batch size, linger, and
+     * concurrency accordingly. A Controller must only be used by a single subscription.
+     */
+    static final class Controller {
+
+        private static final int INTERARRIVAL_SMOOTHING_SHIFT = 3;
+
+        private final long maxLingerNanos;
+
+        private final AdaptiveInFlightLimit sizeLimit;
+
+        private final AdaptiveInFlightLimit concurrencyLimit;
+
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+
+        private volatile Runnable onCapacityAvailable = () -> {};
+
+        private volatile long lingerNanos;
+
+        // Only accessed upon item arrival
+        private long lastArrivalNanos = Long.MIN_VALUE;
+
+        // Only accessed upon item arrival
+        private long meanInterarrivalNanos = 0L;
+
+        Controller(int maxSize, long maxLingerNanos, int maxConcurrency) {
+            this.maxLingerNanos = maxLingerNanos;
+            this.sizeLimit = AdaptiveInFlightLimit.create(1L, Math.max(1, maxSize));
+            this.concurrencyLimit = AdaptiveInFlightLimit.create(1L, Math.max(1, maxConcurrency));
+            this.lingerNanos = maxLingerNanos;
+        }
+
+        /**
+         * Reports the completion of a dispatched batch's request
+         *
+         * @param latencyNanos Latency of the request, or negative if it did not complete normally
+         */
+        public void completed(long latencyNanos) {
+            inFlight.decrementAndGet();
+            if (latencyNanos >= 0L) {
+                sizeLimit.sample(latencyNanos);
+                concurrencyLimit.sample(latencyNanos);
+            }
+            onCapacityAvailable.run();
+        }
+
+        int targetSize() {
+            return (int) sizeLimit.get();
+        }
+
+        int concurrency() {
+            return (int) concurrencyLimit.get();
+        }
+
+        long lingerNanos() {
+            return lingerNanos;
+        }
+
+        private void arrived(long nowNanos) {
+            if (lastArrivalNanos != Long.MIN_VALUE) {
+                long interarrivalNanos = Math.max(0L, nowNanos - lastArrivalNanos);
+                meanInterarrivalNanos += (interarrivalNanos - meanInterarrivalNanos) >> INTERARRIVAL_SMOOTHING_SHIFT;
+                lingerNanos = meanInterarrivalNanos >= maxLingerNanos
+                    ? 0L
+                    : Math.min(maxLingerNanos, meanInterarrivalNanos * (targetSize() - 1));
+            }
+            lastArrivalNanos = nowNanos;
+        }
+
+        private boolean tryDispatch() {
+            if (inFlight.get() < concurrencyLimit.get()) {
+                inFlight.incrementAndGet();
+                return true;
+            } else {
+                concurrencyLimit.markSaturated();
+                return false;
+            }
+        }
+    }
+
+    private static final class AdaptiveBatchingSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+        private static final long NONE = Long.MIN_VALUE;
+
+        private static final AtomicLongFieldUpdater<AdaptiveBatchingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(AdaptiveBatchingSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<AdaptiveBatchingSubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(AdaptiveBatchingSubscriber.class, "drainsInProgress");
+
+        private static final AtomicReferenceFieldUpdater<AdaptiveBatchingSubscriber, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(AdaptiveBatchingSubscriber.class, Throwable.class, "error");
+
+        private final Subscriber<? super List<T>> actual;
+
+        private final Controller controller;
+
+        private final Scheduler scheduler;
+
+        private final Scheduler.Worker worker;
+
+        private final int bufferCapacity;
+
+        private final Queue<T> buffer;
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int drainsInProgress;
+
+        private volatile Throwable error;
+
+        private volatile boolean done;
+
+        private volatile boolean cancelled;
+
+        // Only accessed while draining
+        private long emitted = 0L;
+
+        // Only accessed while draining
+        private long bufferStartNanos = NONE;
+
+        // Only accessed while draining
+        private long flushDeadlineNanos = NONE;
+
+        // Only accessed while draining
+        private Disposable scheduledFlush = () -> {};
+
+        AdaptiveBatchingSubscriber(
+            Subscriber<? super List<T>> actual,
+            Controller controller,
+            Scheduler scheduler,
+            int bufferCapacity
+        ) {
+            this.actual = actual;
+            this.controller = controller;
+            this.scheduler = scheduler;
+            this.worker = scheduler.createWorker();
+            this.bufferCapacity = bufferCapacity;
+            this.buffer = Queues.<T>get(bufferCapacity).get();
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                controller.onCapacityAvailable = this::drain;
+                actual.onSubscribe(this);
+                s.request(bufferCapacity);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            controller.arrived(scheduler.now(TimeUnit.NANOSECONDS));
+            if (buffer.offer(t)) {
+                drain();
+            } else {
+                onError(new IllegalStateException("Batch buffer capacity exceeded. This is a bug in request accounting."));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (ERROR.compareAndSet(this, null, t)) {
+                done = true;
+                drain();
+            } else {
+                Operators.onErrorDropped(t, currentContext());
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.cancel();
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                while (true) {
+                    if (cancelled) {
+                        cleanUp();
+                        return;
+                    }
+
+                    boolean completed = done;
+                    Throwable terminalError = error;
+                    if (terminalError != null) {
+                        cancelled = true;
+                        cleanUp();
+                        actual.onError(terminalError);
+                        return;
+                    }
+
+                    int size = buffer.size();
+                    if (size == 0) {
+                        bufferStartNanos = NONE;
+                        if (completed) {
+                            cancelled = true;
+                            cleanUp();
+                            actual.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+
+                    long nowNanos = scheduler.now(TimeUnit.NANOSECONDS);
+                    if (bufferStartNanos == NONE) {
+                        bufferStartNanos = nowNanos;
+                    }
+
+                    int targetSize = controller.targetSize();
+                    boolean full = size >= targetSize;
+                    long lingerDeadlineNanos = bufferStartNanos + controller.lingerNanos();
+                    if (!full && !completed && nowNanos - lingerDeadlineNanos < 0L) {
+                        scheduleFlush(lingerDeadlineNanos, nowNanos);
+                        break;
+                    }
+
+                    if (requested == emitted || !controller.tryDispatch()) {
+                        break;
+                    }
+
+                    if (full) {
+                        controller.sizeLimit.markSaturated();
+                    }
+
+                    List<T> batch = new ArrayList<>(Math.min(size, targetSize));
+                    for (int i = 0; i < targetSize; i++) {
+                        T t = buffer.poll();
+                        if (t == null) {
+                            break;
+                        }
+                        batch.add(t);
+                    }
+
+                    emitted++;
+                    bufferStartNanos = buffer.isEmpty() ? NONE : nowNanos;
+                    actual.onNext(batch);
+                    parent.request(batch.size());
+                }
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private void scheduleFlush(long deadlineNanos, long nowNanos) {
+            if (flushDeadlineNanos != NONE && nowNanos - flushDeadlineNanos >= 0L) {
+                flushDeadlineNanos = NONE;
+            }
+
+            if (flushDeadlineNanos == NONE || deadlineNanos - flushDeadlineNanos < 0L) {
+                scheduledFlush.dispose();
+                flushDeadlineNanos = deadlineNanos;
+                try {
+                    scheduledFlush = worker.schedule(this::drain, deadlineNanos - nowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    onError(Operators.onRejectedExecution(e, currentContext()));
+                }
+            }
+        }
+
+        private void cleanUp() {
+            worker.dispose();
+            controller.onCapacityAvailable = () -> {};
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.atleon.core;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A thread-safe limit on the number of in-flight items that adapts between a floor and ceiling
+ * based on the latency of processing those items, using Additive-Increase/Multiplicative-Decrease
+ * (AIMD). Latency samples are aggregated in to windows of roughly one limit's worth of samples.
+ * At the end of each window, the window's mean latency is compared against a baseline latency
+ * (the lowest mean latency observed, which slowly drifts toward more recent means). If the mean
+ * latency has grown beyond a tolerated multiple of the baseline, processing is assumed to be
+ * congested and the limit is multiplicatively decreased. Otherwise, if the limit was saturated
+ * during the window (i.e. throughput was bounded by the limit), the limit is additively
+ * increased. Limits that are not saturated are not increased, since doing so would not increase
+ * throughput.
+ */
+public final class AdaptiveInFlightLimit {
+
+    private static final long MIN_WINDOW_SIZE = 16L;
+
+    private static final long LATENCY_TOLERANCE = 2L;
+
+    private static final double DECREASE_FACTOR = 0.9D;
+
+    private static final int BASELINE_DRIFT_SHIFT = 6;
+
+    private static final AtomicLongFieldUpdater<AdaptiveInFlightLimit> SAMPLE_COUNT =
+        AtomicLongFieldUpdater.newUpdater(AdaptiveInFlightLimit.class, "sampleCount");
+
+    private static final AtomicLongFieldUpdater<AdaptiveInFlightLimit> LATENCY_SUM =
+        AtomicLongFieldUpdater.newUpdater(AdaptiveInFlightLimit.class, "latencySum");
+
+    private static final AtomicIntegerFieldUpdater<AdaptiveInFlightLimit> SATURATED =
+        AtomicIntegerFieldUpdater.newUpdater(AdaptiveInFlightLimit.class, "saturated");
+
+    private static final AtomicIntegerFieldUpdater<AdaptiveInFlightLimit> ADJUSTMENT_IN_PROGRESS =
+        AtomicIntegerFieldUpdater.newUpdater(AdaptiveInFlightLimit.class, "adjustmentInProgress");
+
+    private final long minLimit;
+
+    private final long maxLimit;
+
+    private volatile long limit;
+
+    private volatile long sampleCount;
+
+    private volatile long latencySum;
+
+    private volatile int saturated;
+
+    private volatile int adjustmentInProgress;
+
+    // Only accessed while adjustment is in progress
+    private long baselineLatencyNanos;
+
+    private AdaptiveInFlightLimit(long minLimit, long maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = minLimit;
+    }
+
+    /**
+     * Creates a new {@link AdaptiveInFlightLimit} that starts at the provided minimum limit.
+     *
+     * @param minLimit The floor below which the limit will never be decreased
+     * @param maxLimit The ceiling above which the limit will never be increased
+     * @return A new {@link AdaptiveInFlightLimit}
+     */
+    public static AdaptiveInFlightLimit create(long minLimit, long maxLimit) {
+        if (minLimit <= 0L || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid in-flight limits: min=" + minLimit + " max=" + maxLimit);
+        }
+        return new AdaptiveInFlightLimit(minLimit, maxLimit);
+    }
+
+    /**
+     * @return The current limit
+     */
+    public long get() {
+        return limit;
+    }
+
+    /**
+     * Marks that the number of in-flight items has reached the current limit while there is still
+     * demand for more items, such that the limit may be increased at the end of the current
+     * window if latency allows.
+     */
+    public void markSaturated() {
+        if (saturated == 0) {
+            SATURATED.set(this, 1);
+        }
+    }
+
+    /**
+     * Records the latency with which an in-flight item was processed, possibly adjusting the
+     * limit if the sample completes a window.
+     *
+     * @param latencyNanos The latency of processing an in-flight item, in nanoseconds
+     * @return The amount by which the limit has changed, which is zero if it is unchanged
+     */
+    public long sample(long latencyNanos) {
+        LATENCY_SUM.addAndGet(this, Math.max(0L, latencyNanos));
+        long count = SAMPLE_COUNT.incrementAndGet(this);
+        if (count < Math.max(MIN_WINDOW_SIZE, limit) || !ADJUSTMENT_IN_PROGRESS.compareAndSet(this, 0, 1)) {
+            return 0L;
+        }
+
+        try {
+            return adjust(SAMPLE_COUNT.getAndSet(this, 0L), LATENCY_SUM.getAndSet(this, 0L));
+        } finally {
+            ADJUSTMENT_IN_PROGRESS.set(this, 0);
+        }
+    }
+
+    private long adjust(long count, long latencySum) {
+        if (count == 0L) {
+            return 0L;
+        }
+
+        long meanLatencyNanos = latencySum / count;
+        if (baselineLatencyNanos == 0L || meanLatencyNanos < baselineLatencyNanos) {
+            baselineLatencyNanos = Math.max(1L, meanLatencyNanos);
+        } else {
+            baselineLatencyNanos += (meanLatencyNanos - baselineLatencyNanos) >> BASELINE_DRIFT_SHIFT;
+        }
+
+        long currentLimit = limit;
+        long newLimit = currentLimit;
+        boolean wasSaturated = SATURATED.getAndSet(this, 0) != 0;
+        if (meanLatencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+            newLimit = Math.max(minLimit, (long) (currentLimit * DECREASE_FACTOR));
+        } else if (wasSaturated) {
+            newLimit = Math.min(maxLimit, currentLimit + Math.max(1L, (long) Math.sqrt(currentLimit)));
+        }
+
+        limit = newLimit;
+        return newLimit - currentLimit;
+    }
+}
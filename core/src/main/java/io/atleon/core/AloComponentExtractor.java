@@ -17,7 +17,49 @@ public interface AloComponentExtractor<T, V> {
         Function<T, Consumer<? super Throwable>> nacknowledgerExtractor,
         Function<? super T, ? extends V> valueExtractor
     ) {
-        return new Composed<>(acknowledgerExtractor, nacknowledgerExtractor, valueExtractor);
+        return new Composed<>(acknowledgerExtractor, nacknowledgerExtractor, valueExtractor, false);
+    }
+
+    /**
+     * Same as {@link #composed(Function, Function, Function)}, but where the extracted
+     * acknowledgers are cumulative. See {@link #isAcknowledgementCumulative()}.
+     */
+    static <T, V> AloComponentExtractor<T, V> composedCumulative(
+        Function<T, Runnable> cumulativeAcknowledgerExtractor,
+        Function<T, Consumer<? super Throwable>> nacknowledgerExtractor,
+        Function<? super T, ? extends V> valueExtractor
+    ) {
+        return new Composed<>(cumulativeAcknowledgerExtractor, nacknowledgerExtractor, valueExtractor, true);
+    }
+
+    /**
+     * Indicates whether acknowledgers extracted by this extractor are cumulative, i.e. executing
+     * the acknowledger of any given item implicitly acknowledges every item emitted before it in
+     * the same group (like committing a Kafka offset, or a RabbitMQ "multiple" ack). When
+     * acknowledgement is ordered, this allows contiguous runs of positively acknowledged items to
+     * be coalesced such that only the acknowledger of the last item in each run is executed.
+     */
+    default boolean isAcknowledgementCumulative() {
+        return false;
+    }
+
+    /**
+     * Executes native acknowledgement of the provided item. When queued, this is invoked upon
+     * execution of the item's acknowledgement rather than upon emission, such that no
+     * acknowledger is extracted for items whose (cumulative) acknowledgement is coalesced.
+     * Defaults to extracting and running the item's native acknowledger, and may be overridden to
+     * avoid allocating acknowledgers altogether.
+     */
+    default void acknowledge(T t) {
+        nativeAcknowledger(t).run();
+    }
+
+    /**
+     * Executes native nacknowledgement of the provided item. Defaults to extracting and invoking
+     * the item's native nacknowledger.
+     */
+    default void nacknowledge(T t, Throwable error) {
+        nativeNacknowledger(t).accept(error);
     }
 
     Runnable nativeAcknowledger(T t);
@@ -34,14 +76,23 @@ public interface AloComponentExtractor<T, V> {
 
         private final Function<? super T, ? extends V> valueExtractor;
 
+        private final boolean acknowledgementCumulative;
+
         private Composed(
             Function<T, Runnable> acknowledgerExtractor,
             Function<T, Consumer<? super Throwable>> nacknowledgerExtractor,
-            Function<? super T, ? extends V> valueExtractor
+            Function<? super T, ? extends V> valueExtractor,
+            boolean acknowledgementCumulative
         ) {
             this.acknowledgerExtractor = acknowledgerExtractor;
             this.nacknowledgerExtractor = nacknowledgerExtractor;
             this.valueExtractor = valueExtractor;
+            this.acknowledgementCumulative = acknowledgementCumulative;
+        }
+
+        @Override
+        public boolean isAcknowledgementCumulative() {
+            return acknowledgementCumulative;
         }
 
         @Override
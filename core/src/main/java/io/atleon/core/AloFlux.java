@@ -5,6 +5,7 @@ import org.reactivestreams.Subscriber;
 import reactor.core.Disposable;
 import reactor.core.observability.SignalListenerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
 import reactor.core.publisher.SynchronousSink;
 import reactor.core.scheduler.Scheduler;
@@ -157,6 +158,66 @@ public class AloFlux<T> implements Publisher<Alo<T>> {
         return new AloFlux<>(wrapped.handle(AloOps.consumingHandler(consumer, Alo::acknowledge)));
     }
 
+    /**
+     * Apply a potentially blocking mapping to each data item, with up to the provided number of
+     * mappings executed concurrently. Mappings are executed on virtual threads when running on
+     * Java 21+, and on {@link Schedulers#boundedElastic()} otherwise. Like
+     * {@link #mapNotNull(Function)}, {@link Alo} items whose mapping results in null are
+     * acknowledged. Note that results may be emitted in a different order than their sources.
+     *
+     * @param mapper      Potentially blocking mapping to be applied to each data item
+     * @param concurrency The maximum number of mappings to execute concurrently
+     * @return A new AloFlux of mapped data items
+     */
+    public <V> AloFlux<V> mapBlocking(Function<? super T, ? extends V> mapper, int concurrency) {
+        return mapBlocking(mapper, concurrency, BlockingSchedulers.defaultScheduler());
+    }
+
+    /**
+     * Apply a potentially blocking mapping to each data item, with up to the provided number of
+     * mappings executed concurrently on the provided Scheduler. {@link Alo} items whose mapping
+     * results in null are acknowledged. Note that results may be emitted in a different order
+     * than their sources.
+     *
+     * @param mapper      Potentially blocking mapping to be applied to each data item
+     * @param concurrency The maximum number of mappings to execute concurrently
+     * @param scheduler   The Scheduler on which to execute mappings
+     * @return A new AloFlux of mapped data items
+     */
+    public <V> AloFlux<V> mapBlocking(Function<? super T, ? extends V> mapper, int concurrency, Scheduler scheduler) {
+        return flatMap(t -> Mono.<V>fromCallable(() -> mapper.apply(t)).subscribeOn(scheduler), concurrency);
+    }
+
+    /**
+     * Apply a potentially blocking terminal consumption to each data item, with up to the
+     * provided number of consumptions executed concurrently, acknowledging the corresponding
+     * {@link Alo} upon successful consumer invocation. Consumptions are executed on virtual
+     * threads when running on Java 21+, and on {@link Schedulers#boundedElastic()} otherwise.
+     * Resulting AloFlux will emit no values.
+     *
+     * @param consumer    Potentially blocking consumption to be applied to each data item
+     * @param concurrency The maximum number of consumptions to execute concurrently
+     * @return A new AloFlux that emits no values
+     */
+    public AloFlux<Void> consumeBlocking(Consumer<? super T> consumer, int concurrency) {
+        return consumeBlocking(consumer, concurrency, BlockingSchedulers.defaultScheduler());
+    }
+
+    /**
+     * Apply a potentially blocking terminal consumption to each data item, with up to the
+     * provided number of consumptions executed concurrently on the provided Scheduler,
+     * acknowledging the corresponding {@link Alo} upon successful consumer invocation. Resulting
+     * AloFlux will emit no values.
+     *
+     * @param consumer    Potentially blocking consumption to be applied to each data item
+     * @param concurrency The maximum number of consumptions to execute concurrently
+     * @param scheduler   The Scheduler on which to execute consumptions
+     * @return A new AloFlux that emits no values
+     */
+    public AloFlux<Void> consumeBlocking(Consumer<? super T> consumer, int concurrency, Scheduler scheduler) {
+        return flatMap(t -> Mono.<Void>fromRunnable(() -> consumer.accept(t)).subscribeOn(scheduler), concurrency);
+    }
+
     /**
      * @see Flux#concatMap(Function)
      */
@@ -263,6 +324,61 @@ public class AloFlux<T> implements Publisher<Alo<T>> {
         return new AloFlux<>(wrapped.transform(DeduplicatingTransformer.alo(config, deduplication, scheduler)));
     }
 
+    /**
+     * Deduplicates emitted data items using a memory-bounded probabilistic filter. Unlike
+     * {@link #deduplicate(DeduplicationConfig, Deduplication)}, the first item with any given key
+     * is emitted immediately, and subsequent items with the same key are acknowledged without
+     * being emitted for the configured retention Duration. Items may be falsely deemed duplicates
+     * at the configured false positive rate. Time is sourced from {@link Schedulers#parallel()}.
+     *
+     * @param config       Configuration of quantitative behaviors of probabilistic deduplication
+     * @param keyExtractor Extracts the String key that data items are deduplicated on
+     * @return AloFlux of deduplicated items
+     */
+    public AloFlux<T> deduplicateProbabilistically(
+        ProbabilisticDeduplicationConfig config,
+        Function<? super T, String> keyExtractor
+    ) {
+        return deduplicateProbabilistically(config, keyExtractor, Schedulers.parallel());
+    }
+
+    /**
+     * Deduplicates emitted data items using a memory-bounded probabilistic filter. Unlike
+     * {@link #deduplicate(DeduplicationConfig, Deduplication)}, the first item with any given key
+     * is emitted immediately, and subsequent items with the same key are acknowledged without
+     * being emitted for the configured retention Duration. Items may be falsely deemed duplicates
+     * at the configured false positive rate.
+     *
+     * @param config       Configuration of quantitative behaviors of probabilistic deduplication
+     * @param keyExtractor Extracts the String key that data items are deduplicated on
+     * @param scheduler    a time-capable Scheduler from which to source time
+     * @return AloFlux of deduplicated items
+     */
+    public AloFlux<T> deduplicateProbabilistically(
+        ProbabilisticDeduplicationConfig config,
+        Function<? super T, String> keyExtractor,
+        Scheduler scheduler
+    ) {
+        return new AloFlux<>(wrapped.transform(ProbabilisticDeduplicatingTransformer.alo(config, keyExtractor, scheduler)));
+    }
+
+    /**
+     * Skips data items that have already been processed, as determined by whether the key
+     * extracted from each item has been recorded in the provided {@link IdempotencyStore}.
+     * Skipped items are immediately acknowledged. Keys of emitted items are recorded in the store
+     * upon positive acknowledgement, and retained for the provided time-to-live. When the store
+     * is persistent (i.e. {@link MemoryMappedIdempotencyStore}), this allows skipping items that
+     * are redelivered after restarts.
+     *
+     * @param store        The store in which processed keys are recorded
+     * @param keyExtractor Function that extracts idempotency keys from data items
+     * @param ttl          How long processed keys are retained
+     * @return AloFlux of items that have not already been processed
+     */
+    public AloFlux<T> skipProcessed(IdempotencyStore store, Function<? super T, String> keyExtractor, Duration ttl) {
+        return new AloFlux<>(wrapped.handle(AloOps.idempotencyHandler(store, keyExtractor, ttl)));
+    }
+
     /**
      * Divide this sequence into dynamically created Flux (or groups) by hashing Number values
      * extracted from emitted data items. Note that there are guidelines and nuances to
@@ -343,6 +459,72 @@ public class AloFlux<T> implements Publisher<Alo<T>> {
             .as(flux -> new GroupFlux<>(flux, cardinality));
     }
 
+    /**
+     * Process data items in parallel across a fixed number of lanes, where items are assigned to
+     * lanes by hashing keys extracted from them, such that items with the same key are mapped
+     * and have their results emitted serially and in order. This is a cheaper alternative to
+     * grouping by key hash and then merging groups, and has no risk of hanging due to
+     * unconsumed groups. Lanes are processed on {@link Schedulers#boundedElastic()}.
+     *
+     * @param keyExtractor Function that extracts keys from data items for hashing
+     * @param parallelism  How many lanes to process items on in parallel
+     * @param mapper       Function that maps data items to Publishers of results
+     * @return An AloFlux of the concatenated results of each lane, merged across lanes
+     */
+    public <V> AloFlux<V> parallelByKey(
+        Function<? super T, ?> keyExtractor,
+        int parallelism,
+        Function<? super T, ? extends Publisher<V>> mapper
+    ) {
+        return parallelByKey(keyExtractor, parallelism, mapper, Schedulers.boundedElastic());
+    }
+
+    /**
+     * Process data items in parallel across a fixed number of lanes, where items are assigned to
+     * lanes by hashing keys extracted from them, such that items with the same key are mapped
+     * and have their results emitted serially and in order. Each lane is processed on its own
+     * worker from the provided Scheduler.
+     *
+     * @param keyExtractor Function that extracts keys from data items for hashing
+     * @param parallelism  How many lanes to process items on in parallel
+     * @param mapper       Function that maps data items to Publishers of results
+     * @param scheduler    Scheduler from which to create a worker per lane
+     * @return An AloFlux of the concatenated results of each lane, merged across lanes
+     */
+    public <V> AloFlux<V> parallelByKey(
+        Function<? super T, ?> keyExtractor,
+        int parallelism,
+        Function<? super T, ? extends Publisher<V>> mapper,
+        Scheduler scheduler
+    ) {
+        return parallelByKey(keyExtractor, parallelism, mapper, scheduler, ParallelByKeyOperator.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Process data items in parallel across a fixed number of lanes, where items are assigned to
+     * lanes by hashing keys extracted from them, such that items with the same key are mapped
+     * and have their results emitted serially and in order. Each lane is processed on its own
+     * worker from the provided Scheduler. Prefetch bounds both the number of items buffered per
+     * lane and the number of results per lane awaiting downstream request.
+     *
+     * @param keyExtractor Function that extracts keys from data items for hashing
+     * @param parallelism  How many lanes to process items on in parallel
+     * @param mapper       Function that maps data items to Publishers of results
+     * @param scheduler    Scheduler from which to create a worker per lane
+     * @param prefetch     The number of items and results to buffer per lane
+     * @return An AloFlux of the concatenated results of each lane, merged across lanes
+     */
+    public <V> AloFlux<V> parallelByKey(
+        Function<? super T, ?> keyExtractor,
+        int parallelism,
+        Function<? super T, ? extends Publisher<V>> mapper,
+        Scheduler scheduler,
+        int prefetch
+    ) {
+        return wrapped.transform(source -> new ParallelByKeyOperator<>(source, keyExtractor, parallelism, mapper, scheduler, prefetch))
+            .as(AloFlux::new);
+    }
+
     /**
      * @see Flux#publishOn(Scheduler)
      */
@@ -418,10 +600,12 @@ public class AloFlux<T> implements Publisher<Alo<T>> {
      * configurable Duration passes between one signal (subscription, request, onNext) and the
      * receipt of any other signal. This is typically useful for detecting deadlocked streams and
      * when coupled with a downstream {@link AloFlux#resubscribeOnError(ResubscriptionConfig)} can
-     * help remedy transient stream deadlock issues.
+     * help remedy transient stream deadlock issues. Stalls, where there is outstanding demand
+     * but nothing is emitted, may optionally also be detected. Activity of all enforced streams
+     * is checked by a single watchdog timed on {@link Schedulers#parallel()}.
      */
     public AloFlux<T> enforceActivity(ActivityEnforcementConfig config) {
-        return new AloFlux<>(wrapped.transform(new ActivityEnforcingTransformer<>(config)));
+        return new AloFlux<>(wrapped.transform(new ActivityEnforcingTransformer<>(config, Schedulers.parallel())));
     }
 
     /**
@@ -454,12 +638,34 @@ public class AloFlux<T> implements Publisher<Alo<T>> {
 
     /**
      * Limits the rate at which items are emitted by this Publisher. Especially useful in cases
-     * where processing requires interaction with resource-contrained I/O dependencies
+     * where processing requires interaction with resource-contrained I/O dependencies. Rate
+     * limiting is applied by controlling upstream demand, such that no thread is blocked while
+     * waiting for permits. Like {@link Flux#publishOn(Scheduler)}, items are emitted on a
+     * bounded elastic Scheduler.
      */
     public AloFlux<T> limitPerSecond(RateLimitingConfig config) {
         return new AloFlux<>(wrapped.transform(new RateLimitingTransformer<>(config, Schedulers.boundedElastic())));
     }
 
+    /**
+     * @see AloFlux#limitPerSecondByKey(Function, RateLimitingConfig)
+     */
+    public AloFlux<T> limitPerSecondByKey(Function<? super T, ?> keyExtractor, double permitsPerSecond) {
+        return limitPerSecondByKey(keyExtractor, new RateLimitingConfig(permitsPerSecond));
+    }
+
+    /**
+     * Limits the rate at which items with any given key are emitted by this Publisher. Especially
+     * useful in cases where processing requires interaction with resource-constrained tenants or
+     * hosts. Items for throttled keys are queued per key without blocking emission of items for
+     * other keys, and items with the same key are emitted in order. The configured prefetch bounds
+     * how many items may be delayed per key, and rate limiting state for idle keys is expired.
+     */
+    public AloFlux<T> limitPerSecondByKey(Function<? super T, ?> keyExtractor, RateLimitingConfig config) {
+        Function<Alo<T>, ?> aloKeyExtractor = alo -> keyExtractor.apply(alo.get());
+        return new AloFlux<>(wrapped.transform(new KeyedRateLimitingTransformer<>(aloKeyExtractor, config, Schedulers.parallel())));
+    }
+
     /**
      * Apply {@link AloFailureStrategy} processing to emitted elements that may be error containers
      * or otherwise indicate an error.
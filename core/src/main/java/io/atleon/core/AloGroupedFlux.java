@@ -1,5 +1,6 @@
 package io.atleon.core;
 
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.GroupedFlux;
 import reactor.core.publisher.SynchronousSink;
@@ -23,6 +24,13 @@ public class AloGroupedFlux<K, T> extends AloFlux<T> {
         this.key = key;
     }
 
+    /**
+     * Wraps a Publisher of Alo elements as an AloGroupedFlux with the provided key
+     */
+    public static <K, T> AloGroupedFlux<K, T> create(K key, Publisher<? extends Alo<T>> publisher) {
+        return new AloGroupedFlux<>(AloFlux.toFlux(publisher), key);
+    }
+
     static <K, T> AloGroupedFlux<K, T> create(GroupedFlux<? extends K, Alo<T>> groupedFlux) {
         return new AloGroupedFlux<>(groupedFlux, groupedFlux.key());
     }
@@ -2,6 +2,7 @@ package io.atleon.core;
 
 import reactor.core.publisher.SynchronousSink;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -127,6 +128,28 @@ final class AloOps {
         };
     }
 
+    public static <T> BiConsumer<Alo<T>, SynchronousSink<Alo<T>>>
+    idempotencyHandler(IdempotencyStore store, Function<? super T, String> keyExtractor, Duration ttl) {
+        return (alo, sink) -> {
+            String key = null;
+            Boolean recorded = null;
+            try {
+                key = Objects.requireNonNull(keyExtractor.apply(alo.get()), "Idempotency key must not be null");
+                recorded = store.isRecorded(key);
+            } catch (Throwable error) {
+                processFailureOrNacknowledge(sink, alo, error);
+            }
+
+            if (recorded != null) {
+                if (recorded) {
+                    Alo.acknowledge(alo);
+                } else {
+                    sink.next(IdempotencyRecordingAlo.create(alo, store, key, ttl));
+                }
+            }
+        };
+    }
+
     public static <T> Alo<List<T>> fanIn(List<Alo<T>> alos) {
         Alo<T> firstAlo = alos.get(0);
         if (alos.size() == 1) {
@@ -32,6 +32,18 @@ public interface AloQueueListener extends Configurable {
 
     }
 
+    /**
+     * Callback for when a queue has been created, along with a probe through which head-of-line
+     * state of the queue may be periodically inspected. Delegates to {@link #created(Object)} by
+     * default.
+     *
+     * @param group The group for which a queue has been created
+     * @param probe Probe of the created queue's head-of-line state
+     */
+    default void created(Object group, AloQueueProbe probe) {
+        created(group);
+    }
+
     /**
      * Callback for when a number of items in a group has been enqueued
      *
@@ -52,6 +64,39 @@ public interface AloQueueListener extends Configurable {
 
     }
 
+    /**
+     * Callback for a sampled latency between enqueueing of an item and completion (positive or
+     * negative acknowledgement) of that item. Only a fraction of items are sampled, such that
+     * sampling overhead is negligible.
+     *
+     * @param group        The group under which the sampled item was enqueued
+     * @param latencyNanos The latency between enqueueing and completion, in nanoseconds
+     */
+    default void acknowledgementLatencySampled(Object group, long latencyNanos) {
+
+    }
+
+    /**
+     * Callback for when an empty queue has been evicted. If items are subsequently enqueued for
+     * the same group, a new queue is created for it.
+     *
+     * @param group The group whose queue has been evicted
+     */
+    default void evicted(Object group) {
+
+    }
+
+    /**
+     * Callback for when the max number of in-flight items has been adjusted, which only happens
+     * when the max in-flight is adaptive. Also invoked with the initial max in-flight upon
+     * subscription.
+     *
+     * @param maxInFlight The current max number of in-flight items across all groups
+     */
+    default void maxInFlightAdjusted(long maxInFlight) {
+
+    }
+
     /**
      * Callback for when the resource managing queues has been disposed
      */
@@ -84,6 +129,11 @@ public interface AloQueueListener extends Configurable {
             listeners.forEach(listener -> listener.created(group));
         }
 
+        @Override
+        public void created(Object group, AloQueueProbe probe) {
+            listeners.forEach(listener -> listener.created(group, probe));
+        }
+
         @Override
         public void enqueued(Object group, long count) {
             listeners.forEach(listener -> listener.enqueued(group, count));
@@ -94,6 +144,21 @@ public interface AloQueueListener extends Configurable {
             listeners.forEach(listener -> listener.dequeued(group, count));
         }
 
+        @Override
+        public void acknowledgementLatencySampled(Object group, long latencyNanos) {
+            listeners.forEach(listener -> listener.acknowledgementLatencySampled(group, latencyNanos));
+        }
+
+        @Override
+        public void evicted(Object group) {
+            listeners.forEach(listener -> listener.evicted(group));
+        }
+
+        @Override
+        public void maxInFlightAdjusted(long maxInFlight) {
+            listeners.forEach(listener -> listener.maxInFlightAdjusted(maxInFlight));
+        }
+
         @Override
         public void close() {
             listeners.forEach(AloQueueListener::close);
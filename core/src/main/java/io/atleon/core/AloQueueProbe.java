@@ -0,0 +1,45 @@
+package io.atleon.core;
+
+/**
+ * Read-only view of the state of a group's acknowledgement queue, provided to
+ * {@link AloQueueListener}s in order to diagnose head-of-line blocking, i.e. to distinguish a
+ * single stuck item (old oldest in-process item with many completed items blocked behind it)
+ * from generally slow processing. Evaluation inspects the queue's retained items, so it should be
+ * done periodically (i.e. upon metric collection) rather than per item. Results are approximate
+ * when the queue is concurrently modified.
+ */
+public interface AloQueueProbe {
+
+    static AloQueueProbe empty() {
+        return new Empty();
+    }
+
+    /**
+     * @return Nanoseconds since the oldest item that is still in process was enqueued, or zero
+     * if there are no items in process
+     */
+    long oldestInProcessAgeNanos();
+
+    /**
+     * @return The number of items that have been completed, but whose acknowledgement is blocked
+     * behind the oldest item that is still in process
+     */
+    long blockedCompletionCount();
+
+    class Empty implements AloQueueProbe {
+
+        private Empty() {
+
+        }
+
+        @Override
+        public long oldestInProcessAgeNanos() {
+            return 0L;
+        }
+
+        @Override
+        public long blockedCompletionCount() {
+            return 0L;
+        }
+    }
+}
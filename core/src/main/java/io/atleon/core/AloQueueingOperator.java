@@ -3,7 +3,12 @@ package io.atleon.core;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import reactor.core.scheduler.Scheduler;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -11,6 +16,7 @@ import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
 
@@ -26,8 +32,30 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
 
     private final AloFactory<V> factory;
 
+    private final GroupFlowControl flowControl;
+
+    private final ToLongFunction<? super T> weigher;
+
     private final long maxInFlight;
 
+    private final long maxInFlightPerGroup;
+
+    private final boolean fairInFlightSharing;
+
+    private final long maxInFlightWeight;
+
+    private final long maxInFlightWeightPerGroup;
+
+    private final long minInFlight;
+
+    private final Duration acknowledgementDeadline;
+
+    private final Scheduler acknowledgementDeadlineScheduler;
+
+    private final long emptyGroupIdleTimeoutNanos;
+
+    private final int maxRetainedGroups;
+
     AloQueueingOperator(
         Publisher<? extends T> source,
         Function<T, ?> groupExtractor,
@@ -35,7 +63,18 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
         AloQueueListener listener,
         AloComponentExtractor<T, V> componentExtractor,
         AloFactory<V> factory,
-        long maxInFlight
+        GroupFlowControl flowControl,
+        ToLongFunction<? super T> weigher,
+        long maxInFlight,
+        long maxInFlightPerGroup,
+        boolean fairInFlightSharing,
+        long maxInFlightWeight,
+        long maxInFlightWeightPerGroup,
+        long minInFlight,
+        Duration acknowledgementDeadline,
+        Scheduler acknowledgementDeadlineScheduler,
+        long emptyGroupIdleTimeoutNanos,
+        int maxRetainedGroups
     ) {
         this.source = source;
         this.groupExtractor = groupExtractor;
@@ -43,7 +82,18 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
         this.listener = listener;
         this.componentExtractor = componentExtractor;
         this.factory = factory;
+        this.flowControl = flowControl;
+        this.weigher = weigher;
         this.maxInFlight = maxInFlight;
+        this.maxInFlightPerGroup = maxInFlightPerGroup;
+        this.fairInFlightSharing = fairInFlightSharing;
+        this.maxInFlightWeight = maxInFlightWeight;
+        this.maxInFlightWeightPerGroup = maxInFlightWeightPerGroup;
+        this.minInFlight = minInFlight;
+        this.acknowledgementDeadline = acknowledgementDeadline;
+        this.acknowledgementDeadlineScheduler = acknowledgementDeadlineScheduler;
+        this.emptyGroupIdleTimeoutNanos = emptyGroupIdleTimeoutNanos;
+        this.maxRetainedGroups = maxRetainedGroups;
     }
 
     @Override
@@ -55,12 +105,27 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
             listener,
             componentExtractor,
             factory,
-            maxInFlight
+            flowControl,
+            weigher,
+            maxInFlight,
+            maxInFlightPerGroup,
+            fairInFlightSharing,
+            maxInFlightWeight,
+            maxInFlightWeightPerGroup,
+            minInFlight,
+            acknowledgementDeadline,
+            acknowledgementDeadlineScheduler,
+            emptyGroupIdleTimeoutNanos,
+            maxRetainedGroups
         );
         source.subscribe(queueingSubscriber);
     }
 
-    private static final class AloQueueingSubscriber<T, V> implements Subscriber<T>, Subscription {
+    private static final class AloQueueingSubscriber<T, V>
+        implements Subscriber<T>, Subscription, AcknowledgementQueue.ItemAcknowledger<T> {
+
+        // Every Nth enqueued item has its acknowledgement latency sampled. Must be a power of two.
+        private static final long LATENCY_SAMPLING_INTERVAL = 16L;
 
         private static final AtomicLongFieldUpdater<AloQueueingSubscriber> FREE_CAPACITY =
             AtomicLongFieldUpdater.newUpdater(AloQueueingSubscriber.class, "freeCapacity");
@@ -71,6 +136,18 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
         private static final AtomicIntegerFieldUpdater<AloQueueingSubscriber> REQUESTS_IN_PROGRESS =
             AtomicIntegerFieldUpdater.newUpdater(AloQueueingSubscriber.class, "requestsInProgress");
 
+        private static final AtomicLongFieldUpdater<AloQueueingSubscriber> FREE_WEIGHT =
+            AtomicLongFieldUpdater.newUpdater(AloQueueingSubscriber.class, "freeWeight");
+
+        private static final AtomicLongFieldUpdater<AloQueueingSubscriber> UPSTREAM_OUTSTANDING =
+            AtomicLongFieldUpdater.newUpdater(AloQueueingSubscriber.class, "upstreamOutstanding");
+
+        private static final AtomicLongFieldUpdater<AloQueueingSubscriber> ACTIVE_GROUPS =
+            AtomicLongFieldUpdater.newUpdater(AloQueueingSubscriber.class, "activeGroups");
+
+        private static final AtomicIntegerFieldUpdater<AloQueueingSubscriber> SWEEP_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(AloQueueingSubscriber.class, "sweepInProgress");
+
         private final Subscriber<? super Alo<V>> actual;
 
         private final Function<T, ?> groupExtractor;
@@ -83,7 +160,43 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
 
         private final AloFactory<V> factory;
 
-        private final Map<Object, AcknowledgementQueue> queuesByGroup = new ConcurrentHashMap<>();
+        private final GroupFlowControl flowControl;
+
+        private final ToLongFunction<? super T> weigher;
+
+        private final long maxInFlight;
+
+        private final long maxInFlightPerGroup;
+
+        private final boolean fairInFlightSharing;
+
+        private final long maxInFlightWeight;
+
+        private final long maxInFlightWeightPerGroup;
+
+        private final boolean weightBounded;
+
+        private final boolean groupWeightBounded;
+
+        private final boolean weighed;
+
+        // Null unless max in-flight is adaptive
+        private final AdaptiveInFlightLimit adaptiveInFlightLimit;
+
+        // Null unless acknowledgement deadlines are enforced
+        private final Duration acknowledgementDeadline;
+
+        private final Scheduler acknowledgementDeadlineScheduler;
+
+        private final long emptyGroupIdleTimeoutNanos;
+
+        private final int maxRetainedGroups;
+
+        private final boolean evictionEnabled;
+
+        private final boolean groupInFlightTracked;
+
+        private final Map<Object, GroupQueue> queuesByGroup = new ConcurrentHashMap<>();
 
         private Subscription parent;
 
@@ -93,6 +206,29 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
 
         private volatile int requestsInProgress;
 
+        private volatile long freeWeight;
+
+        // Number of items requested from upstream but not yet received, only tracked when weight is bounded
+        private volatile long upstreamOutstanding;
+
+        // Number of groups with in-flight items, only tracked when in-flight is fairly shared
+        private volatile long activeGroups;
+
+        // Totals used to estimate the mean weight of items, only written by onNext
+        private volatile long weighedCount;
+
+        private volatile long weighedTotal;
+
+        // Number of items enqueued, used for latency sampling, only accessed by onNext
+        private long enqueuedCount;
+
+        private volatile int sweepInProgress;
+
+        // Eviction sweep scheduling, only accessed while a sweep is in progress
+        private long lastSweepNanos = System.nanoTime();
+
+        private int sweepGroupThreshold;
+
         public AloQueueingSubscriber(
             Subscriber<? super Alo<V>> actual,
             Function<T, ?> groupExtractor,
@@ -100,7 +236,18 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
             AloQueueListener listener,
             AloComponentExtractor<T, V> componentExtractor,
             AloFactory<V> factory,
-            long maxInFlight
+            GroupFlowControl flowControl,
+            ToLongFunction<? super T> weigher,
+            long maxInFlight,
+            long maxInFlightPerGroup,
+            boolean fairInFlightSharing,
+            long maxInFlightWeight,
+            long maxInFlightWeightPerGroup,
+            long minInFlight,
+            Duration acknowledgementDeadline,
+            Scheduler acknowledgementDeadlineScheduler,
+            long emptyGroupIdleTimeoutNanos,
+            int maxRetainedGroups
         ) {
             this.actual = actual;
             this.groupExtractor = groupExtractor;
@@ -108,27 +255,94 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
             this.listener = listener;
             this.componentExtractor = componentExtractor;
             this.factory = factory;
-            this.freeCapacity = maxInFlight;
+            this.flowControl = flowControl;
+            this.weigher = weigher;
+            this.maxInFlight = maxInFlight;
+            this.maxInFlightPerGroup = maxInFlightPerGroup;
+            this.fairInFlightSharing = fairInFlightSharing;
+            this.maxInFlightWeight = maxInFlightWeight;
+            this.maxInFlightWeightPerGroup = maxInFlightWeightPerGroup;
+            this.weightBounded = maxInFlightWeight != Long.MAX_VALUE;
+            this.groupWeightBounded = maxInFlightWeightPerGroup != Long.MAX_VALUE;
+            this.weighed = weightBounded || groupWeightBounded;
+            this.adaptiveInFlightLimit = minInFlight < maxInFlight ? AdaptiveInFlightLimit.create(minInFlight, maxInFlight) : null;
+            this.acknowledgementDeadline = acknowledgementDeadline;
+            this.acknowledgementDeadlineScheduler = acknowledgementDeadlineScheduler;
+            this.emptyGroupIdleTimeoutNanos = emptyGroupIdleTimeoutNanos;
+            this.maxRetainedGroups = maxRetainedGroups;
+            this.evictionEnabled = emptyGroupIdleTimeoutNanos != Long.MAX_VALUE || maxRetainedGroups != Integer.MAX_VALUE;
+            this.groupInFlightTracked = maxInFlightPerGroup != Long.MAX_VALUE
+                || fairInFlightSharing
+                || groupWeightBounded
+                || evictionEnabled;
+            this.sweepGroupThreshold = maxRetainedGroups;
+            this.freeCapacity = adaptiveInFlightLimit == null ? maxInFlight : adaptiveInFlightLimit.get();
+            this.freeWeight = maxInFlightWeight;
         }
 
         @Override
         public void onSubscribe(Subscription s) {
             parent = s;
+            if (adaptiveInFlightLimit != null) {
+                listener.maxInFlightAdjusted(adaptiveInFlightLimit.get());
+            }
             actual.onSubscribe(this);
         }
 
         @Override
         public void onNext(T t) {
             Object group = groupExtractor.apply(t);
-            AcknowledgementQueue queue = queuesByGroup.computeIfAbsent(group, this::newQueueForGroup);
+            GroupQueue groupQueue = acquireQueueForGroup(group);
+
+            // The clock is only read when enqueueing time is needed
+            boolean latencySampled = (enqueuedCount++ & (LATENCY_SAMPLING_INTERVAL - 1)) == 0L;
+            long enqueuedNanos = latencySampled || adaptiveInFlightLimit != null || evictionEnabled || groupQueue.ageProbed
+                ? System.nanoTime()
+                : AcknowledgementQueue.UNSTAMPED;
 
-            AcknowledgementQueue.InFlight inFlight =
-                queue.add(componentExtractor.nativeAcknowledger(t), componentExtractor.nativeNacknowledger(t));
+            long weight = weighed ? Math.max(0L, weigher.applyAsLong(t)) : 0L;
+            AcknowledgementQueue.InFlight inFlight = groupQueue.queue.add(t, this, weight, enqueuedNanos);
             listener.enqueued(group, 1);
 
-            Runnable acknowledger = () -> postComplete(group, queue.complete(inFlight));
-            Consumer<Throwable> nacknowedger = error -> postComplete(group, queue.completeExceptionally(inFlight, error));
-            actual.onNext(factory.create(componentExtractor.value(t), acknowledger, nacknowedger));
+            if (weightBounded) {
+                FREE_WEIGHT.addAndGet(this, -weight);
+                UPSTREAM_OUTSTANDING.decrementAndGet(this);
+                weighedCount = weighedCount + 1;
+                weighedTotal = weighedTotal + weight;
+            }
+
+            if (groupInFlightTracked) {
+                if (groupWeightBounded) {
+                    GroupQueue.IN_FLIGHT_WEIGHT.addAndGet(groupQueue, weight);
+                }
+                controlFlow(groupQueue);
+            }
+
+            if (evictionEnabled) {
+                groupQueue.lastActiveNanos = enqueuedNanos;
+                evictIfNecessary(enqueuedNanos);
+            }
+
+            InFlightCompleter completer = InFlightCompleter.attachedTo(this, groupQueue, inFlight);
+            completer.reset(enqueuedNanos, latencySampled);
+            if (acknowledgementDeadline != null) {
+                completer.enforceDeadline(acknowledgementDeadline, acknowledgementDeadlineScheduler);
+            }
+            actual.onNext(factory.create(componentExtractor.value(t), completer, completer));
+
+            if (weightBounded) {
+                drainRequest();
+            }
+        }
+
+        @Override
+        public void acknowledge(T t) {
+            componentExtractor.acknowledge(t);
+        }
+
+        @Override
+        public void nacknowledge(T t, Throwable error) {
+            componentExtractor.nacknowledge(t, error);
         }
 
         @Override
@@ -160,17 +374,85 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
             }
         }
 
-        private AcknowledgementQueue newQueueForGroup(Object group) {
-            listener.created(group);
-            return queueSupplier.get();
+        /**
+         * Gets the queue for the provided group, creating it if necessary. When in-flight items
+         * are tracked per group, the returned queue has already had an in-flight item acquired on
+         * it, which guarantees that it can not be concurrently evicted.
+         */
+        private GroupQueue acquireQueueForGroup(Object group) {
+            while (true) {
+                GroupQueue groupQueue = queuesByGroup.computeIfAbsent(group, this::newQueueForGroup);
+                if (!groupInFlightTracked) {
+                    return groupQueue;
+                }
+
+                long inFlight = groupQueue.acquire();
+                if (inFlight > 0L) {
+                    if (inFlight == 1L && fairInFlightSharing) {
+                        ACTIVE_GROUPS.incrementAndGet(this);
+                    }
+                    return groupQueue;
+                }
+
+                // Queue was concurrently evicted, so make sure it is no longer mapped and retry
+                queuesByGroup.remove(group, groupQueue);
+            }
+        }
+
+        private GroupQueue newQueueForGroup(Object group) {
+            GroupQueue groupQueue = new GroupQueue(group, queueSupplier.get());
+            listener.created(group, groupQueue);
+            return groupQueue;
         }
 
-        private void postComplete(Object group, long drainedFromQueue) {
+        private void postComplete(GroupQueue groupQueue, long enqueuedNanos, boolean latencySampled, long drainedFromQueue) {
+            if (latencySampled || adaptiveInFlightLimit != null) {
+                long latencyNanos = System.nanoTime() - enqueuedNanos;
+                if (latencySampled) {
+                    listener.acknowledgementLatencySampled(groupQueue.group, latencyNanos);
+                }
+                if (adaptiveInFlightLimit != null) {
+                    adaptMaxInFlight(latencyNanos, drainedFromQueue == 0L);
+                }
+            }
             if (drainedFromQueue > 0L) {
-                listener.dequeued(group, drainedFromQueue);
+                listener.dequeued(groupQueue.group, drainedFromQueue);
+                long drainedWeight = weighed ? groupQueue.queue.takeDrainedWeight() : 0L;
+                if (groupInFlightTracked) {
+                    if (GroupQueue.IN_FLIGHT.addAndGet(groupQueue, -drainedFromQueue) == 0L) {
+                        if (fairInFlightSharing) {
+                            ACTIVE_GROUPS.decrementAndGet(this);
+                        }
+                        if (evictionEnabled) {
+                            long nowNanos = System.nanoTime();
+                            groupQueue.lastActiveNanos = nowNanos;
+                            evictIfNecessary(nowNanos);
+                        }
+                    }
+                    if (groupWeightBounded) {
+                        GroupQueue.IN_FLIGHT_WEIGHT.addAndGet(groupQueue, -drainedWeight);
+                    }
+                    controlFlow(groupQueue);
+                }
+                if (weightBounded) {
+                    FREE_WEIGHT.addAndGet(this, drainedWeight);
+                }
                 if (freeCapacity != Long.MAX_VALUE) {
                     FREE_CAPACITY.addAndGet(this, drainedFromQueue);
                     drainRequest();
+                } else if (weightBounded) {
+                    drainRequest();
+                }
+            }
+        }
+
+        private void adaptMaxInFlight(long latencyNanos, boolean drainRequired) {
+            long adjustment = adaptiveInFlightLimit.sample(latencyNanos);
+            if (adjustment != 0L) {
+                FREE_CAPACITY.addAndGet(this, adjustment);
+                listener.maxInFlightAdjusted(adaptiveInFlightLimit.get());
+                if (adjustment > 0L && drainRequired) {
+                    drainRequest();
                 }
             }
         }
@@ -183,17 +465,366 @@ final class AloQueueingOperator<T, V> implements Publisher<Alo<V>> {
             int missed = 1;
             do {
                 long toRequest = Math.min(freeCapacity, requestOutstanding);
+                if (weightBounded) {
+                    toRequest = Math.min(toRequest, calculateWeightAllowance());
+                }
 
                 if (toRequest > 0L) {
                     if (freeCapacity != Long.MAX_VALUE) {
                         FREE_CAPACITY.addAndGet(this, -toRequest);
                     }
+                    if (weightBounded) {
+                        UPSTREAM_OUTSTANDING.addAndGet(this, toRequest);
+                    }
                     REQUEST_OUTSTANDING.addAndGet(this, -toRequest);
                     parent.request(toRequest);
                 }
 
+                if (adaptiveInFlightLimit != null && freeCapacity <= 0L && requestOutstanding > 0L) {
+                    adaptiveInFlightLimit.markSaturated();
+                }
+
                 missed = REQUESTS_IN_PROGRESS.addAndGet(this, -missed);
             } while (missed != 0);
         }
+
+        /**
+         * Since the weight of items is not known until they are received, the number of items that
+         * may be requested within the free weight budget is estimated from the mean weight of
+         * items received so far, less what has already been requested but not yet received. When
+         * no weight is in flight, at least one item is allowed, such that items heavier than the
+         * whole budget are still (individually) processed.
+         */
+        private long calculateWeightAllowance() {
+            long free = freeWeight;
+            if (free <= 0L) {
+                return 0L;
+            }
+
+            long count = weighedCount;
+            long meanWeight = count == 0L ? 0L : weighedTotal / count;
+            if (count != 0L && meanWeight == 0L) {
+                return Long.MAX_VALUE;
+            }
+
+            long allowance = meanWeight == 0L ? 1L : free / meanWeight;
+            if (allowance == 0L && free == maxInFlightWeight) {
+                allowance = 1L;
+            }
+            return allowance - upstreamOutstanding;
+        }
+
+        /**
+         * Pauses or resumes the provided group's flow based on whether it is currently saturated,
+         * either by count or by weight of in-flight items. Invocations are serialized per group
+         * such that pausing and resuming are never reordered, and the group's flow always
+         * converges to its latest saturation state.
+         */
+        private void controlFlow(GroupQueue groupQueue) {
+            if (maxInFlightPerGroup == Long.MAX_VALUE && !fairInFlightSharing && !groupWeightBounded) {
+                return;
+            }
+
+            if (GroupQueue.FLOW_CONTROLS_IN_PROGRESS.getAndIncrement(groupQueue) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                boolean saturated = groupQueue.inFlight >= calculateMaxInFlightForGroup()
+                    || groupQueue.inFlightWeight >= maxInFlightWeightPerGroup;
+                if (saturated && !groupQueue.paused) {
+                    groupQueue.paused = true;
+                    flowControl.pause(groupQueue.group);
+                } else if (!saturated && groupQueue.paused) {
+                    groupQueue.paused = false;
+                    flowControl.resume(groupQueue.group);
+                }
+
+                missed = GroupQueue.FLOW_CONTROLS_IN_PROGRESS.addAndGet(groupQueue, -missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * When in-flight capacity is fairly shared, each group's bound is the lesser of the max
+         * in-flight per group and its fair share of the (possibly adaptive) max in-flight among
+         * all groups that currently have items in flight.
+         */
+        private long calculateMaxInFlightForGroup() {
+            if (!fairInFlightSharing) {
+                return maxInFlightPerGroup;
+            }
+
+            long limit = adaptiveInFlightLimit == null ? maxInFlight : adaptiveInFlightLimit.get();
+            long fairShare = Math.max(1L, limit / Math.max(1L, activeGroups));
+            return Math.min(maxInFlightPerGroup, fairShare);
+        }
+
+        /**
+         * Evicts empty group queues that have been idle for longer than the configured timeout,
+         * and/or the least recently active empty group queues while more than the max number of
+         * groups are retained. Invoked from onNext, after the current item has been enqueued, and
+         * whenever a group's queue becomes empty. Sweeps are serialized, and are skipped while
+         * another sweep is in progress. Groups with in-flight items are never evicted, and
+         * eviction atomically prevents further items from being enqueued on an evicted queue. To
+         * amortize the cost of scanning every group, sweeps happen at most once per idle timeout,
+         * or once the number of retained groups has grown past a threshold that doubles with the
+         * number of groups that could not be evicted.
+         */
+        private void evictIfNecessary(long nowNanos) {
+            if (!SWEEP_IN_PROGRESS.compareAndSet(this, 0, 1)) {
+                return;
+            }
+
+            try {
+                boolean idleSweepDue = emptyGroupIdleTimeoutNanos != Long.MAX_VALUE
+                    && nowNanos - lastSweepNanos >= emptyGroupIdleTimeoutNanos;
+                if (idleSweepDue || queuesByGroup.size() > sweepGroupThreshold) {
+                    sweep(nowNanos);
+                }
+            } finally {
+                sweepInProgress = 0;
+            }
+        }
+
+        private void sweep(long nowNanos) {
+            // Activity is snapshotted such that sorting is consistent while groups remain active
+            List<EvictionCandidate> candidates = new ArrayList<>();
+            for (GroupQueue groupQueue : queuesByGroup.values()) {
+                if (groupQueue.inFlight == 0L) {
+                    candidates.add(new EvictionCandidate(groupQueue, groupQueue.lastActiveNanos - nowNanos));
+                }
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.relativeLastActiveNanos));
+
+            int retainedGroupsLowWaterMark = maxRetainedGroups - maxRetainedGroups / 4;
+            for (EvictionCandidate candidate : candidates) {
+                boolean idle = -candidate.relativeLastActiveNanos >= emptyGroupIdleTimeoutNanos;
+                if (idle || queuesByGroup.size() > retainedGroupsLowWaterMark) {
+                    evict(candidate.groupQueue);
+                } else {
+                    break;
+                }
+            }
+
+            lastSweepNanos = nowNanos;
+            sweepGroupThreshold = (int) Math.min(Integer.MAX_VALUE, Math.max(maxRetainedGroups, 2L * queuesByGroup.size()));
+        }
+
+        private void evict(GroupQueue groupQueue) {
+            if (groupQueue.tryEvict()) {
+                queuesByGroup.remove(groupQueue.group, groupQueue);
+                listener.evicted(groupQueue.group);
+            }
+        }
+
+        private static final class EvictionCandidate {
+
+            private final GroupQueue groupQueue;
+
+            private final long relativeLastActiveNanos;
+
+            private EvictionCandidate(GroupQueue groupQueue, long relativeLastActiveNanos) {
+                this.groupQueue = groupQueue;
+                this.relativeLastActiveNanos = relativeLastActiveNanos;
+            }
+        }
+
+        private static final class GroupQueue implements AloQueueProbe {
+
+            private static final AtomicLongFieldUpdater<GroupQueue> IN_FLIGHT =
+                AtomicLongFieldUpdater.newUpdater(GroupQueue.class, "inFlight");
+
+            private static final AtomicLongFieldUpdater<GroupQueue> IN_FLIGHT_WEIGHT =
+                AtomicLongFieldUpdater.newUpdater(GroupQueue.class, "inFlightWeight");
+
+            // In-flight count of evicted queues, on which no further items may be enqueued
+            private static final long EVICTED = -1L;
+
+            private static final AtomicIntegerFieldUpdater<GroupQueue> FLOW_CONTROLS_IN_PROGRESS =
+                AtomicIntegerFieldUpdater.newUpdater(GroupQueue.class, "flowControlsInProgress");
+
+            private final Object group;
+
+            private final AcknowledgementQueue queue;
+
+            private volatile long inFlight;
+
+            private volatile long inFlightWeight;
+
+            private volatile int flowControlsInProgress;
+
+            private volatile long lastActiveNanos;
+
+            // Set once this queue's age has been probed, after which enqueued items are stamped
+            private volatile boolean ageProbed;
+
+            // Only accessed while flow control is serialized
+            private boolean paused;
+
+            private GroupQueue(Object group, AcknowledgementQueue queue) {
+                this.group = group;
+                this.queue = queue;
+            }
+
+            /**
+             * Acquires an in-flight item on this queue, unless it has been evicted
+             *
+             * @return The resulting number of in-flight items, or a negative number if evicted
+             */
+            long acquire() {
+                long current;
+                do {
+                    current = inFlight;
+                    if (current < 0L) {
+                        return current;
+                    }
+                } while (!IN_FLIGHT.compareAndSet(this, current, current + 1L));
+                return current + 1L;
+            }
+
+            boolean tryEvict() {
+                return IN_FLIGHT.compareAndSet(this, 0L, EVICTED);
+            }
+
+            @Override
+            public long oldestInProcessAgeNanos() {
+                ageProbed = true;
+                return queue.calculateOldestInProcessAgeNanos(System.nanoTime());
+            }
+
+            @Override
+            public long blockedCompletionCount() {
+                return queue.countBlockedCompletions();
+            }
+        }
+
+        /**
+         * Acts as both the acknowledger and nacknowledger of an emitted {@link Alo}, guaranteeing
+         * that its In-Flight Acknowledgement is completed at most once. Completers are attached to
+         * their In-Flight Acknowledgement, such that queues that reuse In-Flight Acknowledgements
+         * after they have been drained also reuse their completers. Each reuse starts a new
+         * generation of completion, which prevents expiration of a previous generation's deadline
+         * from completing the current one. As with reuse of the In-Flight Acknowledgement itself,
+         * an emitted Alo must not be completed again after its In-Flight has been reused.
+         */
+        private static final class InFlightCompleter implements Runnable, Consumer<Throwable> {
+
+            private static final AtomicLongFieldUpdater<InFlightCompleter> COMPLETION =
+                AtomicLongFieldUpdater.newUpdater(InFlightCompleter.class, "completion");
+
+            private static final long COMPLETED = 0L;
+
+            private final AloQueueingSubscriber<?, ?> subscriber;
+
+            private final GroupQueue groupQueue;
+
+            private final AcknowledgementQueue.InFlight inFlight;
+
+            // Emission state, only written upon (serialized) emission, before publication
+            private long generation;
+
+            private long enqueuedNanos;
+
+            private boolean latencySampled;
+
+            // The generation of the current emission while it is not yet completed
+            private volatile long completion = COMPLETED;
+
+            private volatile HashedTimerWheel.Timeout deadlineTimeout;
+
+            private InFlightCompleter(
+                AloQueueingSubscriber<?, ?> subscriber,
+                GroupQueue groupQueue,
+                AcknowledgementQueue.InFlight inFlight
+            ) {
+                this.subscriber = subscriber;
+                this.groupQueue = groupQueue;
+                this.inFlight = inFlight;
+            }
+
+            static InFlightCompleter attachedTo(
+                AloQueueingSubscriber<?, ?> subscriber,
+                GroupQueue groupQueue,
+                AcknowledgementQueue.InFlight inFlight
+            ) {
+                Object attachment = inFlight.attachment();
+                if (attachment instanceof InFlightCompleter) {
+                    return (InFlightCompleter) attachment;
+                }
+                InFlightCompleter completer = new InFlightCompleter(subscriber, groupQueue, inFlight);
+                inFlight.attach(completer);
+                return completer;
+            }
+
+            /**
+             * Starts a new generation of completion for a newly emitted Alo. Must be invoked
+             * before the associated {@link Alo} is emitted.
+             */
+            void reset(long enqueuedNanos, boolean latencySampled) {
+                this.enqueuedNanos = enqueuedNanos;
+                this.latencySampled = latencySampled;
+                this.deadlineTimeout = null;
+                this.completion = ++generation;
+            }
+
+            /**
+             * Nacknowledges this completer's In-Flight Acknowledgement if it has not been
+             * completed by the time the provided deadline elapses. Must be invoked before the
+             * associated {@link Alo} is emitted. Only completion of this completer happens on the
+             * timer's Thread, while nacknowledgement (and any resulting draining and requesting)
+             * is executed on the provided Scheduler.
+             */
+            void enforceDeadline(Duration deadline, Scheduler scheduler) {
+                long generation = this.generation;
+                long enqueuedNanos = this.enqueuedNanos;
+                boolean latencySampled = this.latencySampled;
+                Runnable expiration = () -> {
+                    if (COMPLETION.compareAndSet(this, generation, COMPLETED)) {
+                        Throwable error = new AcknowledgementDeadlineExceededException(groupQueue.group, deadline);
+                        scheduler.schedule(() -> {
+                            long drained = groupQueue.queue.completeExceptionally(inFlight, error);
+                            subscriber.postComplete(groupQueue, enqueuedNanos, latencySampled, drained);
+                        });
+                    }
+                };
+                deadlineTimeout = HashedTimerWheel.shared().schedule(expiration, deadline.toNanos());
+            }
+
+            @Override
+            public void run() {
+                long enqueuedNanos = this.enqueuedNanos;
+                boolean latencySampled = this.latencySampled;
+                if (claimCompletion()) {
+                    subscriber.postComplete(groupQueue, enqueuedNanos, latencySampled, groupQueue.queue.complete(inFlight));
+                }
+            }
+
+            @Override
+            public void accept(Throwable error) {
+                long enqueuedNanos = this.enqueuedNanos;
+                boolean latencySampled = this.latencySampled;
+                if (claimCompletion()) {
+                    long drained = groupQueue.queue.completeExceptionally(inFlight, error);
+                    subscriber.postComplete(groupQueue, enqueuedNanos, latencySampled, drained);
+                }
+            }
+
+            /**
+             * Claims completion of the current generation, and cancels its deadline (if any)
+             * before its In-Flight Acknowledgement can be drained and reused
+             */
+            private boolean claimCompletion() {
+                long generation = completion;
+                if (generation == COMPLETED || !COMPLETION.compareAndSet(this, generation, COMPLETED)) {
+                    return false;
+                }
+                HashedTimerWheel.Timeout timeout = deadlineTimeout;
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                return true;
+            }
+        }
     }
 }
@@ -1,9 +1,14 @@
 package io.atleon.core;
 
 import org.reactivestreams.Publisher;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * Transformer used on Publishers of items to create {@link Alo} items where acknowledgement is
@@ -15,9 +20,54 @@ import java.util.function.Supplier;
  */
 public final class AloQueueingTransformer<T, V> implements Function<Publisher<T>, Publisher<Alo<V>>> {
 
+    /**
+     * Orderings with which acknowledgements are executed within each group
+     */
+    public enum AcknowledgementOrdering {
+        /**
+         * Acknowledgements are executed in the same order as emission of their corresponding
+         * {@link Alo} items. Completed acknowledgements are held (and count against max in-flight)
+         * until all acknowledgements emitted before them have also been completed.
+         */
+        ORDERED,
+        /**
+         * Acknowledgements are executed immediately upon completion, and immediately release
+         * in-flight capacity. Appropriate for sources where acknowledgement of any given item is
+         * independent of every other item. In-flight acknowledgements are never retained in this
+         * mode, but with {@link QueueStorage#RING} storage, they are recycled once executed.
+         */
+        UNORDERED
+    }
+
+    /**
+     * Strategies for storing In-Flight acknowledgements in each group's queue
+     */
+    public enum QueueStorage {
+        /**
+         * Unbounded linked storage, where storage for each In-Flight acknowledgement is allocated
+         * upon emission of its corresponding {@link Alo}
+         */
+        LINKED,
+        /**
+         * Bounded ring of reusable storage, such that steady-state emission and acknowledgement
+         * do not allocate queue storage (or completion state). Each group's ring is initially
+         * sized from the max number of in-flight items per group (if bounded, otherwise a small
+         * default), and grows as necessary up to the max number of in-flight items. Requires max
+         * in-flight to be bounded, and that each emitted {@link Alo} is acknowledged or
+         * nacknowledged at most once, since storage is reused once acknowledgement is executed.
+         * With {@link AcknowledgementOrdering#UNORDERED} acknowledgement, executed In-Flight
+         * acknowledgements are instead recycled, which does not require max in-flight to be bounded.
+         */
+        RING
+    }
+
+    private static final long INITIAL_RING_CAPACITY = 16L;
+
     private final Function<T, ?> groupExtractor;
 
-    private final Supplier<? extends AcknowledgementQueue> queueSupplier;
+    private final AcknowledgementOrdering acknowledgementOrdering;
+
+    private final QueueStorage queueStorage;
 
     private final AloQueueListener listener;
 
@@ -25,22 +75,49 @@ public final class AloQueueingTransformer<T, V> implements Function<Publisher<T>
 
     private final AloFactory<V> factory;
 
+    private final GroupFlowControl flowControl;
+
+    private final ToLongFunction<? super T> weigher;
+
     private final long maxInFlight;
 
-    private AloQueueingTransformer(
-        Function<T, ?> groupExtractor,
-        Supplier<? extends AcknowledgementQueue> queueSupplier,
-        AloQueueListener listener,
-        AloComponentExtractor<T, V> componentExtractor,
-        AloFactory<V> factory,
-        long maxInFlight
-    ) {
-        this.groupExtractor = groupExtractor;
-        this.queueSupplier = queueSupplier;
-        this.listener = listener;
-        this.componentExtractor = componentExtractor;
-        this.factory = factory;
-        this.maxInFlight = maxInFlight;
+    private final long maxInFlightPerGroup;
+
+    private final boolean fairInFlightSharing;
+
+    private final long maxInFlightWeight;
+
+    private final long maxInFlightWeightPerGroup;
+
+    private final long minInFlight;
+
+    private final Duration acknowledgementDeadline;
+
+    private final Scheduler acknowledgementDeadlineScheduler;
+
+    private final Duration emptyGroupIdleTimeout;
+
+    private final int maxRetainedGroups;
+
+    private AloQueueingTransformer(Settings<T, V> settings) {
+        this.groupExtractor = settings.groupExtractor;
+        this.acknowledgementOrdering = settings.acknowledgementOrdering;
+        this.queueStorage = settings.queueStorage;
+        this.listener = settings.listener;
+        this.componentExtractor = settings.componentExtractor;
+        this.factory = settings.factory;
+        this.flowControl = settings.flowControl;
+        this.weigher = settings.weigher;
+        this.maxInFlight = settings.maxInFlight;
+        this.maxInFlightPerGroup = settings.maxInFlightPerGroup;
+        this.fairInFlightSharing = settings.fairInFlightSharing;
+        this.maxInFlightWeight = settings.maxInFlightWeight;
+        this.maxInFlightWeightPerGroup = settings.maxInFlightWeightPerGroup;
+        this.minInFlight = settings.minInFlight;
+        this.acknowledgementDeadline = settings.acknowledgementDeadline;
+        this.acknowledgementDeadlineScheduler = settings.acknowledgementDeadlineScheduler;
+        this.emptyGroupIdleTimeout = settings.emptyGroupIdleTimeout;
+        this.maxRetainedGroups = settings.maxRetainedGroups;
     }
 
     /**
@@ -54,42 +131,288 @@ public final class AloQueueingTransformer<T, V> implements Function<Publisher<T>
      * @param <V> The type of items extracted and contained in emitted Alo elements
      */
     public static <T, V> AloQueueingTransformer<T, V> create(AloComponentExtractor<T, V> componentExtractor) {
-        return new AloQueueingTransformer<>(
-            __ -> "singleton",
-            OrderManagingAcknowledgementQueue::create,
-            AloQueueListener.noOp(),
-            componentExtractor,
-            ComposedAlo.factory(),
-            Long.MAX_VALUE
-        );
+        Settings<T, V> settings = new Settings<>();
+        settings.groupExtractor = __ -> "singleton";
+        settings.acknowledgementOrdering = AcknowledgementOrdering.ORDERED;
+        settings.queueStorage = QueueStorage.LINKED;
+        settings.listener = AloQueueListener.noOp();
+        settings.componentExtractor = componentExtractor;
+        settings.factory = ComposedAlo.factory();
+        settings.flowControl = GroupFlowControl.none();
+        settings.weigher = __ -> 1L;
+        settings.maxInFlight = Long.MAX_VALUE;
+        settings.maxInFlightPerGroup = Long.MAX_VALUE;
+        settings.maxInFlightWeight = Long.MAX_VALUE;
+        settings.maxInFlightWeightPerGroup = Long.MAX_VALUE;
+        settings.minInFlight = Long.MAX_VALUE;
+        settings.maxRetainedGroups = Integer.MAX_VALUE;
+        return new AloQueueingTransformer<>(settings);
     }
 
     public AloQueueingTransformer<T, V> withGroupExtractor(Function<T, ?> groupExtractor) {
-        return new AloQueueingTransformer<>(groupExtractor, queueSupplier, listener, componentExtractor, factory, maxInFlight);
+        return copy(it -> it.groupExtractor = groupExtractor);
+    }
+
+    public AloQueueingTransformer<T, V> withAcknowledgementOrdering(AcknowledgementOrdering acknowledgementOrdering) {
+        return copy(it -> it.acknowledgementOrdering = acknowledgementOrdering);
+    }
+
+    public AloQueueingTransformer<T, V> withQueueStorage(QueueStorage queueStorage) {
+        return copy(it -> it.queueStorage = queueStorage);
     }
 
     public AloQueueingTransformer<T, V> withListener(AloQueueListener listener) {
-        return new AloQueueingTransformer<>(groupExtractor, queueSupplier, listener, componentExtractor, factory, maxInFlight);
+        return copy(it -> it.listener = listener);
     }
 
     public AloQueueingTransformer<T, V> withFactory(AloFactory<V> factory) {
-        return new AloQueueingTransformer<>(groupExtractor, queueSupplier, listener, componentExtractor, factory, maxInFlight);
+        return copy(it -> it.factory = factory);
     }
 
     public AloQueueingTransformer<T, V> withMaxInFlight(long maxInFlight) {
-        return new AloQueueingTransformer<>(groupExtractor, queueSupplier, listener, componentExtractor, factory, maxInFlight);
+        return copy(it -> it.maxInFlight = maxInFlight);
+    }
+
+    /**
+     * Bounds the number of in-flight items per group. When a group reaches this bound, the
+     * configured {@link GroupFlowControl} is asked to pause that group's flow, and is asked to
+     * resume it once the number of in-flight items drops back below this bound. This allows a
+     * single slow or stuck group to be throttled without exhausting the in-flight capacity shared
+     * with all other groups. Unbounded by default.
+     */
+    public AloQueueingTransformer<T, V> withMaxInFlightPerGroup(long maxInFlightPerGroup) {
+        return copy(it -> it.maxInFlightPerGroup = maxInFlightPerGroup);
+    }
+
+    /**
+     * Enables fair sharing of max in-flight capacity among groups. Each group with in-flight
+     * items is then additionally bounded by its fair share of max in-flight, which is max
+     * in-flight divided by the number of groups that currently have items in flight (and is at
+     * least one). Like {@link #withMaxInFlightPerGroup(long)}, groups that reach their bound are
+     * paused and resumed through the configured {@link GroupFlowControl}, such that a group which
+     * stops acknowledging can hold no more than its share while other groups are active. A
+     * group's share is re-evaluated whenever its number of in-flight items changes. Requires max
+     * in-flight to be bounded. Disabled by default.
+     */
+    public AloQueueingTransformer<T, V> withFairInFlightSharing(boolean fairInFlightSharing) {
+        return copy(it -> it.fairInFlightSharing = fairInFlightSharing);
+    }
+
+    public AloQueueingTransformer<T, V> withFlowControl(GroupFlowControl flowControl) {
+        return copy(it -> it.flowControl = flowControl);
+    }
+
+    /**
+     * Configures how the weight (i.e. serialized size in bytes) of each item is calculated for
+     * the purpose of bounding in-flight weight. Each item has a weight of one by default.
+     */
+    public AloQueueingTransformer<T, V> withWeigher(ToLongFunction<? super T> weigher) {
+        return copy(it -> it.weigher = weigher);
+    }
+
+    /**
+     * Bounds the total weight of in-flight items across all groups, as calculated by the
+     * configured weigher. Weight is released as items are drained from their group's queue. Since
+     * the weight of items is not known until they are received, this bound may be exceeded by the
+     * weight of items already requested from upstream, which is estimated to fit within the bound
+     * from the mean weight of previously received items. Unbounded by default.
+     */
+    public AloQueueingTransformer<T, V> withMaxInFlightWeight(long maxInFlightWeight) {
+        return copy(it -> it.maxInFlightWeight = maxInFlightWeight);
+    }
+
+    /**
+     * Bounds the total weight of in-flight items per group, as calculated by the configured
+     * weigher. Like {@link #withMaxInFlightPerGroup(long)}, when a group reaches this bound, the
+     * configured {@link GroupFlowControl} is asked to pause that group's flow, and is asked to
+     * resume it once the group's in-flight weight (and count) drop back below their bounds. This
+     * keeps groups with unusually heavy items from exhausting shared in-flight weight. Unbounded by
+     * default.
+     */
+    public AloQueueingTransformer<T, V> withMaxInFlightWeightPerGroup(long maxInFlightWeightPerGroup) {
+        return copy(it -> it.maxInFlightWeightPerGroup = maxInFlightWeightPerGroup);
+    }
+
+    /**
+     * Enables adaptive max in-flight when less than the configured max in-flight. The number of
+     * in-flight items is then limited by an {@link AdaptiveInFlightLimit} which starts at this
+     * minimum and adapts between it and the configured max in-flight based on the latency with
+     * which emitted items are acknowledged. Current limits are exposed through
+     * {@link AloQueueListener#maxInFlightAdjusted(long)}. Requires max in-flight to be bounded.
+     * Disabled by default.
+     */
+    public AloQueueingTransformer<T, V> withMinInFlight(long minInFlight) {
+        return copy(it -> it.minInFlight = minInFlight);
+    }
+
+    /**
+     * Configures a deadline within which each emitted {@link Alo} must be acknowledged or
+     * nacknowledged. Any {@link Alo} that is still in flight when its deadline elapses is
+     * nacknowledged with an {@link AcknowledgementDeadlineExceededException}, such that a lost
+     * or mishandled {@link Alo} cannot indefinitely block acknowledgement of its group. Subsequent
+     * acknowledgement of that {@link Alo} is ignored. Deadlines are tracked by a shared hashed
+     * timer wheel, and may be exceeded by up to its tick duration (100ms). Nacknowledgement of
+     * expired deadlines is executed on the configured deadline Scheduler. A null deadline
+     * disables enforcement, which is the default.
+     */
+    public AloQueueingTransformer<T, V> withAcknowledgementDeadline(Duration acknowledgementDeadline) {
+        return copy(it -> it.acknowledgementDeadline = acknowledgementDeadline);
+    }
+
+    /**
+     * Configures the {@link Scheduler} on which {@link Alo} items whose acknowledgement deadline
+     * has elapsed are nacknowledged, such that potentially slow nacknowledgement (i.e. calls to
+     * a broker) does not delay expiration of other deadlines. Defaults to
+     * {@link Schedulers#boundedElastic()}.
+     */
+    public AloQueueingTransformer<T, V> withAcknowledgementDeadlineScheduler(Scheduler acknowledgementDeadlineScheduler) {
+        return copy(it -> it.acknowledgementDeadlineScheduler = acknowledgementDeadlineScheduler);
+    }
+
+    /**
+     * Configures how long a group's queue may remain empty (i.e. with no in-flight items) before
+     * it is evicted, such that high-cardinality grouping does not retain a queue for every group
+     * ever seen. An evicted group's queue is recreated if items for that group are subsequently
+     * received. Empty group queues are retained indefinitely by default.
+     */
+    public AloQueueingTransformer<T, V> withEmptyGroupIdleTimeout(Duration emptyGroupIdleTimeout) {
+        return copy(it -> it.emptyGroupIdleTimeout = emptyGroupIdleTimeout);
+    }
+
+    /**
+     * Bounds the number of group queues that are retained. When exceeded, the least recently
+     * active empty group queues are evicted, regardless of how long they have been idle. Groups
+     * with in-flight items are never evicted, so this bound may still be exceeded when that many
+     * groups have items in flight. Unbounded by default.
+     */
+    public AloQueueingTransformer<T, V> withMaxRetainedGroups(int maxRetainedGroups) {
+        return copy(it -> it.maxRetainedGroups = maxRetainedGroups);
     }
 
     @Override
     public Publisher<Alo<V>> apply(Publisher<T> publisher) {
+        if (minInFlight < maxInFlight && maxInFlight == Long.MAX_VALUE) {
+            throw new IllegalStateException("Adaptive max in-flight requires max in-flight to be bounded");
+        }
+        if (fairInFlightSharing && maxInFlight == Long.MAX_VALUE) {
+            throw new IllegalStateException("Fair in-flight sharing requires max in-flight to be bounded");
+        }
         return new AloQueueingOperator<>(
             publisher,
             groupExtractor,
-            queueSupplier,
+            newQueueSupplier(),
             listener,
             componentExtractor,
             factory,
-            maxInFlight
+            flowControl,
+            weigher,
+            maxInFlight,
+            maxInFlightPerGroup,
+            fairInFlightSharing,
+            maxInFlightWeight,
+            maxInFlightWeightPerGroup,
+            minInFlight,
+            acknowledgementDeadline,
+            acknowledgementDeadline == null || acknowledgementDeadlineScheduler != null
+                ? acknowledgementDeadlineScheduler
+                : Schedulers.boundedElastic(),
+            emptyGroupIdleTimeout == null ? Long.MAX_VALUE : emptyGroupIdleTimeout.toNanos(),
+            maxRetainedGroups
         );
     }
+
+    private Supplier<? extends AcknowledgementQueue> newQueueSupplier() {
+        if (acknowledgementOrdering == AcknowledgementOrdering.UNORDERED) {
+            boolean recycling = queueStorage == QueueStorage.RING;
+            return () -> UnorderedAcknowledgementQueue.create(recycling);
+        }
+
+        boolean coalesceAcknowledgements = componentExtractor.isAcknowledgementCumulative();
+        switch (queueStorage) {
+            case LINKED:
+                return () -> OrderManagingAcknowledgementQueue.create(coalesceAcknowledgements);
+            case RING:
+                if (maxInFlight == Long.MAX_VALUE) {
+                    throw new IllegalStateException("Ring queue storage requires max in-flight to be bounded");
+                }
+                long initialRingCapacity = Math.min(maxInFlightPerGroup == Long.MAX_VALUE ? INITIAL_RING_CAPACITY : maxInFlightPerGroup, maxInFlight);
+                return () -> RingAcknowledgementQueue.create(initialRingCapacity, maxInFlight, coalesceAcknowledgements);
+            default:
+                throw new IllegalStateException("Unsupported queue storage: " + queueStorage);
+        }
+    }
+
+    private AloQueueingTransformer<T, V> copy(Consumer<Settings<T, V>> modification) {
+        Settings<T, V> settings = new Settings<>(this);
+        modification.accept(settings);
+        return new AloQueueingTransformer<>(settings);
+    }
+
+    /**
+     * Mutable holder of settings, used to copy a transformer with modified settings without
+     * every modification needing to respecify all other settings
+     */
+    private static final class Settings<T, V> {
+
+        private Function<T, ?> groupExtractor;
+
+        private AcknowledgementOrdering acknowledgementOrdering;
+
+        private QueueStorage queueStorage;
+
+        private AloQueueListener listener;
+
+        private AloComponentExtractor<T, V> componentExtractor;
+
+        private AloFactory<V> factory;
+
+        private GroupFlowControl flowControl;
+
+        private ToLongFunction<? super T> weigher;
+
+        private long maxInFlight;
+
+        private long maxInFlightPerGroup;
+
+        private boolean fairInFlightSharing;
+
+        private long maxInFlightWeight;
+
+        private long maxInFlightWeightPerGroup;
+
+        private long minInFlight;
+
+        private Duration acknowledgementDeadline;
+
+        private Scheduler acknowledgementDeadlineScheduler;
+
+        private Duration emptyGroupIdleTimeout;
+
+        private int maxRetainedGroups;
+
+        private Settings() {
+
+        }
+
+        private Settings(AloQueueingTransformer<T, V> transformer) {
+            this.groupExtractor = transformer.groupExtractor;
+            this.acknowledgementOrdering = transformer.acknowledgementOrdering;
+            this.queueStorage = transformer.queueStorage;
+            this.listener = transformer.listener;
+            this.componentExtractor = transformer.componentExtractor;
+            this.factory = transformer.factory;
+            this.flowControl = transformer.flowControl;
+            this.weigher = transformer.weigher;
+            this.maxInFlight = transformer.maxInFlight;
+            this.maxInFlightPerGroup = transformer.maxInFlightPerGroup;
+            this.fairInFlightSharing = transformer.fairInFlightSharing;
+            this.maxInFlightWeight = transformer.maxInFlightWeight;
+            this.maxInFlightWeightPerGroup = transformer.maxInFlightWeightPerGroup;
+            this.minInFlight = transformer.minInFlight;
+            this.acknowledgementDeadline = transformer.acknowledgementDeadline;
+            this.acknowledgementDeadlineScheduler = transformer.acknowledgementDeadlineScheduler;
+            this.emptyGroupIdleTimeout = transformer.emptyGroupIdleTimeout;
+            this.maxRetainedGroups = transformer.maxRetainedGroups;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package io.atleon.core;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
@@ -20,14 +21,30 @@ public final class Batcher {
 
     private final int prefetch;
 
-    private Batcher(int maxSize, Duration maxDuration, int prefetch) {
+    private final boolean adaptive;
+
+    private Batcher(int maxSize, Duration maxDuration, int prefetch, boolean adaptive) {
         this.maxSize = maxSize;
         this.maxDuration = maxDuration;
         this.prefetch = prefetch;
+        this.adaptive = adaptive;
     }
 
     public static Batcher create(int maxSize, Duration maxDuration, int prefetch) {
-        return new Batcher(maxSize, maxDuration, prefetch);
+        return new Batcher(maxSize, maxDuration, prefetch, false);
+    }
+
+    /**
+     * Creates a Batcher whose batch size, batch duration (linger), and mapping concurrency adapt
+     * to observed load and mapping latency, bounded by the provided max size and duration, and
+     * the max concurrency provided upon mapping. Batch size grows while batches are being filled
+     * and mapping latency stays flat, linger shrinks when traffic is too sparse to fill batches,
+     * and concurrency grows while batches are waiting on in-flight mappings and latency stays
+     * flat. Each mapped batch Publisher is expected to represent a single request, such that its
+     * latency is representative of the request's round-trip time.
+     */
+    public static Batcher adaptive(int maxSize, Duration maxDuration, int prefetch) {
+        return new Batcher(maxSize, maxDuration, prefetch, true);
     }
 
     public <T, R> Flux<R> applyMapping(
@@ -35,6 +52,9 @@ public final class Batcher {
         Function<? super List<T>, ? extends Publisher<? extends R>> mapper,
         int maxConcurrency
     ) {
+        if (adaptive) {
+            return applyAdaptiveMapping(publisher, mapper, maxConcurrency);
+        }
         return maxConcurrency <= 1
             ? toBatches(publisher).concatMap(mapper, prefetch)
             : toBatches(publisher).publishOn(Schedulers.immediate(), prefetch).flatMap(mapper, maxConcurrency);
@@ -49,4 +69,27 @@ public final class Batcher {
             return Flux.from(publisher).bufferTimeout(maxSize, maxDuration);
         }
     }
+
+    private <T, R> Flux<R> applyAdaptiveMapping(
+        Publisher<T> publisher,
+        Function<? super List<T>, ? extends Publisher<? extends R>> mapper,
+        int maxConcurrency
+    ) {
+        if (maxSize > 1 && (maxDuration.isZero() || maxDuration.isNegative())) {
+            throw new IllegalArgumentException("Batching is enabled, but batch duration is not positive");
+        }
+
+        int concurrency = Math.max(1, maxConcurrency);
+        int bufferCapacity = Math.max(1, maxSize) * Math.max(1, prefetch);
+        return Flux.defer(() -> {
+            AdaptiveBatchingOperator.Controller controller =
+                new AdaptiveBatchingOperator.Controller(maxSize, Math.max(0L, maxDuration.toNanos()), concurrency);
+            return Flux.from(new AdaptiveBatchingOperator<>(publisher, controller, Schedulers.parallel(), bufferCapacity))
+                .flatMap(batch -> {
+                    long startNanos = System.nanoTime();
+                    return Flux.<R>from(mapper.apply(batch)).doFinally(signalType -> controller.completed(
+                        signalType == SignalType.ON_COMPLETE ? System.nanoTime() - startNanos : -1L));
+                }, concurrency);
+        });
+    }
 }
@@ -0,0 +1,50 @@
+package io.atleon.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the {@link Scheduler} on which blocking operations are executed by default. When
+ * running on a JVM that supports virtual threads (Java 21+), each blocking task is executed on
+ * its own virtual thread, such that large numbers of concurrent blocking calls do not require a
+ * correspondingly large pool of platform threads. Otherwise, blocking tasks are executed on
+ * {@link Schedulers#boundedElastic()}. Virtual thread support is detected reflectively, such
+ * that this class remains compatible with the Java 8 baseline.
+ */
+final class BlockingSchedulers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingSchedulers.class);
+
+    private BlockingSchedulers() {
+
+    }
+
+    /**
+     * @return A Scheduler backed by virtual threads if available, else the bounded elastic one
+     */
+    public static Scheduler defaultScheduler() {
+        return Default.INSTANCE;
+    }
+
+    private static Scheduler createDefaultScheduler() {
+        try {
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return Schedulers.fromExecutorService(ExecutorService.class.cast(executor), "atleon-virtual");
+        } catch (NoSuchMethodException e) {
+            return Schedulers.boundedElastic();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Failed to create virtual thread executor. Falling back to bounded elastic.", e);
+            return Schedulers.boundedElastic();
+        }
+    }
+
+    private static final class Default {
+
+        private static final Scheduler INSTANCE = createDefaultScheduler();
+    }
+}
@@ -8,6 +8,7 @@ import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
@@ -44,9 +45,13 @@ final class DeduplicatingTransformer<T> implements Function<Publisher<T>, Publis
         // When enabled, apply transformation on occurrence of the first signal. This is needed (in
         // comparison to a simple transform) to avoid changing the initial downstream subscription
         // thread which would otherwise be switched due to required subscribeOn on in the transform
-        return config.isEnabled()
-            ? Flux.from(publisher).switchOnFirst((signal, flux) -> flux.transform(this::applyDeduplication))
-            : publisher;
+        if (!config.isEnabled()) {
+            return publisher;
+        } else if (config.isTimingWheelEnabled()) {
+            return TimingWheelDeduplicatingOperator.create(publisher, config, deduplicator, sourceScheduler);
+        } else {
+            return Flux.from(publisher).switchOnFirst((signal, flux) -> flux.transform(this::applyDeduplication));
+        }
     }
 
     private Flux<T> applyDeduplication(Publisher<T> publisher) {
@@ -69,7 +74,7 @@ final class DeduplicatingTransformer<T> implements Function<Publisher<T>, Publis
             .map(deduplicator::deduplicate);
     }
 
-    private static final class Deduplicator<T, R> {
+    static final class Deduplicator<T, R> {
 
         private final Function<T, R> dataExtractor;
 
@@ -77,20 +82,44 @@ final class DeduplicatingTransformer<T> implements Function<Publisher<T>, Publis
 
         private final Function<List<T>, T> reducer;
 
-        private Deduplicator(Function<T, R> dataExtractor, Function<R, Object> keyExtractor, Function<List<T>, T> reducer) {
+        private final BinaryOperator<R> dataReducer;
+
+        private final BiFunction<List<T>, R, T> combiner;
+
+        private Deduplicator(
+            Function<T, R> dataExtractor,
+            Function<R, Object> keyExtractor,
+            Function<List<T>, T> reducer,
+            BinaryOperator<R> dataReducer,
+            BiFunction<List<T>, R, T> combiner
+        ) {
             this.dataExtractor = dataExtractor;
             this.keyExtractor = keyExtractor;
             this.reducer = reducer;
+            this.dataReducer = dataReducer;
+            this.combiner = combiner;
         }
 
         public static <T> Deduplicator<T, T> identity(Deduplication<T> deduplication) {
             Function<List<T>, T> reducer = group -> reduceToSingle(group, deduplication::reduceDuplicates);
-            return new Deduplicator<>(Function.identity(), deduplication::extractKey, reducer);
+            return new Deduplicator<>(
+                Function.identity(),
+                deduplication::extractKey,
+                reducer,
+                deduplication::reduceDuplicates,
+                (sources, reduced) -> reduced
+            );
         }
 
         public static <T> Deduplicator<Alo<T>, T> alo(Deduplication<T> deduplication) {
             Function<List<Alo<T>>, Alo<T>> aloReducer = group -> reduceToSingleAlo(group, deduplication::reduceDuplicates);
-            return new Deduplicator<>(Alo::get, deduplication::extractKey, aloReducer);
+            return new Deduplicator<>(
+                Alo::get,
+                deduplication::extractKey,
+                aloReducer,
+                deduplication::reduceDuplicates,
+                Deduplicator::combineAlos
+            );
         }
 
         public Object extractKey(T t) {
@@ -101,6 +130,33 @@ final class DeduplicatingTransformer<T> implements Function<Publisher<T>, Publis
             return reducer.apply(list);
         }
 
+        /**
+         * @return The data that incremental reduction of duplicates starts from
+         */
+        public R extractData(T t) {
+            return dataExtractor.apply(t);
+        }
+
+        /**
+         * Incrementally reduces the data of a newly received duplicate in to previously reduced
+         * data
+         */
+        public R reduceData(R reduced, T duplicate) {
+            return dataReducer.apply(reduced, dataExtractor.apply(duplicate));
+        }
+
+        /**
+         * Combines deduplicated source items with their incrementally reduced data in to a single
+         * deduplicated item
+         */
+        public T combine(List<T> sources, R reduced) {
+            return combiner.apply(sources, reduced);
+        }
+
+        private static <T> Alo<T> combineAlos(List<Alo<T>> sources, T reduced) {
+            return sources.size() == 1 ? sources.get(0) : AloOps.fanIn(sources).map(__ -> reduced);
+        }
+
         private static <T> Alo<T> reduceToSingleAlo(List<Alo<T>> group, BinaryOperator<T> accumulator) {
             if (group.isEmpty()) {
                 throw newEmptyDeduplicationGroupException();
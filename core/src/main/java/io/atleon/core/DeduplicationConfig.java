@@ -17,6 +17,8 @@ public final class DeduplicationConfig {
 
     private final int deduplicationSourcePrefetch;
 
+    private final int timingWheelShards;
+
     /**
      * @param deduplicationDuration The Duration in which to deduplicate items
      */
@@ -52,11 +54,46 @@ public final class DeduplicationConfig {
         long maxDeduplicationSize,
         int deduplicationConcurrency,
         int deduplicationSourcePrefetch
+    ) {
+        this(deduplicationDuration, maxDeduplicationSize, deduplicationConcurrency, deduplicationSourcePrefetch, 0);
+    }
+
+    private DeduplicationConfig(
+        Duration deduplicationDuration,
+        long maxDeduplicationSize,
+        int deduplicationConcurrency,
+        int deduplicationSourcePrefetch,
+        int timingWheelShards
     ) {
         this.deduplicationDuration = deduplicationDuration;
         this.maxDeduplicationSize = maxDeduplicationSize;
         this.deduplicationConcurrency = deduplicationConcurrency;
         this.deduplicationSourcePrefetch = deduplicationSourcePrefetch;
+        this.timingWheelShards = timingWheelShards;
+    }
+
+    /**
+     * Use a timing wheel based deduplication engine, rather than one based on grouping. Pending
+     * deduplications are kept in a map per shard, where duplicates are reduced incrementally as
+     * they are received, and deduplicated items are emitted as a hashed timing wheel expires
+     * them. Items are assigned to shards by hashing their deduplication keys, and each shard is
+     * processed on its own worker. This engine is appropriate for high numbers of distinct keys
+     * per deduplication Duration.
+     *
+     * @param shards The number of shards across which to process deduplication
+     * @return A new DeduplicationConfig using a timing wheel based engine
+     */
+    public DeduplicationConfig withTimingWheel(int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Number of timing wheel shards must be positive, but got " + shards);
+        }
+        return new DeduplicationConfig(
+            deduplicationDuration,
+            maxDeduplicationSize,
+            deduplicationConcurrency,
+            deduplicationSourcePrefetch,
+            shards
+        );
     }
 
     public boolean isEnabled() {
@@ -78,4 +115,12 @@ public final class DeduplicationConfig {
     public int getDeduplicationSourcePrefetch() {
         return deduplicationSourcePrefetch;
     }
+
+    public boolean isTimingWheelEnabled() {
+        return timingWheelShards > 0;
+    }
+
+    public int getTimingWheelShards() {
+        return timingWheelShards;
+    }
 }
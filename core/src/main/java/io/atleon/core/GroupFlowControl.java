@@ -0,0 +1,50 @@
+package io.atleon.core;
+
+/**
+ * Interface through which {@link AloQueueingTransformer} may control the flow of items from a
+ * source on a per-group basis. When a group has saturated its allowed number of in-flight items,
+ * the source is asked to pause emission of items for that group, and is asked to resume once the
+ * group is no longer saturated. This allows a single slow or stuck group to be throttled without
+ * throttling every other group from the same source.
+ * <p>
+ * Pausing is advisory; items already requested from the source may still be emitted for a paused
+ * group. Invocations for any given group are serialized, and always alternate between pausing
+ * and resuming, starting with pausing.
+ */
+public interface GroupFlowControl {
+
+    static GroupFlowControl none() {
+        return new None();
+    }
+
+    /**
+     * Request that the source pause emission of items for the provided group
+     *
+     * @param group The group that has become saturated
+     */
+    void pause(Object group);
+
+    /**
+     * Request that the source resume emission of items for the provided group
+     *
+     * @param group The group that is no longer saturated
+     */
+    void resume(Object group);
+
+    class None implements GroupFlowControl {
+
+        private None() {
+
+        }
+
+        @Override
+        public void pause(Object group) {
+
+        }
+
+        @Override
+        public void resume(Object group) {
+
+        }
+    }
+}
@@ -22,6 +22,18 @@ public class GroupFlux<T> implements AloExtendedFlux<T> {
         this.cardinality = cardinality;
     }
 
+    /**
+     * Wraps a Publisher of groups as a GroupFlux
+     *
+     * @param publisher   The Publisher of groups to wrap
+     * @param cardinality The (maximum) number of groups that may be concurrently processed
+     * @param <T>         The type of groups emitted by the Publisher
+     * @return A new GroupFlux
+     */
+    public static <T> GroupFlux<T> wrap(Publisher<? extends T> publisher, int cardinality) {
+        return new GroupFlux<>(Flux.from(publisher), cardinality);
+    }
+
     /**
      * Return the underlying Flux backing this GroupFlux
      */
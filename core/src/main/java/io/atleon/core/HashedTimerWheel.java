@@ -0,0 +1,245 @@
+package io.atleon.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer that hashes scheduled tasks by deadline in to a fixed-size wheel of buckets, such that
+ * scheduling and cancelling are constant-time, and a single (daemon) Thread expires any number of
+ * pending timeouts. This is appropriate for large numbers of timeouts that are usually cancelled
+ * before they expire (i.e. one per in-flight message), where a Scheduler task per timeout would
+ * be prohibitively expensive. Expiration is approximate, and may lag a deadline by up to one tick.
+ * <p>
+ * Scheduling and cancellation are handed off to the worker Thread through lock-free queues, and
+ * buckets are only ever mutated by the worker Thread.
+ */
+final class HashedTimerWheel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final long startNanos;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    // Only accessed by the worker Thread
+    private long tick = 0L;
+
+    private HashedTimerWheel(String name, long tickNanos, int wheelSize) {
+        this.tickNanos = tickNanos;
+        this.wheel = new Bucket[wheelSize];
+        this.mask = wheelSize - 1;
+        this.startNanos = System.nanoTime();
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        Thread worker = new Thread(this::work, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * @return The timer shared by all users in this JVM
+     */
+    static HashedTimerWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Schedules the provided task to be executed (on the timer's worker Thread) once the provided
+     * delay has elapsed, unless the returned {@link Timeout} is cancelled first. Tasks should be
+     * fast and non-blocking, since they delay the expiration of other timeouts.
+     */
+    Timeout schedule(Runnable task, long delayNanos) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + Math.max(0L, delayNanos));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void work() {
+        while (true) {
+            long deadline = awaitNextTick();
+            try {
+                removeCancelledTimeouts();
+                transferPendingTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            } catch (Throwable error) {
+                LOGGER.error("Unexpected failure while expiring timeouts", error);
+            }
+            tick++;
+        }
+    }
+
+    private long awaitNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        long remaining;
+        while ((remaining = deadline - (System.nanoTime() - startNanos)) > 0L) {
+            LockSupport.parkNanos(this, remaining);
+        }
+        return deadline;
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK && (timeout = pendingTimeouts.poll()) != null; i++) {
+            if (!timeout.isCancelled()) {
+                long deadlineTick = timeout.deadlineNanos / tickNanos;
+                timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+                wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+            }
+        }
+    }
+
+    static final class Timeout {
+
+        private static final int PENDING = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimerWheel timer;
+
+        private final long deadlineNanos;
+
+        private volatile Runnable task;
+
+        private volatile int state = PENDING;
+
+        // Only accessed by the worker Thread
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Timeout next;
+
+        private Timeout previous;
+
+        private Timeout(HashedTimerWheel timer, Runnable task, long deadlineNanos) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels this timeout such that its task will not be executed, if it has not already
+         * been executed.
+         */
+        void cancel() {
+            if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                task = null;
+                timer.cancelledTimeouts.add(this);
+            }
+        }
+
+        boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        private void expire() {
+            Runnable toRun = task;
+            if (STATE.compareAndSet(this, PENDING, EXPIRED) && toRun != null) {
+                task = null;
+                try {
+                    toRun.run();
+                } catch (Throwable error) {
+                    LOGGER.warn("Task executed upon timeout expiration failed", error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubly-linked list of timeouts hashed to the same slot on the wheel. Only accessed by the
+     * worker Thread.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts(long deadlineNanos) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0L && timeout.deadlineNanos <= deadlineNanos) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+
+            timeout.bucket = null;
+            timeout.next = null;
+            timeout.previous = null;
+        }
+    }
+
+    private static final class Shared {
+
+        private static final HashedTimerWheel INSTANCE =
+            new HashedTimerWheel("atleon-timer-wheel", DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+}
@@ -0,0 +1,56 @@
+package io.atleon.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Decorates {@link Alo} elements such that their idempotency key is recorded in an
+ * {@link IdempotencyStore} upon positive acknowledgement. The key is recorded before the
+ * delegate's acknowledgement is executed, such that a crash between the two results in the
+ * (already processed) item being skipped upon redelivery rather than reprocessed. Failure to
+ * record the key does not prevent acknowledgement.
+ *
+ * @param <T> The type of data item exposed by the decorated {@link Alo}
+ */
+final class IdempotencyRecordingAlo<T> extends AbstractDecoratingAlo<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyRecordingAlo.class);
+
+    private final IdempotencyStore store;
+
+    private final String key;
+
+    private final Duration ttl;
+
+    private IdempotencyRecordingAlo(Alo<T> delegate, IdempotencyStore store, String key, Duration ttl) {
+        super(delegate);
+        this.store = store;
+        this.key = key;
+        this.ttl = ttl;
+    }
+
+    public static <T> IdempotencyRecordingAlo<T> create(Alo<T> delegate, IdempotencyStore store, String key, Duration ttl) {
+        return new IdempotencyRecordingAlo<>(delegate, store, key, ttl);
+    }
+
+    @Override
+    public <R> Alo<R> map(Function<? super T, ? extends R> mapper) {
+        return new IdempotencyRecordingAlo<>(delegate.map(mapper), store, key, ttl);
+    }
+
+    @Override
+    public Runnable getAcknowledger() {
+        Runnable acknowledger = delegate.getAcknowledger();
+        return () -> {
+            try {
+                store.record(key, ttl);
+            } catch (Throwable error) {
+                LOGGER.warn("Failed to record idempotency key={}", key, error);
+            }
+            acknowledger.run();
+        };
+    }
+}
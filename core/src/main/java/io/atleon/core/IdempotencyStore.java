@@ -0,0 +1,34 @@
+package io.atleon.core;
+
+import java.time.Duration;
+
+/**
+ * A store of keys that have been recorded as processed, used to skip the reprocessing of data
+ * items that are redelivered, i.e. after restarts or rebalances. Unlike in-memory deduplication,
+ * implementations are expected to retain recorded keys across process restarts. Implementations
+ * must be thread-safe, and are allowed to forget recorded keys before their time-to-live has
+ * elapsed if necessary to bound resource usage.
+ *
+ * @see MemoryMappedIdempotencyStore
+ */
+public interface IdempotencyStore extends AutoCloseable {
+
+    /**
+     * @param key The key to check
+     * @return Whether the key has been recorded and its time-to-live has not yet elapsed
+     */
+    boolean isRecorded(String key);
+
+    /**
+     * Records a key as processed, replacing the time-to-live of any previous recording.
+     *
+     * @param key The key to record
+     * @param ttl How long the recording should be retained
+     */
+    void record(String key, Duration ttl);
+
+    @Override
+    default void close() {
+
+    }
+}
@@ -0,0 +1,396 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Operator that limits the rate at which items with any given key are emitted. Each subscription
+ * gets its own {@link KeyedTokenBuckets}, from which a permit is reserved for each item. Items
+ * whose permit is immediately available (and whose key has no delayed items) are emitted without
+ * delay. Other items are appended to a delay queue for their key, where only the head of each
+ * key's queue waits for a permit, such that items with the same key are emitted in order. Delayed
+ * items do not count against the number of items requested from upstream, such that throttled
+ * keys can not starve other keys of upstream demand. Each key's delay queue is bounded by the
+ * configured prefetch. Only when an item is received for a key whose delay queue is full is
+ * requesting from upstream suspended until that key's queue has room, since upstream can only be
+ * backpressured as a whole. No thread is ever blocked, and delays are timed on a single
+ * {@link Scheduler.Worker}.
+ *
+ * @param <T> The type of items emitted by the source
+ */
+final class KeyedRateLimitingOperator<T> implements Publisher<T> {
+
+    private static final long PAUSED_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Publisher<T> source;
+
+    private final Function<? super T, ?> keyExtractor;
+
+    private final RateLimitingConfig config;
+
+    private final Scheduler scheduler;
+
+    KeyedRateLimitingOperator(
+        Publisher<T> source,
+        Function<? super T, ?> keyExtractor,
+        RateLimitingConfig config,
+        Scheduler scheduler
+    ) {
+        this.source = source;
+        this.keyExtractor = keyExtractor;
+        this.config = config;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> actual) {
+        source.subscribe(new KeyedRateLimitingSubscriber<>(actual, keyExtractor, config, scheduler));
+    }
+
+    private static final class KeyedRateLimitingSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+        private static final AtomicLongFieldUpdater<KeyedRateLimitingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(KeyedRateLimitingSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<KeyedRateLimitingSubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(KeyedRateLimitingSubscriber.class, "drainsInProgress");
+
+        private final Subscriber<? super T> actual;
+
+        private final Function<? super T, ?> keyExtractor;
+
+        private final Scheduler scheduler;
+
+        private final Scheduler.Worker worker;
+
+        private final KeyedTokenBuckets buckets;
+
+        private final int prefetch;
+
+        private final int replenishThreshold;
+
+        private final Queue<T> received = new ConcurrentLinkedQueue<>();
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int drainsInProgress;
+
+        private volatile boolean done;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Remaining state is only accessed while draining
+        private final Queue<T> ready = new ArrayDeque<>();
+
+        private final Map<Object, KeyQueue<T>> delayedByKey = new HashMap<>();
+
+        private final PriorityQueue<KeyQueue<T>> dueOrder = new PriorityQueue<>(Comparator.comparingLong(queue -> queue.dueNanos));
+
+        // An item received for a key whose delay queue was full
+        private T held;
+
+        private Object heldKey;
+
+        private long emitted;
+
+        private long requestedFromParent;
+
+        private long receivedFromParent;
+
+        private long nextWakeNanos = Long.MAX_VALUE;
+
+        KeyedRateLimitingSubscriber(
+            Subscriber<? super T> actual,
+            Function<? super T, ?> keyExtractor,
+            RateLimitingConfig config,
+            Scheduler scheduler
+        ) {
+            this.actual = actual;
+            this.keyExtractor = keyExtractor;
+            this.scheduler = scheduler;
+            this.worker = scheduler.createWorker();
+            this.buckets = new KeyedTokenBuckets(config);
+            this.prefetch = Math.max(1, config.getPrefetch());
+            this.replenishThreshold = prefetch - (prefetch >> 2);
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            received.offer(t);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                worker.dispose();
+                parent.cancel();
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (isTerminated()) {
+                    return;
+                }
+
+                long nowNanos = scheduler.now(TimeUnit.NANOSECONDS);
+                releaseHeld(nowNanos);
+                routeReceived(nowNanos);
+                if (isTerminated()) {
+                    return;
+                }
+
+                releaseDue(nowNanos);
+                releaseHeld(nowNanos);
+                emitReady();
+
+                if (done && held == null && received.isEmpty() && ready.isEmpty() && dueOrder.isEmpty()) {
+                    worker.dispose();
+                    actual.onComplete();
+                    return;
+                }
+
+                requestFromParent();
+                scheduleWake(nowNanos);
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private boolean isTerminated() {
+            if (cancelled) {
+                clear();
+                return true;
+            }
+
+            Throwable error = this.error;
+            if (error != null) {
+                cancelled = true;
+                clear();
+                worker.dispose();
+                actual.onError(error);
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Routes received items to their keys. If extracting a key fails, upstream is cancelled
+         * and the failure becomes this subscriber's terminal error.
+         */
+        private void routeReceived(long nowNanos) {
+            T t;
+            while (held == null && (t = received.poll()) != null) {
+                receivedFromParent++;
+                Object key;
+                try {
+                    key = keyExtractor.apply(t);
+                } catch (Throwable e) {
+                    error = Operators.onOperatorError(parent, e, t, currentContext());
+                    done = true;
+                    return;
+                }
+                route(t, key, nowNanos);
+            }
+        }
+
+        private void route(T t, Object key, long nowNanos) {
+            KeyQueue<T> queue = delayedByKey.get(key);
+            if (queue == null) {
+                long delayNanos = buckets.reserve(key, nowNanos);
+                if (delayNanos <= 0L && delayNanos != KeyedTokenBuckets.PAUSED) {
+                    ready.add(t);
+                } else {
+                    queue = new KeyQueue<>(key);
+                    queue.items.add(t);
+                    scheduleHead(queue, delayNanos, nowNanos);
+                    delayedByKey.put(key, queue);
+                    dueOrder.add(queue);
+                }
+            } else if (queue.items.size() < prefetch) {
+                queue.items.add(t);
+            } else {
+                held = t;
+                heldKey = key;
+            }
+        }
+
+        private void releaseHeld(long nowNanos) {
+            if (held != null) {
+                KeyQueue<T> queue = delayedByKey.get(heldKey);
+                if (queue == null || queue.items.size() < prefetch) {
+                    T t = held;
+                    held = null;
+                    route(t, heldKey, nowNanos);
+                    heldKey = null;
+                }
+            }
+        }
+
+        /**
+         * Moves the heads of delay queues whose permits have become available to the ready queue,
+         * and reserves permits for their next items, if any
+         */
+        private void releaseDue(long nowNanos) {
+            KeyQueue<T> queue;
+            while ((queue = dueOrder.peek()) != null && queue.dueNanos <= nowNanos) {
+                dueOrder.poll();
+                if (!queue.reserved) {
+                    scheduleHead(queue, buckets.reserve(queue.key, nowNanos), nowNanos);
+                    dueOrder.add(queue);
+                    continue;
+                }
+
+                ready.add(queue.items.poll());
+                if (queue.items.isEmpty()) {
+                    delayedByKey.remove(queue.key);
+                } else {
+                    scheduleHead(queue, buckets.reserve(queue.key, nowNanos), nowNanos);
+                    dueOrder.add(queue);
+                }
+            }
+        }
+
+        private void scheduleHead(KeyQueue<T> queue, long delayNanos, long nowNanos) {
+            queue.reserved = delayNanos != KeyedTokenBuckets.PAUSED;
+            queue.dueNanos = nowNanos + (queue.reserved ? Math.max(0L, delayNanos) : PAUSED_RETRY_DELAY_NANOS);
+        }
+
+        private void emitReady() {
+            long requested = this.requested;
+            T t;
+            while (emitted != requested && (t = ready.poll()) != null) {
+                emitted++;
+                actual.onNext(t);
+            }
+        }
+
+        /**
+         * Keeps up to prefetch items requested from upstream, less those that are ready but not
+         * yet emitted. Delayed items do not count against prefetch, and nothing is requested
+         * while an item is held for a full delay queue.
+         */
+        private void requestFromParent() {
+            if (held != null || done) {
+                return;
+            }
+
+            long outstanding = requestedFromParent - receivedFromParent;
+            long toRequest = prefetch - outstanding - ready.size();
+            if (toRequest >= replenishThreshold || (toRequest > 0L && outstanding == 0L)) {
+                requestedFromParent += toRequest;
+                parent.request(toRequest);
+            }
+        }
+
+        private void scheduleWake(long nowNanos) {
+            if (nowNanos >= nextWakeNanos) {
+                nextWakeNanos = Long.MAX_VALUE;
+            }
+
+            KeyQueue<T> next = dueOrder.peek();
+            if (next != null && next.dueNanos < nextWakeNanos) {
+                nextWakeNanos = next.dueNanos;
+                try {
+                    worker.schedule(this::drain, Math.max(0L, next.dueNanos - nowNanos), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    if (!cancelled && !done) {
+                        cancelled = true;
+                        parent.cancel();
+                        actual.onError(Operators.onRejectedExecution(e, currentContext()));
+                    }
+                }
+            }
+        }
+
+        private void clear() {
+            received.clear();
+            ready.clear();
+            delayedByKey.clear();
+            dueOrder.clear();
+            held = null;
+            heldKey = null;
+        }
+    }
+
+    private static final class KeyQueue<T> {
+
+        private final Object key;
+
+        private final Queue<T> items = new ArrayDeque<>();
+
+        // Whether a permit has been reserved for the head item, which is then due at dueNanos
+        private boolean reserved;
+
+        private long dueNanos;
+
+        private KeyQueue(Object key) {
+            this.key = key;
+        }
+    }
+}
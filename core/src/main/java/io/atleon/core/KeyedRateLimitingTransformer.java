@@ -0,0 +1,26 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.function.Function;
+
+final class KeyedRateLimitingTransformer<T> implements Function<Publisher<T>, Publisher<T>> {
+
+    private final Function<? super T, ?> keyExtractor;
+
+    private final RateLimitingConfig config;
+
+    private final Scheduler scheduler;
+
+    KeyedRateLimitingTransformer(Function<? super T, ?> keyExtractor, RateLimitingConfig config, Scheduler scheduler) {
+        this.keyExtractor = keyExtractor;
+        this.config = config;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Publisher<T> apply(Publisher<T> publisher) {
+        return config.isEnabled() ? new KeyedRateLimitingOperator<>(publisher, keyExtractor, config, scheduler) : publisher;
+    }
+}
@@ -0,0 +1,117 @@
+package io.atleon.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A map of token buckets keyed by arbitrary Objects, implemented with the generic cell rate
+ * algorithm. Rather than tracking available permits, each bucket tracks the theoretical time at
+ * which it will next be full, and reserving a permit yields the delay until that permit may be
+ * used. Buckets that have been idle long enough to be full are equivalent to new buckets, and are
+ * expired incrementally, by examining a small number of buckets upon every reservation, such
+ * that the cost of expiration is amortized over reservations rather than incurred by scanning
+ * every bucket at once. Buckets are kept in a {@link ConcurrentHashMap}, such that reservations
+ * for distinct keys do not contend with each other.
+ */
+final class KeyedTokenBuckets {
+
+    /**
+     * Delay returned upon reservation while the configured rate is non-positive
+     */
+    static final long PAUSED = -1L;
+
+    // Must be greater than one, such that expiration outpaces creation of buckets
+    private static final int EXPIRATION_CHECKS_PER_RESERVATION = 2;
+
+    private static final AtomicIntegerFieldUpdater<KeyedTokenBuckets> EXPIRATION_IN_PROGRESS =
+        AtomicIntegerFieldUpdater.newUpdater(KeyedTokenBuckets.class, "expirationInProgress");
+
+    private final RateLimitingConfig config;
+
+    private final ConcurrentMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private volatile int expirationInProgress;
+
+    // Position of incremental expiration, only accessed while expiration is in progress
+    private Iterator<Object> expirationCursor = Collections.emptyIterator();
+
+    KeyedTokenBuckets(RateLimitingConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Reserves a permit for the provided key.
+     *
+     * @return Nanoseconds until the reserved permit may be used, or {@link #PAUSED}
+     */
+    public long reserve(Object key, long nowNanos) {
+        double permitsPerSecond = config.getPermitsPerSecond();
+        if (permitsPerSecond <= 0D) {
+            return PAUSED;
+        }
+
+        long intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        long burstToleranceNanos = (config.getBurstCapacity() - 1L) * intervalNanos;
+        long[] emitNanos = new long[1];
+        buckets.compute(key, (__, existing) -> {
+            Bucket bucket = existing == null ? new Bucket(nowNanos) : existing;
+            emitNanos[0] = Math.max(nowNanos, bucket.fullAtNanos - burstToleranceNanos);
+            bucket.fullAtNanos = Math.max(bucket.fullAtNanos, emitNanos[0]) + intervalNanos;
+            return bucket;
+        });
+
+        expireIdle(nowNanos, EXPIRATION_CHECKS_PER_RESERVATION);
+        return emitNanos[0] - nowNanos;
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    void expireIdle(long nowNanos) {
+        expireIdle(nowNanos, buckets.size());
+    }
+
+    /**
+     * Examines up to the provided number of buckets, continuing from wherever the previous
+     * examination left off, and expires those that are full. Skipped if another thread is
+     * already expiring buckets.
+     */
+    private void expireIdle(long nowNanos, int maxChecks) {
+        if (!EXPIRATION_IN_PROGRESS.compareAndSet(this, 0, 1)) {
+            return;
+        }
+
+        try {
+            boolean restarted = false;
+            for (int i = 0; i < maxChecks; i++) {
+                if (!expirationCursor.hasNext()) {
+                    if (restarted) {
+                        break;
+                    }
+                    expirationCursor = buckets.keySet().iterator();
+                    restarted = true;
+                    if (!expirationCursor.hasNext()) {
+                        break;
+                    }
+                }
+                buckets.computeIfPresent(expirationCursor.next(), (__, bucket) -> bucket.fullAtNanos <= nowNanos ? null : bucket);
+            }
+        } finally {
+            expirationInProgress = 0;
+        }
+    }
+
+    private static final class Bucket {
+
+        private long fullAtNanos;
+
+        private Bucket(long fullAtNanos) {
+            this.fullAtNanos = fullAtNanos;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.atleon.core;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * An {@link IdempotencyStore} backed by a fixed-size, memory-mapped hash file, such that
+ * recorded keys survive process restarts, and both disk and heap usage are bounded regardless of
+ * how many keys are recorded.
+ * <p>
+ * Keys are reduced to 64-bit fingerprints, which are stored along with their expiration time in
+ * fixed-size slots. Each fingerprint hashes to a bucket of slots, so lookups and recordings only
+ * ever inspect a single bucket. When recording a key whose bucket is full, the slot with the
+ * earliest expiration is replaced, which will be an expired slot if there is one. As such, keys
+ * may be forgotten before their time-to-live elapses if more keys are recorded than there is
+ * capacity for. Fingerprint collisions (which may cause a key to be considered recorded when it
+ * is not) are astronomically unlikely at any capacity this store supports.
+ * <p>
+ * Writes land in the OS page cache, and therefore survive process crashes. Surviving OS crashes
+ * additionally requires periodically calling {@link #flush()}.
+ */
+public final class MemoryMappedIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryMappedIdempotencyStore.class);
+
+    private static final int MAGIC = 0x41544C49;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int SLOT_SIZE = 16;
+
+    private static final int SLOTS_PER_BUCKET = 16;
+
+    private static final int MAX_SLOTS = 1 << 26;
+
+    private static final int MAX_LOCK_STRIPES = 1024;
+
+    private static final long EMPTY = 0L;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int bucketMask;
+
+    private final Object[] locks;
+
+    private MemoryMappedIdempotencyStore(FileChannel channel, MappedByteBuffer buffer, int slots) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.bucketMask = slots / SLOTS_PER_BUCKET - 1;
+        this.locks = new Object[Math.min(MAX_LOCK_STRIPES, bucketMask + 1)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Opens a store backed by the file at the provided path, creating the file if it does not
+     * exist. If the file exists and was created with the same capacity, previously recorded keys
+     * are retained. Otherwise, the file is reinitialized.
+     *
+     * @param path     Path of the file backing the store
+     * @param capacity The number of keys the store has room for, rounded up to a power of two
+     * @return A new store
+     */
+    public static MemoryMappedIdempotencyStore open(Path path, int capacity) {
+        if (capacity <= 0 || capacity > MAX_SLOTS) {
+            throw new IllegalArgumentException("Capacity must be positive and at most " + MAX_SLOTS + ", but got " + capacity);
+        }
+
+        int slots = Math.max(SLOTS_PER_BUCKET, ceilingPowerOfTwo(capacity));
+        long size = HEADER_SIZE + (long) slots * SLOT_SIZE;
+        try {
+            FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            );
+            boolean reusable = channel.size() == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+            if (!reusable || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != slots) {
+                if (channel.size() != 0L) {
+                    LOGGER.info("Reinitializing idempotency store at path={} with slots={}", path, slots);
+                }
+                initialize(buffer, slots);
+            }
+            return new MemoryMappedIdempotencyStore(channel, buffer, slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open idempotency store at path=" + path, e);
+        }
+    }
+
+    @Override
+    public boolean isRecorded(String key) {
+        long fingerprint = fingerprint(key);
+        int bucket = bucket(fingerprint);
+        int offset = bucketOffset(bucket);
+        long now = System.currentTimeMillis();
+        synchronized (locks[bucket & (locks.length - 1)]) {
+            for (int i = 0; i < SLOTS_PER_BUCKET; i++, offset += SLOT_SIZE) {
+                long slotFingerprint = buffer.getLong(offset);
+                if (slotFingerprint == fingerprint) {
+                    return buffer.getLong(offset + 8) > now;
+                } else if (slotFingerprint == EMPTY) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void record(String key, Duration ttl) {
+        long fingerprint = fingerprint(key);
+        int bucket = bucket(fingerprint);
+        long expiration = saturatedAdd(System.currentTimeMillis(), ttl.toMillis());
+        synchronized (locks[bucket & (locks.length - 1)]) {
+            int offset = bucketOffset(bucket);
+            int target = offset;
+            long earliestExpiration = Long.MAX_VALUE;
+            for (int i = 0; i < SLOTS_PER_BUCKET; i++, offset += SLOT_SIZE) {
+                long slotFingerprint = buffer.getLong(offset);
+                if (slotFingerprint == fingerprint || slotFingerprint == EMPTY) {
+                    target = offset;
+                    break;
+                }
+
+                long slotExpiration = buffer.getLong(offset + 8);
+                if (slotExpiration < earliestExpiration) {
+                    earliestExpiration = slotExpiration;
+                    target = offset;
+                }
+            }
+
+            // Expiration is written before fingerprint such that a torn write never associates a
+            // fingerprint with another's (possibly later) expiration
+            buffer.putLong(target + 8, expiration);
+            buffer.putLong(target, fingerprint);
+        }
+    }
+
+    /**
+     * Forces any recordings to be written to the backing file's storage device.
+     */
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close idempotency store", e);
+        }
+    }
+
+    private static void initialize(MappedByteBuffer buffer, int slots) {
+        for (int offset = HEADER_SIZE; offset < buffer.capacity(); offset += SLOT_SIZE) {
+            buffer.putLong(offset, EMPTY);
+            buffer.putLong(offset + 8, 0L);
+        }
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, slots);
+        buffer.putInt(0, MAGIC);
+        buffer.force();
+    }
+
+    private static long fingerprint(String key) {
+        long fingerprint = HASH_FUNCTION.hashUnencodedChars(key).asLong();
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+
+    private int bucket(long fingerprint) {
+        return (int) (fingerprint >>> 32) & bucketMask;
+    }
+
+    private static int bucketOffset(int bucket) {
+        return HEADER_SIZE + bucket * SLOTS_PER_BUCKET * SLOT_SIZE;
+    }
+
+    private static long saturatedAdd(long x, long y) {
+        long result = x + y;
+        return ((x ^ result) & (y ^ result)) < 0L ? (y < 0L ? Long.MIN_VALUE : Long.MAX_VALUE) : result;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
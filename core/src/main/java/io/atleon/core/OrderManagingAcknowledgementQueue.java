@@ -1,19 +1,50 @@
 package io.atleon.core;
 
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
 final class OrderManagingAcknowledgementQueue extends AcknowledgementQueue {
 
-    private OrderManagingAcknowledgementQueue() {
+    private final Queue<InFlight> queue = new ConcurrentLinkedQueue<>();
 
+    private OrderManagingAcknowledgementQueue(boolean coalesceAcknowledgements) {
+        super(coalesceAcknowledgements);
     }
 
     public static AcknowledgementQueue create() {
-        return new OrderManagingAcknowledgementQueue();
+        return create(false);
+    }
+
+    public static AcknowledgementQueue create(boolean coalesceAcknowledgements) {
+        return new OrderManagingAcknowledgementQueue(coalesceAcknowledgements);
+    }
+
+    @Override
+    public <T> InFlight add(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos) {
+        InFlight inFlight = new InFlight(item, acknowledger, weight, addedNanos);
+        queue.add(inFlight);
+        return inFlight;
+    }
+
+    @Override
+    protected long complete(InFlight inFlight, Function<InFlight, Boolean> completer) {
+        return completer.apply(inFlight) ? drain() : 0L;
+    }
+
+    @Override
+    protected InFlight peek() {
+        return queue.peek();
+    }
+
+    @Override
+    protected boolean remove() {
+        return queue.poll() != null;
     }
 
     @Override
-    protected boolean complete(InFlight inFlight, Function<InFlight, Boolean> completer) {
-        return completer.apply(inFlight);
+    protected Iterator<InFlight> retained() {
+        return queue.iterator();
     }
 }
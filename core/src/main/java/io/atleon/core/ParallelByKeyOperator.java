@@ -0,0 +1,558 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Operator that processes {@link Alo} items in parallel across a fixed number of lanes, where
+ * items are assigned to lanes by hashing keys extracted from their data, such that items with
+ * the same key are always processed serially and in order. Each lane buffers received items in a
+ * bounded lock-free queue and processes them one at a time on its own {@link Scheduler.Worker},
+ * concatenating the results of mapping each item to a Publisher.
+ * <p>
+ * Unlike grouping followed by merging, there is no dynamic creation of groups, and therefore no
+ * need to hint at cardinality or risk of hanging due to unconsumed groups. Backpressure is
+ * applied across lanes: Upstream is only requested from while every lane has room for all
+ * outstanding requested items, such that a saturated lane (i.e. due to a slow or hot key)
+ * eventually pauses the whole source rather than buffering without bound. Results from each lane
+ * are bounded by the lane's prefetch until requested by downstream.
+ *
+ * @param <T> The type of data items emitted by the source
+ * @param <V> The type of data items resulting from mapping
+ */
+final class ParallelByKeyOperator<T, V> implements Publisher<Alo<V>> {
+
+    static final int DEFAULT_PREFETCH = 32;
+
+    private final Publisher<Alo<T>> source;
+
+    private final Function<? super T, ?> keyExtractor;
+
+    private final int parallelism;
+
+    private final Function<? super T, ? extends Publisher<V>> mapper;
+
+    private final Scheduler scheduler;
+
+    private final int prefetch;
+
+    ParallelByKeyOperator(
+        Publisher<Alo<T>> source,
+        Function<? super T, ?> keyExtractor,
+        int parallelism,
+        Function<? super T, ? extends Publisher<V>> mapper,
+        Scheduler scheduler,
+        int prefetch
+    ) {
+        if (parallelism <= 0 || prefetch <= 0) {
+            throw new IllegalArgumentException("Parallelism and prefetch must be positive");
+        }
+        this.source = source;
+        this.keyExtractor = keyExtractor;
+        this.parallelism = parallelism;
+        this.mapper = mapper;
+        this.scheduler = scheduler;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Alo<V>> actual) {
+        source.subscribe(new ParallelByKeySubscriber<>(actual, keyExtractor, parallelism, mapper, scheduler, prefetch));
+    }
+
+    private static final class ParallelByKeySubscriber<T, V> implements CoreSubscriber<Alo<T>>, Subscription {
+
+        private static final AtomicLongFieldUpdater<ParallelByKeySubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(ParallelByKeySubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<ParallelByKeySubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(ParallelByKeySubscriber.class, "drainsInProgress");
+
+        private static final AtomicIntegerFieldUpdater<ParallelByKeySubscriber> REQUESTS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(ParallelByKeySubscriber.class, "requestsInProgress");
+
+        private static final AtomicReferenceFieldUpdater<ParallelByKeySubscriber, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(ParallelByKeySubscriber.class, Throwable.class, "error");
+
+        private final Subscriber<? super Alo<V>> actual;
+
+        private final Function<? super T, ?> keyExtractor;
+
+        private final Function<? super T, ? extends Publisher<V>> mapper;
+
+        private final AloFailureStrategy failureStrategy;
+
+        private final int prefetch;
+
+        private final int replenishThreshold;
+
+        private final Lane<T, V>[] lanes;
+
+        private final Queue<Emission<T, V>> emissions = new ConcurrentLinkedQueue<>();
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int drainsInProgress;
+
+        private volatile int requestsInProgress;
+
+        private volatile Throwable error;
+
+        private volatile boolean done;
+
+        private volatile boolean cancelled;
+
+        // Number of items received from upstream, only written by onNext
+        private volatile long receivedCount;
+
+        // Number of received items that could not be assigned to a lane, only written by onNext
+        private volatile long unassignedCount;
+
+        // Number of items requested from upstream, only written while draining requests
+        private volatile long requestedFromParent;
+
+        @SuppressWarnings("unchecked")
+        ParallelByKeySubscriber(
+            Subscriber<? super Alo<V>> actual,
+            Function<? super T, ?> keyExtractor,
+            int parallelism,
+            Function<? super T, ? extends Publisher<V>> mapper,
+            Scheduler scheduler,
+            int prefetch
+        ) {
+            this.actual = actual;
+            this.keyExtractor = keyExtractor;
+            this.mapper = mapper;
+            this.failureStrategy = AloFailureStrategy.choose(actual);
+            this.prefetch = prefetch;
+            this.replenishThreshold = Math.max(1, prefetch / 4);
+            this.lanes = new Lane[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                lanes[i] = new Lane<>(this, scheduler.createWorker(), prefetch);
+            }
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                actual.onSubscribe(this);
+                drainRequest();
+            }
+        }
+
+        @Override
+        public void onNext(Alo<T> alo) {
+            Lane<T, V> lane;
+            try {
+                lane = lanes[laneIndex(keyExtractor.apply(alo.get()))];
+            } catch (Throwable error) {
+                unassignedCount = unassignedCount + 1;
+                receivedCount = receivedCount + 1;
+                processFailure(alo, error);
+                drainRequest();
+                drain();
+                return;
+            }
+
+            if (lane.queue.offer(alo)) {
+                // Enqueued count must be incremented before received count for request accounting
+                lane.enqueuedCount = lane.enqueuedCount + 1;
+                receivedCount = receivedCount + 1;
+                lane.schedule();
+            } else {
+                onError(new IllegalStateException("Lane capacity exceeded. This is a bug in request accounting."));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (ERROR.compareAndSet(this, null, t)) {
+                parent.cancel();
+                drain();
+            } else {
+                Operators.onErrorDropped(t, currentContext());
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.cancel();
+                if (DRAINS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                    cleanUp();
+                }
+            }
+        }
+
+        private int laneIndex(Object key) {
+            int hash = Objects.hashCode(key);
+            return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+        }
+
+        private void processFailure(Alo<T> alo, Throwable error) {
+            if (!failureStrategy.process(alo, error, this::onError)) {
+                Alo.nacknowledge(alo, error);
+            }
+        }
+
+        private void emit(Lane<T, V> lane, Alo<V> alo) {
+            emissions.add(new Emission<>(lane, alo));
+            drain();
+        }
+
+        /**
+         * Requests as many items from upstream as every lane has room for, less what has already
+         * been requested but not yet received. Requests are batched such that upstream is not
+         * requested from on every dequeue.
+         */
+        private void drainRequest() {
+            if (REQUESTS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                // Received count must be read before enqueued counts to never underestimate usage
+                long upstreamOutstanding = requestedFromParent - receivedCount;
+                long maxQueued = 0L;
+                for (Lane<T, V> lane : lanes) {
+                    maxQueued = Math.max(maxQueued, lane.enqueuedCount - lane.dequeuedCount);
+                }
+
+                long toRequest = prefetch - maxQueued - upstreamOutstanding;
+                if (!cancelled && toRequest > 0L && (toRequest >= replenishThreshold || upstreamOutstanding == 0L)) {
+                    requestedFromParent = requestedFromParent + toRequest;
+                    parent.request(toRequest);
+                }
+
+                missed = REQUESTS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                long r = requested;
+                long e = 0L;
+                while (e != r) {
+                    if (isTerminated()) {
+                        return;
+                    }
+
+                    boolean completed = isCompleted();
+                    Emission<T, V> emission = emissions.poll();
+                    if (emission == null) {
+                        if (completed) {
+                            cleanUp();
+                            actual.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+
+                    actual.onNext(emission.alo);
+                    emission.lane.replenish();
+                    e++;
+                }
+
+                if (e == r) {
+                    if (isTerminated()) {
+                        return;
+                    }
+
+                    if (isCompleted() && emissions.isEmpty()) {
+                        cleanUp();
+                        actual.onComplete();
+                        return;
+                    }
+                }
+
+                if (e != 0L && r != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -e);
+                }
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private boolean isTerminated() {
+            if (cancelled) {
+                cleanUp();
+                return true;
+            }
+
+            Throwable terminalError = error;
+            if (terminalError != null) {
+                cancelled = true;
+                cleanUp();
+                actual.onError(terminalError);
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean isCompleted() {
+            if (!done) {
+                return false;
+            }
+
+            long finishedCount = unassignedCount;
+            for (Lane<T, V> lane : lanes) {
+                finishedCount += lane.finishedCount;
+            }
+            return finishedCount == receivedCount;
+        }
+
+        private void cleanUp() {
+            emissions.clear();
+            for (Lane<T, V> lane : lanes) {
+                lane.dispose();
+            }
+        }
+    }
+
+    /**
+     * A lane of serial processing. Received items are queued by the (serial) upstream, and
+     * dequeued by this lane's worker, such that the queue only ever has a single producer and a
+     * single consumer. Processing of items proceeds one at a time, and is bounded by credit,
+     * which is the number of results this lane may produce without them being emitted downstream.
+     */
+    private static final class Lane<T, V> implements Runnable {
+
+        private static final AtomicIntegerFieldUpdater<Lane> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(Lane.class, "wip");
+
+        private static final AtomicLongFieldUpdater<Lane> CREDIT =
+            AtomicLongFieldUpdater.newUpdater(Lane.class, "credit");
+
+        private final ParallelByKeySubscriber<T, V> parent;
+
+        private final Scheduler.Worker worker;
+
+        private final Queue<Alo<T>> queue;
+
+        private volatile int wip;
+
+        private volatile long credit;
+
+        // Subscriber to results of the item currently being processed, or null if none is
+        private volatile InnerSubscriber<T, V> inner;
+
+        // Number of items enqueued, only written by upstream onNext
+        private volatile long enqueuedCount;
+
+        // Number of items dequeued, only written by this lane's worker
+        private volatile long dequeuedCount;
+
+        // Number of items whose processing has finished, only written serially per lane
+        private volatile long finishedCount;
+
+        Lane(ParallelByKeySubscriber<T, V> parent, Scheduler.Worker worker, int prefetch) {
+            this.parent = parent;
+            this.worker = worker;
+            this.queue = Queues.<Alo<T>>get(prefetch).get();
+            this.credit = prefetch;
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                Alo<T> alo;
+                while (!parent.cancelled && inner == null && credit > 0L && (alo = queue.poll()) != null) {
+                    dequeuedCount = dequeuedCount + 1;
+                    parent.drainRequest();
+                    process(alo);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        void schedule() {
+            if (WIP.getAndIncrement(this) == 0) {
+                try {
+                    worker.schedule(this);
+                } catch (RejectedExecutionException e) {
+                    if (!parent.cancelled) {
+                        parent.onError(e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns a unit of credit to this lane after one of its results has been emitted
+         * downstream, either by requesting another result from the item in process, or by making
+         * the credit available to subsequent items.
+         */
+        void replenish() {
+            InnerSubscriber<T, V> current = inner;
+            if (current == null || !current.tryRequestOne()) {
+                CREDIT.incrementAndGet(this);
+                schedule();
+            }
+        }
+
+        void dispose() {
+            worker.dispose();
+            InnerSubscriber<T, V> current = inner;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void process(Alo<T> alo) {
+            Alo<Publisher<V>> mapped;
+            try {
+                mapped = Objects.requireNonNull(alo.map(parent.mapper), "Alo implementation returned null mapping");
+            } catch (Throwable error) {
+                parent.processFailure(alo, error);
+                finish(0L);
+                return;
+            }
+
+            InnerSubscriber<T, V> subscriber = new InnerSubscriber<>(this);
+            inner = subscriber;
+            AcknowledgingPublisher.fromAloPublisher(mapped).subscribe(subscriber);
+        }
+
+        private void finish(long unusedCredit) {
+            if (unusedCredit > 0L) {
+                CREDIT.addAndGet(this, unusedCredit);
+            }
+            inner = null;
+            finishedCount = finishedCount + 1;
+            parent.drain();
+            schedule();
+        }
+    }
+
+    /**
+     * Subscribes to the results of processing a single item. Results are only requested as the
+     * owning lane has credit for them, where outstanding requests are tracked such that any
+     * unused credit is returned to the lane upon completion.
+     */
+    private static final class InnerSubscriber<T, V> implements CoreSubscriber<Alo<V>> {
+
+        private static final AtomicLongFieldUpdater<InnerSubscriber> OUTSTANDING =
+            AtomicLongFieldUpdater.newUpdater(InnerSubscriber.class, "outstanding");
+
+        private final Lane<T, V> lane;
+
+        private volatile Subscription subscription;
+
+        // Results requested but not yet received, or negative before subscription and once terminated
+        private volatile long outstanding = -1L;
+
+        InnerSubscriber(Lane<T, V> lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Context currentContext() {
+            return lane.parent.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            long toRequest = Lane.CREDIT.getAndSet(lane, 0L);
+            outstanding = toRequest;
+            if (toRequest > 0L) {
+                s.request(toRequest);
+            }
+        }
+
+        @Override
+        public void onNext(Alo<V> alo) {
+            OUTSTANDING.decrementAndGet(this);
+            lane.parent.emit(lane, alo);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            OUTSTANDING.set(this, -1L);
+            lane.parent.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            lane.finish(Math.max(0L, OUTSTANDING.getAndSet(this, -1L)));
+        }
+
+        boolean tryRequestOne() {
+            long current;
+            do {
+                current = outstanding;
+                if (current < 0L) {
+                    return false;
+                }
+            } while (!OUTSTANDING.compareAndSet(this, current, current + 1L));
+            subscription.request(1L);
+            return true;
+        }
+
+        void cancel() {
+            Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+
+    private static final class Emission<T, V> {
+
+        private final Lane<T, V> lane;
+
+        private final Alo<V> alo;
+
+        Emission(Lane<T, V> lane, Alo<V> alo) {
+            this.lane = lane;
+            this.alo = alo;
+        }
+    }
+}
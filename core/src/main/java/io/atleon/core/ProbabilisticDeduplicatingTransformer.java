@@ -0,0 +1,64 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filters out items whose String deduplication keys have (probably) been seen within a configured
+ * retention Duration. Each subscription gets its own {@link RotatingBloomFilter}, and time is
+ * sourced from the provided Scheduler.
+ */
+final class ProbabilisticDeduplicatingTransformer<T> implements Function<Publisher<T>, Publisher<T>> {
+
+    private final ProbabilisticDeduplicationConfig config;
+
+    private final BiFunction<Flux<T>, Predicate<String>, Flux<T>> filterer;
+
+    private final Scheduler scheduler;
+
+    private ProbabilisticDeduplicatingTransformer(
+        ProbabilisticDeduplicationConfig config,
+        BiFunction<Flux<T>, Predicate<String>, Flux<T>> filterer,
+        Scheduler scheduler
+    ) {
+        this.config = config;
+        this.filterer = filterer;
+        this.scheduler = scheduler;
+    }
+
+    static <T> ProbabilisticDeduplicatingTransformer<T>
+    identity(ProbabilisticDeduplicationConfig config, Function<? super T, String> keyExtractor, Scheduler scheduler) {
+        return new ProbabilisticDeduplicatingTransformer<>(
+            config,
+            (flux, isNewKey) -> flux.filter(t -> isNewKey.test(keyExtractor.apply(t))),
+            scheduler
+        );
+    }
+
+    static <T> ProbabilisticDeduplicatingTransformer<Alo<T>>
+    alo(ProbabilisticDeduplicationConfig config, Function<? super T, String> keyExtractor, Scheduler scheduler) {
+        return new ProbabilisticDeduplicatingTransformer<>(
+            config,
+            (flux, isNewKey) -> flux.handle(AloOps.filteringHandler(t -> isNewKey.test(keyExtractor.apply(t)), Alo::acknowledge)),
+            scheduler
+        );
+    }
+
+    @Override
+    public Publisher<T> apply(Publisher<T> publisher) {
+        if (!config.isEnabled()) {
+            return publisher;
+        } else {
+            return Flux.defer(() -> {
+                RotatingBloomFilter filter = RotatingBloomFilter.create(config, () -> scheduler.now(TimeUnit.MILLISECONDS));
+                return filterer.apply(Flux.from(publisher), filter::put);
+            });
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.atleon.core;
+
+import java.time.Duration;
+
+/**
+ * Configures quantitative behavior of probabilistic deduplication, where previously seen keys
+ * are tracked in a rotating, time-partitioned Bloom filter rather than an exact key set. This
+ * results in a fixed memory footprint at any key cardinality, at the cost of a configurable rate
+ * of items being falsely deemed duplicates.
+ * <p>
+ * The retention Duration is divided in to partitions, each of which is a Bloom filter covering a
+ * successive time period. Keys are added to the current partition, and when the current period
+ * elapses, the oldest partition is cleared and becomes the current one. As such, keys are
+ * deduplicated for at least {@code retention * (partitions - 1) / partitions} and at most
+ * {@code retention} after they were first seen.
+ */
+public final class ProbabilisticDeduplicationConfig {
+
+    public static final int DEFAULT_PARTITIONS = 4;
+
+    private final Duration retention;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    private final int partitions;
+
+    private final boolean offHeap;
+
+    /**
+     * @param retention          The Duration for which to deduplicate items
+     * @param expectedInsertions The expected number of distinct keys seen per retention Duration
+     * @param falsePositiveRate  The max probability of falsely deeming an item a duplicate
+     */
+    public ProbabilisticDeduplicationConfig(Duration retention, long expectedInsertions, double falsePositiveRate) {
+        this(retention, expectedInsertions, falsePositiveRate, DEFAULT_PARTITIONS, false);
+    }
+
+    private ProbabilisticDeduplicationConfig(
+        Duration retention,
+        long expectedInsertions,
+        double falsePositiveRate,
+        int partitions,
+        boolean offHeap
+    ) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive, but got " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0D || falsePositiveRate >= 1D) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1), but got " + falsePositiveRate);
+        }
+        if (partitions < 2) {
+            throw new IllegalArgumentException("Number of partitions must be at least 2, but got " + partitions);
+        }
+        this.retention = retention;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.partitions = partitions;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * More partitions result in retention that more closely approximates the configured Duration,
+     * at the cost of more memory and more lookups per item.
+     *
+     * @param partitions The number of time partitions the retention Duration is divided in to
+     * @return A new ProbabilisticDeduplicationConfig with the provided number of partitions
+     */
+    public ProbabilisticDeduplicationConfig withPartitions(int partitions) {
+        return new ProbabilisticDeduplicationConfig(retention, expectedInsertions, falsePositiveRate, partitions, offHeap);
+    }
+
+    /**
+     * @param offHeap Whether to allocate Bloom filter bit arrays in direct (off-heap) memory
+     * @return A new ProbabilisticDeduplicationConfig with the provided off-heap setting
+     */
+    public ProbabilisticDeduplicationConfig withOffHeap(boolean offHeap) {
+        return new ProbabilisticDeduplicationConfig(retention, expectedInsertions, falsePositiveRate, partitions, offHeap);
+    }
+
+    public boolean isEnabled() {
+        return !retention.isNegative() && !retention.isZero();
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+}
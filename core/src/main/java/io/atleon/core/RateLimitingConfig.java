@@ -2,33 +2,77 @@ package io.atleon.core;
 
 import io.atleon.util.Defaults;
 
+import java.util.function.DoubleSupplier;
+
 /**
- * Configures quantitative behavior of emission rate limiting in reactive pipelines
+ * Configures quantitative behavior of emission rate limiting in reactive pipelines. Rate
+ * limiting is implemented with a token bucket, where permits are refilled at the configured rate
+ * up to the configured burst capacity, and each emitted item consumes one permit.
  */
 public final class RateLimitingConfig {
 
-    private final double permitsPerSecond;
+    private final DoubleSupplier permitsPerSecond;
+
+    private final boolean dynamic;
 
     private final int prefetch;
 
+    private final int burstCapacity;
+
     public RateLimitingConfig(double permitsPerSecond) {
         this(permitsPerSecond, Defaults.PREFETCH);
     }
 
     public RateLimitingConfig(double permitsPerSecond, int prefetch) {
+        this(() -> permitsPerSecond, false, prefetch, 1);
+    }
+
+    private RateLimitingConfig(DoubleSupplier permitsPerSecond, boolean dynamic, int prefetch, int burstCapacity) {
         this.permitsPerSecond = permitsPerSecond;
+        this.dynamic = dynamic;
         this.prefetch = prefetch;
+        this.burstCapacity = burstCapacity;
+    }
+
+    /**
+     * Allow up to the provided number of permits to accumulate while emission is idle, such that
+     * bursts of up to that many items may be emitted without delay.
+     *
+     * @param burstCapacity The max number of permits that may be accumulated
+     * @return A new RateLimitingConfig with the provided burst capacity
+     */
+    public RateLimitingConfig withBurstCapacity(int burstCapacity) {
+        if (burstCapacity <= 0) {
+            throw new IllegalArgumentException("Burst capacity must be positive, but got " + burstCapacity);
+        }
+        return new RateLimitingConfig(permitsPerSecond, dynamic, prefetch, burstCapacity);
+    }
+
+    /**
+     * Source the permitted rate from the provided supplier, which is queried upon every refill of
+     * permits, such that the rate may be adjusted while streams are running. Changes take effect
+     * within a second. A non-positive rate pauses emission until the rate becomes positive.
+     *
+     * @param permitsPerSecond Supplier of the rate at which permits are refilled
+     * @return A new RateLimitingConfig with a dynamically adjustable rate
+     */
+    public RateLimitingConfig withDynamicPermitsPerSecond(DoubleSupplier permitsPerSecond) {
+        return new RateLimitingConfig(permitsPerSecond, true, prefetch, burstCapacity);
     }
 
     public boolean isEnabled() {
-        return permitsPerSecond > 0D;
+        return dynamic || getPermitsPerSecond() > 0D;
     }
 
     public double getPermitsPerSecond() {
-        return permitsPerSecond;
+        return permitsPerSecond.getAsDouble();
     }
 
     public int getPrefetch() {
         return prefetch;
     }
+
+    public int getBurstCapacity() {
+        return burstCapacity;
+    }
 }
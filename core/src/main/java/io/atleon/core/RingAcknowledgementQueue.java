@@ -0,0 +1,168 @@
+package io.atleon.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * An order-managing {@link AcknowledgementQueue} backed by a bounded ring of reusable In-Flight
+ * Acknowledgements. Slots in the ring are indexed by monotonically increasing sequence numbers and
+ * are reused once drained, such that steady-state enqueueing, completion, and draining do not
+ * allocate. The ring starts at an initial capacity and doubles (up to its max capacity) whenever
+ * it is full upon appending, so storage is only allocated for as many In-Flight Acknowledgements
+ * as have actually been outstanding at once.
+ * <p>
+ * Appending to this Queue must be serialized (as is the case for Reactive Streams onNext signals),
+ * while completion may happen concurrently from any thread. Since slots are reused, any given
+ * In-Flight Acknowledgement must not be completed after it has been drained; callers are
+ * responsible for guaranteeing at-most-once completion. The number of In-Flight Acknowledgements
+ * that have not yet been drained must never exceed this Queue's max capacity.
+ */
+final class RingAcknowledgementQueue extends AcknowledgementQueue {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int maxCapacity;
+
+    // Replaced (only) upon growth, which retains the slot of every sequence not yet drained
+    private volatile InFlight[] slots;
+
+    private volatile long head = 0L;
+
+    private volatile long tail = 0L;
+
+    private RingAcknowledgementQueue(int initialCapacity, int maxCapacity, boolean coalesceAcknowledgements) {
+        super(coalesceAcknowledgements);
+        this.maxCapacity = maxCapacity;
+        this.slots = newSlots(initialCapacity);
+    }
+
+    /**
+     * Creates a new ring-backed Queue that can hold at least the provided number of In-Flight
+     * Acknowledgements, all of which are pre-allocated. Actual capacity is rounded up to the
+     * nearest power of two.
+     */
+    public static AcknowledgementQueue create(long minCapacity) {
+        return create(minCapacity, minCapacity, false);
+    }
+
+    /**
+     * Creates a new ring-backed Queue that initially holds at least the provided initial number of
+     * In-Flight Acknowledgements, and grows as necessary to hold at least the provided max number
+     * of In-Flight Acknowledgements. Capacities are rounded up to the nearest power of two.
+     */
+    public static AcknowledgementQueue create(long initialCapacity, long maxCapacity, boolean coalesceAcknowledgements) {
+        if (maxCapacity <= 0L || maxCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Ring capacity must be positive and at most " + MAX_CAPACITY + ": " + maxCapacity);
+        }
+        int max = ceilingPowerOfTwo((int) maxCapacity);
+        int initial = ceilingPowerOfTwo((int) Math.max(1L, Math.min(initialCapacity, max)));
+        return new RingAcknowledgementQueue(initial, max, coalesceAcknowledgements);
+    }
+
+    @Override
+    public <T> InFlight add(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos) {
+        long sequence = tail;
+        InFlight[] slots = this.slots;
+        if (sequence - head >= slots.length) {
+            slots = grow(slots, sequence);
+        }
+
+        InFlight inFlight = slots[index(slots, sequence)];
+        inFlight.reset(item, acknowledger, weight, addedNanos);
+        tail = sequence + 1;
+        return inFlight;
+    }
+
+    @Override
+    protected long complete(InFlight inFlight, Function<InFlight, Boolean> completer) {
+        return completer.apply(inFlight) ? drain() : 0L;
+    }
+
+    @Override
+    protected InFlight peek() {
+        long sequence = head;
+        if (sequence >= tail) {
+            return null;
+        }
+        InFlight[] slots = this.slots;
+        return slots[index(slots, sequence)];
+    }
+
+    @Override
+    protected boolean remove() {
+        long sequence = head;
+        if (sequence >= tail) {
+            return false;
+        }
+        InFlight[] slots = this.slots;
+        slots[index(slots, sequence)].release();
+        head = sequence + 1;
+        return true;
+    }
+
+    @Override
+    protected Iterator<InFlight> retained() {
+        return new Iterator<InFlight>() {
+
+            private long sequence = head;
+
+            private final long end = tail;
+
+            private final InFlight[] slots = RingAcknowledgementQueue.this.slots;
+
+            @Override
+            public boolean hasNext() {
+                return sequence < end;
+            }
+
+            @Override
+            public InFlight next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return slots[index(slots, sequence++)];
+            }
+        };
+    }
+
+    /**
+     * Doubles the ring, moving every slot from the head to the provided tail sequence to its index
+     * in the new ring. Slots drained concurrently are moved regardless, and are simply reused once
+     * the new ring wraps around. Since the tail is only advanced after publishing the new ring,
+     * concurrent drains see the new ring for any sequence appended after growth.
+     */
+    private InFlight[] grow(InFlight[] slots, long tail) {
+        if (slots.length >= maxCapacity) {
+            throw new IllegalStateException("Ring capacity exceeded: capacity=" + slots.length);
+        }
+
+        InFlight[] grown = new InFlight[slots.length << 1];
+        for (long sequence = tail - slots.length; sequence < tail; sequence++) {
+            grown[index(grown, sequence)] = slots[index(slots, sequence)];
+        }
+        for (int i = 0; i < grown.length; i++) {
+            if (grown[i] == null) {
+                grown[i] = new InFlight();
+            }
+        }
+        this.slots = grown;
+        return grown;
+    }
+
+    private static InFlight[] newSlots(int capacity) {
+        InFlight[] slots = new InFlight[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new InFlight();
+        }
+        return slots;
+    }
+
+    private static int index(InFlight[] slots, long sequence) {
+        return (int) (sequence & (slots.length - 1));
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
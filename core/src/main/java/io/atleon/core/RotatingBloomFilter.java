@@ -0,0 +1,198 @@
+package io.atleon.core;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * A time-partitioned Bloom filter, where each partition covers a successive period of time, and
+ * the oldest partition is cleared and reused once the current period elapses. Rotation is
+ * applied lazily upon access. Bit indexes are derived by double hashing a 128-bit murmur3 hash
+ * of each key's characters, such that keys are hashed by value over their full content.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class RotatingBloomFilter {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final long MAX_OFF_HEAP_BITS = (long) Integer.MAX_VALUE / Long.BYTES * Long.SIZE;
+
+    private final BitArray[] partitions;
+
+    private final long bitsPerPartition;
+
+    private final long[] bitIndexes;
+
+    private final long partitionMillis;
+
+    private final LongSupplier clockMillis;
+
+    private long currentEpoch;
+
+    private int currentPartition = 0;
+
+    private RotatingBloomFilter(
+        BitArray[] partitions,
+        long bitsPerPartition,
+        int numHashFunctions,
+        long partitionMillis,
+        LongSupplier clockMillis
+    ) {
+        this.partitions = partitions;
+        this.bitsPerPartition = bitsPerPartition;
+        this.bitIndexes = new long[numHashFunctions];
+        this.partitionMillis = partitionMillis;
+        this.clockMillis = clockMillis;
+        this.currentEpoch = clockMillis.getAsLong() / partitionMillis;
+    }
+
+    public static RotatingBloomFilter create(ProbabilisticDeduplicationConfig config, LongSupplier clockMillis) {
+        // Each partition sees roughly its share of insertions, and by union bound, the overall
+        // false positive rate is at most the sum of each partition's false positive rate
+        int numPartitions = config.getPartitions();
+        long insertions = Math.max(1L, (config.getExpectedInsertions() + numPartitions - 1) / numPartitions);
+        double partitionFalsePositiveRate = config.getFalsePositiveRate() / numPartitions;
+
+        long bits = (long) Math.ceil(-insertions * Math.log(partitionFalsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1L, (bits + Long.SIZE - 1) / Long.SIZE);
+        long bitsPerPartition = words * Long.SIZE;
+        int numHashFunctions = (int) Math.max(1L, Math.round((double) bitsPerPartition / insertions * Math.log(2)));
+
+        if (config.isOffHeap() ? bitsPerPartition > MAX_OFF_HEAP_BITS : words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter partitions are too large. Required bits=" + bitsPerPartition);
+        }
+
+        BitArray[] partitions = new BitArray[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            partitions[i] = config.isOffHeap() ? new DirectBitArray((int) words) : new HeapBitArray((int) words);
+        }
+
+        long partitionMillis = Math.max(1L, config.getRetention().toMillis() / numPartitions);
+        return new RotatingBloomFilter(partitions, bitsPerPartition, numHashFunctions, partitionMillis, clockMillis);
+    }
+
+    /**
+     * Adds the provided key to this filter.
+     *
+     * @return Whether the key was definitely not already contained in this filter
+     */
+    public boolean put(CharSequence key) {
+        rotate();
+        computeBitIndexes(HASH_FUNCTION.hashUnencodedChars(key));
+        for (BitArray partition : partitions) {
+            if (containsAll(partition)) {
+                return false;
+            }
+        }
+
+        BitArray current = partitions[currentPartition];
+        for (long bitIndex : bitIndexes) {
+            current.set(bitIndex);
+        }
+        return true;
+    }
+
+    private void rotate() {
+        long epoch = clockMillis.getAsLong() / partitionMillis;
+        long elapsedEpochs = Math.min(epoch - currentEpoch, partitions.length);
+        for (long i = 0; i < elapsedEpochs; i++) {
+            currentPartition = (currentPartition + 1) % partitions.length;
+            partitions[currentPartition].clear();
+        }
+        currentEpoch = Math.max(epoch, currentEpoch);
+    }
+
+    private void computeBitIndexes(HashCode hashCode) {
+        long hash1 = hashCode.asLong();
+        long hash2 = mix(hash1);
+        long combinedHash = hash1;
+        for (int i = 0; i < bitIndexes.length; i++) {
+            bitIndexes[i] = (combinedHash & Long.MAX_VALUE) % bitsPerPartition;
+            combinedHash += hash2;
+        }
+    }
+
+    private boolean containsAll(BitArray partition) {
+        for (long bitIndex : bitIndexes) {
+            if (!partition.get(bitIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private interface BitArray {
+
+        boolean get(long index);
+
+        void set(long index);
+
+        void clear();
+    }
+
+    private static final class HeapBitArray implements BitArray {
+
+        private final long[] words;
+
+        public HeapBitArray(int words) {
+            this.words = new long[words];
+        }
+
+        @Override
+        public boolean get(long index) {
+            return (words[(int) (index >>> 6)] & (1L << index)) != 0L;
+        }
+
+        @Override
+        public void set(long index) {
+            words[(int) (index >>> 6)] |= 1L << index;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(words, 0L);
+        }
+    }
+
+    private static final class DirectBitArray implements BitArray {
+
+        private final LongBuffer words;
+
+        public DirectBitArray(int words) {
+            this.words = ByteBuffer.allocateDirect(words * Long.BYTES).asLongBuffer();
+        }
+
+        @Override
+        public boolean get(long index) {
+            return (words.get((int) (index >>> 6)) & (1L << index)) != 0L;
+        }
+
+        @Override
+        public void set(long index) {
+            int wordIndex = (int) (index >>> 6);
+            words.put(wordIndex, words.get(wordIndex) | (1L << index));
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < words.capacity(); i++) {
+                words.put(i, 0L);
+            }
+        }
+    }
+}
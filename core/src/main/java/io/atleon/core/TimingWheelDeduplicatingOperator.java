@@ -0,0 +1,626 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Deduplication engine where pending deduplications are kept in a map per shard, and expired by
+ * a hashed timing wheel per shard. Items are assigned to shards by hashing their deduplication
+ * keys. Each shard's state is only ever accessed by that shard's {@link Scheduler.Worker}, which
+ * both processes received items and periodically advances the shard's wheel, such that no
+ * locking is required.
+ * <p>
+ * The first item received for any given key starts a pending deduplication, and subsequent
+ * duplicates are reduced in to it incrementally as they are received. A deduplicated item is
+ * emitted when either the max deduplication size is reached or the wheel expires the pending
+ * deduplication after the deduplication Duration. Since every pending deduplication has the same
+ * Duration, deadlines always fall within a single revolution of the wheel.
+ * <p>
+ * Upstream is requested from in batches up to the configured source prefetch, and requesting is
+ * paused while either the number of pending deduplications reaches the configured concurrency or
+ * the number of deduplicated items awaiting downstream request reaches the prefetch. Upon
+ * upstream completion, all pending deduplications are emitted.
+ *
+ * @param <T> The type of items being deduplicated
+ * @param <R> The type of data that duplicates are reduced on
+ */
+final class TimingWheelDeduplicatingOperator<T, R> implements Publisher<T> {
+
+    // Number of wheel ticks per deduplication Duration. Wheel size is the next power of two
+    private static final long TICKS_PER_DURATION = 32L;
+
+    private static final int WHEEL_SIZE = 64;
+
+    private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final Publisher<T> source;
+
+    private final DeduplicationConfig config;
+
+    private final DeduplicatingTransformer.Deduplicator<T, R> deduplicator;
+
+    private final Scheduler scheduler;
+
+    private TimingWheelDeduplicatingOperator(
+        Publisher<T> source,
+        DeduplicationConfig config,
+        DeduplicatingTransformer.Deduplicator<T, R> deduplicator,
+        Scheduler scheduler
+    ) {
+        this.source = source;
+        this.config = config;
+        this.deduplicator = deduplicator;
+        this.scheduler = scheduler;
+    }
+
+    static <T, R> Publisher<T> create(
+        Publisher<T> source,
+        DeduplicationConfig config,
+        DeduplicatingTransformer.Deduplicator<T, R> deduplicator,
+        Scheduler scheduler
+    ) {
+        return new TimingWheelDeduplicatingOperator<>(source, config, deduplicator, scheduler);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> actual) {
+        source.subscribe(new DeduplicatingSubscriber<>(actual, config, deduplicator, scheduler));
+    }
+
+    private static final class DeduplicatingSubscriber<T, R> implements CoreSubscriber<T>, Subscription {
+
+        private static final AtomicLongFieldUpdater<DeduplicatingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "requested");
+
+        private static final AtomicLongFieldUpdater<DeduplicatingSubscriber> PENDING =
+            AtomicLongFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "pending");
+
+        private static final AtomicLongFieldUpdater<DeduplicatingSubscriber> QUEUED =
+            AtomicLongFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "queued");
+
+        private static final AtomicIntegerFieldUpdater<DeduplicatingSubscriber> FLUSHED_SHARDS =
+            AtomicIntegerFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "flushedShards");
+
+        private static final AtomicIntegerFieldUpdater<DeduplicatingSubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "drainsInProgress");
+
+        private static final AtomicIntegerFieldUpdater<DeduplicatingSubscriber> REQUESTS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(DeduplicatingSubscriber.class, "requestsInProgress");
+
+        private static final AtomicReferenceFieldUpdater<DeduplicatingSubscriber, Throwable> ERROR =
+            AtomicReferenceFieldUpdater.newUpdater(DeduplicatingSubscriber.class, Throwable.class, "error");
+
+        private final Subscriber<? super T> actual;
+
+        private final DeduplicatingTransformer.Deduplicator<T, R> deduplicator;
+
+        private final long maxDeduplicationSize;
+
+        private final long maxPending;
+
+        private final int prefetch;
+
+        private final int replenishThreshold;
+
+        private final Shard<T, R>[] shards;
+
+        private final Queue<T> emissions = new ConcurrentLinkedQueue<>();
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        // Number of pending deduplications, only tracked when bounded
+        private volatile long pending;
+
+        // Number of deduplicated items awaiting downstream request
+        private volatile long queued;
+
+        private volatile int flushedShards;
+
+        private volatile int drainsInProgress;
+
+        private volatile int requestsInProgress;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Number of items requested from upstream, only written while draining requests
+        private volatile long requestedFromParent;
+
+        @SuppressWarnings("unchecked")
+        DeduplicatingSubscriber(
+            Subscriber<? super T> actual,
+            DeduplicationConfig config,
+            DeduplicatingTransformer.Deduplicator<T, R> deduplicator,
+            Scheduler scheduler
+        ) {
+            this.actual = actual;
+            this.deduplicator = deduplicator;
+            this.maxDeduplicationSize = config.getMaxDeduplicationSize();
+            this.maxPending = config.getDeduplicationConcurrency();
+            this.prefetch = config.getDeduplicationSourcePrefetch();
+            this.replenishThreshold = Math.max(1, prefetch / 4);
+            this.shards = new Shard[config.getTimingWheelShards()];
+
+            long durationNanos = config.getDeduplicationDuration().toNanos();
+            long tickNanos = Math.max(MIN_TICK_NANOS, durationNanos / TICKS_PER_DURATION);
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = new Shard<>(this, scheduler, durationNanos, tickNanos);
+            }
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                actual.onSubscribe(this);
+                for (Shard<T, R> shard : shards) {
+                    shard.start();
+                }
+                drainRequest();
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            Object key;
+            try {
+                key = deduplicator.extractKey(t);
+            } catch (Throwable error) {
+                onError(error);
+                return;
+            }
+
+            int hash = Objects.hashCode(key);
+            Shard<T, R> shard = shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+            shard.queue.add(new Deduplicating<>(key, t));
+            shard.schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (ERROR.compareAndSet(this, null, t)) {
+                parent.cancel();
+                drain();
+            } else {
+                Operators.onErrorDropped(t, currentContext());
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            for (Shard<T, R> shard : shards) {
+                shard.scheduleFlush();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.cancel();
+                if (DRAINS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                    cleanUp();
+                }
+            }
+        }
+
+        private void emit(Deduplicating<T, R> deduplicating, boolean wasPending) {
+            T deduplicated = deduplicator.combine(deduplicating.sources(), deduplicating.reduced);
+            if (wasPending && maxPending != Integer.MAX_VALUE) {
+                PENDING.decrementAndGet(this);
+            }
+            QUEUED.incrementAndGet(this);
+            emissions.add(deduplicated);
+            drain();
+        }
+
+        private void shardFlushed() {
+            FLUSHED_SHARDS.incrementAndGet(this);
+            drain();
+        }
+
+        /**
+         * Requests up to the source prefetch from upstream, less what has been requested but not
+         * yet processed by shards, unless there are too many pending deduplications or too many
+         * deduplicated items awaiting downstream request.
+         */
+        private void drainRequest() {
+            if (REQUESTS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                long processedCount = 0L;
+                for (Shard<T, R> shard : shards) {
+                    processedCount += shard.processedCount;
+                }
+
+                long upstreamOutstanding = requestedFromParent - processedCount;
+                boolean saturated = queued >= prefetch || pending >= maxPending;
+                long toRequest = saturated ? 0L : prefetch - upstreamOutstanding;
+                if (!cancelled && toRequest > 0L && (toRequest >= replenishThreshold || upstreamOutstanding == 0L)) {
+                    requestedFromParent = requestedFromParent + toRequest;
+                    parent.request(toRequest);
+                }
+
+                missed = REQUESTS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                long r = requested;
+                long e = 0L;
+                while (e != r) {
+                    if (isTerminated()) {
+                        return;
+                    }
+
+                    boolean completed = flushedShards == shards.length;
+                    T deduplicated = emissions.poll();
+                    if (deduplicated == null) {
+                        if (completed) {
+                            cleanUp();
+                            actual.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+
+                    actual.onNext(deduplicated);
+                    e++;
+                }
+
+                if (e == r) {
+                    if (isTerminated()) {
+                        return;
+                    }
+
+                    if (flushedShards == shards.length && emissions.isEmpty()) {
+                        cleanUp();
+                        actual.onComplete();
+                        return;
+                    }
+                }
+
+                if (e != 0L) {
+                    QUEUED.addAndGet(this, -e);
+                    if (r != Long.MAX_VALUE) {
+                        REQUESTED.addAndGet(this, -e);
+                    }
+                    drainRequest();
+                }
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private boolean isTerminated() {
+            if (cancelled) {
+                cleanUp();
+                return true;
+            }
+
+            Throwable terminalError = error;
+            if (terminalError != null) {
+                cancelled = true;
+                cleanUp();
+                actual.onError(terminalError);
+                return true;
+            }
+
+            return false;
+        }
+
+        private void cleanUp() {
+            emissions.clear();
+            for (Shard<T, R> shard : shards) {
+                shard.worker.dispose();
+            }
+        }
+    }
+
+    /**
+     * A shard of pending deduplications. Received items are queued by the (serial) upstream, and
+     * all other state is only accessed by this shard's worker.
+     */
+    private static final class Shard<T, R> implements Runnable {
+
+        private static final AtomicIntegerFieldUpdater<Shard> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(Shard.class, "wip");
+
+        private final DeduplicatingSubscriber<T, R> parent;
+
+        private final Scheduler clock;
+
+        private final Scheduler.Worker worker;
+
+        private final long durationNanos;
+
+        private final long tickNanos;
+
+        private final long startNanos;
+
+        private final Queue<Deduplicating<T, R>> queue = new ConcurrentLinkedQueue<>();
+
+        private final Map<Object, Deduplicating<T, R>> pendingByKey = new HashMap<>();
+
+        private final Wheel<T, R> wheel = new Wheel<>();
+
+        private volatile int wip;
+
+        // Number of items taken from the queue, only written by this shard's worker
+        private volatile long processedCount;
+
+        // The next tick to be expired, only accessed by this shard's worker
+        private long currentTick = 0L;
+
+        Shard(DeduplicatingSubscriber<T, R> parent, Scheduler scheduler, long durationNanos, long tickNanos) {
+            this.parent = parent;
+            this.clock = scheduler;
+            this.worker = scheduler.createWorker();
+            this.durationNanos = durationNanos;
+            this.tickNanos = tickNanos;
+            this.startNanos = scheduler.now(TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                processQueue();
+                missed = WIP.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        void start() {
+            try {
+                worker.schedulePeriodically(this::expire, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                parent.onError(e);
+            }
+        }
+
+        void schedule() {
+            if (WIP.getAndIncrement(this) == 0) {
+                execute(this);
+            }
+        }
+
+        void scheduleFlush() {
+            execute(this::flush);
+        }
+
+        private void execute(Runnable task) {
+            try {
+                worker.schedule(task);
+            } catch (RejectedExecutionException e) {
+                if (!parent.cancelled) {
+                    parent.onError(e);
+                }
+            }
+        }
+
+        private void processQueue() {
+            Deduplicating<T, R> received;
+            long processed = 0L;
+            try {
+                while (!parent.cancelled && (received = queue.poll()) != null) {
+                    process(received);
+                    processed++;
+                }
+            } catch (Throwable error) {
+                parent.onError(error);
+            }
+
+            if (processed > 0L) {
+                processedCount = processedCount + processed;
+                parent.drainRequest();
+            }
+        }
+
+        private void process(Deduplicating<T, R> received) {
+            Deduplicating<T, R> pending = pendingByKey.get(received.key);
+            if (pending == null) {
+                received.reduced = parent.deduplicator.extractData(received.first);
+                if (parent.maxDeduplicationSize <= 1L) {
+                    parent.emit(received, false);
+                } else {
+                    long deadlineNanos = clock.now(TimeUnit.NANOSECONDS) - startNanos + durationNanos;
+                    received.deadlineTick = (deadlineNanos + tickNanos - 1L) / tickNanos;
+                    pendingByKey.put(received.key, received);
+                    wheel.add(received);
+                    if (parent.maxPending != Integer.MAX_VALUE) {
+                        DeduplicatingSubscriber.PENDING.incrementAndGet(parent);
+                    }
+                }
+            } else {
+                pending.reduced = parent.deduplicator.reduceData(pending.reduced, received.first);
+                pending.addDuplicate(received.first);
+                if (pending.count >= parent.maxDeduplicationSize) {
+                    pendingByKey.remove(pending.key);
+                    wheel.remove(pending);
+                    parent.emit(pending, true);
+                }
+            }
+        }
+
+        private void expire() {
+            if (parent.cancelled) {
+                return;
+            }
+
+            long nowTick = (clock.now(TimeUnit.NANOSECONDS) - startNanos) / tickNanos;
+            if (pendingByKey.isEmpty()) {
+                currentTick = nowTick + 1L;
+                return;
+            }
+
+            try {
+                for (; currentTick <= nowTick; currentTick++) {
+                    Deduplicating<T, R> expired;
+                    while ((expired = wheel.pollExpired(currentTick, nowTick)) != null) {
+                        pendingByKey.remove(expired.key);
+                        parent.emit(expired, true);
+                    }
+                }
+            } catch (Throwable error) {
+                parent.onError(error);
+            }
+        }
+
+        private void flush() {
+            processQueue();
+            try {
+                for (long tick = currentTick; !pendingByKey.isEmpty(); tick++) {
+                    Deduplicating<T, R> expired;
+                    while ((expired = wheel.pollExpired(tick, Long.MAX_VALUE)) != null) {
+                        pendingByKey.remove(expired.key);
+                        parent.emit(expired, true);
+                    }
+                }
+            } catch (Throwable error) {
+                parent.onError(error);
+            }
+            parent.shardFlushed();
+        }
+    }
+
+    /**
+     * Buckets of pending deduplications, hashed by deadline tick, where each bucket is an
+     * intrusive doubly-linked list such that adding and removing are constant-time.
+     */
+    private static final class Wheel<T, R> {
+
+        private final Deduplicating<T, R>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        Wheel() {
+            this.buckets = new Deduplicating[WHEEL_SIZE];
+        }
+
+        void add(Deduplicating<T, R> deduplicating) {
+            int index = (int) (deduplicating.deadlineTick & (WHEEL_SIZE - 1));
+            Deduplicating<T, R> head = buckets[index];
+            deduplicating.next = head;
+            if (head != null) {
+                head.previous = deduplicating;
+            }
+            buckets[index] = deduplicating;
+        }
+
+        void remove(Deduplicating<T, R> deduplicating) {
+            if (deduplicating.previous != null) {
+                deduplicating.previous.next = deduplicating.next;
+            } else {
+                buckets[(int) (deduplicating.deadlineTick & (WHEEL_SIZE - 1))] = deduplicating.next;
+            }
+
+            if (deduplicating.next != null) {
+                deduplicating.next.previous = deduplicating.previous;
+            }
+
+            deduplicating.next = null;
+            deduplicating.previous = null;
+        }
+
+        /**
+         * Removes and returns a pending deduplication from the provided tick's bucket whose
+         * deadline is at or before the provided max deadline, or null if there is none.
+         */
+        Deduplicating<T, R> pollExpired(long tick, long maxDeadlineTick) {
+            Deduplicating<T, R> deduplicating = buckets[(int) (tick & (WHEEL_SIZE - 1))];
+            while (deduplicating != null && deduplicating.deadlineTick > maxDeadlineTick) {
+                deduplicating = deduplicating.next;
+            }
+
+            if (deduplicating != null) {
+                remove(deduplicating);
+            }
+            return deduplicating;
+        }
+    }
+
+    /**
+     * A pending deduplication of items with the same key. The first item doubles as the message
+     * through which it is handed off to its shard, such that only duplicates cause allocation of
+     * a List of sources.
+     */
+    private static final class Deduplicating<T, R> {
+
+        private final Object key;
+
+        private final T first;
+
+        private List<T> sources;
+
+        private R reduced;
+
+        private long count = 1L;
+
+        private long deadlineTick;
+
+        private Deduplicating<T, R> next;
+
+        private Deduplicating<T, R> previous;
+
+        Deduplicating(Object key, T first) {
+            this.key = key;
+            this.first = first;
+        }
+
+        void addDuplicate(T duplicate) {
+            if (sources == null) {
+                sources = new ArrayList<>();
+                sources.add(first);
+            }
+            sources.add(duplicate);
+            count++;
+        }
+
+        List<T> sources() {
+            return sources == null ? Collections.singletonList(first) : sources;
+        }
+    }
+}
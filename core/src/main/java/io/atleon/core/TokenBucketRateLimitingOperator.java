@@ -0,0 +1,268 @@
+package io.atleon.core;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Operator that limits the rate of emission with a token bucket, such that no thread is ever
+ * blocked waiting for permits. Each emitted item consumes a permit, and the number of items
+ * requested from upstream but not yet emitted never exceeds the number of available permits (nor
+ * the configured prefetch), such that an idle upstream can not accumulate a backlog of demand
+ * that is later emitted in a burst beyond the bucket's capacity. When downstream demand exceeds
+ * available permits, a refill is scheduled on a {@link Scheduler.Worker} for when the next permit
+ * will be available. Like publishOn, items are emitted on the Worker, such that downstream
+ * processing does not happen on upstream's thread.
+ *
+ * @param <T> The type of items emitted by the source
+ */
+final class TokenBucketRateLimitingOperator<T> implements Publisher<T> {
+
+    private static final long MAX_REFILL_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Publisher<T> source;
+
+    private final RateLimitingConfig config;
+
+    private final Scheduler scheduler;
+
+    TokenBucketRateLimitingOperator(Publisher<T> source, RateLimitingConfig config, Scheduler scheduler) {
+        this.source = source;
+        this.config = config;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> actual) {
+        source.subscribe(new TokenBucketSubscriber<>(actual, config, scheduler));
+    }
+
+    private static final class TokenBucketSubscriber<T> implements CoreSubscriber<T>, Subscription, Runnable {
+
+        private static final AtomicLongFieldUpdater<TokenBucketSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(TokenBucketSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<TokenBucketSubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(TokenBucketSubscriber.class, "drainsInProgress");
+
+        private final Subscriber<? super T> actual;
+
+        private final RateLimitingConfig config;
+
+        private final Scheduler scheduler;
+
+        private final Scheduler.Worker worker;
+
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int drainsInProgress;
+
+        private volatile boolean refillScheduled;
+
+        private volatile boolean done;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Token bucket state, only accessed while draining
+        private double permits;
+
+        private long lastRefillNanos;
+
+        private long emitted;
+
+        // Number of items requested from upstream and not yet emitted, only accessed while draining
+        private long pending;
+
+        TokenBucketSubscriber(Subscriber<? super T> actual, RateLimitingConfig config, Scheduler scheduler) {
+            this.actual = actual;
+            this.config = config;
+            this.scheduler = scheduler;
+            this.worker = scheduler.createWorker();
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                permits = config.getBurstCapacity();
+                lastRefillNanos = scheduler.now(TimeUnit.NANOSECONDS);
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            queue.offer(t);
+            scheduleDrain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            scheduleDrain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            scheduleDrain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                scheduleDrain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                worker.dispose();
+                parent.cancel();
+                if (DRAINS_IN_PROGRESS.getAndIncrement(this) == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (drainQueue()) {
+                    return;
+                }
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private void onRefillDue() {
+            refillScheduled = false;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            try {
+                worker.schedule(this);
+            } catch (RejectedExecutionException e) {
+                onRejectedExecution(e);
+            }
+        }
+
+        /**
+         * Emits queued items while there is downstream demand, then requests as many items from
+         * upstream as there is both outstanding demand and available permits for.
+         *
+         * @return Whether this subscriber has been terminated or cancelled
+         */
+        private boolean drainQueue() {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+
+            Throwable error = this.error;
+            if (error != null) {
+                queue.clear();
+                worker.dispose();
+                actual.onError(error);
+                return true;
+            }
+
+            double permitsPerSecond = config.getPermitsPerSecond();
+            refill(permitsPerSecond);
+
+            long requested = this.requested;
+            T t;
+            while (emitted != requested && (t = queue.poll()) != null) {
+                permits -= 1D;
+                pending--;
+                emitted++;
+                actual.onNext(t);
+                if (cancelled) {
+                    queue.clear();
+                    return true;
+                }
+            }
+
+            if (done && queue.isEmpty()) {
+                worker.dispose();
+                actual.onComplete();
+                return true;
+            }
+
+            // Once pending items reach capacity, further requesting is triggered by their emission
+            long capacity = Math.min(config.getBurstCapacity(), Math.max(1, config.getPrefetch()));
+            long outstanding = requested - emitted - pending;
+            long toRequest = Math.min(outstanding, Math.min((long) permits, capacity) - pending);
+            if (toRequest > 0L) {
+                pending += toRequest;
+                parent.request(toRequest);
+            } else if (outstanding > 0L && pending < capacity && !refillScheduled) {
+                scheduleRefill(permitsPerSecond);
+            }
+            return false;
+        }
+
+        private void refill(double permitsPerSecond) {
+            long nowNanos = scheduler.now(TimeUnit.NANOSECONDS);
+            if (permitsPerSecond > 0D) {
+                double refilled = (nowNanos - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+                permits = Math.min(config.getBurstCapacity(), permits + Math.max(0D, refilled));
+            }
+            lastRefillNanos = nowNanos;
+        }
+
+        private void scheduleRefill(double permitsPerSecond) {
+            // Refill delay is capped such that dynamic rate changes are picked up in a timely manner
+            long delayNanos = permitsPerSecond > 0D
+                ? (long) Math.ceil((pending + 1D - permits) * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond)
+                : MAX_REFILL_DELAY_NANOS;
+            refillScheduled = true;
+            try {
+                worker.schedule(this::onRefillDue, Math.min(Math.max(0L, delayNanos), MAX_REFILL_DELAY_NANOS), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                onRejectedExecution(e);
+            }
+        }
+
+        private void onRejectedExecution(RejectedExecutionException e) {
+            if (!cancelled && !done) {
+                cancelled = true;
+                parent.cancel();
+                actual.onError(Operators.onRejectedExecution(e, currentContext()));
+            }
+        }
+    }
+}
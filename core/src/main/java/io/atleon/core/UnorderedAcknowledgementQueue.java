@@ -0,0 +1,99 @@
+package io.atleon.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * An {@link AcknowledgementQueue} that does not manage the order of Acknowledgement execution.
+ * Each In-Flight Acknowledgement is executed immediately upon its completion, regardless of the
+ * completion state of any other In-Flight Acknowledgement, and is released from this Queue at the
+ * same time. This is appropriate when acknowledgement of any given item is independent of the
+ * acknowledgement of every other item (i.e. deleting messages from a queue). Note that, unlike
+ * order-managing Queues, executions of Acknowledgements may happen concurrently.
+ * <p>
+ * When recycling, executed In-Flight Acknowledgements are pushed on to a lock-free stack, and
+ * are reused by subsequent additions, such that steady-state addition and completion do not
+ * allocate. Like with ring storage, this requires that each In-Flight is completed at most once.
+ * Additions must be serialized, and only ever take the whole stack at once, so that popping is
+ * not subject to ABA.
+ */
+final class UnorderedAcknowledgementQueue extends AcknowledgementQueue {
+
+    private static final AtomicReferenceFieldUpdater<UnorderedAcknowledgementQueue, InFlight> RECYCLED =
+        AtomicReferenceFieldUpdater.newUpdater(UnorderedAcknowledgementQueue.class, InFlight.class, "recycled");
+
+    private final boolean recycling;
+
+    private volatile InFlight recycled;
+
+    // Recycled In-Flights taken from the stack, only accessed by (serialized) additions
+    private InFlight reusable;
+
+    private UnorderedAcknowledgementQueue(boolean recycling) {
+        super(false);
+        this.recycling = recycling;
+    }
+
+    public static AcknowledgementQueue create() {
+        return create(false);
+    }
+
+    public static AcknowledgementQueue create(boolean recycling) {
+        return new UnorderedAcknowledgementQueue(recycling);
+    }
+
+    @Override
+    public <T> InFlight add(T item, ItemAcknowledger<? super T> acknowledger, long weight, long addedNanos) {
+        InFlight inFlight = reusable == null ? RECYCLED.getAndSet(this, null) : reusable;
+        if (inFlight == null) {
+            return new InFlight(item, acknowledger, weight, addedNanos);
+        }
+
+        reusable = inFlight.recycledNext;
+        inFlight.recycledNext = null;
+        inFlight.reset(item, acknowledger, weight, addedNanos);
+        return inFlight;
+    }
+
+    @Override
+    protected long complete(InFlight inFlight, Function<InFlight, Boolean> completer) {
+        if (completer.apply(inFlight)) {
+            inFlight.execute();
+            addDrainedWeight(inFlight.weight());
+            if (recycling) {
+                recycle(inFlight);
+            }
+            return 1L;
+        } else {
+            return 0L;
+        }
+    }
+
+    @Override
+    protected InFlight peek() {
+        // In-Flight Acknowledgements are never retained
+        return null;
+    }
+
+    @Override
+    protected boolean remove() {
+        // In-Flight Acknowledgements are never retained, so there is never anything to remove
+        return false;
+    }
+
+    @Override
+    protected Iterator<InFlight> retained() {
+        return Collections.emptyIterator();
+    }
+
+    private void recycle(InFlight inFlight) {
+        inFlight.release();
+        InFlight head;
+        do {
+            head = recycled;
+            inFlight.recycledNext = head;
+        } while (!RECYCLED.compareAndSet(this, head, inFlight));
+    }
+}
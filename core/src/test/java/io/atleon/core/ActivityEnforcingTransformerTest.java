@@ -3,6 +3,7 @@ package io.atleon.core;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
@@ -17,31 +18,31 @@ class ActivityEnforcingTransformerTest {
 
     private final Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
 
-    private final Flux<String> downstream = sink.asFlux().transform(new ActivityEnforcingTransformer<>(CONFIG));
-
     @Test
     public void errorIsEmittedIfStreamIsInactive() {
-        StepVerifier.create(downstream)
+        StepVerifier.withVirtualTime(() -> enforceActivity(sink.asFlux(), CONFIG))
             .expectSubscription()
             .expectNoEvent(CONFIG.getMaxInactivity().minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION.multipliedBy(2L))
             .expectError(TimeoutException.class)
             .verify();
     }
 
     @Test
     public void errorIsEmittedIfStreamBecomesInactiveAfterEvents() {
-        StepVerifier.create(downstream)
+        StepVerifier.withVirtualTime(() -> enforceActivity(sink.asFlux(), CONFIG))
             .thenAwait(STEP_DURATION.multipliedBy(2))
             .then(() -> sink.tryEmitNext("ONE"))
             .expectNextCount(1)
             .expectNoEvent(CONFIG.getMaxInactivity().minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION.multipliedBy(2L))
             .expectError(TimeoutException.class)
             .verify();
     }
 
     @Test
     public void errorIsNotEmittedIfStreamRemainsActive() {
-        StepVerifier.create(downstream)
+        StepVerifier.withVirtualTime(() -> enforceActivity(sink.asFlux(), CONFIG))
             .thenAwait(STEP_DURATION)
             .then(() -> sink.tryEmitNext("ONE"))
             .expectNextCount(1)
@@ -52,4 +53,20 @@ class ActivityEnforcingTransformerTest {
             .thenCancel()
             .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void errorIsEmittedIfStreamStallsWithOutstandingDemand() {
+        ActivityEnforcementConfig config = CONFIG.withMaxStall(STEP_DURATION.multipliedBy(2L));
+
+        StepVerifier.withVirtualTime(() -> enforceActivity(Flux.<String>never(), config))
+            .expectSubscription()
+            .expectNoEvent(STEP_DURATION)
+            .thenAwait(STEP_DURATION.multipliedBy(2L))
+            .expectError(TimeoutException.class)
+            .verify();
+    }
+
+    private static Flux<String> enforceActivity(Flux<String> flux, ActivityEnforcementConfig config) {
+        return flux.transform(new ActivityEnforcingTransformer<>(config, Schedulers.parallel()));
+    }
+}
@@ -0,0 +1,161 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBatchingOperatorTest {
+
+    private static final Duration MAX_LINGER = Duration.ofMillis(100L);
+
+    private static final long LATENCY_NANOS = Duration.ofMillis(10L).toNanos();
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+
+    private final Sinks.Many<Integer> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private int emitted = 0;
+
+    private int completed = 0;
+
+    @Test
+    public void batchesAreNotDispatchedBeyondConcurrencyLimit() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(1, 1);
+
+        emit(3);
+        assertEquals(1, batches.size());
+
+        controller.completed(LATENCY_NANOS);
+        assertEquals(2, batches.size());
+
+        controller.completed(LATENCY_NANOS);
+        controller.completed(LATENCY_NANOS);
+        assertEquals(3, batches.size());
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void batchSizeGrowsWhileBatchesAreFilledAndLatencyIsFlat() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(16, 1);
+
+        growTargetSize(controller);
+
+        assertTrue(controller.targetSize() > 1);
+        assertTrue(batches.stream().mapToInt(List::size).max().orElse(0) > 1);
+        assertEquals(emitted, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void batchSizeShrinksWhenLatencyIncreases() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(16, 1);
+
+        growTargetSize(controller);
+        int grownTargetSize = controller.targetSize();
+
+        for (int i = 0; i < 8; i++) {
+            emit(16);
+            completeAll(controller, LATENCY_NANOS * 10L);
+        }
+
+        assertTrue(controller.targetSize() < grownTargetSize);
+    }
+
+    @Test
+    public void concurrencyGrowsWhileBatchesWaitOnInFlightRequests() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(1, 4);
+
+        for (int i = 0; i < 32; i++) {
+            emit(8);
+            completeAll(controller, LATENCY_NANOS);
+        }
+
+        int concurrency = controller.concurrency();
+        assertTrue(concurrency > 1);
+
+        int dispatched = batches.size();
+        emit(8);
+        assertEquals(dispatched + concurrency, batches.size());
+    }
+
+    @Test
+    public void partialBatchesAreDispatchedOnceLingerElapses() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(16, 1);
+
+        growTargetSize(controller);
+        for (int i = 0; i < 8; i++) {
+            scheduler.advanceTimeBy(Duration.ofMillis(10L));
+            emit(1);
+            completeAll(controller, LATENCY_NANOS);
+        }
+        scheduler.advanceTimeBy(MAX_LINGER);
+        completeAll(controller, LATENCY_NANOS);
+
+        scheduler.advanceTimeBy(Duration.ofMillis(10L));
+        int dispatched = batches.size();
+        emit(1);
+
+        long lingerNanos = controller.lingerNanos();
+        assertTrue(lingerNanos > 0L && lingerNanos <= MAX_LINGER.toNanos());
+        assertEquals(dispatched, batches.size());
+
+        scheduler.advanceTimeBy(Duration.ofNanos(lingerNanos - 1L));
+        assertEquals(dispatched, batches.size());
+
+        scheduler.advanceTimeBy(Duration.ofNanos(1L));
+        assertEquals(dispatched + 1, batches.size());
+        assertEquals(1, batches.get(dispatched).size());
+    }
+
+    @Test
+    public void sparseItemsAreDispatchedWithoutLinger() {
+        AdaptiveBatchingOperator.Controller controller = subscribe(16, 1);
+
+        growTargetSize(controller);
+        for (int i = 0; i < 8; i++) {
+            scheduler.advanceTimeBy(MAX_LINGER.multipliedBy(2L));
+            completeAll(controller, LATENCY_NANOS);
+            emit(1);
+        }
+
+        assertTrue(controller.targetSize() > 1);
+        assertEquals(0L, controller.lingerNanos());
+        assertEquals(emitted, batches.stream().mapToInt(List::size).sum());
+    }
+
+    private AdaptiveBatchingOperator.Controller subscribe(int maxSize, int maxConcurrency) {
+        AdaptiveBatchingOperator.Controller controller =
+            new AdaptiveBatchingOperator.Controller(maxSize, MAX_LINGER.toNanos(), maxConcurrency);
+        Flux.from(new AdaptiveBatchingOperator<>(sink.asFlux(), controller, scheduler, 64)).subscribe(batches::add);
+        return controller;
+    }
+
+    private void growTargetSize(AdaptiveBatchingOperator.Controller controller) {
+        for (int i = 0; i < 32; i++) {
+            emit(16);
+            completeAll(controller, LATENCY_NANOS);
+        }
+    }
+
+    private void emit(int count) {
+        for (int i = 0; i < count; i++) {
+            sink.tryEmitNext(emitted++);
+        }
+    }
+
+    private void completeAll(AdaptiveBatchingOperator.Controller controller, long latencyNanos) {
+        while (completed < batches.size()) {
+            completed++;
+            controller.completed(latencyNanos);
+        }
+    }
+}
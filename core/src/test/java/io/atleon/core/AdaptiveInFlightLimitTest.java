@@ -0,0 +1,59 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveInFlightLimitTest {
+
+    @Test
+    public void limitIsOnlyIncreasedWhenSaturated() {
+        AdaptiveInFlightLimit limit = AdaptiveInFlightLimit.create(16, 64);
+
+        assertEquals(0L, sampleWindow(limit, 16, 1000L));
+        assertEquals(16L, limit.get());
+
+        limit.markSaturated();
+
+        assertEquals(4L, sampleWindow(limit, 16, 1000L));
+        assertEquals(20L, limit.get());
+    }
+
+    @Test
+    public void limitIsDecreasedWhenLatencyIncreasesBeyondBaseline() {
+        AdaptiveInFlightLimit limit = AdaptiveInFlightLimit.create(16, 64);
+
+        limit.markSaturated();
+        sampleWindow(limit, 16, 1000L);
+
+        assertEquals(20L, limit.get());
+        assertEquals(-2L, sampleWindow(limit, 20, 10000L));
+        assertEquals(18L, limit.get());
+    }
+
+    @Test
+    public void limitIsBoundedByMinAndMax() {
+        AdaptiveInFlightLimit limit = AdaptiveInFlightLimit.create(16, 64);
+
+        for (int i = 0; i < 100; i++) {
+            limit.markSaturated();
+            sampleWindow(limit, (int) limit.get(), 1000L);
+        }
+
+        assertEquals(64L, limit.get());
+
+        for (int i = 0; i < 100; i++) {
+            sampleWindow(limit, (int) limit.get(), 1000L * (i + 3));
+        }
+
+        assertEquals(16L, limit.get());
+    }
+
+    private static long sampleWindow(AdaptiveInFlightLimit limit, int count, long latencyNanos) {
+        long adjustment = 0L;
+        for (int i = 0; i < count; i++) {
+            adjustment += limit.sample(latencyNanos);
+        }
+        return adjustment;
+    }
+}
@@ -4,12 +4,19 @@ import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -33,6 +40,27 @@ class AloFluxTest {
         assertTrue(nonEmpty.isAcknowledged());
     }
 
+    @Test
+    public void probabilisticallyDeduplicatedAlosAreAcknowledged() {
+        ProbabilisticDeduplicationConfig config = new ProbabilisticDeduplicationConfig(Duration.ofMinutes(1), 1_000, 0.01);
+        TestAlo first = new TestAlo("DATA");
+        TestAlo duplicate = new TestAlo("DATA");
+        TestAlo distinct = new TestAlo("OTHER");
+
+        List<Alo<String>> emitted = Flux.just(first, duplicate, distinct)
+            .as(AloFlux::wrap)
+            .deduplicateProbabilistically(config, Function.identity())
+            .unwrap()
+            .collectList()
+            .block();
+
+        assertNotNull(emitted);
+        assertEquals(Arrays.asList("DATA", "OTHER"), emitted.stream().map(Alo::get).collect(Collectors.toList()));
+        assertFalse(first.isAcknowledged());
+        assertTrue(duplicate.isAcknowledged());
+        assertFalse(distinct.isAcknowledged());
+    }
+
     @Test
     public void acknowledgersArePropagated() {
         TestAlo alo = new TestAlo("DATA");
@@ -142,6 +170,28 @@ class AloFluxTest {
         assertFalse(alo.isNacknowledged());
     }
 
+    @Test
+    public void acknowledgerIsRunOnceUponConcurrentAcknowledgementOfLargeFanOut() {
+        AtomicInteger acknowledgements = new AtomicInteger();
+        TestAlo alo = new TestAlo("DATA", acknowledgements::incrementAndGet);
+
+        List<Alo<String>> result = Flux.just(alo).as(AloFlux::wrap)
+            .flatMapCollection(data -> Collections.nCopies(10_000, data))
+            .unwrap()
+            .collectList()
+            .block();
+
+        assertNotNull(result);
+        assertEquals(10_000, result.size());
+
+        result.subList(0, result.size() - 1).parallelStream().forEach(Alo::acknowledge);
+        assertFalse(alo.isAcknowledged());
+
+        Alo.acknowledge(result.get(result.size() - 1));
+        assertTrue(alo.isAcknowledged());
+        assertEquals(1, acknowledgements.get());
+    }
+
     @Test
     public void publishedAloAcknowledgesAfterUpstreamCompletionAndAfterDownstreamAcknowledges() {
         TestAlo alo = new TestAlo("DATA");
@@ -520,10 +570,132 @@ class AloFluxTest {
         assertTrue(alo.getError().get().getSuppressed()[0] instanceof IllegalArgumentException);
     }
 
+    @Test
+    public void parallelByKeyPreservesOrderPerKeyAndPropagatesAcknowledgement() {
+        List<TestAlo> alos = IntStream.range(0, 200)
+            .mapToObj(i -> new TestAlo((char) ('a' + i % 5) + Integer.toString(i)))
+            .collect(Collectors.toList());
+
+        List<Alo<String>> result = Flux.fromIterable(alos)
+            .as(AloFlux::wrap)
+            .parallelByKey(string -> string.charAt(0), 3, string -> Mono.just(string.toUpperCase()), Schedulers.parallel(), 4)
+            .unwrap()
+            .collectList()
+            .block();
+
+        assertNotNull(result);
+        assertEquals(alos.size(), result.size());
+        for (char key = 'A'; key < 'A' + 5; key++) {
+            char finalKey = key;
+            List<Integer> indices = result.stream()
+                .map(Alo::get)
+                .filter(string -> string.charAt(0) == finalKey)
+                .map(string -> Integer.parseInt(string.substring(1)))
+                .collect(Collectors.toList());
+            assertEquals(indices.stream().sorted().collect(Collectors.toList()), indices);
+        }
+        assertTrue(alos.stream().noneMatch(TestAlo::isAcknowledged));
+
+        result.forEach(Alo::acknowledge);
+        assertTrue(alos.stream().allMatch(TestAlo::isAcknowledged));
+    }
+
+    @Test
+    public void blockingConsumptionIsExecutedConcurrentlyAndAcknowledged() {
+        List<TestAlo> alos = IntStream.range(0, 8)
+            .mapToObj(i -> new TestAlo(Integer.toString(i)))
+            .collect(Collectors.toList());
+        CountDownLatch latch = new CountDownLatch(alos.size());
+
+        Flux.fromIterable(alos)
+            .as(AloFlux::wrap)
+            .consumeBlocking(string -> awaitQuietly(latch), alos.size())
+            .unwrap()
+            .then()
+            .block(Duration.ofSeconds(10));
+
+        assertTrue(alos.stream().allMatch(TestAlo::isAcknowledged));
+    }
+
+    @Test
+    public void processedItemsAreSkippedAndAcknowledged() {
+        TestIdempotencyStore store = new TestIdempotencyStore();
+        store.record("PROCESSED", Duration.ofMinutes(1));
+
+        TestAlo processed = new TestAlo("PROCESSED");
+        TestAlo unprocessed = new TestAlo("UNPROCESSED");
+
+        List<Alo<String>> emitted = Flux.just(processed, unprocessed)
+            .as(AloFlux::wrap)
+            .skipProcessed(store, Function.identity(), Duration.ofMinutes(1))
+            .map(String::toLowerCase)
+            .unwrap()
+            .collectList()
+            .block();
+
+        assertNotNull(emitted);
+        assertEquals(1, emitted.size());
+        assertEquals("unprocessed", emitted.get(0).get());
+        assertTrue(processed.isAcknowledged());
+        assertFalse(unprocessed.isAcknowledged());
+        assertFalse(store.isRecorded("UNPROCESSED"));
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertTrue(unprocessed.isAcknowledged());
+        assertTrue(store.isRecorded("UNPROCESSED"));
+    }
+
+    @Test
+    public void keysOfNacknowledgedItemsAreNotRecorded() {
+        TestIdempotencyStore store = new TestIdempotencyStore();
+
+        TestAlo alo = new TestAlo("DATA");
+
+        List<Alo<String>> emitted = Flux.just(alo)
+            .as(AloFlux::wrap)
+            .skipProcessed(store, Function.identity(), Duration.ofMinutes(1))
+            .unwrap()
+            .collectList()
+            .block();
+
+        assertNotNull(emitted);
+        assertEquals(1, emitted.size());
+
+        Alo.nacknowledge(emitted.get(0), new IllegalStateException());
+
+        assertTrue(alo.isNacknowledged());
+        assertFalse(store.isRecorded("DATA"));
+    }
+
     private Collection<String> extractCharacters(String string) {
         return IntStream.range(0, string.length())
             .mapToObj(string::charAt)
             .map(Object::toString)
             .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class TestIdempotencyStore implements IdempotencyStore {
+
+        private final Set<String> recorded = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean isRecorded(String key) {
+            return recorded.contains(key);
+        }
+
+        @Override
+        public void record(String key, Duration ttl) {
+            recorded.add(key);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package io.atleon.core;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -190,6 +192,287 @@ public class AloQueueingTransformerTest {
         assertTrue(all.stream().allMatch(TestAlo::isAcknowledged));
     }
 
+    @Test
+    public void saturatedGroupsArePausedAndResumedIndependently() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo dad = new TestAlo("DAD");
+        TestAlo dog = new TestAlo("DOG");
+        TestAlo girl = new TestAlo("GIRL");
+
+        List<String> flowControls = new ArrayList<>();
+        GroupFlowControl flowControl = new GroupFlowControl() {
+            @Override
+            public void pause(Object group) {
+                flowControls.add("pause-" + group);
+            }
+
+            @Override
+            public void resume(Object group) {
+                flowControls.add("resume-" + group);
+            }
+        };
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer()
+                .withGroupExtractor(alo -> alo.get().length())
+                .withFlowControl(flowControl)
+                .withMaxInFlightPerGroup(2))
+            .subscribe(emitted::add);
+
+        Arrays.asList(mom, dad, dog, girl).forEach(sink::tryEmitNext);
+
+        assertEquals(4, emitted.size());
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(3));
+        Alo.acknowledge(emitted.get(1));
+
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertEquals(Arrays.asList("pause-3", "resume-3"), flowControls);
+    }
+
+    @Test
+    public void groupsArePausedAndResumedByInFlightWeight() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo dad = new TestAlo("DAD");
+        TestAlo girl = new TestAlo("GIRL");
+
+        List<String> flowControls = new ArrayList<>();
+        GroupFlowControl flowControl = new GroupFlowControl() {
+            @Override
+            public void pause(Object group) {
+                flowControls.add("pause-" + group);
+            }
+
+            @Override
+            public void resume(Object group) {
+                flowControls.add("resume-" + group);
+            }
+        };
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer()
+                .withGroupExtractor(alo -> alo.get().length())
+                .withFlowControl(flowControl)
+                .withWeigher(alo -> alo.get().length())
+                .withMaxInFlightWeightPerGroup(6))
+            .subscribe(emitted::add);
+
+        Arrays.asList(mom, dad, girl).forEach(sink::tryEmitNext);
+
+        assertEquals(3, emitted.size());
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(1));
+
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertEquals(Arrays.asList("pause-3", "resume-3"), flowControls);
+    }
+
+    @Test
+    public void groupsArePausedAndResumedByFairShareOfInFlight() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo dad = new TestAlo("DAD");
+        TestAlo girl = new TestAlo("GIRL");
+        TestAlo boy = new TestAlo("BOY");
+
+        List<String> flowControls = new ArrayList<>();
+        GroupFlowControl flowControl = new GroupFlowControl() {
+            @Override
+            public void pause(Object group) {
+                flowControls.add("pause-" + group);
+            }
+
+            @Override
+            public void resume(Object group) {
+                flowControls.add("resume-" + group);
+            }
+        };
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer()
+                .withGroupExtractor(alo -> alo.get().length())
+                .withFlowControl(flowControl)
+                .withMaxInFlight(4)
+                .withFairInFlightSharing(true))
+            .subscribe(emitted::add);
+
+        Arrays.asList(mom, dad, girl).forEach(sink::tryEmitNext);
+
+        assertEquals(3, emitted.size());
+        assertTrue(flowControls.isEmpty());
+
+        sink.tryEmitNext(boy);
+
+        assertEquals(4, emitted.size());
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertEquals(Collections.singletonList("pause-3"), flowControls);
+
+        Alo.acknowledge(emitted.get(1));
+
+        assertEquals(Arrays.asList("pause-3", "resume-3"), flowControls);
+    }
+
+    @Test
+    public void emissionsAreBoundedByInFlightWeight() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo dad = new TestAlo("DAD");
+        TestAlo girl = new TestAlo("GIRL");
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer().withWeigher(alo -> alo.get().length()).withMaxInFlightWeight(6))
+            .subscribe(emitted::add);
+
+        Arrays.asList(mom, dad, girl).forEach(sink::tryEmitNext);
+
+        assertEquals(2, emitted.size());
+
+        Alo.acknowledge(emitted.get(1));
+
+        assertEquals(2, emitted.size());
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertTrue(mom.isAcknowledged());
+        assertTrue(dad.isAcknowledged());
+        assertEquals(3, emitted.size());
+    }
+
+    @Test
+    public void emptyGroupQueuesAreEvictedWhenMaxRetainedGroupsIsExceeded() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo girl = new TestAlo("GIRL");
+        TestAlo dad = new TestAlo("DAD");
+
+        List<String> lifecycle = new ArrayList<>();
+        AloQueueListener listener = new AloQueueListener() {
+            @Override
+            public void created(Object group) {
+                lifecycle.add("created-" + group);
+            }
+
+            @Override
+            public void evicted(Object group) {
+                lifecycle.add("evicted-" + group);
+            }
+        };
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer()
+                .withGroupExtractor(alo -> alo.get().length())
+                .withListener(listener)
+                .withMaxRetainedGroups(1))
+            .subscribe(emitted::add);
+
+        sink.tryEmitNext(mom);
+        Alo.acknowledge(emitted.get(0));
+        sink.tryEmitNext(girl);
+
+        assertEquals(Arrays.asList("created-3", "created-4", "evicted-3"), lifecycle);
+
+        sink.tryEmitNext(dad);
+        Alo.acknowledge(emitted.get(2));
+
+        assertTrue(mom.isAcknowledged());
+        assertTrue(dad.isAcknowledged());
+        assertFalse(girl.isAcknowledged());
+        assertEquals(Arrays.asList("created-3", "created-4", "evicted-3", "created-3"), lifecycle);
+    }
+
+    @Test
+    public void emptyGroupQueuesAreEvictedUponAcknowledgementWithoutFurtherEmissions() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo girl = new TestAlo("GIRL");
+
+        List<String> lifecycle = new ArrayList<>();
+        AloQueueListener listener = new AloQueueListener() {
+            @Override
+            public void created(Object group) {
+                lifecycle.add("created-" + group);
+            }
+
+            @Override
+            public void evicted(Object group) {
+                lifecycle.add("evicted-" + group);
+            }
+        };
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer()
+                .withGroupExtractor(alo -> alo.get().length())
+                .withListener(listener)
+                .withEmptyGroupIdleTimeout(Duration.ZERO))
+            .subscribe(emitted::add);
+
+        Arrays.asList(mom, girl).forEach(sink::tryEmitNext);
+
+        assertEquals(Arrays.asList("created-3", "created-4"), lifecycle);
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertEquals(Arrays.asList("created-3", "created-4", "evicted-3"), lifecycle);
+
+        Alo.acknowledge(emitted.get(1));
+
+        assertTrue(mom.isAcknowledged());
+        assertTrue(girl.isAcknowledged());
+        assertEquals(Arrays.asList("created-3", "created-4", "evicted-3", "evicted-4"), lifecycle);
+    }
+
+    @Test
+    public void inFlightItemsAreNacknowledgedWhenAcknowledgementDeadlineElapses() {
+        TestAlo mom = new TestAlo("MOM");
+        TestAlo dad = new TestAlo("DAD");
+
+        Sinks.Many<TestAlo> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        List<Alo<String>> emitted = new ArrayList<>();
+        sink.asFlux()
+            .transform(newTransformer().withAcknowledgementDeadline(Duration.ofMillis(10)))
+            .subscribe(emitted::add);
+
+        sink.tryEmitNext(mom);
+        sink.tryEmitNext(dad);
+
+        Alo.acknowledge(emitted.get(1));
+
+        Timing.waitForCondition(dad::isAcknowledged);
+
+        assertTrue(dad.isAcknowledged());
+        assertTrue(mom.getError().orElse(null) instanceof AcknowledgementDeadlineExceededException);
+
+        Alo.acknowledge(emitted.get(0));
+
+        assertFalse(mom.isAcknowledged());
+    }
+
     private static AloQueueingTransformer<TestAlo, String> newTransformer() {
         return AloQueueingTransformer.create(
             AloComponentExtractor.composed(Alo::getAcknowledger, Alo::getNacknowledger, Alo::get)
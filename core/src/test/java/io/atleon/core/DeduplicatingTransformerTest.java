@@ -1,22 +1,31 @@
 package io.atleon.core;
 
 import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+import reactor.test.scheduler.VirtualTimeScheduler;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DeduplicatingTransformerTest {
 
@@ -77,6 +86,141 @@ class DeduplicatingTransformerTest {
 
     }
 
+    @Test
+    public void timingWheelEngineDeduplicatesWithinMaxSizeAndDuration() {
+        DeduplicationConfig timingWheelConfig = CONFIG.withTimingWheel(2);
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .transform(DeduplicatingTransformer.identity(timingWheelConfig, new InvertedReducerDeduplication(), Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> {
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("TWO");
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("ONE");
+            })
+            .expectNext("ONE")
+            .expectNoEvent(CONFIG.getDeduplicationDuration())
+            .expectNextCount(2)
+            .expectNoEvent(CONFIG.getDeduplicationDuration())
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void timingWheelEngineEmitsIncrementallyReducedValues() {
+        DeduplicationConfig timingWheelConfig = CONFIG.withTimingWheel(2);
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .transform(DeduplicatingTransformer.identity(timingWheelConfig, new ConcatenatingDeduplication(), Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> {
+                sink.tryEmitNext("A1");
+                sink.tryEmitNext("A2");
+                sink.tryEmitNext("B1");
+                sink.tryEmitNext("A3");
+                sink.tryEmitNext("A4");
+            })
+            .expectNext("A1A2A3A4")
+            .then(() -> sink.tryEmitNext("B2"))
+            .thenAwait(CONFIG.getDeduplicationDuration())
+            .expectNext("B1B2")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void timingWheelEngineFlushesPendingDeduplicationsUponCompletion() {
+        DeduplicationConfig timingWheelConfig = CONFIG.withTimingWheel(2);
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .transform(DeduplicatingTransformer.identity(timingWheelConfig, new ConcatenatingDeduplication(), Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> {
+                sink.tryEmitNext("A1");
+                sink.tryEmitNext("B1");
+                sink.tryEmitNext("A2");
+                sink.tryEmitComplete();
+            })
+            .recordWith(ArrayList::new)
+            .expectNextCount(2)
+            .consumeRecordedWith(emitted -> assertEquals(new HashSet<>(Arrays.asList("A1A2", "B1")), new HashSet<>(emitted)))
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void timingWheelEngineFansInAcknowledgementOfDeduplicatedAlos() {
+        TestAlo first = new TestAlo("A1");
+        TestAlo second = new TestAlo("A2");
+
+        Alo<String> deduplicated = AloFlux.wrap(Flux.just(first, second))
+            .deduplicate(CONFIG.withTimingWheel(2), new ConcatenatingDeduplication(), Schedulers.parallel())
+            .unwrap()
+            .blockLast(Duration.ofSeconds(10));
+
+        assertEquals("A1A2", deduplicated.get());
+        assertFalse(first.isAcknowledged());
+        assertFalse(second.isAcknowledged());
+
+        Alo.acknowledge(deduplicated);
+
+        assertTrue(first.isAcknowledged());
+        assertTrue(second.isAcknowledged());
+    }
+
+    @Test
+    public void timingWheelEngineFansInNacknowledgementOfDeduplicatedAlos() {
+        TestAlo first = new TestAlo("A1");
+        TestAlo second = new TestAlo("A2");
+
+        Alo<String> deduplicated = AloFlux.wrap(Flux.just(first, second))
+            .deduplicate(CONFIG.withTimingWheel(2), new ConcatenatingDeduplication(), Schedulers.parallel())
+            .unwrap()
+            .blockLast(Duration.ofSeconds(10));
+
+        Alo.nacknowledge(deduplicated, new IllegalStateException("Boom"));
+
+        assertTrue(first.getError().filter(IllegalStateException.class::isInstance).isPresent());
+        assertTrue(second.getError().filter(IllegalStateException.class::isInstance).isPresent());
+        assertFalse(first.isAcknowledged());
+        assertFalse(second.isAcknowledged());
+    }
+
+    @Test
+    public void timingWheelEngineErrorsAndCancelsUpstreamUponKeyExtractionError() {
+        TestPublisher<String> publisher = TestPublisher.create();
+
+        StepVerifier.create(publisher.flux()
+                .transform(DeduplicatingTransformer.identity(CONFIG.withTimingWheel(2), new ConcatenatingDeduplication(), Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> publisher.next("A1", ""))
+            .expectError(IllegalArgumentException.class)
+            .verify(Duration.ofSeconds(10));
+
+        publisher.assertCancelled();
+    }
+
+    @Test
+    public void timingWheelEngineDoesNotEmitPendingDeduplicationsAfterCancellation() {
+        TestPublisher<String> publisher = TestPublisher.create();
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        List<String> emitted = new CopyOnWriteArrayList<>();
+
+        Disposable disposable = publisher.flux()
+            .transform(DeduplicatingTransformer.identity(CONFIG.withTimingWheel(2), new ConcatenatingDeduplication(), scheduler))
+            .subscribe(emitted::add);
+
+        publisher.next("A1", "B1", "A2");
+        disposable.dispose();
+        scheduler.advanceTimeBy(CONFIG.getDeduplicationDuration().multipliedBy(2));
+
+        publisher.assertCancelled();
+        assertTrue(emitted.isEmpty());
+    }
+
     @Test
     public void dataAreSequentiallyProcessed() {
         Flux<String> invertedDownstream = sink.asFlux()
@@ -146,6 +290,20 @@ class DeduplicatingTransformerTest {
         return Duration.ofMillis((long) (Math.random() * exclusiveUpperBound.toMillis()));
     }
 
+    private static final class ConcatenatingDeduplication implements Deduplication<String> {
+
+        public Object extractKey(String data) {
+            if (data.isEmpty()) {
+                throw new IllegalArgumentException("Cannot extract key from empty data");
+            }
+            return data.charAt(0);
+        }
+
+        public String reduceDuplicates(String s1, String s2) {
+            return s1 + s2;
+        }
+    }
+
     private static final class InvertedReducerDeduplication implements Deduplication<String> {
 
         public String extractKey(String data) {
@@ -0,0 +1,55 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryMappedIdempotencyStoreTest {
+
+    @Test
+    public void recordedKeysAreRetainedAcrossReopeningUntilExpiration() throws IOException {
+        Path path = Files.createTempFile("idempotency", ".store");
+        path.toFile().deleteOnExit();
+
+        try (MemoryMappedIdempotencyStore store = MemoryMappedIdempotencyStore.open(path, 1024)) {
+            store.record("ONE", Duration.ofHours(1));
+            store.record("TWO", Duration.ZERO);
+
+            assertTrue(store.isRecorded("ONE"));
+            assertFalse(store.isRecorded("TWO"));
+            assertFalse(store.isRecorded("THREE"));
+        }
+
+        try (MemoryMappedIdempotencyStore store = MemoryMappedIdempotencyStore.open(path, 1024)) {
+            assertTrue(store.isRecorded("ONE"));
+            assertFalse(store.isRecorded("TWO"));
+        }
+
+        try (MemoryMappedIdempotencyStore store = MemoryMappedIdempotencyStore.open(path, 2048)) {
+            assertFalse(store.isRecorded("ONE"));
+        }
+    }
+
+    @Test
+    public void storageIsBoundedByCapacity() throws IOException {
+        Path path = Files.createTempFile("idempotency", ".store");
+        path.toFile().deleteOnExit();
+
+        try (MemoryMappedIdempotencyStore store = MemoryMappedIdempotencyStore.open(path, 64)) {
+            long size = Files.size(path);
+            for (int i = 0; i < 1000; i++) {
+                store.record("KEY-" + i, Duration.ofHours(1));
+            }
+
+            assertEquals(size, Files.size(path));
+            assertTrue(store.isRecorded("KEY-999"));
+        }
+    }
+}
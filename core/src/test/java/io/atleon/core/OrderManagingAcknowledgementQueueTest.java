@@ -4,7 +4,10 @@ import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -123,6 +126,31 @@ public class OrderManagingAcknowledgementQueueTest {
         assertTrue(secondNacknowledged.get() instanceof IllegalStateException);
     }
 
+    @Test
+    public void cumulativeAcknowledgementsAreCoalescedUpToNacknowledgements() {
+        AcknowledgementQueue queue = OrderManagingAcknowledgementQueue.create(true);
+
+        List<String> executions = new CopyOnWriteArrayList<>();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(() -> executions.add("ack-1"), error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(() -> executions.add("ack-2"), error -> {});
+        AcknowledgementQueue.InFlight thirdInFlight = queue.add(() -> {}, error -> executions.add("nack-3"));
+        AcknowledgementQueue.InFlight fourthInFlight = queue.add(() -> executions.add("ack-4"), error -> {});
+        AcknowledgementQueue.InFlight fifthInFlight = queue.add(() -> executions.add("ack-5"), error -> {});
+
+        queue.complete(fifthInFlight);
+        queue.complete(fourthInFlight);
+        queue.completeExceptionally(thirdInFlight, new IllegalStateException());
+        queue.complete(secondInFlight);
+
+        assertTrue(executions.isEmpty());
+
+        long drained = queue.complete(firstInFlight);
+
+        assertEquals(5L, drained);
+        assertEquals(Arrays.asList("ack-2", "nack-3", "ack-5"), executions);
+    }
+
     @Test
     public void executionOnlyHappensOnOneThreadInNonBlockingFashion() throws Exception {
         CompletableFuture<Boolean> firstAcknowledgementStarted = new CompletableFuture<>();
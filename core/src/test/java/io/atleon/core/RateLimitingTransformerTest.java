@@ -4,8 +4,13 @@ import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class RateLimitingTransformerTest {
 
@@ -38,4 +43,115 @@ class RateLimitingTransformerTest {
             .thenCancel()
             .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void burstsUpToBurstCapacityAreNotLimited() {
+        Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        sink.asFlux()
+            .transform(new RateLimitingTransformer<>(config.withBurstCapacity(2), Schedulers.parallel()))
+            .as(StepVerifier::create)
+            .then(() -> {
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("TWO");
+                sink.tryEmitNext("THREE");
+            })
+            .expectNext("ONE", "TWO")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .expectNext("THREE")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void demandIsNotAccumulatedWhileUpstreamIsIdle() {
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .doOnRequest(requests::add)
+                .transform(new RateLimitingTransformer<>(config, Schedulers.parallel())))
+            .expectSubscription()
+            .thenAwait(PERMIT_DURATION.multipliedBy(10L))
+            .then(() -> assertEquals(1L, requests.stream().mapToLong(Long::longValue).sum()))
+            .then(() -> {
+                sink.tryEmitNext("ONE");
+                sink.tryEmitNext("TWO");
+                sink.tryEmitNext("THREE");
+            })
+            .expectNext("ONE")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("TWO")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("THREE")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void itemsCanBeRateLimitedPerKeyWithoutDelayingOtherKeys() {
+        Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .transform(new KeyedRateLimitingTransformer<>(string -> string.charAt(0), config, Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> {
+                sink.tryEmitNext("A1");
+                sink.tryEmitNext("A2");
+                sink.tryEmitNext("B1");
+                sink.tryEmitNext("A3");
+                sink.tryEmitNext("B2");
+            })
+            .expectNext("A1", "B1")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("A2", "B2")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("A3")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void throttledKeysDoNotConsumePrefetchOfOtherKeys() {
+        Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer();
+        RateLimitingConfig config = new RateLimitingConfig(PERMITS_PER_SECOND, 2);
+
+        StepVerifier.withVirtualTime(() -> sink.asFlux()
+                .transform(new KeyedRateLimitingTransformer<>(string -> string.charAt(0), config, Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> {
+                sink.tryEmitNext("A1");
+                sink.tryEmitNext("A2");
+                sink.tryEmitNext("A3");
+                sink.tryEmitNext("B1");
+            })
+            .expectNext("A1", "B1")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("A2")
+            .expectNoEvent(PERMIT_DURATION.minus(STEP_DURATION))
+            .thenAwait(STEP_DURATION)
+            .expectNext("A3")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void failureToExtractKeyCancelsUpstreamAndErrors() {
+        TestPublisher<String> publisher = TestPublisher.create();
+
+        StepVerifier.withVirtualTime(() -> publisher.flux()
+                .transform(new KeyedRateLimitingTransformer<>(string -> string.charAt(0), config, Schedulers.parallel())))
+            .expectSubscription()
+            .then(() -> publisher.next("A1", "A2", ""))
+            .expectNext("A1")
+            .expectError(StringIndexOutOfBoundsException.class)
+            .verify(Duration.ofSeconds(10));
+
+        publisher.assertCancelled();
+    }
+}
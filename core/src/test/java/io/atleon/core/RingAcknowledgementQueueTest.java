@@ -0,0 +1,145 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingAcknowledgementQueueTest {
+
+    @Test
+    public void acknowledgementsAreExecutedInOrderOfCreationAfterCompletion() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(4);
+
+        AtomicBoolean firstAcknowledged = new AtomicBoolean();
+        AtomicBoolean secondAcknowledged = new AtomicBoolean();
+        AtomicReference<Throwable> secondNacknowledged = new AtomicReference<>();
+        AtomicBoolean thirdAcknowledged = new AtomicBoolean();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(() -> firstAcknowledged.set(true), error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(() -> secondAcknowledged.set(true), secondNacknowledged::set);
+        queue.add(() -> thirdAcknowledged.set(true), error -> {});
+
+        long drained = queue.completeExceptionally(secondInFlight, new IllegalStateException());
+
+        assertEquals(0L, drained);
+        assertFalse(firstAcknowledged.get());
+        assertNull(secondNacknowledged.get());
+
+        drained = queue.complete(firstInFlight);
+
+        assertEquals(2L, drained);
+        assertTrue(firstAcknowledged.get());
+        assertFalse(secondAcknowledged.get());
+        assertTrue(secondNacknowledged.get() instanceof IllegalStateException);
+        assertFalse(thirdAcknowledged.get());
+    }
+
+    @Test
+    public void slotsAreReusedAfterBeingDrained() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(2);
+
+        AtomicInteger acknowledgements = new AtomicInteger();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+
+        assertEquals(2L, queue.complete(secondInFlight) + queue.complete(firstInFlight));
+
+        AcknowledgementQueue.InFlight thirdInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+
+        assertSame(firstInFlight, thirdInFlight);
+        assertTrue(thirdInFlight.isInProcess());
+        assertEquals(1L, queue.complete(thirdInFlight));
+        assertEquals(3, acknowledgements.get());
+    }
+
+    @Test
+    public void completionsBlockedBehindInProcessHeadAreCounted() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(4);
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(() -> {}, error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(() -> {}, error -> {});
+        AcknowledgementQueue.InFlight thirdInFlight = queue.add(() -> {}, error -> {});
+        queue.add(() -> {}, error -> {});
+
+        queue.complete(secondInFlight);
+        queue.completeExceptionally(thirdInFlight, new IllegalStateException());
+
+        assertEquals(2L, queue.countBlockedCompletions());
+        assertTrue(queue.calculateOldestInProcessAgeNanos(System.nanoTime() + 1_000L) >= 1_000L);
+
+        queue.complete(firstInFlight);
+
+        assertEquals(0L, queue.countBlockedCompletions());
+    }
+
+    @Test
+    public void ageOfUnstampedInFlightIsMeasuredFromFirstProbe() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(4);
+
+        queue.add("item", new AcknowledgementQueue.ItemAcknowledger<String>() {
+
+            @Override
+            public void acknowledge(String item) {
+
+            }
+
+            @Override
+            public void nacknowledge(String item, Throwable error) {
+
+            }
+        }, 0L, AcknowledgementQueue.UNSTAMPED);
+
+        assertEquals(0L, queue.calculateOldestInProcessAgeNanos(1_000L));
+        assertEquals(500L, queue.calculateOldestInProcessAgeNanos(1_500L));
+    }
+
+    @Test
+    public void ringGrowsUpToMaxCapacityRetainingOutstandingOrder() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(2, 8, false);
+
+        StringBuilder acknowledged = new StringBuilder();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(() -> acknowledged.append(1), error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(() -> acknowledged.append(2), error -> {});
+        assertEquals(1L, queue.complete(firstInFlight));
+
+        AcknowledgementQueue.InFlight[] inFlights = new AcknowledgementQueue.InFlight[7];
+        inFlights[0] = secondInFlight;
+        for (int i = 1; i < inFlights.length; i++) {
+            int number = i + 2;
+            inFlights[i] = queue.add(() -> acknowledged.append(number), error -> {});
+        }
+
+        for (int i = inFlights.length - 1; i > 0; i--) {
+            assertEquals(0L, queue.complete(inFlights[i]));
+        }
+        assertEquals(7L, queue.complete(secondInFlight));
+        assertEquals("12345678", acknowledged.toString());
+
+        for (int i = 0; i < 8; i++) {
+            queue.add(() -> {}, error -> {});
+        }
+        assertThrows(IllegalStateException.class, () -> queue.add(() -> {}, error -> {}));
+    }
+
+    @Test
+    public void exceedingCapacityIsAnError() {
+        AcknowledgementQueue queue = RingAcknowledgementQueue.create(3);
+
+        for (int i = 0; i < 4; i++) {
+            queue.add(() -> {}, error -> {});
+        }
+
+        assertThrows(IllegalStateException.class, () -> queue.add(() -> {}, error -> {}));
+    }
+}
@@ -0,0 +1,50 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotatingBloomFilterTest {
+
+    private static final ProbabilisticDeduplicationConfig CONFIG =
+        new ProbabilisticDeduplicationConfig(Duration.ofSeconds(4), 10_000, 0.01);
+
+    @Test
+    public void keysAreDeduplicatedUntilTheirPartitionIsRotatedOut() {
+        AtomicLong clock = new AtomicLong(0L);
+        RotatingBloomFilter filter = RotatingBloomFilter.create(CONFIG, clock::get);
+
+        assertTrue(filter.put("ONE"));
+        assertFalse(filter.put("ONE"));
+
+        clock.set(Duration.ofSeconds(3).toMillis());
+        assertTrue(filter.put("TWO"));
+        assertFalse(filter.put("ONE"));
+
+        clock.set(Duration.ofSeconds(4).toMillis());
+        assertTrue(filter.put("ONE"));
+        assertFalse(filter.put("TWO"));
+    }
+
+    @Test
+    public void falsePositiveRateIsBoundedAtExpectedInsertions() {
+        for (ProbabilisticDeduplicationConfig config : new ProbabilisticDeduplicationConfig[]{CONFIG, CONFIG.withOffHeap(true)}) {
+            AtomicLong clock = new AtomicLong(0L);
+            RotatingBloomFilter filter = RotatingBloomFilter.create(config, clock::get);
+
+            long insertionsPerPartition = config.getExpectedInsertions() / config.getPartitions();
+            long partitionMillis = config.getRetention().toMillis() / config.getPartitions();
+            int falsePositives = 0;
+            for (long i = 0; i < config.getExpectedInsertions(); i++) {
+                clock.set(i / insertionsPerPartition * partitionMillis);
+                falsePositives += filter.put(Long.toString(i)) ? 0 : 1;
+            }
+
+            assertTrue(falsePositives <= config.getExpectedInsertions() * config.getFalsePositiveRate());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.atleon.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UnorderedAcknowledgementQueueTest {
+
+    @Test
+    public void acknowledgementsAreExecutedImmediatelyUponCompletion() {
+        AcknowledgementQueue queue = UnorderedAcknowledgementQueue.create();
+
+        AtomicBoolean firstAcknowledged = new AtomicBoolean();
+        AtomicReference<Throwable> secondNacknowledged = new AtomicReference<>();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(() -> firstAcknowledged.set(true), error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(() -> {}, secondNacknowledged::set);
+
+        assertEquals(1L, queue.completeExceptionally(secondInFlight, new IllegalStateException()));
+        assertTrue(secondNacknowledged.get() instanceof IllegalStateException);
+        assertFalse(firstAcknowledged.get());
+
+        assertEquals(1L, queue.complete(firstInFlight));
+        assertTrue(firstAcknowledged.get());
+    }
+
+    @Test
+    public void acknowledgementsAreOnlyExecutedOnce() {
+        AcknowledgementQueue queue = UnorderedAcknowledgementQueue.create();
+
+        AtomicInteger acknowledgements = new AtomicInteger();
+
+        AcknowledgementQueue.InFlight inFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+
+        assertEquals(1L, queue.complete(inFlight));
+        assertEquals(0L, queue.complete(inFlight));
+        assertEquals(0L, queue.completeExceptionally(inFlight, new IllegalStateException()));
+        assertEquals(1, acknowledgements.get());
+    }
+
+    @Test
+    public void executedInFlightsAreReusedWhenRecycling() {
+        AcknowledgementQueue queue = UnorderedAcknowledgementQueue.create(true);
+
+        AtomicInteger acknowledgements = new AtomicInteger();
+
+        AcknowledgementQueue.InFlight firstInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+        AcknowledgementQueue.InFlight secondInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+        assertNotSame(firstInFlight, secondInFlight);
+
+        assertEquals(1L, queue.complete(firstInFlight));
+
+        AcknowledgementQueue.InFlight thirdInFlight = queue.add(acknowledgements::incrementAndGet, error -> {});
+
+        assertSame(firstInFlight, thirdInFlight);
+        assertTrue(thirdInFlight.isInProcess());
+        assertEquals(1L, queue.complete(thirdInFlight));
+        assertEquals(1L, queue.complete(secondInFlight));
+        assertEquals(3, acknowledgements.get());
+    }
+
+    @Test
+    public void removalIsNoOpSinceNothingIsRetained() {
+        AcknowledgementQueue queue = UnorderedAcknowledgementQueue.create();
+
+        queue.add(() -> {}, error -> {});
+
+        assertFalse(queue.remove());
+        assertNull(queue.peek());
+    }
+}
@@ -5,26 +5,34 @@ import io.atleon.core.AloComponentExtractor;
 import io.atleon.core.AloFactory;
 import io.atleon.core.AloFactoryConfig;
 import io.atleon.core.AloFlux;
+import io.atleon.core.AloGroupedFlux;
 import io.atleon.core.AloQueueListener;
 import io.atleon.core.AloQueueListenerConfig;
 import io.atleon.core.AloQueueingTransformer;
 import io.atleon.core.AloSignalListenerFactory;
 import io.atleon.core.AloSignalListenerFactoryConfig;
 import io.atleon.core.ErrorEmitter;
+import io.atleon.core.GroupFlowControl;
+import io.atleon.core.GroupFlux;
 import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.kafka.receiver.KafkaReceiver;
 import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.receiver.ReceiverPartition;
 import reactor.kafka.receiver.ReceiverRecord;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,9 +40,11 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A reactive Kafka receiver with at-least-once semantics for consuming records from topics of a
@@ -55,7 +65,9 @@ import java.util.regex.Pattern;
  * T-0-B, T-1-E, T-0-C, T-1-F. At commit time, records T-0-B, T-0-C, T-1-D, and T-1-E have been
  * acknowledged. Therefore, no further offset would be committed for T-0, since T-0-A has not
  * yet been acknowledged, and the offset for T-1-E would be committed since, T-1-D and T-1-E
- * have been acknowledged.
+ * have been acknowledged. Since committing any given offset implicitly commits all lesser
+ * offsets, contiguous runs of acknowledged records are coalesced such that only the last
+ * record's offset in each run is acknowledged with the underlying receiver.
  * <p>
  * Note that {@link io.atleon.core.AloDecorator AloDecorators} applied via
  * {@link io.atleon.core.AloDecoratorConfig#DECORATOR_TYPES_CONFIG} must be
@@ -95,7 +107,8 @@ public class AloKafkaReceiver<K, V> {
      * produced Records to the subscribed Topics will be received by the associated Consumer
      * Group. This can help avoid timing problems, particularly with tests, and avoids having
      * to use `auto.offset.reset = "earliest"` to guarantee receipt of Records immediately
-     * produced by the request Thread (directly or indirectly)
+     * produced by the request Thread (directly or indirectly). Not supported in combination with
+     * more than one {@link #CONSUMERS_PER_SUBSCRIPTION_CONFIG Consumer per subscription}.
      */
     public static final String BLOCK_REQUEST_ON_PARTITION_POSITIONS_CONFIG = CONFIG_PREFIX + "block.request.on.partition.positions";
 
@@ -106,6 +119,102 @@ public class AloKafkaReceiver<K, V> {
      */
     public static final String MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG = CONFIG_PREFIX + "max.in.flight.per.subscription";
 
+    /**
+     * Optionally enables adaptive limiting of the number of outstanding unacknowledged Records
+     * emitted per subscription when configured below {@link #MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG}.
+     * The limit starts at this value and adapts between it and the max based on the latency with
+     * which Records are acknowledged, increasing while acknowledgement latency is stable and
+     * decreasing when it grows. Disabled by default.
+     */
+    public static final String MIN_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG = CONFIG_PREFIX + "min.in.flight.per.subscription";
+
+    /**
+     * Optionally bounds the total serialized size (in bytes of keys and values) of outstanding
+     * unacknowledged Records emitted per subscription. This is helpful in keeping memory usage
+     * predictable when Record sizes vary widely, while still allowing deep pipelining of small
+     * Records. Note that Records already fetched by the underlying Consumer are not subject to
+     * this bound. Unbounded by default.
+     */
+    public static final String MAX_IN_FLIGHT_BYTES_CONFIG = CONFIG_PREFIX + "max.in.flight.bytes";
+
+    /**
+     * Optionally bounds the number of outstanding unacknowledged Records emitted per assigned
+     * partition. When a partition reaches this bound, fetching from that partition is paused
+     * until its number of outstanding Records drops back below the bound, while all other
+     * partitions continue to be consumed. This keeps a single slow or stuck partition from
+     * exhausting {@link #MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG}. Unbounded by default.
+     */
+    public static final String MAX_IN_FLIGHT_PER_PARTITION_CONFIG = CONFIG_PREFIX + "max.in.flight.per.partition";
+
+    /**
+     * Whether {@link #MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG} is fairly shared among assigned
+     * partitions. When enabled, each partition with outstanding unacknowledged Records is also
+     * bounded by its fair share of max in-flight among all such partitions, and fetching from a
+     * partition is paused while it exceeds its share. This keeps a single poisoned partition from
+     * starving all other partitions without having to configure a static per-partition bound.
+     * Disabled by default.
+     */
+    public static final String FAIR_IN_FLIGHT_SHARING_CONFIG = CONFIG_PREFIX + "fair.in.flight.sharing";
+
+    /**
+     * Optionally bounds the total serialized size (in bytes of keys and values) of outstanding
+     * unacknowledged Records emitted per assigned partition. Like
+     * {@link #MAX_IN_FLIGHT_PER_PARTITION_CONFIG}, when a partition reaches this bound, fetching
+     * from that partition is paused until enough of its Records are acknowledged, while all other
+     * partitions continue to be consumed. This keeps partitions with large or slowly processed
+     * Records from exhausting {@link #MAX_IN_FLIGHT_BYTES_CONFIG}. Unbounded by default.
+     */
+    public static final String MAX_IN_FLIGHT_BYTES_PER_PARTITION_CONFIG = CONFIG_PREFIX + "max.in.flight.bytes.per.partition";
+
+    /**
+     * Configures how In-Flight acknowledgements are stored for each assigned partition. Available
+     * values are those of {@link AloQueueingTransformer.QueueStorage}. Using "RING" pre-allocates
+     * storage (bounded by {@link #MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG}) per partition such that
+     * steady-state reception and acknowledgement of records do not allocate queue storage, at the
+     * cost of a fixed memory footprint per assigned partition. With either storage, since offset
+     * acknowledgement is cumulative, only the last offset in any contiguous run of acknowledged
+     * Records is acknowledged with the underlying receiver. Defaults to "LINKED".
+     */
+    public static final String ACKNOWLEDGEMENT_QUEUE_STORAGE_CONFIG = CONFIG_PREFIX + "acknowledgement.queue.storage";
+
+    /**
+     * Optionally enables tracking acknowledgement of received Records natively by offset, rather
+     * than with ordered In-Flight acknowledgements. Each assigned partition then tracks its
+     * emitted offsets in a ring of primitive offsets and its completions in a bitmap, and
+     * advances a single committable offset watermark over contiguous runs of completed offsets,
+     * such that commit bookkeeping is reduced to acknowledging the last offset of each run.
+     * Trackers are discarded upon assignment and revocation of their partitions. In-Flight
+     * acknowledgements are then unordered, and with "RING" {@link #ACKNOWLEDGEMENT_QUEUE_STORAGE_CONFIG}
+     * they are recycled. Note that in-flight limits then bound the number of Records that have not
+     * yet been acknowledged downstream, rather than the number of Records whose offsets have not
+     * yet become committable. May not be enabled with more than one of
+     * {@link #CONSUMERS_PER_SUBSCRIPTION_CONFIG}. Disabled by default.
+     */
+    public static final String NATIVE_OFFSET_TRACKING_CONFIG = CONFIG_PREFIX + "native.offset.tracking";
+
+    /**
+     * Optionally configures a deadline within which each emitted Record must be acknowledged or
+     * nacknowledged. Records that are still in flight when their deadline elapses are
+     * nacknowledged with an {@link io.atleon.core.AcknowledgementDeadlineExceededException},
+     * which is handled by the configured {@link #NACKNOWLEDGER_TYPE_CONFIG}. This keeps a lost or
+     * mishandled Record from indefinitely blocking offset commits on its partition. Specified as
+     * ISO-8601 Duration, e.g. PT5M. Disabled by default.
+     */
+    public static final String ACKNOWLEDGEMENT_DEADLINE_CONFIG = CONFIG_PREFIX + "ack.deadline";
+
+    /**
+     * Configures the number of Kafka Consumers (in the same group) that back each subscription.
+     * Records received by all Consumers are merged in to a single stream which shares in-flight
+     * limits, signal listeners, and decorators. Since each Consumer polls on its own Thread, this
+     * allows a single subscription to fetch and deserialize Records with more parallelism than a
+     * single Consumer allows. Note that Consumers in excess of the number of subscribed partitions
+     * will not be assigned any partitions, and since such Consumers are never notified of
+     * assignment, {@link #BLOCK_REQUEST_ON_PARTITION_POSITIONS_CONFIG} may not be enabled when
+     * this is greater than one. When greater than one, each Consumer's client ID (if configured)
+     * is suffixed with the Consumer's index. Defaults to 1.
+     */
+    public static final String CONSUMERS_PER_SUBSCRIPTION_CONFIG = CONFIG_PREFIX + "consumers.per.subscription";
+
     /**
      * It may be desirable to have client IDs be incremented per subscription. This can remedy
      * conflicts with external resource registration (i.e. JMX) if the same client ID is expected
@@ -142,6 +251,17 @@ public class AloKafkaReceiver<K, V> {
 
     private static final long DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIPTION = 4096;
 
+    private static final AloQueueingTransformer.QueueStorage DEFAULT_ACKNOWLEDGEMENT_QUEUE_STORAGE =
+        AloQueueingTransformer.QueueStorage.LINKED;
+
+    private static final boolean DEFAULT_NATIVE_OFFSET_TRACKING = false;
+
+    private static final int DEFAULT_CONSUMERS_PER_SUBSCRIPTION = 1;
+
+    private static final int PARTITION_GROUP_PREFETCH = 256;
+
+    private static final int DEFAULT_MAX_POLL_RECORDS = 500;
+
     private static final boolean DEFAULT_AUTO_INCREMENT_CLIENT_ID = false;
 
     private static final Duration DEFAULT_POLL_TIMEOUT = Duration.ofMillis(100L);
@@ -258,6 +378,107 @@ public class AloKafkaReceiver<K, V> {
         return receiveAloRecords(consumerConfig -> ReceiverOptions.<K, V>create(consumerConfig).subscription(topicsPattern));
     }
 
+    /**
+     * Creates a Publisher of {@link Alo} items referencing batches of Kafka
+     * {@link ConsumerRecord}s wrapped as an {@link AloFlux}. Each emitted batch contains records
+     * from a single partition, in offset order, that were received back-to-back (typically those
+     * returned by a single poll, and never more than {@code max.poll.records}). Each batch is
+     * acknowledged as a unit, where acknowledgement of a batch results in committing the offset of
+     * the batch's last record (subject to the same per-partition ordering as individual records).
+     *
+     * @param topic The topic to subscribe to
+     * @return A Publisher of Alo items referencing per-partition batches of ConsumerRecords
+     * @see #receiveAloRecordBatches(Collection)
+     */
+    public AloFlux<List<ConsumerRecord<K, V>>> receiveAloRecordBatches(String topic) {
+        return receiveAloRecordBatches(Collections.singletonList(topic));
+    }
+
+    /**
+     * Creates a Publisher of {@link Alo} items referencing batches of Kafka
+     * {@link ConsumerRecord}s wrapped as an {@link AloFlux}. Each emitted batch contains records
+     * from a single partition, in offset order, that were received back-to-back (typically those
+     * returned by a single poll, and never more than {@code max.poll.records}). Each batch is
+     * acknowledged as a unit, where acknowledgement of a batch results in committing the offset of
+     * the batch's last record (subject to the same per-partition ordering as individual records).
+     * <p>
+     * This avoids per-record overhead for pipelines that process records in bulk. Note that
+     * in-flight limits (other than {@link #MAX_IN_FLIGHT_BYTES_CONFIG}) count each batch as a
+     * single in-flight item, and that record-typed decorators and signal listener factories are
+     * not applied to batches.
+     *
+     * @param topics The collection of topics to subscribe to
+     * @return A Publisher of Alo items referencing per-partition batches of ConsumerRecords
+     */
+    public AloFlux<List<ConsumerRecord<K, V>>> receiveAloRecordBatches(Collection<String> topics) {
+        return receiveAloRecordBatches(consumerConfig -> ReceiverOptions.<K, V>create(consumerConfig).subscription(topics));
+    }
+
+    /**
+     * Creates a Publisher of {@link Alo} items referencing batches of Kafka
+     * {@link ConsumerRecord}s wrapped as an {@link AloFlux}. Each emitted batch contains records
+     * from a single partition, in offset order, that were received back-to-back.
+     *
+     * @param topicsPattern The {@link Pattern} of topics to subscribe to
+     * @return A Publisher of Alo items referencing per-partition batches of ConsumerRecords
+     * @see #receiveAloRecordBatches(Collection)
+     */
+    public AloFlux<List<ConsumerRecord<K, V>>> receiveAloRecordBatches(Pattern topicsPattern) {
+        return receiveAloRecordBatches(consumerConfig -> ReceiverOptions.<K, V>create(consumerConfig).subscription(topicsPattern));
+    }
+
+    /**
+     * Creates a Publisher of per-partition {@link AloGroupedFlux}es, each of which emits
+     * {@link Alo} items referencing Kafka {@link ConsumerRecord}s from a single assigned
+     * {@link TopicPartition}.
+     *
+     * @param topic The topic to subscribe to
+     * @return A GroupFlux of per-partition AloFluxes of ConsumerRecords
+     * @see #receiveAloRecordsByPartition(Collection)
+     */
+    public GroupFlux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> receiveAloRecordsByPartition(String topic) {
+        return receiveAloRecordsByPartition(Collections.singletonList(topic));
+    }
+
+    /**
+     * Creates a Publisher of per-partition {@link AloGroupedFlux}es, each of which emits
+     * {@link Alo} items referencing Kafka {@link ConsumerRecord}s from a single assigned
+     * {@link TopicPartition}. Records of each partition are buffered in a bounded queue and
+     * emitted in order on a worker dedicated to that partition, such that processing parallelism
+     * scales with the number of assigned partitions. When a partition's queue is full, reception
+     * from all partitions is suspended until it has room. Configuring
+     * {@link #MAX_IN_FLIGHT_PER_PARTITION_CONFIG} keeps a slow partition from filling its queue.
+     * <p>
+     * A partition's group is created when its first Record is received after being assigned. When
+     * the partition is revoked, its group is completed once every Record polled from it before
+     * revocation has been emitted. Records polled after the partition is reassigned are emitted
+     * by a new group. The last Record polled before revocation is inferred from the partition's
+     * position at revocation. If that position had advanced beyond the partition's last Record
+     * (i.e. due to transaction markers), the group is instead completed once the revoking
+     * Consumer receives a Record that was evidently polled after revocation, or the subscription
+     * terminates. When {@link #CONSUMERS_PER_SUBSCRIPTION_CONFIG} is greater than one, Records of
+     * a partition that moves between Consumers are emitted by separate groups.
+     *
+     * @param topics The collection of topics to subscribe to
+     * @return A GroupFlux of per-partition AloFluxes of ConsumerRecords
+     */
+    public GroupFlux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> receiveAloRecordsByPartition(Collection<String> topics) {
+        return receiveAloRecordsByPartition(consumerConfig -> ReceiverOptions.<K, V>create(consumerConfig).subscription(topics));
+    }
+
+    /**
+     * Creates a Publisher of per-partition {@link AloGroupedFlux}es, each of which emits
+     * {@link Alo} items referencing Kafka {@link ConsumerRecord}s from a single assigned
+     * {@link TopicPartition}.
+     *
+     * @param topicsPattern The {@link Pattern} of topics to subscribe to
+     * @return A GroupFlux of per-partition AloFluxes of ConsumerRecords
+     * @see #receiveAloRecordsByPartition(Collection)
+     */
+    public GroupFlux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> receiveAloRecordsByPartition(Pattern topicsPattern) {
+        return receiveAloRecordsByPartition(consumerConfig -> ReceiverOptions.<K, V>create(consumerConfig).subscription(topicsPattern));
+    }
+
     private AloFlux<ConsumerRecord<K, V>> receiveAloRecords(ReceiverOptionsInitializer<K, V> optionsInitializer) {
         return configSource.create()
             .map(ReceiveResources<K, V>::new)
@@ -265,11 +486,68 @@ public class AloKafkaReceiver<K, V> {
             .as(AloFlux::wrap);
     }
 
+    private GroupFlux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>>
+    receiveAloRecordsByPartition(ReceiverOptionsInitializer<K, V> optionsInitializer) {
+        Flux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> groups = configSource.create()
+            .map(ReceiveResources<K, V>::new)
+            .flatMapMany(resources -> resources.receiveByPartition(optionsInitializer));
+        return GroupFlux.wrap(groups, Integer.MAX_VALUE);
+    }
+
+    private AloFlux<List<ConsumerRecord<K, V>>> receiveAloRecordBatches(ReceiverOptionsInitializer<K, V> optionsInitializer) {
+        return configSource.create()
+            .map(ReceiveResources<K, V>::new)
+            .flatMapMany(resources -> resources.receiveBatches(optionsInitializer))
+            .as(AloFlux::wrap);
+    }
+
     private interface ReceiverOptionsInitializer<K, V> {
 
         ReceiverOptions<K, V> initialize(Map<String, Object> consumerConfig);
     }
 
+    private interface PartitionAssignmentListener {
+
+        static PartitionAssignmentListener noOp() {
+            return new PartitionAssignmentListener() {
+                @Override
+                public void onAssign(int consumerIndex, Collection<ReceiverPartition> partitions) {
+
+                }
+
+                @Override
+                public void onRevoke(int consumerIndex, Collection<ReceiverPartition> partitions) {
+
+                }
+            };
+        }
+
+        /**
+         * Creates a listener that additionally resets the offset tracking of partitions upon
+         * their assignment and revocation
+         */
+        default PartitionAssignmentListener resettingOffsetTracking(OffsetTrackingComponentExtractor<?, ?> offsetTracking) {
+            PartitionAssignmentListener delegate = this;
+            return new PartitionAssignmentListener() {
+                @Override
+                public void onAssign(int consumerIndex, Collection<ReceiverPartition> partitions) {
+                    offsetTracking.reset(ReceiveResources.extractTopicPartitions(partitions));
+                    delegate.onAssign(consumerIndex, partitions);
+                }
+
+                @Override
+                public void onRevoke(int consumerIndex, Collection<ReceiverPartition> partitions) {
+                    offsetTracking.reset(ReceiveResources.extractTopicPartitions(partitions));
+                    delegate.onRevoke(consumerIndex, partitions);
+                }
+            };
+        }
+
+        void onAssign(int consumerIndex, Collection<ReceiverPartition> partitions);
+
+        void onRevoke(int consumerIndex, Collection<ReceiverPartition> partitions);
+    }
+
     private static final class ReceiveResources<K, V> {
 
         private final KafkaConfig config;
@@ -282,30 +560,129 @@ public class AloKafkaReceiver<K, V> {
         }
 
         public Flux<Alo<ConsumerRecord<K, V>>> receive(ReceiverOptionsInitializer<K, V> optionsInitializer) {
-            CompletableFuture<Collection<ReceiverPartition>> assignment = new CompletableFuture<>();
+            return receive(optionsInitializer, PartitionAssignmentListener.noOp(), (receiver, __) -> receiver.receive(), (records, __) -> records);
+        }
+
+        public Flux<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>>
+        receiveByPartition(ReceiverOptionsInitializer<K, V> optionsInitializer) {
+            PartitionGroupingOperator.Assignments assignments = new PartitionGroupingOperator.Assignments();
+            PartitionAssignmentListener listener = new PartitionAssignmentListener() {
+                @Override
+                public void onAssign(int consumerIndex, Collection<ReceiverPartition> partitions) {
+                    assignments.assigned(consumerIndex, extractTopicPartitions(partitions));
+                }
+
+                @Override
+                public void onRevoke(int consumerIndex, Collection<ReceiverPartition> partitions) {
+                    assignments.revoked(consumerIndex, loadPositions(partitions));
+                }
+            };
+            return receive(optionsInitializer, listener, ReceiveResources::receiveTagged, (records, flowControl) ->
+                Flux.from(new PartitionGroupingOperator<>(records, assignments, flowControl, Schedulers.boundedElastic(), PARTITION_GROUP_PREFETCH)));
+        }
+
+        /**
+         * Receives from the configured number of receivers, and applies the provided grouping to
+         * the resulting Alo Records. Grouping is provided the same flow control that throttles
+         * in-flight Records, such that both may pause (and resume) the same partitions.
+         */
+        private <T> Flux<T> receive(
+            ReceiverOptionsInitializer<K, V> optionsInitializer,
+            PartitionAssignmentListener listener,
+            BiFunction<KafkaReceiver<K, V>, Integer, Flux<ReceiverRecord<K, V>>> reception,
+            BiFunction<Flux<Alo<ConsumerRecord<K, V>>>, GroupFlowControl, Flux<T>> grouping
+        ) {
+            CompletableFuture<Void> positioning = new CompletableFuture<>();
             ErrorEmitter<Alo<ConsumerRecord<K, V>>> errorEmitter = newErrorEmitter();
-            return newReceiver(optionsInitializer, assignment::complete).receive()
-                .transform(records -> maybeBlockRequestOnPartitionPositioning(records, assignment))
-                .transform(newAloQueueingTransformer(errorEmitter::safelyEmit))
+            OffsetTrackingComponentExtractor<K, V> offsetTracking = shouldTrackOffsetsNatively()
+                ? new OffsetTrackingComponentExtractor<>(nacknowledgerFactory, errorEmitter::safelyEmit)
+                : null;
+            List<KafkaReceiver<K, V>> receivers = offsetTracking == null
+                ? newReceivers(optionsInitializer, positioning, listener)
+                : newReceivers(optionsInitializer, positioning, listener.resettingOffsetTracking(offsetTracking));
+            GroupFlowControl flowControl = new PartitionPausingFlowControl(receivers);
+            return receiveFromAll(receivers, reception)
+                .transform(records -> maybeBlockRequestOnPartitionPositioning(records, positioning))
+                .transform(records -> offsetTracking == null ? records : records.doOnNext(offsetTracking::track))
+                .transform(offsetTracking == null
+                    ? newAloQueueingTransformer(newComponentExtractor(errorEmitter::safelyEmit), flowControl)
+                    : newOffsetTrackingAloQueueingTransformer(offsetTracking, flowControl))
                 .transform(errorEmitter::applyTo)
-                .transform(this::applySignalListenerFactories);
+                .transform(this::applySignalListenerFactories)
+                .transform(records -> grouping.apply(records, flowControl));
+        }
+
+        public Flux<Alo<List<ConsumerRecord<K, V>>>> receiveBatches(ReceiverOptionsInitializer<K, V> optionsInitializer) {
+            CompletableFuture<Void> positioning = new CompletableFuture<>();
+            ErrorEmitter<Alo<List<ConsumerRecord<K, V>>>> errorEmitter = newErrorEmitter();
+            List<KafkaReceiver<K, V>> receivers = newReceivers(optionsInitializer, positioning, PartitionAssignmentListener.noOp());
+            int maxBatchSize = config.loadInt(ConsumerConfig.MAX_POLL_RECORDS_CONFIG).orElse(DEFAULT_MAX_POLL_RECORDS);
+            return receiveFromAll(receivers, (receiver, __) -> receiveBatchesByPartition(receiver, maxBatchSize))
+                .transform(batches -> maybeBlockRequestOnPartitionPositioning(batches, positioning))
+                .transform(newBatchAloQueueingTransformer(new PartitionPausingFlowControl(receivers), errorEmitter::safelyEmit))
+                .transform(errorEmitter::applyTo);
         }
 
-        private ErrorEmitter<Alo<ConsumerRecord<K, V>>> newErrorEmitter() {
+        private <T> ErrorEmitter<T> newErrorEmitter() {
             Duration timeout = config.loadDuration(ERROR_EMISSION_TIMEOUT_CONFIG).orElse(ErrorEmitter.DEFAULT_TIMEOUT);
             return ErrorEmitter.create(timeout);
         }
 
+        /**
+         * Creates the configured number of receivers, each backed by its own Consumer in the same
+         * group. If blocking on partition positions is enabled, the provided positioning is
+         * completed once the partitions of the (single) Consumer's first assignment have been
+         * positioned on its polling Thread.
+         */
+        private List<KafkaReceiver<K, V>> newReceivers(
+            ReceiverOptionsInitializer<K, V> optionsInitializer,
+            CompletableFuture<Void> positioning,
+            PartitionAssignmentListener listener
+        ) {
+            int count = config.loadInt(CONSUMERS_PER_SUBSCRIPTION_CONFIG).orElse(DEFAULT_CONSUMERS_PER_SUBSCRIPTION);
+            if (count <= 0) {
+                throw new IllegalArgumentException("Consumers per subscription must be positive, but got " + count);
+            }
+
+            boolean shouldPosition = shouldBlockRequestOnPartitionPositions();
+            if (count > 1 && shouldPosition) {
+                // Consumers that are not assigned any partitions are never notified of assignment
+                throw new IllegalArgumentException("Blocking request on partition positions is not supported with " + count + " consumers per subscription");
+            }
+            if (count > 1 && shouldTrackOffsetsNatively()) {
+                // Records of a partition moving between Consumers may be handed off out of order
+                throw new IllegalArgumentException("Native offset tracking is not supported with " + count + " consumers per subscription");
+            }
+
+            Map<String, Object> consumerConfig = newConsumerConfig();
+            if (count == 1) {
+                Consumer<Collection<ReceiverPartition>> onAssign =
+                    shouldPosition ? partitions -> position(partitions, positioning) : __ -> {};
+                return Collections.singletonList(newReceiver(optionsInitializer, consumerConfig, 0, onAssign, listener));
+            }
+
+            List<KafkaReceiver<K, V>> receivers = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                receivers.add(newReceiver(optionsInitializer, withClientIdSuffix(consumerConfig, i), i, __ -> {}, listener));
+            }
+            return receivers;
+        }
+
         private KafkaReceiver<K, V> newReceiver(
             ReceiverOptionsInitializer<K, V> optionsInitializer,
-            Consumer<Collection<ReceiverPartition>> onAssign
+            Map<String, Object> consumerConfig,
+            int consumerIndex,
+            Consumer<Collection<ReceiverPartition>> onAssign,
+            PartitionAssignmentListener listener
         ) {
-            ReceiverOptions<K, V> receiverOptions = optionsInitializer.initialize(newConsumerConfig())
+            ReceiverOptions<K, V> receiverOptions = optionsInitializer.initialize(consumerConfig)
                 .pollTimeout(config.loadDuration(POLL_TIMEOUT_CONFIG).orElse(DEFAULT_POLL_TIMEOUT))
                 .commitInterval(config.loadDuration(COMMIT_INTERVAL_CONFIG).orElse(DEFAULT_COMMIT_INTERVAL))
                 .maxCommitAttempts(config.loadInt(MAX_COMMIT_ATTEMPTS_CONFIG).orElse(DEFAULT_MAX_COMMIT_ATTEMPTS))
                 .closeTimeout(config.loadDuration(CLOSE_TIMEOUT_CONFIG).orElse(DEFAULT_CLOSE_TIMEOUT))
-                .addAssignListener(onAssign);
+                .addAssignListener(onAssign)
+                .addAssignListener(partitions -> listener.onAssign(consumerIndex, partitions))
+                .addRevokeListener(partitions -> listener.onRevoke(consumerIndex, partitions));
             return KafkaReceiver.create(receiverOptions);
         }
 
@@ -321,31 +698,83 @@ public class AloKafkaReceiver<K, V> {
             });
         }
 
-        private Flux<ReceiverRecord<K, V>> maybeBlockRequestOnPartitionPositioning(
-            Flux<ReceiverRecord<K, V>> records,
-            CompletableFuture<Collection<ReceiverPartition>> assignment
-        ) {
-            boolean shouldApplyBlocking = config.loadBoolean(BLOCK_REQUEST_ON_PARTITION_POSITIONS_CONFIG)
+        private static Map<String, Object> withClientIdSuffix(Map<String, Object> consumerConfig, int index) {
+            Map<String, Object> indexedConsumerConfig = new HashMap<>(consumerConfig);
+            indexedConsumerConfig.computeIfPresent(CommonClientConfigs.CLIENT_ID_CONFIG, (__, id) -> id + "-" + index);
+            return indexedConsumerConfig;
+        }
+
+        private boolean shouldBlockRequestOnPartitionPositions() {
+            return config.loadBoolean(BLOCK_REQUEST_ON_PARTITION_POSITIONS_CONFIG)
                 .orElse(DEFAULT_BLOCK_REQUEST_ON_PARTITION_POSITIONS);
-            return shouldApplyBlocking ? records.mergeWith(blockRequestOnPartitionPositioning(assignment)) : records;
+        }
+
+        private boolean shouldTrackOffsetsNatively() {
+            return config.loadBoolean(NATIVE_OFFSET_TRACKING_CONFIG).orElse(DEFAULT_NATIVE_OFFSET_TRACKING);
+        }
+
+        private <T> Flux<T> maybeBlockRequestOnPartitionPositioning(Flux<T> records, CompletableFuture<Void> positioning) {
+            return shouldBlockRequestOnPartitionPositions() ? records.mergeWith(blockRequestOn(positioning)) : records;
         }
 
         private AloQueueingTransformer<ReceiverRecord<K, V>, ConsumerRecord<K, V>>
-        newAloQueueingTransformer(Consumer<Throwable> errorEmitter) {
-            return AloQueueingTransformer.create(newComponentExtractor(errorEmitter))
-                .withGroupExtractor(record -> record.receiverOffset().topicPartition())
+        newAloQueueingTransformer(
+            AloComponentExtractor<ReceiverRecord<K, V>, ConsumerRecord<K, V>> componentExtractor,
+            GroupFlowControl flowControl
+        ) {
+            AloQueueingTransformer<ReceiverRecord<K, V>, ConsumerRecord<K, V>> transformer =
+                AloQueueingTransformer.create(componentExtractor)
+                    .withGroupExtractor(record -> record.receiverOffset().topicPartition())
+                    .withFactory(loadAloFactory())
+                    .withWeigher(ReceiveResources::calculateSerializedSize);
+            return applyQueueingConfig(transformer, flowControl);
+        }
+
+        private AloQueueingTransformer<ReceiverRecord<K, V>, ConsumerRecord<K, V>>
+        newOffsetTrackingAloQueueingTransformer(OffsetTrackingComponentExtractor<K, V> offsetTracking, GroupFlowControl flowControl) {
+            // Offset trackers manage the order in which acknowledgements are executed
+            return newAloQueueingTransformer(offsetTracking, flowControl)
+                .withAcknowledgementOrdering(AloQueueingTransformer.AcknowledgementOrdering.UNORDERED);
+        }
+
+        private AloQueueingTransformer<List<ReceiverRecord<K, V>>, List<ConsumerRecord<K, V>>>
+        newBatchAloQueueingTransformer(GroupFlowControl flowControl, Consumer<Throwable> errorEmitter) {
+            AloQueueingTransformer<List<ReceiverRecord<K, V>>, List<ConsumerRecord<K, V>>> transformer =
+                AloQueueingTransformer.create(newBatchComponentExtractor(errorEmitter))
+                    .withGroupExtractor(batch -> batch.get(0).receiverOffset().topicPartition())
+                    .withFactory(AloFactoryConfig.loadDefault())
+                    .withWeigher(batch -> batch.stream().mapToLong(ReceiveResources::calculateSerializedSize).sum());
+            return applyQueueingConfig(transformer, flowControl);
+        }
+
+        private <T, R> AloQueueingTransformer<T, R>
+        applyQueueingConfig(AloQueueingTransformer<T, R> transformer, GroupFlowControl flowControl) {
+            return transformer
+                .withQueueStorage(loadAcknowledgementQueueStorage())
                 .withListener(loadQueueListener())
-                .withFactory(loadAloFactory())
-                .withMaxInFlight(loadMaxInFlightPerSubscription());
+                .withFlowControl(flowControl)
+                .withMaxInFlight(loadMaxInFlightPerSubscription())
+                .withMaxInFlightPerGroup(loadMaxInFlightPerPartition())
+                .withFairInFlightSharing(config.loadBoolean(FAIR_IN_FLIGHT_SHARING_CONFIG).orElse(false))
+                .withMaxInFlightWeight(loadMaxInFlightBytes())
+                .withMaxInFlightWeightPerGroup(loadMaxInFlightBytesPerPartition())
+                .withMinInFlight(loadMinInFlightPerSubscription())
+                .withAcknowledgementDeadline(config.loadDuration(ACKNOWLEDGEMENT_DEADLINE_CONFIG).orElse(null));
         }
 
         private AloComponentExtractor<ReceiverRecord<K, V>, ConsumerRecord<K, V>>
         newComponentExtractor(Consumer<Throwable> errorEmitter) {
-            return AloComponentExtractor.composed(
-                record -> record.receiverOffset()::acknowledge,
-                record -> nacknowledgerFactory.create(record, errorEmitter),
-                Function.identity()
-            );
+            return new RecordComponentExtractor<>(nacknowledgerFactory, errorEmitter);
+        }
+
+        private AloComponentExtractor<List<ReceiverRecord<K, V>>, List<ConsumerRecord<K, V>>>
+        newBatchComponentExtractor(Consumer<Throwable> errorEmitter) {
+            return new BatchComponentExtractor<>(nacknowledgerFactory, errorEmitter);
+        }
+
+        private AloQueueingTransformer.QueueStorage loadAcknowledgementQueueStorage() {
+            return config.loadParseable(ACKNOWLEDGEMENT_QUEUE_STORAGE_CONFIG, AloQueueingTransformer.QueueStorage.class, AloQueueingTransformer.QueueStorage::valueOf)
+                .orElse(DEFAULT_ACKNOWLEDGEMENT_QUEUE_STORAGE);
         }
 
         private AloQueueListener loadQueueListener() {
@@ -363,6 +792,22 @@ public class AloKafkaReceiver<K, V> {
             return config.loadLong(MAX_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG).orElse(DEFAULT_MAX_IN_FLIGHT_PER_SUBSCRIPTION);
         }
 
+        private long loadMinInFlightPerSubscription() {
+            return config.loadLong(MIN_IN_FLIGHT_PER_SUBSCRIPTION_CONFIG).orElse(Long.MAX_VALUE);
+        }
+
+        private long loadMaxInFlightPerPartition() {
+            return config.loadLong(MAX_IN_FLIGHT_PER_PARTITION_CONFIG).orElse(Long.MAX_VALUE);
+        }
+
+        private long loadMaxInFlightBytes() {
+            return config.loadLong(MAX_IN_FLIGHT_BYTES_CONFIG).orElse(Long.MAX_VALUE);
+        }
+
+        private long loadMaxInFlightBytesPerPartition() {
+            return config.loadLong(MAX_IN_FLIGHT_BYTES_PER_PARTITION_CONFIG).orElse(Long.MAX_VALUE);
+        }
+
         private Flux<Alo<ConsumerRecord<K, V>>> applySignalListenerFactories(Flux<Alo<ConsumerRecord<K, V>>> aloRecords) {
             Map<String, Object> factoryConfig = config.modifyAndGetProperties(properties -> {});
             List<AloSignalListenerFactory<ConsumerRecord<K, V>, ?>> factories =
@@ -392,13 +837,62 @@ public class AloKafkaReceiver<K, V> {
             }
         }
 
+        private static <K, V, T> Flux<T> receiveFromAll(
+            List<KafkaReceiver<K, V>> receivers,
+            BiFunction<KafkaReceiver<K, V>, Integer, Flux<T>> reception
+        ) {
+            return receivers.size() == 1
+                ? reception.apply(receivers.get(0), 0)
+                : Flux.merge(IntStream.range(0, receivers.size()).mapToObj(i -> reception.apply(receivers.get(i), i)).collect(Collectors.toList()));
+        }
+
+        private static <K, V> Flux<ReceiverRecord<K, V>> receiveTagged(KafkaReceiver<K, V> receiver, int consumerIndex) {
+            // Untagged Records are treated as received by the first Consumer
+            return consumerIndex == 0
+                ? receiver.receive()
+                : receiver.receive().map(record -> PartitionGroupingOperator.tag(record, consumerIndex));
+        }
+
+        private static <K, V> Flux<List<ReceiverRecord<K, V>>>
+        receiveBatchesByPartition(KafkaReceiver<K, V> receiver, int maxBatchSize) {
+            return Flux.from(new PartitionBatchingOperator<>(receiver.receive(), Schedulers.boundedElastic(), maxBatchSize));
+        }
+
+        private static List<TopicPartition> extractTopicPartitions(Collection<ReceiverPartition> partitions) {
+            return partitions.stream().map(ReceiverPartition::topicPartition).collect(Collectors.toList());
+        }
+
+        private static Map<TopicPartition, Long> loadPositions(Collection<ReceiverPartition> partitions) {
+            Map<TopicPartition, Long> positions = new HashMap<>();
+            for (ReceiverPartition partition : partitions) {
+                try {
+                    positions.put(partition.topicPartition(), partition.position());
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to load position of revoked partition={}", partition.topicPartition(), e);
+                    positions.put(partition.topicPartition(), -1L);
+                }
+            }
+            return positions;
+        }
+
+        private static long calculateSerializedSize(ConsumerRecord<?, ?> record) {
+            return (long) Math.max(0, record.serializedKeySize()) + Math.max(0, record.serializedValueSize());
+        }
+
         private static String incrementId(String id) {
             return id + "-" + COUNTS_BY_ID.computeIfAbsent(id, __ -> new AtomicLong()).incrementAndGet();
         }
 
-        private static <T> Mono<T>
-        blockRequestOnPartitionPositioning(CompletableFuture<Collection<ReceiverPartition>> assignment) {
-            return blockRequestOn(assignment.thenAccept(partitions -> partitions.forEach(ReceiverPartition::position)));
+        private static void position(Collection<ReceiverPartition> partitions, CompletableFuture<Void> positioning) {
+            // Positions are only fetched for the first assignment, and must be on the polling Thread
+            if (!positioning.isDone()) {
+                try {
+                    partitions.forEach(ReceiverPartition::position);
+                    positioning.complete(null);
+                } catch (RuntimeException e) {
+                    positioning.completeExceptionally(e);
+                }
+            }
         }
 
         private static <T> Mono<T> blockRequestOn(Future<?> future) {
@@ -411,4 +905,90 @@ public class AloKafkaReceiver<K, V> {
             });
         }
     }
+
+    /**
+     * Extracts {@link Alo} components from received records, where acknowledgement is cumulative
+     * since acknowledging a record's offset implicitly commits all lesser offsets. Queued
+     * acknowledgement acknowledges offsets directly, without extracting an acknowledger per record.
+     */
+    private static final class RecordComponentExtractor<K, V>
+        implements AloComponentExtractor<ReceiverRecord<K, V>, ConsumerRecord<K, V>> {
+
+        private final NacknowledgerFactory<K, V> nacknowledgerFactory;
+
+        private final Consumer<Throwable> errorEmitter;
+
+        private RecordComponentExtractor(NacknowledgerFactory<K, V> nacknowledgerFactory, Consumer<Throwable> errorEmitter) {
+            this.nacknowledgerFactory = nacknowledgerFactory;
+            this.errorEmitter = errorEmitter;
+        }
+
+        @Override
+        public boolean isAcknowledgementCumulative() {
+            return true;
+        }
+
+        @Override
+        public void acknowledge(ReceiverRecord<K, V> record) {
+            record.receiverOffset().acknowledge();
+        }
+
+        @Override
+        public Runnable nativeAcknowledger(ReceiverRecord<K, V> record) {
+            return record.receiverOffset()::acknowledge;
+        }
+
+        @Override
+        public Consumer<? super Throwable> nativeNacknowledger(ReceiverRecord<K, V> record) {
+            return nacknowledgerFactory.create(record, errorEmitter);
+        }
+
+        @Override
+        public ConsumerRecord<K, V> value(ReceiverRecord<K, V> record) {
+            return record;
+        }
+    }
+
+    /**
+     * Extracts {@link Alo} components from batches of records received from a single partition.
+     * Acknowledging the last offset implicitly commits all lesser offsets in the batch, and
+     * nacknowledgement is handled as if for the first record, where redelivery starts.
+     */
+    private static final class BatchComponentExtractor<K, V>
+        implements AloComponentExtractor<List<ReceiverRecord<K, V>>, List<ConsumerRecord<K, V>>> {
+
+        private final NacknowledgerFactory<K, V> nacknowledgerFactory;
+
+        private final Consumer<Throwable> errorEmitter;
+
+        private BatchComponentExtractor(NacknowledgerFactory<K, V> nacknowledgerFactory, Consumer<Throwable> errorEmitter) {
+            this.nacknowledgerFactory = nacknowledgerFactory;
+            this.errorEmitter = errorEmitter;
+        }
+
+        @Override
+        public boolean isAcknowledgementCumulative() {
+            return true;
+        }
+
+        @Override
+        public void acknowledge(List<ReceiverRecord<K, V>> batch) {
+            batch.get(batch.size() - 1).receiverOffset().acknowledge();
+        }
+
+        @Override
+        public Runnable nativeAcknowledger(List<ReceiverRecord<K, V>> batch) {
+            return batch.get(batch.size() - 1).receiverOffset()::acknowledge;
+        }
+
+        @Override
+        public Consumer<? super Throwable> nativeNacknowledger(List<ReceiverRecord<K, V>> batch) {
+            return nacknowledgerFactory.create(batch.get(0), errorEmitter);
+        }
+
+        @Override
+        public List<ConsumerRecord<K, V>> value(List<ReceiverRecord<K, V>> batch) {
+            return Collections.unmodifiableList(batch);
+        }
+    }
 }
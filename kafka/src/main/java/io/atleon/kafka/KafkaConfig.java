@@ -51,4 +51,8 @@ public class KafkaConfig {
     public Optional<Long> loadLong(String property) {
         return ConfigLoading.loadLong(properties, property);
     }
+
+    public <T> Optional<T> loadParseable(String property, Class<T> type, Function<? super String, T> parser) {
+        return ConfigLoading.loadParseable(properties, property, type, parser);
+    }
 }
@@ -0,0 +1,104 @@
+package io.atleon.kafka;
+
+import io.atleon.core.AloComponentExtractor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * An {@link AloComponentExtractor} for {@link ReceiverRecord}s whose acknowledgement is tracked
+ * per {@link TopicPartition} by a {@link PartitionOffsetTracker}. Since offset trackers manage
+ * the order in which acknowledgements are executed, resulting components are meant to be queued
+ * without ordering. Records must be tracked (serially) before being emitted, and trackers must be
+ * reset upon assignment and revocation of their partitions, such that Records polled under any
+ * given assignment are never acknowledged through the tracker of another. This relies on Records
+ * of any given partition being handed off in the order they were polled, so it only applies to a
+ * single Consumer.
+ *
+ * @param <K> inbound record key type
+ * @param <V> inbound record value type
+ */
+final class OffsetTrackingComponentExtractor<K, V> implements AloComponentExtractor<ReceiverRecord<K, V>, ConsumerRecord<K, V>> {
+
+    private final NacknowledgerFactory<K, V> nacknowledgerFactory;
+
+    private final Consumer<Throwable> errorEmitter;
+
+    private final Map<TopicPartition, PartitionOffsetTracker> trackersByPartition = new ConcurrentHashMap<>();
+
+    OffsetTrackingComponentExtractor(NacknowledgerFactory<K, V> nacknowledgerFactory, Consumer<Throwable> errorEmitter) {
+        this.nacknowledgerFactory = nacknowledgerFactory;
+        this.errorEmitter = errorEmitter;
+    }
+
+    /**
+     * Tracks the provided Record with its partition's tracker, replacing that tracker if the
+     * partition has been rewound since it last tracked a Record. Must be serialized.
+     */
+    public void track(ReceiverRecord<K, V> record) {
+        ReceiverOffset receiverOffset = record.receiverOffset();
+        TopicPartition topicPartition = receiverOffset.topicPartition();
+        PartitionOffsetTracker tracker = trackersByPartition.computeIfAbsent(topicPartition, __ -> new PartitionOffsetTracker());
+        if (!tracker.track(receiverOffset)) {
+            PartitionOffsetTracker replacement = new PartitionOffsetTracker();
+            replacement.track(receiverOffset);
+            trackersByPartition.put(topicPartition, replacement);
+            tracker.close();
+        }
+    }
+
+    /**
+     * Closes and removes the trackers of the provided partitions. Invoked upon assignment and
+     * revocation, such that new assignments are tracked from scratch.
+     */
+    public void reset(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackersByPartition.remove(partition);
+            if (tracker != null) {
+                tracker.close();
+            }
+        }
+    }
+
+    @Override
+    public void acknowledge(ReceiverRecord<K, V> record) {
+        ReceiverOffset receiverOffset = record.receiverOffset();
+        PartitionOffsetTracker tracker = trackersByPartition.get(receiverOffset.topicPartition());
+        if (tracker != null) {
+            tracker.complete(receiverOffset);
+        }
+    }
+
+    @Override
+    public void nacknowledge(ReceiverRecord<K, V> record, Throwable error) {
+        ReceiverOffset receiverOffset = record.receiverOffset();
+        Consumer<Throwable> nacknowledger = nacknowledgerFactory.create(record, errorEmitter);
+        PartitionOffsetTracker tracker = trackersByPartition.get(receiverOffset.topicPartition());
+        if (tracker == null) {
+            nacknowledger.accept(error);
+        } else {
+            tracker.completeExceptionally(receiverOffset, () -> nacknowledger.accept(error));
+        }
+    }
+
+    @Override
+    public Runnable nativeAcknowledger(ReceiverRecord<K, V> record) {
+        return () -> acknowledge(record);
+    }
+
+    @Override
+    public Consumer<? super Throwable> nativeNacknowledger(ReceiverRecord<K, V> record) {
+        return error -> nacknowledge(record, error);
+    }
+
+    @Override
+    public ConsumerRecord<K, V> value(ReceiverRecord<K, V> record) {
+        return record;
+    }
+}
@@ -0,0 +1,273 @@
+package io.atleon.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Operator that batches {@link ReceiverRecord}s by the {@link TopicPartition} they were received
+ * from. Received Records are buffered in a bounded queue and drained on a {@link Scheduler.Worker}
+ * such that each emitted batch contains the Records of a single partition that were received
+ * back-to-back and had been buffered by the time the batch was drained. Since each poll's Records
+ * are handed off from the polling Thread together and ordered by partition, batches typically
+ * contain the Records returned by a single poll from a single partition, but never more than the
+ * configured max batch size.
+ *
+ * @param <K> The type of keys in received Records
+ * @param <V> The type of values in received Records
+ */
+final class PartitionBatchingOperator<K, V> implements Publisher<List<ReceiverRecord<K, V>>> {
+
+    private final Publisher<ReceiverRecord<K, V>> source;
+
+    private final Scheduler scheduler;
+
+    private final int maxBatchSize;
+
+    PartitionBatchingOperator(Publisher<ReceiverRecord<K, V>> source, Scheduler scheduler, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive, but got " + maxBatchSize);
+        }
+        this.source = source;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super List<ReceiverRecord<K, V>>> actual) {
+        source.subscribe(new PartitionBatchingSubscriber<>(actual, scheduler.createWorker(), maxBatchSize));
+    }
+
+    private static final class PartitionBatchingSubscriber<K, V>
+        implements CoreSubscriber<ReceiverRecord<K, V>>, Subscription, Runnable {
+
+        private static final AtomicLongFieldUpdater<PartitionBatchingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(PartitionBatchingSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<PartitionBatchingSubscriber> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionBatchingSubscriber.class, "wip");
+
+        private static final AtomicIntegerFieldUpdater<PartitionBatchingSubscriber> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionBatchingSubscriber.class, "terminated");
+
+        private final Subscriber<? super List<ReceiverRecord<K, V>>> actual;
+
+        private final Scheduler.Worker worker;
+
+        private final int maxBatchSize;
+
+        private final int replenishThreshold;
+
+        private final Queue<ReceiverRecord<K, V>> queue;
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int wip;
+
+        private volatile int terminated;
+
+        private volatile boolean done;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Remaining state is only accessed while draining
+        private ReceiverRecord<K, V> next;
+
+        private int consumed;
+
+        PartitionBatchingSubscriber(
+            Subscriber<? super List<ReceiverRecord<K, V>>> actual,
+            Scheduler.Worker worker,
+            int maxBatchSize
+        ) {
+            this.actual = actual;
+            this.worker = worker;
+            this.maxBatchSize = maxBatchSize;
+            this.replenishThreshold = maxBatchSize - (maxBatchSize >> 2);
+            this.queue = Queues.<ReceiverRecord<K, V>>get(maxBatchSize).get();
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                actual.onSubscribe(this);
+                s.request(maxBatchSize);
+            }
+        }
+
+        @Override
+        public void onNext(ReceiverRecord<K, V> record) {
+            if (!queue.offer(record)) {
+                parent.cancel();
+                onError(Exceptions.failWithOverflow(Exceptions.BACKPRESSURE_ERROR_QUEUE_FULL));
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.cancel();
+                schedule();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                long requested = this.requested;
+                long emitted = 0L;
+                while (emitted != requested) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    boolean done = this.done;
+                    List<ReceiverRecord<K, V>> batch = pollBatch();
+                    if (batch == null) {
+                        if (done) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+
+                    actual.onNext(batch);
+                    emitted++;
+                }
+
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+
+                if (done && next == null && queue.isEmpty()) {
+                    terminate();
+                    return;
+                }
+
+                if (emitted != 0L && requested != Long.MAX_VALUE) {
+                    REQUESTED.addAndGet(this, -emitted);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private List<ReceiverRecord<K, V>> pollBatch() {
+            ReceiverRecord<K, V> first = next != null ? next : poll();
+            if (first == null) {
+                return null;
+            }
+
+            next = null;
+            TopicPartition topicPartition = first.receiverOffset().topicPartition();
+            List<ReceiverRecord<K, V>> batch = new ArrayList<>();
+            batch.add(first);
+
+            ReceiverRecord<K, V> record;
+            while (batch.size() < maxBatchSize && (record = poll()) != null) {
+                if (!topicPartition.equals(record.receiverOffset().topicPartition())) {
+                    next = record;
+                    break;
+                }
+                batch.add(record);
+            }
+            return batch;
+        }
+
+        private ReceiverRecord<K, V> poll() {
+            ReceiverRecord<K, V> record = queue.poll();
+            if (record != null && ++consumed == replenishThreshold) {
+                parent.request(consumed);
+                consumed = 0;
+            }
+            return record;
+        }
+
+        private void schedule() {
+            if (WIP.getAndIncrement(this) == 0) {
+                try {
+                    worker.schedule(this);
+                } catch (RejectedExecutionException e) {
+                    if (TERMINATED.compareAndSet(this, 0, 1)) {
+                        queue.clear();
+                        if (!cancelled) {
+                            actual.onError(Operators.onRejectedExecution(e, currentContext()));
+                        }
+                    }
+                }
+            }
+        }
+
+        private void terminate() {
+            if (!TERMINATED.compareAndSet(this, 0, 1)) {
+                return;
+            }
+            worker.dispose();
+            Throwable error = this.error;
+            if (error != null) {
+                actual.onError(error);
+            } else {
+                actual.onComplete();
+            }
+        }
+
+        private void clear() {
+            TERMINATED.set(this, 1);
+            worker.dispose();
+            queue.clear();
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,868 @@
+package io.atleon.kafka;
+
+import io.atleon.core.Alo;
+import io.atleon.core.AloGroupedFlux;
+import io.atleon.core.GroupFlowControl;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.stream.Collectors;
+
+/**
+ * Operator that groups {@link Alo} items referencing Kafka {@link ConsumerRecord}s by the
+ * {@link TopicPartition} they were received from. Each group buffers its Records in a queue
+ * and emits them in order on its own {@link Scheduler.Worker}. Upstream is requested from up to
+ * the configured prefetch regardless of how many Records groups have buffered, since upstream can
+ * only be backpressured as a whole. Instead, once a group has buffered prefetch Records, fetching
+ * from its partition is paused through the provided {@link GroupFlowControl}, and is resumed once
+ * the group has drained half of its buffered Records (or has terminated). Since pausing is
+ * advisory, Records fetched before pausing are still buffered, such that a slow group only ever
+ * throttles its own partition.
+ * <p>
+ * Any {@link Alo} that is dropped without being emitted, due to cancellation or error, is
+ * nacknowledged with the terminating error, or with a {@link CancellationException} upon
+ * cancellation.
+ * <p>
+ * Groups are completed upon revocation of their partition, but only once every Record polled from
+ * the partition before revocation has been emitted to the group. Since polled Records are handed
+ * off from polling Threads asynchronously, revocations (which are signalled on polling Threads)
+ * may be received here before Records that were polled prior to revocation. The last offset
+ * polled from a revoked partition is therefore inferred from the partition's position at
+ * revocation, and the partition's group is completed once the Record at that offset has been
+ * emitted to it. Since each Consumer hands off Records in the order they were polled, any Record
+ * that can not have been polled before revocation also completes the group. That is a Record
+ * from the revoked partition at or beyond its position, or rewinding the group's offsets, or the
+ * first Record from a partition assigned to the same Consumer after the revocation. Records
+ * polled after revocation are emitted by new groups. Records of the same partition that are
+ * received by different Consumers (as tagged by {@link #tag(ReceiverRecord, int)}) are never
+ * emitted by the same group.
+ *
+ * @param <K> The type of keys in received Records
+ * @param <V> The type of values in received Records
+ */
+final class PartitionGroupingOperator<K, V> implements Publisher<AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> {
+
+    private final Publisher<Alo<ConsumerRecord<K, V>>> source;
+
+    private final Assignments assignments;
+
+    private final GroupFlowControl flowControl;
+
+    private final Scheduler scheduler;
+
+    private final int prefetch;
+
+    PartitionGroupingOperator(
+        Publisher<Alo<ConsumerRecord<K, V>>> source,
+        Assignments assignments,
+        GroupFlowControl flowControl,
+        Scheduler scheduler,
+        int prefetch
+    ) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Prefetch must be positive, but got " + prefetch);
+        }
+        this.source = source;
+        this.assignments = assignments;
+        this.flowControl = flowControl;
+        this.scheduler = scheduler;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Tags a Record with the index of the Consumer it was received from, such that Records of the
+     * same partition received by different Consumers are not mixed. Untagged Records are treated
+     * as having been received from the Consumer with index zero.
+     */
+    static <K, V> ReceiverRecord<K, V> tag(ReceiverRecord<K, V> record, int consumerIndex) {
+        return new IndexedReceiverRecord<>(record, consumerIndex);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> actual) {
+        source.subscribe(new PartitionGroupingSubscriber<>(actual, assignments, flowControl, scheduler, prefetch));
+    }
+
+    /**
+     * Relays changes to the partitions assigned to Consumers, which are signalled on the
+     * Consumers' polling Threads, to the subscriber of the operator they are provided to. Changes
+     * are queued until applied, such that no change is ever dropped.
+     */
+    static final class Assignments {
+
+        private final Queue<AssignmentChange> changes = new ConcurrentLinkedQueue<>();
+
+        private volatile Runnable listener = () -> {};
+
+        /**
+         * Signals that the provided partitions have been assigned to the Consumer with the
+         * provided index. Must be invoked on that Consumer's polling Thread.
+         */
+        void assigned(int consumerIndex, Collection<TopicPartition> partitions) {
+            changes.add(new AssignmentChange(consumerIndex, partitions, new HashMap<>()));
+            listener.run();
+        }
+
+        /**
+         * Signals that partitions have been revoked from the Consumer with the provided index.
+         * Must be invoked on that Consumer's polling Thread.
+         *
+         * @param positionsByPartition The position (offset of the next Record to be polled) of
+         *                             each revoked partition, or a negative value if unknown
+         */
+        void revoked(int consumerIndex, Map<TopicPartition, Long> positionsByPartition) {
+            changes.add(new AssignmentChange(consumerIndex, new ArrayList<>(), positionsByPartition));
+            listener.run();
+        }
+
+        private void listen(Runnable listener) {
+            this.listener = listener;
+            listener.run();
+        }
+    }
+
+    private static final class PartitionGroupingSubscriber<K, V>
+        implements CoreSubscriber<Alo<ConsumerRecord<K, V>>>, Subscription {
+
+        private static final AtomicLongFieldUpdater<PartitionGroupingSubscriber> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(PartitionGroupingSubscriber.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroupingSubscriber> DRAINS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroupingSubscriber.class, "drainsInProgress");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroupingSubscriber> ACTIVE_GROUPS =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroupingSubscriber.class, "activeGroups");
+
+        private final Subscriber<? super AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> actual;
+
+        private final Assignments assignments;
+
+        private final GroupFlowControl flowControl;
+
+        private final Scheduler scheduler;
+
+        private final int prefetch;
+
+        private final int replenishThreshold;
+
+        private final Queue<Alo<ConsumerRecord<K, V>>> received = new ConcurrentLinkedQueue<>();
+
+        private Subscription parent;
+
+        private volatile long requested;
+
+        private volatile int drainsInProgress;
+
+        // Number of groups that have been created and not yet terminated or cancelled
+        private volatile int activeGroups;
+
+        private volatile boolean done;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Remaining state is only accessed while draining
+        private final Map<ConsumerPartition, PartitionGroup<K, V>> groups = new HashMap<>();
+
+        private final Map<Integer, ConsumerState> consumers = new HashMap<>();
+
+        private final Queue<PartitionGroup<K, V>> unemittedGroups = new ArrayDeque<>();
+
+        private long emittedGroups;
+
+        private long requestedFromParent;
+
+        private long receivedFromParent;
+
+        private boolean terminated;
+
+        // Error with which Records received after termination are nacknowledged, if any
+        private Throwable discardError;
+
+        PartitionGroupingSubscriber(
+            Subscriber<? super AloGroupedFlux<TopicPartition, ConsumerRecord<K, V>>> actual,
+            Assignments assignments,
+            GroupFlowControl flowControl,
+            Scheduler scheduler,
+            int prefetch
+        ) {
+            this.actual = actual;
+            this.assignments = assignments;
+            this.flowControl = flowControl;
+            this.scheduler = scheduler;
+            this.prefetch = prefetch;
+            this.replenishThreshold = prefetch - (prefetch >> 2);
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual instanceof CoreSubscriber ? CoreSubscriber.class.cast(actual).currentContext() : Context.empty();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(parent, s)) {
+                parent = s;
+                actual.onSubscribe(this);
+                assignments.listen(this::drain);
+            }
+        }
+
+        @Override
+        public void onNext(Alo<ConsumerRecord<K, V>> alo) {
+            received.offer(alo);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    drainActive();
+                }
+
+                // Records may still be received after termination, i.e. upon cancellation
+                if (terminated) {
+                    discardReceived();
+                }
+
+                missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private void drainActive() {
+            Throwable error = this.error;
+            if (error != null) {
+                terminate(error);
+                groups.values().forEach(group -> group.error(error));
+                unemittedGroups.forEach(group -> group.discard(error));
+                clear();
+                if (!cancelled) {
+                    actual.onError(error);
+                }
+                return;
+            }
+
+            if (cancelled) {
+                discardUnemittedGroups();
+                if (activeGroups == 0) {
+                    terminate(null);
+                    parent.cancel();
+                    clear();
+                    return;
+                }
+            }
+
+            routeReceived();
+            applyAssignmentChanges();
+
+            emitGroups();
+
+            if (done && received.isEmpty()) {
+                groups.values().forEach(PartitionGroup::complete);
+                groups.clear();
+                if (unemittedGroups.isEmpty()) {
+                    terminate(null);
+                    actual.onComplete();
+                    return;
+                }
+            }
+
+            requestFromParent();
+        }
+
+        private void routeReceived() {
+            Alo<ConsumerRecord<K, V>> alo;
+            while ((alo = received.poll()) != null) {
+                receivedFromParent++;
+                // Changes signalled before this Record was handed off must be applied before it
+                applyAssignmentChanges();
+                route(alo);
+            }
+        }
+
+        private void route(Alo<ConsumerRecord<K, V>> alo) {
+            ConsumerRecord<K, V> record = alo.get();
+            int consumerIndex = record instanceof IndexedReceiverRecord
+                ? IndexedReceiverRecord.class.cast(record).consumerIndex
+                : 0;
+            TopicPartition topicPartition = ConsumerRecordExtraction.topicPartition(record);
+            ConsumerPartition key = new ConsumerPartition(consumerIndex, topicPartition);
+            ConsumerState consumer = consumers.computeIfAbsent(consumerIndex, __ -> new ConsumerState());
+
+            List<Map.Entry<TopicPartition, Revocation>> proven = consumer.provenByFirstRecord.remove(topicPartition);
+            if (proven != null) {
+                proven.forEach(entry -> completeIfStillRevoked(consumerIndex, consumer, entry.getKey(), entry.getValue()));
+            }
+
+            PartitionGroup<K, V> group = groups.get(key);
+            Revocation revocation = consumer.revocations.get(topicPartition);
+            if (revocation != null && (record.offset() >= revocation.position || (group != null && record.offset() <= group.lastOffset))) {
+                consumer.revocations.remove(topicPartition);
+                complete(key);
+                group = null;
+                revocation = null;
+            }
+
+            if (group == null || group.cancelled) {
+                if (cancelled) {
+                    Alo.nacknowledge(alo, new CancellationException("Partition grouping was cancelled"));
+                    return;
+                }
+                group = new PartitionGroup<>(this, topicPartition, flowControl, scheduler.createWorker(), prefetch);
+                ACTIVE_GROUPS.incrementAndGet(this);
+                groups.put(key, group);
+                unemittedGroups.add(group);
+            }
+
+            group.lastOffset = record.offset();
+            group.enqueue(alo);
+            if (revocation != null && record.offset() >= revocation.position - 1L) {
+                consumer.revocations.remove(topicPartition);
+                groups.remove(key);
+                group.complete();
+            }
+        }
+        private void applyAssignmentChanges() {
+            AssignmentChange change;
+            while ((change = assignments.changes.poll()) != null) {
+                apply(change);
+            }
+        }
+
+        private void apply(AssignmentChange change) {
+            ConsumerState consumer = consumers.computeIfAbsent(change.consumerIndex, __ -> new ConsumerState());
+            change.positionsByPartition.forEach((partition, position) -> revoke(change.consumerIndex, consumer, partition, position));
+            if (!consumer.revocations.isEmpty()) {
+                List<Map.Entry<TopicPartition, Revocation>> pending = consumer.revocations.entrySet().stream()
+                    .map(AbstractMap.SimpleImmutableEntry::new)
+                    .collect(Collectors.toList());
+                for (TopicPartition partition : change.assignedPartitions) {
+                    if (!consumer.revocations.containsKey(partition)) {
+                        consumer.provenByFirstRecord.putIfAbsent(partition, pending);
+                    }
+                }
+            }
+        }
+
+        private void revoke(int consumerIndex, ConsumerState consumer, TopicPartition partition, long position) {
+            ConsumerPartition key = new ConsumerPartition(consumerIndex, partition);
+            PartitionGroup<K, V> group = groups.get(key);
+            if (position < 0L || (group != null && group.lastOffset >= position - 1L)) {
+                consumer.revocations.remove(partition);
+                complete(key);
+            } else {
+                consumer.revocations.put(partition, new Revocation(position));
+            }
+        }
+
+        private void completeIfStillRevoked(
+            int consumerIndex,
+            ConsumerState consumer,
+            TopicPartition partition,
+            Revocation revocation
+        ) {
+            if (consumer.revocations.remove(partition, revocation)) {
+                complete(new ConsumerPartition(consumerIndex, partition));
+            }
+        }
+
+        private void complete(ConsumerPartition key) {
+            PartitionGroup<K, V> group = groups.remove(key);
+            if (group != null) {
+                group.complete();
+            }
+        }
+
+        private void emitGroups() {
+            long requested = this.requested;
+            PartitionGroup<K, V> group;
+            while (emittedGroups != requested && (group = unemittedGroups.poll()) != null) {
+                emittedGroups++;
+                actual.onNext(AloGroupedFlux.create(group.topicPartition, group));
+            }
+        }
+
+        /**
+         * Keeps up to prefetch Records requested from upstream. Records routed to groups do not
+         * count against prefetch, since groups that buffer too many Records pause their own
+         * partitions. Once cancelled, Records are only requested for groups that are still active.
+         */
+        private void requestFromParent() {
+            if (done) {
+                return;
+            }
+
+            long outstanding = requestedFromParent - receivedFromParent;
+            long toRequest = prefetch - outstanding;
+            if (toRequest >= replenishThreshold || (toRequest > 0L && outstanding == 0L)) {
+                requestedFromParent += toRequest;
+                parent.request(toRequest);
+            }
+        }
+
+        private void discardUnemittedGroups() {
+            PartitionGroup<K, V> group;
+            while ((group = unemittedGroups.poll()) != null) {
+                groups.values().remove(group);
+                group.cancel();
+            }
+        }
+
+        private void onGroupTerminated() {
+            ACTIVE_GROUPS.decrementAndGet(this);
+            drain();
+        }
+
+        private void terminate(Throwable discardError) {
+            this.terminated = true;
+            this.discardError = discardError;
+            assignments.listen(() -> {});
+        }
+
+        private void discardReceived() {
+            Alo<ConsumerRecord<K, V>> alo = received.poll();
+            if (alo != null) {
+                Throwable error = discardError == null ? new CancellationException("Partition grouping was cancelled") : discardError;
+                do {
+                    Alo.nacknowledge(alo, error);
+                } while ((alo = received.poll()) != null);
+            }
+        }
+
+        private void clear() {
+            groups.clear();
+            consumers.clear();
+            unemittedGroups.clear();
+        }
+    }
+
+    /**
+     * A group of Records from a single partition (and Consumer). Records are enqueued by the
+     * (serial) grouping subscriber, and dequeued by this group's worker, such that the queue only
+     * ever has a single producer and a single consumer. Once terminated, the worker is disposed,
+     * and any Records that are (or have yet to be) enqueued are nacknowledged on whichever Thread
+     * next schedules this group.
+     */
+    private static final class PartitionGroup<K, V> implements Publisher<Alo<ConsumerRecord<K, V>>>, Subscription, Runnable {
+
+        private static final AtomicLongFieldUpdater<PartitionGroup> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(PartitionGroup.class, "requested");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroup> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroup.class, "wip");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroup> SUBSCRIBED =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroup.class, "subscribed");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroup> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroup.class, "terminated");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroup> QUEUED =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroup.class, "queued");
+
+        private static final AtomicIntegerFieldUpdater<PartitionGroup> FLOW_CONTROLS_IN_PROGRESS =
+            AtomicIntegerFieldUpdater.newUpdater(PartitionGroup.class, "flowControlsInProgress");
+
+        private final PartitionGroupingSubscriber<K, V> parent;
+
+        private final TopicPartition topicPartition;
+
+        private final GroupFlowControl flowControl;
+
+        private final Scheduler.Worker worker;
+
+        private final int pauseThreshold;
+
+        private final int resumeThreshold;
+
+        private final Queue<Alo<ConsumerRecord<K, V>>> queue;
+
+        private volatile Subscriber<? super Alo<ConsumerRecord<K, V>>> actual;
+
+        private volatile long requested;
+
+        private volatile int wip;
+
+        private volatile int subscribed;
+
+        private volatile int terminated;
+
+        private volatile int queued;
+
+        private volatile int flowControlsInProgress;
+
+        private volatile boolean paused;
+
+        private volatile boolean done;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        // Offset of the last Record enqueued, only accessed by the grouping subscriber
+        private long lastOffset = -1L;
+
+        PartitionGroup(
+            PartitionGroupingSubscriber<K, V> parent,
+            TopicPartition topicPartition,
+            GroupFlowControl flowControl,
+            Scheduler.Worker worker,
+            int prefetch
+        ) {
+            this.parent = parent;
+            this.topicPartition = topicPartition;
+            this.flowControl = flowControl;
+            this.worker = worker;
+            this.pauseThreshold = prefetch;
+            this.resumeThreshold = prefetch >> 1;
+            this.queue = Queues.<Alo<ConsumerRecord<K, V>>>unbounded(prefetch).get();
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Alo<ConsumerRecord<K, V>>> actual) {
+            if (SUBSCRIBED.compareAndSet(this, 0, 1)) {
+                actual.onSubscribe(this);
+                this.actual = actual;
+                schedule();
+            } else {
+                Operators.error(actual, new IllegalStateException("Partition group allows only a single Subscriber"));
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                schedule();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (terminated == 0) {
+                    drainQueue();
+                }
+
+                if (terminated != 0) {
+                    discardQueue();
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        void enqueue(Alo<ConsumerRecord<K, V>> alo) {
+            queue.offer(alo);
+            if (QUEUED.incrementAndGet(this) >= pauseThreshold && !paused) {
+                controlFlow();
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            if (terminated != 0) {
+                // Worker has been disposed, so remaining Records are discarded on this Thread
+                run();
+                return;
+            }
+
+            try {
+                worker.schedule(this);
+            } catch (RejectedExecutionException e) {
+                Throwable rejection = Operators.onRejectedExecution(e, parent.currentContext());
+                if (terminate()) {
+                    this.error = rejection;
+                    Subscriber<? super Alo<ConsumerRecord<K, V>>> actual = this.actual;
+                    if (actual != null && !cancelled) {
+                        actual.onError(rejection);
+                    }
+                }
+                run();
+            }
+        }
+
+        void complete() {
+            done = true;
+            schedule();
+        }
+
+        void error(Throwable error) {
+            this.error = error;
+            schedule();
+        }
+
+        /**
+         * Cancels this group without it ever having been emitted, such that its Records are
+         * nacknowledged with the provided error.
+         */
+        void discard(Throwable error) {
+            this.error = error;
+            cancel();
+        }
+
+        private void drainQueue() {
+            Subscriber<? super Alo<ConsumerRecord<K, V>>> actual = this.actual;
+            if (actual == null && !cancelled) {
+                return;
+            }
+
+            long requested = this.requested;
+            long emitted = 0L;
+            while (emitted != requested) {
+                if (isTerminated(actual)) {
+                    return;
+                }
+
+                boolean done = this.done;
+                Alo<ConsumerRecord<K, V>> alo = queue.poll();
+                if (alo == null) {
+                    if (done) {
+                        terminate();
+                        actual.onComplete();
+                        return;
+                    }
+                    break;
+                }
+
+                if (QUEUED.decrementAndGet(this) <= resumeThreshold && paused) {
+                    controlFlow();
+                }
+                actual.onNext(alo);
+                emitted++;
+            }
+
+            if (isTerminated(actual)) {
+                return;
+            }
+
+            if (done && queue.isEmpty()) {
+                terminate();
+                actual.onComplete();
+                return;
+            }
+
+            if (emitted != 0L && requested != Long.MAX_VALUE) {
+                REQUESTED.addAndGet(this, -emitted);
+            }
+        }
+
+        private void discardQueue() {
+            Alo<ConsumerRecord<K, V>> alo = queue.poll();
+            if (alo != null) {
+                Throwable error = this.error;
+                Throwable discardError = error == null ? new CancellationException("Partition group was cancelled: " + topicPartition) : error;
+                do {
+                    Alo.nacknowledge(alo, discardError);
+                } while ((alo = queue.poll()) != null);
+            }
+        }
+
+        /**
+         * Pauses this group's partition once it has buffered as many Records as the pause
+         * threshold, and resumes it once it has drained to the resume threshold or has been
+         * terminated. Invocations are serialized, such that pausing and resuming alternate.
+         */
+        private void controlFlow() {
+            if (FLOW_CONTROLS_IN_PROGRESS.getAndIncrement(this) != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (!paused) {
+                    // Published before reading queued, such that a concurrent dequeue sees it
+                    paused = true;
+                    if (terminated == 0 && queued >= pauseThreshold) {
+                        flowControl.pause(topicPartition);
+                    } else {
+                        paused = false;
+                    }
+                } else if (terminated != 0 || queued <= resumeThreshold) {
+                    paused = false;
+                    flowControl.resume(topicPartition);
+                }
+
+                missed = FLOW_CONTROLS_IN_PROGRESS.addAndGet(this, -missed);
+            } while (missed != 0);
+        }
+
+        private boolean isTerminated(Subscriber<? super Alo<ConsumerRecord<K, V>>> actual) {
+            if (cancelled) {
+                terminate();
+                return true;
+            }
+
+            Throwable error = this.error;
+            if (error != null) {
+                terminate();
+                actual.onError(error);
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean terminate() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                worker.dispose();
+                if (paused) {
+                    controlFlow();
+                }
+                parent.onGroupTerminated();
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private static final class ConsumerState {
+
+        // Revoked partitions whose Records polled before revocation may not all have been routed
+        private final Map<TopicPartition, Revocation> revocations = new HashMap<>();
+
+        // Revocations that precede assignment of partitions, and so are proven routed by the
+        // first Record from any of those partitions
+        private final Map<TopicPartition, List<Map.Entry<TopicPartition, Revocation>>> provenByFirstRecord = new HashMap<>();
+    }
+
+    private static final class Revocation {
+
+        // The offset of the next Record that would have been polled from the revoked partition
+        private final long position;
+
+        private Revocation(long position) {
+            this.position = position;
+        }
+    }
+
+    private static final class AssignmentChange {
+
+        private final int consumerIndex;
+
+        private final Collection<TopicPartition> assignedPartitions;
+
+        private final Map<TopicPartition, Long> positionsByPartition;
+
+        private AssignmentChange(
+            int consumerIndex,
+            Collection<TopicPartition> assignedPartitions,
+            Map<TopicPartition, Long> positionsByPartition
+        ) {
+            this.consumerIndex = consumerIndex;
+            this.assignedPartitions = assignedPartitions;
+            this.positionsByPartition = positionsByPartition;
+        }
+    }
+
+    private static final class ConsumerPartition {
+
+        private final int consumerIndex;
+
+        private final TopicPartition topicPartition;
+
+        private ConsumerPartition(int consumerIndex, TopicPartition topicPartition) {
+            this.consumerIndex = consumerIndex;
+            this.topicPartition = topicPartition;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ConsumerPartition that = (ConsumerPartition) o;
+            return consumerIndex == that.consumerIndex && Objects.equals(topicPartition, that.topicPartition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(consumerIndex, topicPartition);
+        }
+    }
+
+    private static final class IndexedReceiverRecord<K, V> extends ReceiverRecord<K, V> {
+
+        private final int consumerIndex;
+
+        private IndexedReceiverRecord(ReceiverRecord<K, V> record, int consumerIndex) {
+            super(record, record.receiverOffset());
+            this.consumerIndex = consumerIndex;
+        }
+    }
+}
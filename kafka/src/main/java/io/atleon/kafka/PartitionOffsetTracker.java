@@ -0,0 +1,246 @@
+package io.atleon.kafka;
+
+import reactor.kafka.receiver.ReceiverOffset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Tracks acknowledgement of Records received from a single assignment of a single partition
+ * natively in terms of their offsets. Tracked offsets are kept in a growable ring of primitive
+ * offsets, alongside the {@link ReceiverOffset}s already allocated by the receiver, and
+ * completions are kept in a bitmap over the same ring. Completing an offset advances a single
+ * committable offset watermark over the contiguous run of completed offsets at the head of the
+ * ring, and only the last offset in that run is acknowledged with the underlying receiver.
+ * <p>
+ * Since offsets are tracked in increasing order, the slot of a completed Record is located by
+ * binary search over the ring's offsets, and verified by identity of its ReceiverOffset, such
+ * that completing a Record that is not (or no longer) tracked by this tracker has no effect on
+ * the watermark. Negative acknowledgements of tracked Records are deferred until the watermark
+ * reaches them, such that they are executed in offset order with respect to positive
+ * acknowledgements, while those of untracked Records are executed immediately.
+ * <p>
+ * Once closed (i.e. upon revocation or reassignment of the partition), nothing further is
+ * acknowledged, and any deferred negative acknowledgements are executed. Tracking must be
+ * serialized (as is the case for Reactive Streams onNext signals), while completion and closing
+ * may happen concurrently from any thread, but completion must happen at most once per Record.
+ */
+final class PartitionOffsetTracker {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final AtomicIntegerFieldUpdater<PartitionOffsetTracker> DRAINS_IN_PROGRESS =
+        AtomicIntegerFieldUpdater.newUpdater(PartitionOffsetTracker.class, "drainsInProgress");
+
+    // Guarded by this, keyed by sequence, and only populated upon negative acknowledgement
+    private final Map<Long, Runnable> pendingNacknowledgements = new HashMap<>();
+
+    // Guarded by this
+    private long[] offsets = new long[INITIAL_CAPACITY];
+
+    // Guarded by this
+    private ReceiverOffset[] receiverOffsets = new ReceiverOffset[INITIAL_CAPACITY];
+
+    // Guarded by this
+    private long[] completions = new long[INITIAL_CAPACITY / Long.SIZE];
+
+    // Guarded by this
+    private long head = 0L;
+
+    // Guarded by this
+    private long tail = 0L;
+
+    // Guarded by this
+    private long lastTrackedOffset = -1L;
+
+    // Guarded by this
+    private boolean closed = false;
+
+    private volatile long committableOffset = -1L;
+
+    private volatile int drainsInProgress;
+
+    /**
+     * Appends an offset to be tracked, unless it does not follow the last tracked offset, which
+     * means the partition has been rewound, and that this tracker should be replaced
+     *
+     * @return Whether the offset was tracked
+     */
+    public synchronized boolean track(ReceiverOffset receiverOffset) {
+        long offset = receiverOffset.offset();
+        if (closed || offset <= lastTrackedOffset) {
+            return false;
+        }
+
+        if (tail - head >= offsets.length) {
+            grow();
+        }
+        int index = index(tail++);
+        offsets[index] = offset;
+        receiverOffsets[index] = receiverOffset;
+        lastTrackedOffset = offset;
+        return true;
+    }
+
+    /**
+     * Positively completes a tracked offset, and acknowledges the latest committable offset if
+     * the watermark consequently advances
+     */
+    public void complete(ReceiverOffset receiverOffset) {
+        synchronized (this) {
+            long sequence = locate(receiverOffset);
+            if (sequence < 0L) {
+                return;
+            }
+            markCompleted(sequence);
+        }
+        drain();
+    }
+
+    /**
+     * Negatively completes a tracked offset, where the provided nacknowledgement is executed once
+     * all previously tracked offsets have been completed, or immediately if the offset is not
+     * tracked
+     */
+    public void completeExceptionally(ReceiverOffset receiverOffset, Runnable nacknowledgement) {
+        synchronized (this) {
+            long sequence = locate(receiverOffset);
+            if (sequence >= 0L) {
+                pendingNacknowledgements.put(sequence, nacknowledgement);
+                markCompleted(sequence);
+                nacknowledgement = null;
+            }
+        }
+
+        if (nacknowledgement == null) {
+            drain();
+        } else {
+            nacknowledgement.run();
+        }
+    }
+
+    /**
+     * Stops tracking, such that nothing further is acknowledged, and executes any pending
+     * negative acknowledgements
+     */
+    public void close() {
+        List<Runnable> nacknowledgements;
+        synchronized (this) {
+            closed = true;
+            nacknowledgements = new ArrayList<>(pendingNacknowledgements.values());
+            pendingNacknowledgements.clear();
+            for (long sequence = head; sequence < tail; sequence++) {
+                receiverOffsets[index(sequence)] = null;
+            }
+            head = tail;
+        }
+        nacknowledgements.forEach(Runnable::run);
+    }
+
+    /**
+     * @return The offset following the last acknowledged offset, i.e. the offset that would be
+     * committed, or -1 if no offset has yet been acknowledged
+     */
+    public long committableOffset() {
+        return committableOffset;
+    }
+
+    private void drain() {
+        if (DRAINS_IN_PROGRESS.getAndIncrement(this) != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            while (true) {
+                ReceiverOffset acknowledgeable = null;
+                Runnable nacknowledgement = null;
+                synchronized (this) {
+                    while (head < tail && isCompleted(head)) {
+                        int index = index(head);
+                        completions[index >>> 6] &= ~(1L << index);
+                        nacknowledgement = pendingNacknowledgements.isEmpty() ? null : pendingNacknowledgements.remove(head);
+                        if (nacknowledgement == null) {
+                            acknowledgeable = receiverOffsets[index];
+                        }
+                        receiverOffsets[index] = null;
+                        head++;
+                        if (nacknowledgement != null) {
+                            break;
+                        }
+                    }
+                }
+
+                if (acknowledgeable != null) {
+                    acknowledgeable.acknowledge();
+                    committableOffset = acknowledgeable.offset() + 1;
+                }
+
+                if (nacknowledgement == null) {
+                    break;
+                }
+                nacknowledgement.run();
+            }
+
+            missed = DRAINS_IN_PROGRESS.addAndGet(this, -missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return The sequence at which the provided ReceiverOffset is tracked and awaiting
+     * completion, or -1 if it is not
+     */
+    private long locate(ReceiverOffset receiverOffset) {
+        long offset = receiverOffset.offset();
+        long low = head;
+        long high = tail - 1L;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long middleOffset = offsets[index(middle)];
+            if (middleOffset < offset) {
+                low = middle + 1L;
+            } else if (middleOffset > offset) {
+                high = middle - 1L;
+            } else {
+                return receiverOffsets[index(middle)] == receiverOffset ? middle : -1L;
+            }
+        }
+        return -1L;
+    }
+
+    private void markCompleted(long sequence) {
+        int index = index(sequence);
+        completions[index >>> 6] |= 1L << index;
+    }
+
+    private boolean isCompleted(long sequence) {
+        int index = index(sequence);
+        return (completions[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    private void grow() {
+        long[] grownOffsets = new long[offsets.length * 2];
+        ReceiverOffset[] grownReceiverOffsets = new ReceiverOffset[offsets.length * 2];
+        long[] grownCompletions = new long[completions.length * 2];
+        int grownMask = grownOffsets.length - 1;
+        for (long sequence = head; sequence < tail; sequence++) {
+            int index = index(sequence);
+            int grownIndex = (int) (sequence & grownMask);
+            grownOffsets[grownIndex] = offsets[index];
+            grownReceiverOffsets[grownIndex] = receiverOffsets[index];
+            if (isCompleted(sequence)) {
+                grownCompletions[grownIndex >>> 6] |= 1L << grownIndex;
+            }
+        }
+        offsets = grownOffsets;
+        receiverOffsets = grownReceiverOffsets;
+        completions = grownCompletions;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & (offsets.length - 1));
+    }
+}
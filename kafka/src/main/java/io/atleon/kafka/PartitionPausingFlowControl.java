@@ -0,0 +1,82 @@
+package io.atleon.kafka;
+
+import io.atleon.core.GroupFlowControl;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.kafka.receiver.KafkaReceiver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link GroupFlowControl} for groups of {@link TopicPartition}s that pauses and resumes
+ * fetching from those partitions on the Consumer(s) backing one or more {@link KafkaReceiver}s.
+ * Pausing and resuming is executed on each Consumer's polling Thread, and is ignored by Consumers
+ * that the partitions are not (or no longer) assigned to.
+ * <p>
+ * The same instance may be shared by multiple controllers (i.e. in-flight queueing and partition
+ * grouping), each of which alternates between pausing and resuming. Pauses are therefore counted
+ * per partition, such that a partition is only paused upon its first outstanding pause, and only
+ * resumed once every controller that paused it has resumed it.
+ */
+final class PartitionPausingFlowControl implements GroupFlowControl {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionPausingFlowControl.class);
+
+    private final Collection<? extends KafkaReceiver<?, ?>> receivers;
+
+    private final Map<TopicPartition, Integer> pausesByPartition = new ConcurrentHashMap<>();
+
+    PartitionPausingFlowControl(Collection<? extends KafkaReceiver<?, ?>> receivers) {
+        this.receivers = receivers;
+    }
+
+    @Override
+    public void pause(Object group) {
+        // Counted under the partition's lock, such that pausing and resuming is issued in order
+        pausesByPartition.compute((TopicPartition) group, (partition, pauses) -> {
+            if (pauses == null) {
+                pauseOnConsumers(partition);
+            }
+            return pauses == null ? 1 : pauses + 1;
+        });
+    }
+
+    @Override
+    public void resume(Object group) {
+        pausesByPartition.computeIfPresent((TopicPartition) group, (partition, pauses) -> {
+            if (pauses > 1) {
+                return pauses - 1;
+            }
+            resumeOnConsumers(partition);
+            return null;
+        });
+    }
+
+    private void pauseOnConsumers(TopicPartition partition) {
+        Collection<TopicPartition> partitions = Collections.singletonList(partition);
+        for (KafkaReceiver<?, ?> receiver : receivers) {
+            receiver.doOnConsumer(consumer -> {
+                if (consumer.assignment().containsAll(partitions)) {
+                    consumer.pause(partitions);
+                }
+                return partitions;
+            }).subscribe(__ -> LOGGER.debug("Paused partition={}", partition), error -> LOGGER.warn("Failed to pause partition={}", partition, error));
+        }
+    }
+
+    private void resumeOnConsumers(TopicPartition partition) {
+        Collection<TopicPartition> partitions = Collections.singletonList(partition);
+        for (KafkaReceiver<?, ?> receiver : receivers) {
+            receiver.doOnConsumer(consumer -> {
+                if (consumer.assignment().containsAll(partitions)) {
+                    consumer.resume(partitions);
+                }
+                return partitions;
+            }).subscribe(__ -> LOGGER.debug("Resumed partition={}", partition), error -> LOGGER.warn("Failed to resume partition={}", partition, error));
+        }
+    }
+}
@@ -42,6 +42,97 @@ public class AloProcessingTest {
             .verify();
     }
 
+    @Test
+    public void acknowledgedDataIsNotRepublishedWithNativeOffsetTracking() {
+        KafkaConfigSource configSource = KAFKA_CONFIG_SOURCE
+            .with(AloKafkaReceiver.NATIVE_OFFSET_TRACKING_CONFIG, true)
+            .with(AloKafkaReceiver.ACKNOWLEDGEMENT_QUEUE_STORAGE_CONFIG, "RING");
+
+        AloKafkaSender.from(KAFKA_CONFIG_SOURCE)
+            .sendValues(Flux.just("DATA1", "DATA2"), topic, Function.identity())
+            .then().block();
+
+        AloKafkaReceiver.forValues(configSource)
+            .receiveAloValues(Collections.singletonList(topic))
+            .as(StepVerifier::create)
+            .consumeNextWith(Alo::acknowledge)
+            .consumeNextWith(Alo::acknowledge)
+            .thenCancel()
+            .verify();
+
+        AloKafkaReceiver.forValues(configSource)
+            .receiveAloValues(Collections.singletonList(topic))
+            .as(StepVerifier::create)
+            .expectSubscription()
+            .expectNoEvent(Duration.ofSeconds(10L))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void acknowledgedBatchesAreNotRepublished() {
+        AloKafkaSender.from(KAFKA_CONFIG_SOURCE)
+            .sendValues(Flux.just("DATA1", "DATA2", "DATA3"), topic, Function.identity())
+            .then().block();
+
+        AloKafkaReceiver.forValues(KAFKA_CONFIG_SOURCE)
+            .receiveAloRecordBatches(Collections.singletonList(topic))
+            .unwrap()
+            .doOnNext(Alo::acknowledge)
+            .scan(0, (count, alo) -> count + alo.get().size())
+            .as(StepVerifier::create)
+            .expectNext(0)
+            .thenConsumeWhile(count -> count < 3)
+            .thenCancel()
+            .verify(Duration.ofSeconds(30L));
+
+        AloKafkaReceiver.forValues(KAFKA_CONFIG_SOURCE)
+            .receiveAloRecordBatches(Collections.singletonList(topic))
+            .as(StepVerifier::create)
+            .expectSubscription()
+            .expectNoEvent(Duration.ofSeconds(10L))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void acknowledgedDataReceivedByPartitionIsNotRepublished() {
+        AloKafkaSender.from(KAFKA_CONFIG_SOURCE)
+            .sendValues(Mono.just("DATA"), topic, Function.identity())
+            .then().block();
+
+        AloKafkaReceiver.forValues(KAFKA_CONFIG_SOURCE)
+            .receiveAloRecordsByPartition(Collections.singletonList(topic))
+            .flatMapAlo(group -> group)
+            .as(StepVerifier::create)
+            .consumeNextWith(Alo::acknowledge)
+            .thenCancel()
+            .verify();
+
+        AloKafkaReceiver.forValues(KAFKA_CONFIG_SOURCE)
+            .receiveAloRecordsByPartition(Collections.singletonList(topic))
+            .flatMapAlo(group -> group)
+            .as(StepVerifier::create)
+            .expectSubscription()
+            .expectNoEvent(Duration.ofSeconds(10L))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    public void dataIsReceivedWithMultipleConsumersPerSubscription() {
+        AloKafkaSender.from(KAFKA_CONFIG_SOURCE)
+            .sendValues(Flux.just("DATA1", "DATA2", "DATA3"), topic, Function.identity())
+            .then().block();
+
+        AloKafkaReceiver.forValues(KAFKA_CONFIG_SOURCE.with(AloKafkaReceiver.CONSUMERS_PER_SUBSCRIPTION_CONFIG, 2))
+            .receiveAloValues(Collections.singletonList(topic))
+            .as(StepVerifier::create)
+            .expectNextCount(3)
+            .thenCancel()
+            .verify();
+    }
+
     @Test
     public void unacknowledgedDataIsRepublished() {
         AloKafkaSender.from(KAFKA_CONFIG_SOURCE)
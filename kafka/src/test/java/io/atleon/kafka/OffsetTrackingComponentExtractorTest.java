@@ -0,0 +1,109 @@
+package io.atleon.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffsetTrackingComponentExtractorTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+
+    private final List<String> acknowledged = new ArrayList<>();
+
+    private final List<Throwable> errors = new ArrayList<>();
+
+    private final OffsetTrackingComponentExtractor<String, String> extractor =
+        new OffsetTrackingComponentExtractor<>(new NacknowledgerFactory.Emit<>(), errors::add);
+
+    @Test
+    public void recordsTrackedBeforeRevocationAreNotAcknowledgedAfterReassignment() {
+        ReceiverRecord<String, String> revoked = track(PARTITION_0, 5L);
+        ReceiverRecord<String, String> other = track(PARTITION_1, 0L);
+
+        extractor.reset(Collections.singletonList(PARTITION_0));
+        ReceiverRecord<String, String> reassigned = track(PARTITION_0, 5L);
+
+        extractor.acknowledge(revoked);
+        extractor.acknowledge(other);
+        assertEquals(Collections.singletonList(PARTITION_1 + "@0"), acknowledged);
+
+        extractor.acknowledge(reassigned);
+        assertEquals(Arrays.asList(PARTITION_1 + "@0", PARTITION_0 + "@5"), acknowledged);
+    }
+
+    @Test
+    public void rewindingPartitionReplacesItsTracker() {
+        ReceiverRecord<String, String> stale = track(PARTITION_0, 10L);
+        ReceiverRecord<String, String> rewound = track(PARTITION_0, 3L);
+
+        extractor.acknowledge(rewound);
+        extractor.acknowledge(stale);
+
+        assertEquals(Collections.singletonList(PARTITION_0 + "@3"), acknowledged);
+    }
+
+    @Test
+    public void nacknowledgementOfUntrackedRecordIsExecutedImmediately() {
+        ReceiverRecord<String, String> revoked = track(PARTITION_0, 0L);
+        extractor.reset(Collections.singletonList(PARTITION_0));
+
+        extractor.nacknowledge(revoked, new IllegalStateException("Boom"));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+        assertTrue(acknowledged.isEmpty());
+    }
+
+    private ReceiverRecord<String, String> track(TopicPartition partition, long offset) {
+        ConsumerRecord<String, String> consumerRecord =
+            new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key", "value");
+        ReceiverRecord<String, String> record = new ReceiverRecord<>(consumerRecord, new TestReceiverOffset(partition, offset));
+        extractor.track(record);
+        return record;
+    }
+
+    private final class TestReceiverOffset implements ReceiverOffset {
+
+        private final TopicPartition topicPartition;
+
+        private final long offset;
+
+        private TestReceiverOffset(TopicPartition topicPartition, long offset) {
+            this.topicPartition = topicPartition;
+            this.offset = offset;
+        }
+
+        @Override
+        public TopicPartition topicPartition() {
+            return topicPartition;
+        }
+
+        @Override
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public void acknowledge() {
+            acknowledged.add(topicPartition + "@" + offset);
+        }
+
+        @Override
+        public Mono<Void> commit() {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.atleon.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+class PartitionBatchingOperatorTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private final Sinks.Many<ReceiverRecord<String, String>> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+    @Test
+    public void recordsReceivedBackToBackFromTheSamePartitionAreBatched() {
+        sink.tryEmitNext(newRecord(PARTITION_0, 0L));
+        sink.tryEmitNext(newRecord(PARTITION_0, 1L));
+        sink.tryEmitNext(newRecord(PARTITION_1, 0L));
+        sink.tryEmitNext(newRecord(PARTITION_0, 2L));
+        sink.tryEmitComplete();
+
+        StepVerifier.create(batchOffsets(16))
+            .then(this::runTasks)
+            .expectNext(Arrays.asList(0L, 1L))
+            .expectNext(Collections.singletonList(0L))
+            .expectNext(Collections.singletonList(2L))
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void batchesAreBoundedByMaxBatchSize() {
+        for (long offset = 0L; offset < 5L; offset++) {
+            sink.tryEmitNext(newRecord(PARTITION_0, offset));
+        }
+        sink.tryEmitComplete();
+
+        StepVerifier.create(batchOffsets(2))
+            .then(this::runTasks)
+            .expectNext(Arrays.asList(0L, 1L))
+            .expectNext(Arrays.asList(2L, 3L))
+            .expectNext(Collections.singletonList(4L))
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void recordsReceivedAfterDrainingAreEmittedInNewBatch() {
+        StepVerifier.create(batchOffsets(16))
+            .then(() -> sink.tryEmitNext(newRecord(PARTITION_0, 0L)))
+            .then(this::runTasks)
+            .expectNext(Collections.singletonList(0L))
+            .then(() -> sink.tryEmitNext(newRecord(PARTITION_0, 1L)))
+            .then(() -> sink.tryEmitNext(newRecord(PARTITION_0, 2L)))
+            .then(this::runTasks)
+            .expectNext(Arrays.asList(1L, 2L))
+            .then(sink::tryEmitComplete)
+            .then(this::runTasks)
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void batchesAreOnlyEmittedUpToRequested() {
+        sink.tryEmitNext(newRecord(PARTITION_0, 0L));
+        sink.tryEmitNext(newRecord(PARTITION_1, 0L));
+        sink.tryEmitComplete();
+
+        StepVerifier.create(batchOffsets(16), 0L)
+            .then(this::runTasks)
+            .expectNoEvent(Duration.ZERO)
+            .thenRequest(1L)
+            .then(this::runTasks)
+            .expectNext(Collections.singletonList(0L))
+            .thenRequest(1L)
+            .then(this::runTasks)
+            .expectNext(Collections.singletonList(0L))
+            .expectComplete()
+            .verify();
+    }
+
+    private Flux<List<Long>> batchOffsets(int maxBatchSize) {
+        return Flux.from(new PartitionBatchingOperator<>(sink.asFlux(), Schedulers.fromExecutor(tasks::add), maxBatchSize))
+            .map(batch -> batch.stream().map(ConsumerRecord::offset).collect(Collectors.toList()));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static ReceiverRecord<String, String> newRecord(TopicPartition partition, long offset) {
+        ConsumerRecord<String, String> record =
+            new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key", "value");
+        return new ReceiverRecord<>(record, new TestReceiverOffset(partition, offset));
+    }
+
+    private static final class TestReceiverOffset implements ReceiverOffset {
+
+        private final TopicPartition topicPartition;
+
+        private final long offset;
+
+        private TestReceiverOffset(TopicPartition topicPartition, long offset) {
+            this.topicPartition = topicPartition;
+            this.offset = offset;
+        }
+
+        @Override
+        public TopicPartition topicPartition() {
+            return topicPartition;
+        }
+
+        @Override
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public void acknowledge() {
+
+        }
+
+        @Override
+        public Mono<Void> commit() {
+            return Mono.empty();
+        }
+    }
+}
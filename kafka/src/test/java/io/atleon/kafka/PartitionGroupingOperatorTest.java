@@ -0,0 +1,322 @@
+package io.atleon.kafka;
+
+import io.atleon.core.Alo;
+import io.atleon.core.AloGroupedFlux;
+import io.atleon.core.ComposedAlo;
+import io.atleon.core.GroupFlowControl;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionGroupingOperatorTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+
+    private final TestSource source = new TestSource();
+
+    private final PartitionGroupingOperator.Assignments assignments = new PartitionGroupingOperator.Assignments();
+
+    private final RecordingFlowControl flowControl = new RecordingFlowControl();
+
+    private final List<RecordedGroup> groups = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void recordsPolledBeforeRevocationAreEmittedBeforeGroupCompletes() {
+        subscribe(16);
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+
+        source.emit(PARTITION_0, 0L);
+        assignments.revoked(0, Collections.singletonMap(PARTITION_0, 3L));
+        assertFalse(groups.get(0).completed);
+
+        source.emit(PARTITION_0, 1L);
+        source.emit(PARTITION_0, 2L);
+
+        assertEquals(1, groups.size());
+        assertEquals(Arrays.asList(0L, 1L, 2L), groups.get(0).offsets);
+        assertTrue(groups.get(0).completed);
+    }
+
+    @Test
+    public void recordsPolledAfterReassignmentAreEmittedByNewGroup() {
+        subscribe(16);
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+
+        source.emit(PARTITION_0, 0L);
+        assignments.revoked(0, Collections.singletonMap(PARTITION_0, 1L));
+        assertTrue(groups.get(0).completed);
+
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+        source.emit(PARTITION_0, 1L);
+
+        assertEquals(2, groups.size());
+        assertEquals(PARTITION_0, groups.get(1).key);
+        assertEquals(Collections.singletonList(0L), groups.get(0).offsets);
+        assertEquals(Collections.singletonList(1L), groups.get(1).offsets);
+        assertFalse(groups.get(1).completed);
+    }
+
+    @Test
+    public void recordAtRevokedPositionCompletesGroupWhoseLastRecordPrecedesPosition() {
+        subscribe(16);
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+
+        source.emit(PARTITION_0, 0L);
+        assignments.revoked(0, Collections.singletonMap(PARTITION_0, 3L));
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+        assertFalse(groups.get(0).completed);
+
+        source.emit(PARTITION_0, 3L);
+
+        assertEquals(2, groups.size());
+        assertTrue(groups.get(0).completed);
+        assertEquals(Collections.singletonList(3L), groups.get(1).offsets);
+    }
+
+    @Test
+    public void recordFromSubsequentlyAssignedPartitionCompletesRevokedGroup() {
+        subscribe(16);
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+
+        source.emit(PARTITION_0, 0L);
+        assignments.revoked(0, Collections.singletonMap(PARTITION_0, 3L));
+        assignments.assigned(0, Collections.singletonList(PARTITION_1));
+        assertFalse(groups.get(0).completed);
+
+        source.emit(PARTITION_1, 0L);
+
+        assertEquals(2, groups.size());
+        assertTrue(groups.get(0).completed);
+        assertFalse(groups.get(1).completed);
+    }
+
+    @Test
+    public void recordsOfPartitionMovedBetweenConsumersAreNotMixed() {
+        subscribe(16);
+        assignments.assigned(0, Collections.singletonList(PARTITION_0));
+
+        source.emit(PARTITION_0, 0L);
+        assignments.revoked(0, Collections.singletonMap(PARTITION_0, 2L));
+        assignments.assigned(1, Collections.singletonList(PARTITION_0));
+
+        source.emit(PartitionGroupingOperator.tag(newRecord(PARTITION_0, 1L), 1));
+        assertEquals(2, groups.size());
+        assertFalse(groups.get(0).completed);
+
+        source.emit(PARTITION_0, 1L);
+
+        assertEquals(Arrays.asList(0L, 1L), groups.get(0).offsets);
+        assertTrue(groups.get(0).completed);
+        assertEquals(Collections.singletonList(1L), groups.get(1).offsets);
+        assertFalse(groups.get(1).completed);
+    }
+
+    @Test
+    public void fullGroupPausesOnlyItsOwnPartitionUntilDrained() {
+        Flux.from(new PartitionGroupingOperator<>(source, assignments, flowControl, Schedulers.immediate(), 2))
+            .subscribe(group -> groups.add(new RecordedGroup(group, 0L)));
+
+        for (long offset = 0L; offset < 4L; offset++) {
+            source.emit(PARTITION_0, offset);
+        }
+        source.emit(PARTITION_1, 0L);
+
+        assertEquals(Collections.singletonList("pause-" + PARTITION_0), flowControl.events);
+        assertTrue(source.requested > 5L);
+
+        groups.get(1).request(Long.MAX_VALUE);
+        assertEquals(Collections.singletonList(0L), groups.get(1).offsets);
+
+        groups.get(0).request(2L);
+        assertEquals(Collections.singletonList("pause-" + PARTITION_0), flowControl.events);
+
+        groups.get(0).request(1L);
+        assertEquals(Arrays.asList(0L, 1L, 2L), groups.get(0).offsets);
+        assertEquals(Arrays.asList("pause-" + PARTITION_0, "resume-" + PARTITION_0), flowControl.events);
+    }
+
+    @Test
+    public void cancellingGroupNacknowledgesItsQueuedRecordsAndResumesItsPartition() {
+        Flux.from(new PartitionGroupingOperator<>(source, assignments, flowControl, Schedulers.immediate(), 2))
+            .subscribe(group -> groups.add(new RecordedGroup(group, 0L)));
+
+        source.emit(PARTITION_0, 0L);
+        source.emit(PARTITION_0, 1L);
+        groups.get(0).cancel();
+
+        assertEquals(Arrays.asList("pause-" + PARTITION_0, "resume-" + PARTITION_0), flowControl.events);
+        assertEquals(2, source.nacknowledged.size());
+        assertTrue(source.nacknowledged.stream().allMatch(CancellationException.class::isInstance));
+
+        source.emit(PARTITION_0, 2L);
+        groups.get(1).request(1L);
+        assertEquals(Collections.singletonList(2L), groups.get(1).offsets);
+    }
+
+    @Test
+    public void upstreamErrorNacknowledgesQueuedRecordsWithError() {
+        Flux.from(new PartitionGroupingOperator<>(source, assignments, flowControl, Schedulers.immediate(), 16))
+            .subscribe(group -> groups.add(new RecordedGroup(group, 0L)), error -> {});
+
+        source.emit(PARTITION_0, 0L);
+        source.emit(PARTITION_0, 1L);
+
+        IllegalStateException error = new IllegalStateException("Boom");
+        source.error(error);
+
+        assertEquals(error, groups.get(0).error);
+        assertEquals(Arrays.asList(error, error), source.nacknowledged);
+    }
+
+    @Test
+    public void recordsReceivedAfterCancellationAreNacknowledged() {
+        Disposable disposable = Flux.from(new PartitionGroupingOperator<>(source, assignments, flowControl, Schedulers.immediate(), 16))
+            .subscribe(group -> groups.add(new RecordedGroup(group, 0L)));
+
+        source.emit(PARTITION_0, 0L);
+        disposable.dispose();
+        source.emit(PARTITION_1, 0L);
+
+        assertEquals(1, groups.size());
+        assertEquals(1, source.nacknowledged.size());
+        assertFalse(source.cancelled);
+
+        groups.get(0).cancel();
+
+        assertEquals(2, source.nacknowledged.size());
+        assertTrue(source.cancelled);
+    }
+
+    private void subscribe(int prefetch) {
+        Flux.from(new PartitionGroupingOperator<>(source, assignments, flowControl, Schedulers.immediate(), prefetch))
+            .subscribe(group -> groups.add(new RecordedGroup(group, Long.MAX_VALUE)));
+    }
+
+    private static ReceiverRecord<String, String> newRecord(TopicPartition partition, long offset) {
+        ConsumerRecord<String, String> record =
+            new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key", "value");
+        return new ReceiverRecord<>(record, null);
+    }
+
+    private static final class TestSource implements Publisher<Alo<ConsumerRecord<String, String>>> {
+
+        private Subscriber<? super Alo<ConsumerRecord<String, String>>> subscriber;
+
+        private final List<Throwable> nacknowledged = new CopyOnWriteArrayList<>();
+
+        private long requested;
+
+        private boolean cancelled;
+
+        @Override
+        public void subscribe(Subscriber<? super Alo<ConsumerRecord<String, String>>> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        void emit(TopicPartition partition, long offset) {
+            emit(newRecord(partition, offset));
+        }
+
+        void emit(ConsumerRecord<String, String> record) {
+            subscriber.onNext(ComposedAlo.<ConsumerRecord<String, String>>factory().create(record, () -> {}, nacknowledged::add));
+        }
+
+        void error(Throwable error) {
+            subscriber.onError(error);
+        }
+    }
+
+    private static final class RecordedGroup {
+
+        private final TopicPartition key;
+
+        private final List<Long> offsets = new CopyOnWriteArrayList<>();
+
+        private Subscription subscription;
+
+        private volatile boolean completed;
+
+        private volatile Throwable error;
+
+        RecordedGroup(AloGroupedFlux<TopicPartition, ConsumerRecord<String, String>> group, long initialRequest) {
+            this.key = group.key();
+            group.unwrap().subscribe(new Subscriber<Alo<ConsumerRecord<String, String>>>() {
+                @Override
+                public void onSubscribe(Subscription s) {
+                    subscription = s;
+                    if (initialRequest > 0L) {
+                        s.request(initialRequest);
+                    }
+                }
+
+                @Override
+                public void onNext(Alo<ConsumerRecord<String, String>> alo) {
+                    offsets.add(alo.get().offset());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    error = t;
+                }
+
+                @Override
+                public void onComplete() {
+                    completed = true;
+                }
+            });
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        void cancel() {
+            subscription.cancel();
+        }
+    }
+
+    private static final class RecordingFlowControl implements GroupFlowControl {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void pause(Object group) {
+            events.add("pause-" + group);
+        }
+
+        @Override
+        public void resume(Object group) {
+            events.add("resume-" + group);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.atleon.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.ReceiverOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionOffsetTrackerTest {
+
+    private static final TopicPartition TOPIC_PARTITION = new TopicPartition("topic", 0);
+
+    private final List<Long> acknowledged = new ArrayList<>();
+
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+
+    @Test
+    public void onlyLastOffsetOfContiguousCompletionsIsAcknowledged() {
+        ReceiverOffset first = track(10L);
+        ReceiverOffset second = track(11L);
+        ReceiverOffset third = track(15L);
+
+        tracker.complete(third);
+        tracker.complete(second);
+        assertEquals(-1L, tracker.committableOffset());
+
+        tracker.complete(first);
+        assertEquals(16L, tracker.committableOffset());
+        assertEquals(Collections.singletonList(15L), acknowledged);
+    }
+
+    @Test
+    public void nacknowledgementIsExecutedInOffsetOrder() {
+        AtomicReference<List<Long>> acknowledgedBeforeNacknowledgement = new AtomicReference<>();
+        ReceiverOffset first = track(0L);
+        ReceiverOffset second = track(1L);
+        ReceiverOffset third = track(2L);
+
+        tracker.completeExceptionally(second, () -> acknowledgedBeforeNacknowledgement.set(new ArrayList<>(acknowledged)));
+        tracker.complete(third);
+        assertNull(acknowledgedBeforeNacknowledgement.get());
+
+        tracker.complete(first);
+        assertNotNull(acknowledgedBeforeNacknowledgement.get());
+        assertEquals(Collections.singletonList(0L), acknowledgedBeforeNacknowledgement.get());
+        assertEquals(Arrays.asList(0L, 2L), acknowledged);
+        assertEquals(3L, tracker.committableOffset());
+    }
+
+    @Test
+    public void trackingGrowsBeyondInitialCapacityWhileHeadIsIncomplete() {
+        ReceiverOffset head = track(0L);
+        for (long offset = 1L; offset < 1000L; offset++) {
+            tracker.complete(track(offset));
+        }
+        assertEquals(-1L, tracker.committableOffset());
+
+        tracker.complete(head);
+        assertEquals(1000L, tracker.committableOffset());
+        assertEquals(Collections.singletonList(999L), acknowledged);
+    }
+
+    @Test
+    public void rewoundOffsetsAreNotTracked() {
+        track(5L);
+
+        assertFalse(tracker.track(new TestReceiverOffset(5L)));
+        assertFalse(tracker.track(new TestReceiverOffset(3L)));
+        assertTrue(tracker.track(new TestReceiverOffset(6L)));
+    }
+
+    @Test
+    public void completionOfUntrackedOffsetDoesNotAdvanceWatermark() {
+        ReceiverOffset tracked = track(0L);
+        AtomicBoolean nacknowledged = new AtomicBoolean();
+
+        tracker.complete(new TestReceiverOffset(0L));
+        tracker.completeExceptionally(new TestReceiverOffset(1L), () -> nacknowledged.set(true));
+
+        assertEquals(-1L, tracker.committableOffset());
+        assertTrue(nacknowledged.get());
+
+        tracker.complete(tracked);
+        assertEquals(1L, tracker.committableOffset());
+    }
+
+    @Test
+    public void closingStopsAcknowledgementAndExecutesPendingNacknowledgements() {
+        ReceiverOffset first = track(0L);
+        ReceiverOffset second = track(1L);
+        AtomicBoolean nacknowledged = new AtomicBoolean();
+
+        tracker.completeExceptionally(second, () -> nacknowledged.set(true));
+        tracker.close();
+
+        assertTrue(nacknowledged.get());
+
+        tracker.complete(first);
+        assertFalse(tracker.track(new TestReceiverOffset(2L)));
+        assertEquals(-1L, tracker.committableOffset());
+        assertTrue(acknowledged.isEmpty());
+    }
+
+    private ReceiverOffset track(long offset) {
+        ReceiverOffset receiverOffset = new TestReceiverOffset(offset);
+        assertTrue(tracker.track(receiverOffset));
+        return receiverOffset;
+    }
+
+    private final class TestReceiverOffset implements ReceiverOffset {
+
+        private final long offset;
+
+        private TestReceiverOffset(long offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public TopicPartition topicPartition() {
+            return TOPIC_PARTITION;
+        }
+
+        @Override
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public void acknowledge() {
+            acknowledged.add(offset);
+        }
+
+        @Override
+        public Mono<Void> commit() {
+            return Mono.empty();
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package io.atleon.micrometer;
 
 import io.atleon.core.AloQueueListener;
+import io.atleon.core.AloQueueProbe;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Templated implementation of metering around the queuing of in-flight {@link io.atleon.core.Alo}
- * items
+ * items. In addition to the number of in-flight items, head-of-line blocking is metered per key
+ * through the age of the oldest in-process item, the number of completed items blocked behind
+ * it, and a histogram of sampled latencies between enqueueing and completion.
  */
 public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
 
@@ -25,12 +31,25 @@ public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
     private static final AuditedMetricRegistry<MeteringAloQueueListener<?>, Object, Double> IN_FLIGHT_GROUP_REGISTRY =
         new AuditedMetricRegistry<>(MeteringAloQueueListener::evaluateInFlight, ABSENT_EVALUATION);
 
+    private static final AuditedMetricRegistry<MeteringAloQueueListener<?>, Object, Double> OLDEST_AGE_REGISTRY =
+        new AuditedMetricRegistry<>(MeteringAloQueueListener::evaluateOldestInProcessAge, ABSENT_EVALUATION);
+
+    private static final AuditedMetricRegistry<MeteringAloQueueListener<?>, Object, Double> BLOCKED_REGISTRY =
+        new AuditedMetricRegistry<>(MeteringAloQueueListener::evaluateBlockedCompletions, ABSENT_EVALUATION);
+
     private final MeterRegistry meterRegistry;
 
     private final String inFlightMetricName;
 
     private final Map<K, AtomicLong> inFlightsByGroupKey = new ConcurrentHashMap<>();
 
+    // Number of groups mapped to each key, only accessed while synchronized on inFlightsByGroupKey
+    private final Map<K, Integer> groupCountsByKey = new HashMap<>();
+
+    private final Map<K, Map<Object, AloQueueProbe>> probesByGroupKey = new ConcurrentHashMap<>();
+
+    private final Map<K, Timer> latencyTimersByGroupKey = new ConcurrentHashMap<>();
+
     private volatile boolean closed = false;
 
     protected MeteringAloQueueListener(String inFlightMetricName) {
@@ -44,9 +63,17 @@ public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
 
     @Override
     public final void created(Object group) {
+        created(group, AloQueueProbe.empty());
+    }
+
+    @Override
+    public final void created(Object group, AloQueueProbe probe) {
         synchronized (inFlightsByGroupKey) {
             if (!closed) {
-                inFlightsByGroupKey.computeIfAbsent(extractKey(group), this::registerNewGroup);
+                K groupKey = extractKey(group);
+                inFlightsByGroupKey.computeIfAbsent(groupKey, this::registerNewGroup);
+                groupCountsByKey.merge(groupKey, 1, Integer::sum);
+                probesByGroupKey.computeIfAbsent(groupKey, __ -> new ConcurrentHashMap<>()).put(group, probe);
             }
         }
     }
@@ -61,12 +88,59 @@ public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
         addToInFlight(extractKey(group), -count);
     }
 
+    @Override
+    public final void acknowledgementLatencySampled(Object group, long latencyNanos) {
+        K groupKey = extractKey(group);
+        Timer timer = latencyTimersByGroupKey.get(groupKey);
+        if (timer == null) {
+            // Registration must be atomic with respect to eviction, lest an evicted key's Timer leak
+            synchronized (inFlightsByGroupKey) {
+                if (closed || !inFlightsByGroupKey.containsKey(groupKey)) {
+                    return;
+                }
+                timer = latencyTimersByGroupKey.computeIfAbsent(groupKey, this::registerLatencyTimer);
+            }
+        }
+        timer.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public final void evicted(Object group) {
+        synchronized (inFlightsByGroupKey) {
+            K groupKey = extractKey(group);
+            if (closed) {
+                return;
+            }
+
+            Map<Object, AloQueueProbe> probesByGroup = probesByGroupKey.get(groupKey);
+            if (probesByGroup != null) {
+                probesByGroup.remove(group);
+            }
+
+            if (groupCountsByKey.computeIfPresent(groupKey, (__, count) -> count > 1 ? count - 1 : null) == null) {
+                MeterKey meterKey = new MeterKey(inFlightMetricName, extractTags(groupKey));
+                IN_FLIGHT_GROUP_REGISTRY.unregister(meterKey, this);
+                OLDEST_AGE_REGISTRY.unregister(meterKey.withNameQualifier("oldest.in.process.age"), this);
+                BLOCKED_REGISTRY.unregister(meterKey.withNameQualifier("blocked.completions"), this);
+                inFlightsByGroupKey.remove(groupKey);
+                probesByGroupKey.remove(groupKey);
+                removeLatencyTimer(latencyTimersByGroupKey.remove(groupKey));
+            }
+        }
+    }
+
     @Override
     public void close() {
         synchronized (inFlightsByGroupKey) {
             closed = true;
             IN_FLIGHT_GROUP_REGISTRY.unregister(this);
+            OLDEST_AGE_REGISTRY.unregister(this);
+            BLOCKED_REGISTRY.unregister(this);
             inFlightsByGroupKey.clear();
+            groupCountsByKey.clear();
+            probesByGroupKey.clear();
+            latencyTimersByGroupKey.values().forEach(this::removeLatencyTimer);
+            latencyTimersByGroupKey.clear();
         }
     }
 
@@ -74,7 +148,24 @@ public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
 
     protected final AtomicLong registerNewGroup(K groupKey) {
         MeterKey meterKey = new MeterKey(inFlightMetricName, extractTags(groupKey));
-        registerGauge(IN_FLIGHT_GROUP_REGISTRY.register(meterKey, this, groupKey));
+        registerGauge(
+            IN_FLIGHT_GROUP_REGISTRY,
+            IN_FLIGHT_GROUP_REGISTRY.register(meterKey, this, groupKey),
+            "The number of in-flight Alo items awaiting acknowledgement execution",
+            null
+        );
+        registerGauge(
+            OLDEST_AGE_REGISTRY,
+            OLDEST_AGE_REGISTRY.register(meterKey.withNameQualifier("oldest.in.process.age"), this, groupKey),
+            "The age of the oldest in-flight Alo item that is still in process",
+            "seconds"
+        );
+        registerGauge(
+            BLOCKED_REGISTRY,
+            BLOCKED_REGISTRY.register(meterKey.withNameQualifier("blocked.completions"), this, groupKey),
+            "The number of completed Alo items whose acknowledgement is blocked behind an in-process item",
+            null
+        );
         return new AtomicLong();
     }
 
@@ -93,11 +184,59 @@ public abstract class MeteringAloQueueListener<K> implements AloQueueListener {
         return inFlight == null ? ABSENT_EVALUATION : inFlight.doubleValue();
     }
 
-    private void registerGauge(MeterKey meterKey) {
+    @SuppressWarnings("SuspiciousMethodCalls")
+    private double evaluateOldestInProcessAge(Object groupKey) {
+        Map<Object, AloQueueProbe> probesByGroup = probesByGroupKey.get(groupKey);
+        if (probesByGroup == null) {
+            return ABSENT_EVALUATION;
+        }
+
+        long maxAgeNanos = 0L;
+        for (AloQueueProbe probe : probesByGroup.values()) {
+            maxAgeNanos = Math.max(maxAgeNanos, probe.oldestInProcessAgeNanos());
+        }
+        return maxAgeNanos / 1_000_000_000D;
+    }
+
+    @SuppressWarnings("SuspiciousMethodCalls")
+    private double evaluateBlockedCompletions(Object groupKey) {
+        Map<Object, AloQueueProbe> probesByGroup = probesByGroupKey.get(groupKey);
+        if (probesByGroup == null) {
+            return ABSENT_EVALUATION;
+        }
+
+        long count = 0L;
+        for (AloQueueProbe probe : probesByGroup.values()) {
+            count += probe.blockedCompletionCount();
+        }
+        return count;
+    }
+
+    private Timer registerLatencyTimer(K groupKey) {
+        return Timer.builder(inFlightMetricName + ".latency")
+            .description("Sampled latency between enqueueing and completion of in-flight Alo items")
+            .tags(extractTags(groupKey))
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private void removeLatencyTimer(Timer timer) {
+        if (timer != null) {
+            meterRegistry.remove(timer);
+        }
+    }
+
+    private void registerGauge(
+        AuditedMetricRegistry<MeteringAloQueueListener<?>, Object, Double> registry,
+        MeterKey meterKey,
+        String description,
+        String baseUnit
+    ) {
         try {
-            Gauge.builder(inFlightMetricName, meterKey, IN_FLIGHT_GROUP_REGISTRY::evaluate)
-                .description("The number of in-flight Alo items awaiting acknowledgement execution")
+            Gauge.builder(meterKey.getName(), meterKey, registry::evaluate)
+                .description(description)
                 .tags(meterKey.getTags())
+                .baseUnit(baseUnit)
                 .register(meterRegistry);
         } catch (Exception e) {
             LOGGER.debug("Failed to register Gauge with key={}", meterKey, e);
@@ -0,0 +1,71 @@
+package io.atleon.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MeteringAloQueueListenerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void latencyTimerIsRemovedFromRegistryUponEviction() {
+        TestListener listener = new TestListener(meterRegistry);
+
+        listener.created("group");
+        listener.acknowledgementLatencySampled("group", 1_000L);
+
+        assertNotNull(meterRegistry.find("test.in.flight.latency").tags("group", "group").timer());
+
+        listener.evicted("group");
+
+        assertNull(meterRegistry.find("test.in.flight.latency").tags("group", "group").timer());
+    }
+
+    @Test
+    public void latencySampledAfterEvictionDoesNotRegisterTimer() {
+        TestListener listener = new TestListener(meterRegistry);
+
+        listener.created("group");
+        listener.evicted("group");
+        listener.acknowledgementLatencySampled("group", 1_000L);
+
+        assertNull(meterRegistry.find("test.in.flight.latency").tags("group", "group").timer());
+    }
+
+    @Test
+    public void latencyTimersAreRemovedFromRegistryUponClose() {
+        TestListener listener = new TestListener(meterRegistry);
+
+        listener.created("group");
+        listener.acknowledgementLatencySampled("group", 1_000L);
+
+        assertNotNull(meterRegistry.find("test.in.flight.latency").tags("group", "group").timer());
+
+        listener.close();
+
+        assertNull(meterRegistry.find("test.in.flight.latency").tags("group", "group").timer());
+    }
+
+    private static final class TestListener extends MeteringAloQueueListener<String> {
+
+        private TestListener(MeterRegistry meterRegistry) {
+            super(meterRegistry, "test.in.flight");
+        }
+
+        @Override
+        protected String extractKey(Object group) {
+            return group.toString();
+        }
+
+        @Override
+        protected Iterable<Tag> extractTags(String groupKey) {
+            return Tags.of("group", groupKey);
+        }
+    }
+}
@@ -55,7 +55,7 @@ public class AloPollingReceiver<P, O> {
                                final PollingSourceConfig config) {
         this.pollable = pollable;
         this.config = config;
-        this.resourcesMono = Mono.just(ReceiveResources.create(AloFactoryConfig.loadDefault(), config.getNackStrategy()));
+        this.resourcesMono = Mono.just(ReceiveResources.create(AloFactoryConfig.loadDefault(), config));
     }
 
     public static <P, O> AloPollingReceiver<P, O> from(final Pollable<P, O> pollable,
@@ -79,16 +79,18 @@ public class AloPollingReceiver<P, O> {
 
         private final AloFactory<Polled<P, O>> aloFactory;
         private final NackStrategy nackStrategy;
+        private final PollingSourceConfig config;
 
         private ReceiveResources(final AloFactory<Polled<P, O>> aloFactory,
-                                 final NackStrategy nackStrategy) {
+                                 final PollingSourceConfig config) {
             this.aloFactory = aloFactory;
-            this.nackStrategy = nackStrategy;
+            this.nackStrategy = config.getNackStrategy();
+            this.config = config;
         }
 
         static <P, O> ReceiveResources<P, O> create(final AloFactory<Polled<P, O>> aloFactory,
-                                                    final NackStrategy nackStrategy) {
-            return new ReceiveResources<>(aloFactory, nackStrategy);
+                                                    final PollingSourceConfig config) {
+            return new ReceiveResources<>(aloFactory, config);
         }
 
         public Flux<Alo<Polled<P, O>>> receive(final PollingReceiver<P, O> receiver) {
@@ -105,7 +107,11 @@ public class AloPollingReceiver<P, O> {
                 ReceiverRecord::getRecord
             );
             return AloQueueingTransformer.create(componentExtractor)
-                .withGroupExtractor(receiverRecord -> receiverRecord.getRecord().getGroup());
+                .withGroupExtractor(receiverRecord -> receiverRecord.getRecord().getGroup())
+                .withEmptyGroupIdleTimeout(config.getGroupIdleTimeout())
+                .withMaxInFlight(config.getMaxInFlight())
+                .withMinInFlight(config.getMinInFlight())
+                .withAcknowledgementDeadline(config.getAcknowledgementDeadline().orElse(null));
         }
 
         private void ack(final ReceiverRecord<P, O> record) {
@@ -7,8 +7,18 @@ import java.util.Optional;
 
 public class PollingSourceConfig {
 
+    /**
+     * How long a group of polled records may have no in-flight records before resources held for
+     * acknowledging that group are released
+     */
+    public static final Duration DEFAULT_GROUP_IDLE_TIMEOUT = Duration.ofMinutes(1L);
+
     private final Duration pollingInterval;
     private final AloPollingReceiver.NackStrategy nackStrategy;
+    private final Duration groupIdleTimeout;
+    private final long minInFlight;
+    private final long maxInFlight;
+    private final Duration acknowledgementDeadline;
 
     public PollingSourceConfig(final Duration pollingInterval) {
         this(pollingInterval, null);
@@ -16,8 +26,49 @@ public class PollingSourceConfig {
 
     public PollingSourceConfig(final Duration pollingInterval,
                                final AloPollingReceiver.NackStrategy nackStrategy) {
+        this(pollingInterval, nackStrategy, null);
+    }
+
+    public PollingSourceConfig(final Duration pollingInterval,
+                               final AloPollingReceiver.NackStrategy nackStrategy,
+                               final Duration groupIdleTimeout) {
+        this(pollingInterval, nackStrategy, groupIdleTimeout, Long.MAX_VALUE, Long.MAX_VALUE, null);
+    }
+
+    private PollingSourceConfig(final Duration pollingInterval,
+                                final AloPollingReceiver.NackStrategy nackStrategy,
+                                final Duration groupIdleTimeout,
+                                final long minInFlight,
+                                final long maxInFlight,
+                                final Duration acknowledgementDeadline) {
         this.pollingInterval = pollingInterval;
         this.nackStrategy = nackStrategy;
+        this.groupIdleTimeout = groupIdleTimeout;
+        this.minInFlight = minInFlight;
+        this.maxInFlight = maxInFlight;
+        this.acknowledgementDeadline = acknowledgementDeadline;
+    }
+
+    /**
+     * Bounds the number of polled records that may be in flight (emitted, but not yet
+     * acknowledged). When the provided minimum is less than the provided maximum, the bound is
+     * adaptive, starting at the minimum and adapting between the minimum and maximum based on
+     * the latency with which records are acknowledged. Unbounded by default.
+     */
+    public PollingSourceConfig withInFlightLimits(final long minInFlight,
+                                                  final long maxInFlight) {
+        return new PollingSourceConfig(pollingInterval, nackStrategy, groupIdleTimeout, minInFlight, maxInFlight, acknowledgementDeadline);
+    }
+
+    /**
+     * Configures a deadline within which each polled record must be acknowledged or
+     * nacknowledged. Records that are still in flight when their deadline elapses are
+     * nacknowledged with an {@link io.atleon.core.AcknowledgementDeadlineExceededException},
+     * which is then handled according to the configured {@link AloPollingReceiver.NackStrategy}.
+     * Disabled by default.
+     */
+    public PollingSourceConfig withAcknowledgementDeadline(final Duration acknowledgementDeadline) {
+        return new PollingSourceConfig(pollingInterval, nackStrategy, groupIdleTimeout, minInFlight, maxInFlight, acknowledgementDeadline);
     }
 
     public Duration getPollingInterval() {
@@ -28,4 +79,21 @@ public class PollingSourceConfig {
         return Optional.ofNullable(nackStrategy)
                 .orElse(AloPollingReceiver.NackStrategy.NACK_EMIT);
     }
+
+    public Duration getGroupIdleTimeout() {
+        return Optional.ofNullable(groupIdleTimeout)
+                .orElse(DEFAULT_GROUP_IDLE_TIMEOUT);
+    }
+
+    public long getMinInFlight() {
+        return minInFlight;
+    }
+
+    public long getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Optional<Duration> getAcknowledgementDeadline() {
+        return Optional.ofNullable(acknowledgementDeadline);
+    }
 }
@@ -1,9 +1,11 @@
 package io.atleon.rabbitmq;
 
 import io.atleon.core.Alo;
+import io.atleon.core.AloComponentExtractor;
 import io.atleon.core.AloFactory;
 import io.atleon.core.AloFactoryConfig;
 import io.atleon.core.AloFlux;
+import io.atleon.core.AloQueueingTransformer;
 import io.atleon.core.AloSignalListenerFactory;
 import io.atleon.core.AloSignalListenerFactoryConfig;
 import io.atleon.core.ErrorEmitter;
@@ -21,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A reactive RabbitMQ receiver with at-least-once semantics for consuming messages from a queue in
@@ -86,6 +89,48 @@ public class AloRabbitMQReceiver<T> {
      */
     public static final String ERROR_EMISSION_TIMEOUT_CONFIG = CONFIG_PREFIX + "error.emission.timeout";
 
+    /**
+     * Whether to use cumulative ("multiple") acknowledgement of received messages. When enabled,
+     * acknowledgements are executed in the order that messages were received, and each contiguous
+     * run of positively acknowledged messages is coalesced in to a single multiple-ack of the last
+     * message in that run, significantly reducing the number of acknowledgement frames sent to the
+     * broker. Note that, since a multiple-ack covers every outstanding delivery up to and
+     * including the acknowledged message, any message whose negative acknowledgement neither acks
+     * nor nacks it (i.e. when using {@value #NACKNOWLEDGER_TYPE_EMIT}) will be covered by the
+     * next multiple-ack. Defaults to false.
+     */
+    public static final String CUMULATIVE_ACKNOWLEDGEMENT_CONFIG = CONFIG_PREFIX + "cumulative.acknowledgement";
+
+    /**
+     * Optionally bounds the total size (in bytes of message bodies) of outstanding unacknowledged
+     * messages emitted per subscription, which limits how much message data is concurrently
+     * being processed downstream when message sizes vary widely. Note that this does NOT bound
+     * heap usage: the broker pushes deliveries up to {@link #QOS_CONFIG} regardless of this bound
+     * (RabbitMQ does not support byte-based prefetch), and those deliveries are buffered and
+     * deserialized before this bound is applied. Heap used by received messages is therefore only
+     * bounded by QoS multiplied by the largest message size. Unbounded by default.
+     */
+    public static final String MAX_IN_FLIGHT_BYTES_CONFIG = CONFIG_PREFIX + "max.in.flight.bytes";
+
+    /**
+     * Optionally enables adaptive limiting of the number of outstanding unacknowledged messages
+     * emitted per subscription when configured below {@link #QOS_CONFIG}. The limit starts at
+     * this value and adapts between it and QoS based on the latency with which messages are
+     * acknowledged, increasing while acknowledgement latency is stable and decreasing when it
+     * grows. Disabled by default.
+     */
+    public static final String MIN_IN_FLIGHT_CONFIG = CONFIG_PREFIX + "min.in.flight";
+
+    /**
+     * Optionally configures a deadline within which each emitted message must be acknowledged or
+     * nacknowledged. Messages that are still in flight when their deadline elapses are
+     * nacknowledged with an {@link io.atleon.core.AcknowledgementDeadlineExceededException},
+     * which is handled by the configured {@link #NACKNOWLEDGER_TYPE_CONFIG}. This keeps a lost or
+     * mishandled message from indefinitely holding QoS capacity. Specified as ISO-8601 Duration,
+     * e.g. PT5M. Disabled by default.
+     */
+    public static final String ACKNOWLEDGEMENT_DEADLINE_CONFIG = CONFIG_PREFIX + "ack.deadline";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(AloRabbitMQReceiver.class);
 
     private final RabbitMQConfigSource configSource;
@@ -149,11 +194,51 @@ public class AloRabbitMQReceiver<T> {
             AloFactory<ReceivedRabbitMQMessage<T>> aloFactory = loadAloFactory(queue);
             ErrorEmitter<Alo<ReceivedRabbitMQMessage<T>>> errorEmitter = newErrorEmitter();
             return Flux.using(this::newReceiver, it -> it.consumeManualAck(queue, newConsumeOptions()), Receiver::close)
-                .map(delivery -> deserialize(delivery, aloFactory, errorEmitter::safelyEmit))
+                .transform(deliveries -> toAloMessages(deliveries, aloFactory, errorEmitter::safelyEmit))
                 .transform(errorEmitter::applyTo)
                 .transform(aloMessages -> applySignalListenerFactories(aloMessages, queue));
         }
 
+        private Flux<Alo<ReceivedRabbitMQMessage<T>>> toAloMessages(
+            Flux<AcknowledgableDelivery> deliveries,
+            AloFactory<ReceivedRabbitMQMessage<T>> aloFactory,
+            Consumer<Throwable> errorEmitter
+        ) {
+            boolean cumulativeAcknowledgement = config.loadBoolean(CUMULATIVE_ACKNOWLEDGEMENT_CONFIG).orElse(false);
+            long maxInFlightBytes = config.loadLong(MAX_IN_FLIGHT_BYTES_CONFIG).orElse(Long.MAX_VALUE);
+            long minInFlight = config.loadLong(MIN_IN_FLIGHT_CONFIG).orElse(Long.MAX_VALUE);
+            Duration acknowledgementDeadline = config.loadDuration(ACKNOWLEDGEMENT_DEADLINE_CONFIG).orElse(null);
+            if (cumulativeAcknowledgement
+                || maxInFlightBytes != Long.MAX_VALUE
+                || minInFlight != Long.MAX_VALUE
+                || acknowledgementDeadline != null) {
+                // Deliveries (up to QoS) are already buffered and deserialized by the time in-flight
+                // bounds apply, so those bounds only limit downstream processing
+                return deliveries.map(delivery -> new DeserializedDelivery<>(delivery, deserialize(delivery)))
+                    .transform(newAloQueueingTransformer(cumulativeAcknowledgement, aloFactory, errorEmitter)
+                        .withMaxInFlight(minInFlight == Long.MAX_VALUE ? Long.MAX_VALUE : loadQos())
+                        .withMaxInFlightWeight(maxInFlightBytes)
+                        .withMinInFlight(minInFlight)
+                        .withAcknowledgementDeadline(acknowledgementDeadline));
+            } else {
+                return deliveries.map(delivery -> toAloMessage(delivery, aloFactory, errorEmitter));
+            }
+        }
+
+        private AloQueueingTransformer<DeserializedDelivery<T>, ReceivedRabbitMQMessage<T>> newAloQueueingTransformer(
+            boolean cumulativeAcknowledgement,
+            AloFactory<ReceivedRabbitMQMessage<T>> aloFactory,
+            Consumer<Throwable> errorEmitter
+        ) {
+            AloQueueingTransformer.AcknowledgementOrdering acknowledgementOrdering = cumulativeAcknowledgement
+                ? AloQueueingTransformer.AcknowledgementOrdering.ORDERED
+                : AloQueueingTransformer.AcknowledgementOrdering.UNORDERED;
+            return AloQueueingTransformer.create(newComponentExtractor(cumulativeAcknowledgement, errorEmitter))
+                .withAcknowledgementOrdering(acknowledgementOrdering)
+                .withFactory(aloFactory)
+                .withWeigher(it -> it.delivery.getBody().length);
+        }
+
         private AloFactory<ReceivedRabbitMQMessage<T>> loadAloFactory(String queue) {
             Map<String, Object> factoryConfig = config.modifyAndGetProperties(it ->
                 it.put(AloReceivedRabbitMQMessageDecorator.QUEUE_CONFIG, queue)
@@ -172,9 +257,13 @@ public class AloRabbitMQReceiver<T> {
             return new Receiver(receiverOptions);
         }
 
+        private int loadQos() {
+            return config.loadInt(QOS_CONFIG).orElse(Defaults.PREFETCH);
+        }
+
         private ConsumeOptions newConsumeOptions() {
             return new ConsumeOptions()
-                .qos(config.loadInt(QOS_CONFIG).orElse(Defaults.PREFETCH));
+                .qos(loadQos());
         }
 
         private Flux<Alo<ReceivedRabbitMQMessage<T>>>
@@ -190,25 +279,47 @@ public class AloRabbitMQReceiver<T> {
             return aloMessages;
         }
 
-        private Alo<ReceivedRabbitMQMessage<T>> deserialize(
+        private AloComponentExtractor<DeserializedDelivery<T>, ReceivedRabbitMQMessage<T>>
+        newComponentExtractor(boolean cumulativeAcknowledgement, Consumer<Throwable> errorEmitter) {
+            Function<DeserializedDelivery<T>, Consumer<? super Throwable>> nacknowledgerExtractor = it ->
+                nacknowledgerFactory.create(it.message, requeue -> nack(it.delivery, requeue, errorEmitter), errorEmitter);
+            if (cumulativeAcknowledgement) {
+                return AloComponentExtractor.composedCumulative(
+                    it -> () -> ack(it.delivery, true, errorEmitter),
+                    nacknowledgerExtractor,
+                    it -> it.message
+                );
+            } else {
+                return AloComponentExtractor.composed(
+                    it -> () -> ack(it.delivery, false, errorEmitter),
+                    nacknowledgerExtractor,
+                    it -> it.message
+                );
+            }
+        }
+
+        private Alo<ReceivedRabbitMQMessage<T>> toAloMessage(
             AcknowledgableDelivery delivery,
             AloFactory<ReceivedRabbitMQMessage<T>> aloFactory,
             Consumer<Throwable> errorEmitter
         ) {
+            ReceivedRabbitMQMessage<T> message = deserialize(delivery);
+            return aloFactory.create(
+                message,
+                () -> ack(delivery, false, errorEmitter),
+                nacknowledgerFactory.create(message, requeue -> nack(delivery, requeue, errorEmitter), errorEmitter)
+            );
+        }
+
+        private ReceivedRabbitMQMessage<T> deserialize(AcknowledgableDelivery delivery) {
             SerializedBody body = SerializedBody.ofBytes(delivery.getBody());
-            ReceivedRabbitMQMessage<T> message = new ReceivedRabbitMQMessage<>(
+            return new ReceivedRabbitMQMessage<>(
                 delivery.getEnvelope().getExchange(),
                 delivery.getEnvelope().getRoutingKey(),
                 delivery.getProperties(),
                 bodyDeserializer.deserialize(body),
                 delivery.getEnvelope().isRedeliver()
             );
-
-            return aloFactory.create(
-                message,
-                () -> ack(delivery, errorEmitter),
-                nacknowledgerFactory.create(message, requeue -> nack(delivery, requeue, errorEmitter), errorEmitter)
-            );
         }
 
         private static <T> NacknowledgerFactory<T> createNacknowledgerFactory(RabbitMQConfig config) {
@@ -247,9 +358,9 @@ public class AloRabbitMQReceiver<T> {
             }
         }
 
-        private static void ack(AcknowledgableDelivery delivery, Consumer<? super Throwable> errorEmitter) {
+        private static void ack(AcknowledgableDelivery delivery, boolean multiple, Consumer<? super Throwable> errorEmitter) {
             try {
-                delivery.ack(false);
+                delivery.ack(multiple);
             } catch (Throwable error) {
                 LOGGER.error("Failed to ack", error);
                 errorEmitter.accept(error);
@@ -265,4 +376,16 @@ public class AloRabbitMQReceiver<T> {
             }
         }
     }
+
+    private static final class DeserializedDelivery<T> {
+
+        private final AcknowledgableDelivery delivery;
+
+        private final ReceivedRabbitMQMessage<T> message;
+
+        public DeserializedDelivery(AcknowledgableDelivery delivery, ReceivedRabbitMQMessage<T> message) {
+            this.delivery = delivery;
+            this.message = message;
+        }
+    }
 }
@@ -45,6 +45,10 @@ public class RabbitMQConfig {
         return ConfigLoading.loadConfiguredWithPredefinedTypes(properties, key, type, predefinedTypeInstantiator);
     }
 
+    public Optional<Boolean> loadBoolean(String property) {
+        return ConfigLoading.loadBoolean(properties, property);
+    }
+
     public Optional<Duration> loadDuration(String property) {
         return ConfigLoading.loadDuration(properties, property);
     }
@@ -53,6 +57,10 @@ public class RabbitMQConfig {
         return ConfigLoading.loadInt(properties, property);
     }
 
+    public Optional<Long> loadLong(String property) {
+        return ConfigLoading.loadLong(properties, property);
+    }
+
     public <T> Optional<T> loadParseable(String property, Class<T> type, Function<? super String, T> parser) {
         return ConfigLoading.loadParseable(properties, property, type, parser);
     }